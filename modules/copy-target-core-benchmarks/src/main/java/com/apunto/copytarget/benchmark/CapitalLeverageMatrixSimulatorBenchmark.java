@@ -0,0 +1,52 @@
+package com.apunto.copytarget.benchmark;
+
+import com.apunto.copytarget.CalculationArithmetic;
+import com.apunto.copytarget.CapitalLeverageMatrixSimulator;
+import com.apunto.copytarget.CapitalLeverageScenario;
+import com.apunto.copytarget.TargetPortfolioCalculator;
+import com.apunto.copytarget.TargetPortfolioRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Matriz capital x leverage: {@link CapitalLeverageMatrixSimulator#SCENARIO_COUNT} cálculos por llamada. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CapitalLeverageMatrixSimulatorBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int legs;
+
+    @Param({"BIG_DECIMAL", "FIXED_POINT"})
+    public CalculationArithmetic arithmetic;
+
+    private CapitalLeverageMatrixSimulator simulator;
+    private TargetPortfolioRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        simulator = new CapitalLeverageMatrixSimulator(new TargetPortfolioCalculator(arithmetic));
+        request = PortfolioFixtures.portfolio(legs);
+    }
+
+    @Benchmark
+    public List<CapitalLeverageScenario> simulate() {
+        return simulator.simulate(request);
+    }
+}
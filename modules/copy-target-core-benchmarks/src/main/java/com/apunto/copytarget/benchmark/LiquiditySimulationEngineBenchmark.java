@@ -0,0 +1,78 @@
+package com.apunto.copytarget.benchmark;
+
+import com.apunto.copytarget.CapitalLeverageMatrixSimulator;
+import com.apunto.copytarget.LiquiditySimulationEngine;
+import com.apunto.copytarget.LiquiditySimulationRequest;
+import com.apunto.copytarget.LiquiditySimulationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Las cuatro estrategias de ejecución sobre el mismo book, como las pide la simulación. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class LiquiditySimulationEngineBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int levels;
+
+    private final LiquiditySimulationEngine engine = new LiquiditySimulationEngine();
+    private LiquiditySimulationRequest request;
+    private List<BigDecimal> bandNotionals;
+    private List<LiquiditySimulationRequest> bandRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = PortfolioFixtures.liquidity(levels);
+        BigDecimal visibleShare = request.requestedNotionalUsd()
+                .divide(CapitalLeverageMatrixSimulator.CAPITAL_BANDS.getLast(), MathContext.DECIMAL64);
+        bandNotionals = CapitalLeverageMatrixSimulator.CAPITAL_BANDS.stream()
+                .map(capital -> capital.multiply(visibleShare))
+                .toList();
+        bandRequests = new ArrayList<>();
+        for (BigDecimal notional : bandNotionals) {
+            bandRequests.add(new LiquiditySimulationRequest(request.orderBook(), request.side(), notional,
+                    request.assumptions(), request.modelVersion()));
+        }
+    }
+
+    @Benchmark
+    public List<LiquiditySimulationResult> simulateAll() {
+        return engine.simulateAll(request);
+    }
+
+    /** Las 11 bandas de capital contra el mismo book, una simulación por banda. */
+    @Benchmark
+    public List<List<LiquiditySimulationResult>> capitalBandsOneByOne() {
+        List<List<LiquiditySimulationResult>> results = new ArrayList<>(bandRequests.size());
+        for (LiquiditySimulationRequest bandRequest : bandRequests) {
+            results.add(engine.simulateAll(bandRequest));
+        }
+        return results;
+    }
+
+    /** Las mismas 11 bandas con una sola profundidad y un barrido. */
+    @Benchmark
+    public List<List<LiquiditySimulationResult>> capitalBandsSweep() {
+        return engine.simulateAll(request, bandNotionals);
+    }
+}
@@ -0,0 +1,151 @@
+package com.apunto.copytarget.benchmark;
+
+import com.apunto.copytarget.BinanceSymbolFilter;
+import com.apunto.copytarget.CalculationVersions;
+import com.apunto.copytarget.ExistingTargetPosition;
+import com.apunto.copytarget.LiquiditySimulationAssumptions;
+import com.apunto.copytarget.LiquiditySimulationRequest;
+import com.apunto.copytarget.OrderBookLevel;
+import com.apunto.copytarget.OrderBookSnapshot;
+import com.apunto.copytarget.SourcePosition;
+import com.apunto.copytarget.SourceSide;
+import com.apunto.copytarget.TargetPortfolioRequest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Datos de entrada deterministas para los benchmarks. Imitan una wallet fuente real: notionals
+ * con cola larga, precios de varios órdenes de magnitud, lados mezclados y parte de las patas ya
+ * abiertas en el target, para que el cálculo pase por abrir, ajustar y cerrar.
+ */
+final class PortfolioFixtures {
+
+    static final Instant NOW = Instant.parse("2026-07-13T12:00:00Z");
+
+    private static final long SEED = 42L;
+    private static final BigDecimal[] PRICE_ANCHORS = {
+            bd("0.0421"), bd("0.7315"), bd("3.912"), bd("27.45"), bd("148.3"), bd("2431.7"), bd("64210.5")
+    };
+    private static final BigDecimal[] STEP_SIZES = {
+            bd("1"), bd("1"), bd("0.1"), bd("0.01"), bd("0.01"), bd("0.001"), bd("0.001")
+    };
+
+    private PortfolioFixtures() {
+    }
+
+    static TargetPortfolioRequest portfolio(int legs) {
+        SplittableRandom random = new SplittableRandom(SEED + legs);
+        List<SourcePosition> positions = new ArrayList<>(legs);
+        List<BinanceSymbolFilter> filters = new ArrayList<>(legs);
+        List<ExistingTargetPosition> existing = new ArrayList<>();
+        BigDecimal totalMargin = BigDecimal.ZERO;
+        for (int i = 0; i < legs; i++) {
+            int anchor = i % PRICE_ANCHORS.length;
+            String symbol = "SYM" + i + "USDT";
+            SourceSide side = random.nextInt(4) == 0 ? SourceSide.SHORT : SourceSide.LONG;
+            BigDecimal price = PRICE_ANCHORS[anchor]
+                    .multiply(BigDecimal.valueOf(0.8 + random.nextDouble() * 0.4))
+                    .setScale(6, RoundingMode.HALF_UP);
+            // Pareto aproximado: pocas patas grandes y muchas chicas.
+            BigDecimal notional = BigDecimal.valueOf(500.0 / Math.pow(1.0 - random.nextDouble(), 0.8))
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal leverage = BigDecimal.valueOf(3 + random.nextInt(18));
+            BigDecimal margin = notional.divide(leverage, 8, RoundingMode.DOWN);
+            totalMargin = totalMargin.add(margin);
+            positions.add(new SourcePosition(
+                    "leg-" + i,
+                    "SYM" + i,
+                    symbol,
+                    side,
+                    notional.divide(price, 8, RoundingMode.DOWN),
+                    notional,
+                    margin,
+                    price,
+                    price.multiply(bd("0.98")),
+                    leverage,
+                    42L,
+                    BigDecimal.valueOf(40 + random.nextInt(61))
+            ));
+            filters.add(new BinanceSymbolFilter(
+                    symbol, true, "USDT",
+                    STEP_SIZES[anchor], bd("1000000"), STEP_SIZES[anchor],
+                    bd("5"), bd("0.0001"), bd("50"), bd("100")));
+            if (i % 3 == 0) {
+                existing.add(new ExistingTargetPosition(
+                        symbol, side, STEP_SIZES[anchor].multiply(BigDecimal.valueOf(1 + random.nextInt(5))),
+                        price, bd("2")));
+            }
+        }
+        existing.add(new ExistingTargetPosition("STALEUSDT", SourceSide.LONG, bd("1"), bd("10"), bd("2")));
+        filters.add(new BinanceSymbolFilter(
+                "STALEUSDT", true, "USDT", bd("0.1"), bd("1000000"), bd("0.1"),
+                bd("5"), bd("0.001"), bd("50"), bd("100")));
+
+        return TargetPortfolioRequest.builder()
+                .calculatedAt(NOW)
+                .sourceAccountEquityUsd(totalMargin.multiply(bd("1.6")))
+                .equityObservedAt(NOW.minusSeconds(2))
+                .equitySource("HYPERLIQUID_CLEARINGHOUSE_MARGIN_SUMMARY")
+                .maximumEquityAge(Duration.ofSeconds(30))
+                .sourceSnapshotVersion(42L)
+                .sourcePositions(positions)
+                .targetAllocatedCapitalUsd(bd("1000"))
+                .targetLeverage(bd("10"))
+                .availableMarginUsd(bd("1000"))
+                .usedMarginUsd(BigDecimal.ZERO)
+                .reservedMarginUsd(BigDecimal.ZERO)
+                .existingPositions(existing)
+                .filters(filters)
+                .quoteAsset("USDT")
+                .userMaxConcurrentPositions(null)
+                .versions(new CalculationVersions("strategy-v3", "sizing-v3", "symbols-v3"))
+                .build();
+    }
+
+    /**
+     * Book simétrico alrededor de 64210.5 con tick de 0.1 y cantidades irregulares. El notional
+     * pedido consume cerca de un cuarto del lado visible, así el recorrido no corta en el primer
+     * nivel.
+     */
+    static LiquiditySimulationRequest liquidity(int levels) {
+        SplittableRandom random = new SplittableRandom(SEED + levels);
+        BigDecimal mid = bd("64210.5");
+        BigDecimal tick = bd("0.1");
+        List<OrderBookLevel> bids = new ArrayList<>(levels);
+        List<OrderBookLevel> asks = new ArrayList<>(levels);
+        BigDecimal askNotional = BigDecimal.ZERO;
+        long bidTicks = 0L;
+        long askTicks = 0L;
+        for (int i = 0; i < levels; i++) {
+            // Huecos de 1 a 3 ticks entre niveles, como un book real de perpetuos.
+            bidTicks += 1 + random.nextInt(3);
+            askTicks += 1 + random.nextInt(3);
+            BigDecimal bidQty = BigDecimal.valueOf(0.002 + random.nextDouble() * 1.5).setScale(3, RoundingMode.HALF_UP);
+            BigDecimal askQty = BigDecimal.valueOf(0.002 + random.nextDouble() * 1.5).setScale(3, RoundingMode.HALF_UP);
+            BigDecimal askPrice = mid.add(tick.multiply(BigDecimal.valueOf(askTicks)));
+            bids.add(new OrderBookLevel(mid.subtract(tick.multiply(BigDecimal.valueOf(bidTicks))), bidQty));
+            asks.add(new OrderBookLevel(askPrice, askQty));
+            askNotional = askNotional.add(askPrice.multiply(askQty));
+        }
+        OrderBookSnapshot book = new OrderBookSnapshot(
+                "BTCUSDT", NOW, "BINANCE_FAPI_DEPTH", 881L, bids, asks);
+        return new LiquiditySimulationRequest(
+                book,
+                SourceSide.LONG,
+                askNotional.divide(bd("4"), 2, RoundingMode.DOWN),
+                new LiquiditySimulationAssumptions(
+                        bd("0.50"), bd("0.10"), 10, 1_000L, bd("0.15"), bd("2"),
+                        100L, 6_500L, bd("4"), bd("1")),
+                "liquidity-v3");
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value);
+    }
+}
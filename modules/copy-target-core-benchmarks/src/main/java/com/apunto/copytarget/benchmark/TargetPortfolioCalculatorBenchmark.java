@@ -0,0 +1,50 @@
+package com.apunto.copytarget.benchmark;
+
+import com.apunto.copytarget.CalculationArithmetic;
+import com.apunto.copytarget.TargetPortfolioCalculator;
+import com.apunto.copytarget.TargetPortfolioRequest;
+import com.apunto.copytarget.TargetPortfolioResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Sizing de un portafolio completo, el camino que corre por cada snapshot de la wallet fuente. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TargetPortfolioCalculatorBenchmark {
+
+    @Param({"1", "10", "50", "200"})
+    public int legs;
+
+    @Param({"BIG_DECIMAL", "FIXED_POINT"})
+    public CalculationArithmetic arithmetic;
+
+    private TargetPortfolioCalculator calculator;
+    private TargetPortfolioRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calculator = new TargetPortfolioCalculator(arithmetic);
+        request = PortfolioFixtures.portfolio(legs);
+    }
+
+    @Benchmark
+    public TargetPortfolioResult calculate() {
+        return calculator.calculate(request);
+    }
+}
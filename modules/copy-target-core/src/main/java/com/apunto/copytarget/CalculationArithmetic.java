@@ -0,0 +1,11 @@
+package com.apunto.copytarget;
+
+/**
+ * Number representation used by {@link TargetPortfolioCalculator}. {@code FIXED_POINT} sizes legs
+ * with scaled {@code long} values and falls back to {@code BIG_DECIMAL} for any leg that does not
+ * fit; both produce identical results.
+ */
+public enum CalculationArithmetic {
+    BIG_DECIMAL,
+    FIXED_POINT
+}
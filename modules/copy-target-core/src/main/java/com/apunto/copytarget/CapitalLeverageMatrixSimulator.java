@@ -4,7 +4,14 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+/**
+ * Sizes one source snapshot at every capital x leverage band. The capital-independent part of
+ * the calculation runs once per snapshot; with a pool the 44 scenarios are sized on it, bounded
+ * by its parallelism, otherwise on the calling thread.
+ */
 public final class CapitalLeverageMatrixSimulator {
 
     public static final List<BigDecimal> CAPITAL_BANDS = decimals(
@@ -12,55 +19,85 @@ public final class CapitalLeverageMatrixSimulator {
             "100000", "250000", "500000", "1000000");
     public static final List<BigDecimal> LEVERAGE_BANDS = decimals("5", "10", "15", "20");
     public static final int SCENARIO_COUNT = CAPITAL_BANDS.size() * LEVERAGE_BANDS.size();
+    private static final List<BigDecimal> LATENCY_GRID_SECONDS = decimals("0.5", "1", "2", "5", "10", "30");
 
     private final TargetPortfolioCalculator calculator;
+    private final ForkJoinPool pool;
 
     public CapitalLeverageMatrixSimulator(TargetPortfolioCalculator calculator) {
+        this(calculator, null);
+    }
+
+    /** {@code pool} may be {@code null}; the caller owns it and shuts it down. */
+    public CapitalLeverageMatrixSimulator(TargetPortfolioCalculator calculator, ForkJoinPool pool) {
         this.calculator = Objects.requireNonNull(calculator, "calculator");
+        this.pool = pool;
     }
 
     public List<CapitalLeverageScenario> simulate(TargetPortfolioRequest sourceSnapshot) {
         Objects.requireNonNull(sourceSnapshot, "sourceSnapshot");
+        TargetPortfolioCalculator.PreparedPortfolio prepared = calculator.prepare(
+                simulationRequest(sourceSnapshot, CAPITAL_BANDS.getFirst(), LEVERAGE_BANDS.getFirst()));
         List<CapitalLeverageScenario> scenarios = new ArrayList<>(SCENARIO_COUNT);
+        if (pool == null) {
+            for (BigDecimal capital : CAPITAL_BANDS) {
+                for (BigDecimal leverage : LEVERAGE_BANDS) {
+                    scenarios.add(scenario(prepared, sourceSnapshot, capital, leverage));
+                }
+            }
+            return List.copyOf(scenarios);
+        }
+        List<ForkJoinTask<CapitalLeverageScenario>> tasks = new ArrayList<>(SCENARIO_COUNT);
         for (BigDecimal capital : CAPITAL_BANDS) {
             for (BigDecimal leverage : LEVERAGE_BANDS) {
-                TargetPortfolioResult result = calculator.calculate(simulationRequest(sourceSnapshot, capital, leverage));
-                BigDecimal roundingLoss = result.allLegs().stream()
-                        .map(TargetLegDecision::roundingLossUsd)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                int minNotionalSkips = (int) result.omittedLegs().stream()
-                        .filter(leg -> leg.decisionCode() == DecisionCode.SKIPPED_BELOW_MIN_NOTIONAL)
-                        .count();
-                scenarios.add(new CapitalLeverageScenario(
-                        capital,
-                        leverage,
-                        result.totalTargetNotionalUsd(),
-                        result.totalTargetMarginUsd(),
-                        result.selectedLegs().size(),
-                        result.omittedLegs().size(),
-                        result.movementCoverage(),
-                        result.notionalCoverage(),
-                        result.exposureCoverage(),
-                        roundingLoss,
-                        minNotionalSkips,
-                        null,
-                        null,
-                        null,
-                        null,
-                        null,
-                        null,
-                        null,
-                        null,
-                        modeledEconomicsStatus(result),
-                        economicEvidence(result),
-                        true,
-                        result
-                ));
+                tasks.add(pool.submit(() -> scenario(prepared, sourceSnapshot, capital, leverage)));
             }
         }
+        for (ForkJoinTask<CapitalLeverageScenario> task : tasks) {
+            scenarios.add(task.join());
+        }
         return List.copyOf(scenarios);
     }
 
+    private CapitalLeverageScenario scenario(TargetPortfolioCalculator.PreparedPortfolio prepared,
+                                             TargetPortfolioRequest sourceSnapshot,
+                                             BigDecimal capital,
+                                             BigDecimal leverage) {
+        TargetPortfolioResult result = calculator.calculate(
+                prepared, simulationRequest(sourceSnapshot, capital, leverage));
+        BigDecimal roundingLoss = result.allLegs().stream()
+                .map(TargetLegDecision::roundingLossUsd)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int minNotionalSkips = (int) result.omittedLegs().stream()
+                .filter(leg -> leg.decisionCode() == DecisionCode.SKIPPED_BELOW_MIN_NOTIONAL)
+                .count();
+        return new CapitalLeverageScenario(
+                capital,
+                leverage,
+                result.totalTargetNotionalUsd(),
+                result.totalTargetMarginUsd(),
+                result.selectedLegs().size(),
+                result.omittedLegs().size(),
+                result.movementCoverage(),
+                result.notionalCoverage(),
+                result.exposureCoverage(),
+                roundingLoss,
+                minNotionalSkips,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                modeledEconomicsStatus(result),
+                economicEvidence(result),
+                true,
+                result
+        );
+    }
+
     private String modeledEconomicsStatus(TargetPortfolioResult result) {
         return switch (result.portfolioDecisionCode()) {
             case BLOCKED_SOURCE_EQUITY_MISSING,
@@ -90,7 +127,7 @@ public final class CapitalLeverageMatrixSimulator {
         }
         return new ScenarioEconomicEvidence(
                 null, null, null, null, null, null,
-                decimals("0.5", "1", "2", "5", "10", "30"),
+                LATENCY_GRID_SECONDS,
                 null, null, null, null, null, null, null, null, null, null, null,
                 "UNKNOWN", reasons);
     }
@@ -0,0 +1,298 @@
+package com.apunto.copytarget;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact decimal {@code unscaled x 10^-scale} backed by a {@code long}, always stripped of trailing
+ * zeros so {@link #toBigDecimal()} matches {@link DecimalSupport#normalize(BigDecimal)}.
+ * Every operation either returns the exact {@link BigDecimal} result or throws
+ * {@link ArithmeticException}; callers treat that as the signal to redo the work in BigDecimal.
+ */
+record FixedDecimal(long unscaled, int scale) {
+
+    static final FixedDecimal ZERO = new FixedDecimal(0L, 0);
+    static final FixedDecimal ONE = new FixedDecimal(1L, 0);
+
+    private static final int MAX_DIGITS = 18;
+    private static final ArithmeticException OVERFLOW = new Overflow();
+    private static final long[] POW10 = new long[MAX_DIGITS + 1];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10L;
+        }
+    }
+
+    static FixedDecimal of(BigDecimal value) {
+        if (value.signum() == 0) {
+            return ZERO;
+        }
+        if (value.precision() > MAX_DIGITS) {
+            throw overflow();
+        }
+        return stripped(value.scaleByPowerOfTen(value.scale()).longValueExact(), value.scale());
+    }
+
+    BigDecimal toBigDecimal() {
+        return unscaled == 0L ? DecimalSupport.ZERO : BigDecimal.valueOf(unscaled, scale);
+    }
+
+    int signum() {
+        return Long.signum(unscaled);
+    }
+
+    int compareTo(FixedDecimal other) {
+        if (signum() != other.signum()) {
+            return Integer.compare(signum(), other.signum());
+        }
+        if (scale == other.scale) {
+            return Long.compare(unscaled, other.unscaled);
+        }
+        int common = Math.max(scale, other.scale);
+        return Long.compare(rescale(unscaled, common - scale), rescale(other.unscaled, common - other.scale));
+    }
+
+    FixedDecimal max(FixedDecimal other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    FixedDecimal abs() {
+        return unscaled < 0L ? new FixedDecimal(-unscaled, scale) : this;
+    }
+
+    FixedDecimal negate() {
+        return new FixedDecimal(-unscaled, scale);
+    }
+
+    FixedDecimal add(FixedDecimal other) {
+        int common = Math.max(scale, other.scale);
+        return stripped(addExact(rescale(unscaled, common - scale), rescale(other.unscaled, common - other.scale)),
+                common);
+    }
+
+    FixedDecimal subtract(FixedDecimal other) {
+        return add(other.negate());
+    }
+
+    FixedDecimal multiply(FixedDecimal other) {
+        if (unscaled == 0L || other.unscaled == 0L) {
+            return ZERO;
+        }
+        return stripped(multiplyExact(unscaled, other.unscaled), Math.addExact(scale, other.scale));
+    }
+
+    /** Same contract as {@link DecimalSupport#divideDown(BigDecimal, BigDecimal)}. */
+    static FixedDecimal divideDown(FixedDecimal numerator, FixedDecimal denominator) {
+        if (denominator.signum() <= 0 || numerator.signum() == 0) {
+            return ZERO;
+        }
+        Wide quotient = wideQuotient(Math.abs(numerator.unscaled),
+                DecimalSupport.SCALE - numerator.scale + denominator.scale, denominator.unscaled);
+        long high = quotient.high();
+        long low = quotient.low();
+        int scale = DecimalSupport.SCALE;
+        // 16.005 at scale 18 is 16005 x 10^15, past Long.MAX_VALUE; those zeros are stripped anyway.
+        while (high != 0L || low < 0L) {
+            long highTenth = Long.divideUnsigned(high, 10L);
+            long lowTenth = divide128(Long.remainderUnsigned(high, 10L), low, 10L);
+            if (low - lowTenth * 10L != 0L) {
+                throw overflow();
+            }
+            high = highTenth;
+            low = lowTenth;
+            scale--;
+        }
+        return stripped(numerator.unscaled < 0L ? -low : low, scale);
+    }
+
+    /** Same contract as {@link DecimalSupport#floorToStep(BigDecimal, BigDecimal)}. */
+    static FixedDecimal floorToStep(FixedDecimal value, FixedDecimal step) {
+        if (value.signum() <= 0) {
+            return ZERO;
+        }
+        if (step.signum() <= 0) {
+            return value;
+        }
+        long units = truncatedQuotient(value.unscaled, step.scale - value.scale, step.unscaled);
+        return units == 0L ? ZERO : stripped(multiplyExact(units, step.unscaled), step.scale);
+    }
+
+    /**
+     * {@code divideDown(numerator, denominator)} split into whole steps and the remainder below one
+     * step, without materialising the 18-decimal quotient: it may need more than 64 bits while
+     * both parts fit. Requires a non-negative numerator and positive denominator and step.
+     */
+    static Quantized quantize(FixedDecimal numerator, FixedDecimal denominator, FixedDecimal step) {
+        int stepDigits = DecimalSupport.SCALE - step.scale;
+        if (stepDigits < 0 || numerator.signum() < 0 || denominator.signum() <= 0 || step.signum() <= 0) {
+            throw overflow();
+        }
+        long stepUnits = multiplyExact(step.unscaled, pow10(stepDigits));
+        Wide quotient = wideQuotient(numerator.unscaled,
+                DecimalSupport.SCALE - numerator.scale + denominator.scale, denominator.unscaled);
+        long high = quotient.high();
+        long low = quotient.low();
+        if (Long.compareUnsigned(high, stepUnits) >= 0) {
+            throw overflow();
+        }
+        long units = divide128(high, low, stepUnits);
+        if (units < 0L) {
+            throw overflow();
+        }
+        long remainder = low - units * stepUnits;
+        return new Quantized(
+                units == 0L ? ZERO : stripped(multiplyExact(units, step.unscaled), step.scale),
+                stripped(remainder, DecimalSupport.SCALE));
+    }
+
+    /** {@code rounded + remainder} is the 18-decimal quotient; {@code remainder} is below one step. */
+    record Quantized(FixedDecimal rounded, FixedDecimal remainder) {
+
+        BigDecimal quotient() {
+            try {
+                return rounded.add(remainder).toBigDecimal();
+            } catch (ArithmeticException overflow) {
+                return DecimalSupport.normalize(rounded.toBigDecimal().add(remainder.toBigDecimal()));
+            }
+        }
+
+        /** {@code quotient < limit} without adding both parts. */
+        boolean quotientBelow(FixedDecimal limit) {
+            FixedDecimal gap = limit.subtract(rounded);
+            return gap.signum() > 0 && remainder.compareTo(gap) < 0;
+        }
+    }
+
+    /**
+     * {@code trunc(numerator x 10^exponent / denominator)} for a non-negative numerator and a
+     * positive denominator; the result has to fit a {@code long}.
+     */
+    private static long truncatedQuotient(long numerator, int exponent, long denominator) {
+        Wide quotient = wideQuotient(numerator, exponent, denominator);
+        if (quotient.high() != 0L || quotient.low() < 0L) {
+            throw overflow();
+        }
+        return quotient.low();
+    }
+
+    /** Same as {@link #truncatedQuotient} but with the whole 128-bit unsigned quotient. */
+    private static Wide wideQuotient(long numerator, int exponent, long denominator) {
+        if (exponent < 0) {
+            if (-exponent > MAX_DIGITS || denominator > Long.MAX_VALUE / POW10[-exponent]) {
+                // denominator x 10^-exponent is beyond any long numerator.
+                return Wide.ZERO;
+            }
+            return new Wide(0L, numerator / (denominator * POW10[-exponent]));
+        }
+        if (exponent > MAX_DIGITS) {
+            numerator = multiplyExact(numerator, pow10(exponent - MAX_DIGITS));
+            exponent = MAX_DIGITS;
+        }
+        long factor = POW10[exponent];
+        long high = Math.multiplyHigh(numerator, factor);
+        long low = numerator * factor;
+        if (high == 0L && low >= 0L) {
+            return new Wide(0L, low / denominator);
+        }
+        // Two 128/64 divisions, like long division with 64-bit digits.
+        return new Wide(Long.divideUnsigned(high, denominator),
+                divide128(Long.remainderUnsigned(high, denominator), low, denominator));
+    }
+
+    /**
+     * Unsigned {@code (high x 2^64 + low) / divisor} with {@code high < divisor}; Hacker's Delight
+     * divlu with 32-bit digits.
+     */
+    static long divide128(long high, long low, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & 0xFFFF_FFFFL;
+        long u32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long u10 = low << shift;
+        long u1 = u10 >>> 32;
+        long u0 = u10 & 0xFFFF_FFFFL;
+
+        long q1 = Long.divideUnsigned(u32, vHigh);
+        long rhat = Long.remainderUnsigned(u32, vHigh);
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * vLow, base * rhat + u1) > 0) {
+            q1--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        long u21 = u32 * base + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, vHigh);
+        rhat = Long.remainderUnsigned(u21, vHigh);
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * vLow, base * rhat + u0) > 0) {
+            q0--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return q1 * base + q0;
+    }
+
+    private record Wide(long high, long low) {
+        static final Wide ZERO = new Wide(0L, 0L);
+    }
+
+    private static FixedDecimal stripped(long unscaled, int scale) {
+        if (unscaled == 0L) {
+            return ZERO;
+        }
+        while (unscaled % 10L == 0L) {
+            unscaled /= 10L;
+            scale--;
+        }
+        return new FixedDecimal(unscaled, scale);
+    }
+
+    private static long rescale(long unscaled, int digits) {
+        return digits == 0 || unscaled == 0L ? unscaled : multiplyExact(unscaled, pow10(digits));
+    }
+
+    private static long addExact(long left, long right) {
+        long sum = left + right;
+        if (((left ^ sum) & (right ^ sum)) < 0L) {
+            throw overflow();
+        }
+        return sum;
+    }
+
+    private static long multiplyExact(long left, long right) {
+        long high = Math.multiplyHigh(left, right);
+        long low = left * right;
+        if ((high != 0L || low < 0L) && (high != -1L || low >= 0L)) {
+            throw overflow();
+        }
+        return low;
+    }
+
+    private static long pow10(int digits) {
+        if (digits > MAX_DIGITS) {
+            throw overflow();
+        }
+        return POW10[digits];
+    }
+
+    private static ArithmeticException overflow() {
+        return OVERFLOW;
+    }
+
+    /** Shared and without stack trace: it is an expected fallback signal, not an error. */
+    private static final class Overflow extends ArithmeticException {
+        private Overflow() {
+            super("fixed-point overflow");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -13,37 +13,83 @@ public final class LiquiditySimulationEngine {
     private static final MathContext MC = new MathContext(34, RoundingMode.HALF_UP);
 
     public List<LiquiditySimulationResult> simulateAll(LiquiditySimulationRequest request) {
+        return simulateAll(OrderBookDepth.of(request), request);
+    }
+
+    /** Same as {@link #simulateAll(LiquiditySimulationRequest)} on a depth already built for it. */
+    public List<LiquiditySimulationResult> simulateAll(OrderBookDepth depth, LiquiditySimulationRequest request) {
+        requireMatching(depth, request);
         List<LiquiditySimulationResult> results = new ArrayList<>(4);
         for (LiquidityExecutionStrategy strategy : LiquidityExecutionStrategy.values()) {
-            results.add(simulate(request, strategy));
+            results.add(simulate(depth, request, strategy));
+        }
+        return List.copyOf(results);
+    }
+
+    /**
+     * Every strategy for each of {@code requestedNotionals} against the book of {@code request}:
+     * the depth is built once and all fills are taken in one pass. Entry {@code i} equals
+     * {@link #simulateAll(LiquiditySimulationRequest)} with {@code requestedNotionals.get(i)}.
+     */
+    public List<List<LiquiditySimulationResult>> simulateAll(LiquiditySimulationRequest request,
+                                                             List<BigDecimal> requestedNotionals) {
+        OrderBookDepth depth = OrderBookDepth.of(request);
+        LiquidityExecutionStrategy[] strategies = LiquidityExecutionStrategy.values();
+        List<LiquiditySimulationRequest> requests = new ArrayList<>(requestedNotionals.size());
+        for (BigDecimal notional : requestedNotionals) {
+            requests.add(new LiquiditySimulationRequest(
+                    request.orderBook(), request.side(), notional, request.assumptions(), request.modelVersion()));
+        }
+        if (depth.isEmpty()) {
+            List<List<LiquiditySimulationResult>> results = new ArrayList<>(requests.size());
+            for (LiquiditySimulationRequest notionalRequest : requests) {
+                results.add(simulateAll(depth, notionalRequest));
+            }
+            return List.copyOf(results);
+        }
+
+        List<StrategyPlan> plans = new ArrayList<>(strategies.length);
+        for (LiquidityExecutionStrategy strategy : strategies) {
+            plans.add(plan(depth, strategy));
+        }
+        List<BigDecimal> desiredNotionals = new ArrayList<>(requests.size() * strategies.length);
+        for (LiquiditySimulationRequest notionalRequest : requests) {
+            for (StrategyPlan plan : plans) {
+                desiredNotionals.add(notionalRequest.requestedNotionalUsd().min(plan.capacity()));
+            }
+        }
+        List<OrderBookDepth.Fill> fills = depth.fillAll(desiredNotionals);
+        List<List<LiquiditySimulationResult>> results = new ArrayList<>(requests.size());
+        int fill = 0;
+        for (LiquiditySimulationRequest notionalRequest : requests) {
+            List<LiquiditySimulationResult> strategyResults = new ArrayList<>(strategies.length);
+            for (StrategyPlan plan : plans) {
+                strategyResults.add(result(depth, notionalRequest, plan, fills.get(fill++)));
+            }
+            results.add(List.copyOf(strategyResults));
         }
         return List.copyOf(results);
     }
 
     public LiquiditySimulationResult simulate(LiquiditySimulationRequest request,
                                               LiquidityExecutionStrategy strategy) {
-        List<OrderBookLevel> levels = request.side() == SourceSide.LONG
-                ? request.orderBook().asks()
-                : request.orderBook().bids();
-        if (levels.isEmpty()) {
-            return noBook(request, strategy);
-        }
+        return simulate(OrderBookDepth.of(request), request, strategy);
+    }
 
-        LiquiditySimulationAssumptions assumptions = request.assumptions();
-        BigDecimal survival = BigDecimal.ONE.subtract(assumptions.disappearingLiquidityPct(), MC);
-        BigDecimal adverseFactor = assumptions.adverseSelectionBps().divide(BPS, MC);
-        BigDecimal totalVisibleNotional = BigDecimal.ZERO;
-        List<EffectiveLevel> effectiveLevels = new ArrayList<>(levels.size());
-        for (OrderBookLevel level : levels) {
-            BigDecimal effectivePrice = request.side() == SourceSide.LONG
-                    ? level.price().multiply(BigDecimal.ONE.add(adverseFactor, MC), MC)
-                    : level.price().multiply(BigDecimal.ONE.subtract(adverseFactor, MC), MC);
-            BigDecimal effectiveQuantity = level.quantity().multiply(survival, MC);
-            BigDecimal notional = effectivePrice.multiply(effectiveQuantity, MC);
-            totalVisibleNotional = totalVisibleNotional.add(notional, MC);
-            effectiveLevels.add(new EffectiveLevel(effectivePrice, effectiveQuantity));
+    private LiquiditySimulationResult simulate(OrderBookDepth depth,
+                                               LiquiditySimulationRequest request,
+                                               LiquidityExecutionStrategy strategy) {
+        if (depth.isEmpty()) {
+            return noBook(request, strategy);
         }
+        StrategyPlan plan = plan(depth, strategy);
+        return result(depth, request, plan,
+                depth.fill(request.requestedNotionalUsd().min(plan.capacity())));
+    }
 
+    /** Duration and notional capacity of a strategy; they depend on the book, not on the notional. */
+    private StrategyPlan plan(OrderBookDepth depth, LiquidityExecutionStrategy strategy) {
+        LiquiditySimulationAssumptions assumptions = depth.assumptions();
         int plannedSlices = strategy == LiquidityExecutionStrategy.SINGLE_MARKET
                 ? 1
                 : assumptions.fragmentCount();
@@ -55,6 +101,7 @@ public final class LiquiditySimulationEngine {
                 ? Math.min(plannedDuration, assumptions.sourceCloseAfterMillis())
                 : plannedDuration;
 
+        BigDecimal totalVisibleNotional = depth.totalNotional();
         BigDecimal maxDepthCapacity = totalVisibleNotional
                 .multiply(assumptions.maximumDepthConsumptionPct(), MC);
         BigDecimal temporalCapacity = maxDepthCapacity;
@@ -68,43 +115,36 @@ public final class LiquiditySimulationEngine {
                     .multiply(BigDecimal.valueOf(completedSlices), MC);
             temporalCapacity = temporalCapacity.min(participationCapacity);
         }
-        BigDecimal desiredNotional = request.requestedNotionalUsd().min(temporalCapacity);
-
-        BigDecimal remaining = desiredNotional;
-        BigDecimal filled = BigDecimal.ZERO;
-        BigDecimal filledQuantity = BigDecimal.ZERO;
-        for (EffectiveLevel level : effectiveLevels) {
-            if (remaining.signum() <= 0) {
-                break;
-            }
-            BigDecimal levelNotional = level.price().multiply(level.quantity(), MC);
-            BigDecimal quoteTaken = remaining.min(levelNotional);
-            BigDecimal quantityTaken = quoteTaken.divide(level.price(), MC);
-            filled = filled.add(quoteTaken, MC);
-            filledQuantity = filledQuantity.add(quantityTaken, MC);
-            remaining = remaining.subtract(quoteTaken, MC);
-        }
+        return new StrategyPlan(strategy, duration, sourceClosed, temporalCapacity);
+    }
 
+    private LiquiditySimulationResult result(OrderBookDepth depth,
+                                             LiquiditySimulationRequest request,
+                                             StrategyPlan plan,
+                                             OrderBookDepth.Fill fill) {
+        LiquiditySimulationAssumptions assumptions = request.assumptions();
+        BigDecimal filled = fill.notional();
+        BigDecimal filledQuantity = fill.quantity();
         BigDecimal unfilled = request.requestedNotionalUsd().subtract(filled, MC).max(BigDecimal.ZERO);
         BigDecimal vwap = filledQuantity.signum() == 0 ? null : filled.divide(filledQuantity, MC);
-        BigDecimal bestPrice = levels.getFirst().price();
+        BigDecimal bestPrice = depth.bestPrice();
         BigDecimal slippageBps = vwap == null
                 ? null
                 : adverseSlippageBps(request.side(), bestPrice, vwap);
-        BigDecimal depthConsumed = ratio(filled, totalVisibleNotional);
+        BigDecimal depthConsumed = ratio(filled, depth.totalNotional());
         BigDecimal fillPercentage = ratio(filled, request.requestedNotionalUsd());
         BigDecimal fees = filled.multiply(assumptions.takerFeeBps(), MC).divide(BPS, MC);
         BigDecimal funding = filled
                 .multiply(assumptions.fundingBpsPerEightHours(), MC)
                 .divide(BPS, MC)
-                .multiply(BigDecimal.valueOf(duration), MC)
+                .multiply(BigDecimal.valueOf(plan.duration()), MC)
                 .divide(EIGHT_HOURS_MILLIS, MC);
         LiquiditySimulationStatus status = filled.compareTo(request.requestedNotionalUsd()) >= 0
                 ? LiquiditySimulationStatus.ESTIMATED
                 : LiquiditySimulationStatus.INSUFFICIENT_DEPTH;
 
         return new LiquiditySimulationResult(
-                strategy,
+                plan.strategy(),
                 status,
                 request.requestedNotionalUsd(),
                 filled,
@@ -114,12 +154,12 @@ public final class LiquiditySimulationEngine {
                 slippageBps,
                 depthConsumed,
                 fillPercentage,
-                duration,
+                plan.duration(),
                 depthConsumed,
                 fees,
                 funding,
                 assumptions.adverseSelectionBps(),
-                sourceClosed,
+                plan.sourceClosed(),
                 LiquidityEvidenceLevel.SIMULATED,
                 false,
                 request.orderBook().capturedAt(),
@@ -127,6 +167,12 @@ public final class LiquiditySimulationEngine {
         );
     }
 
+    private void requireMatching(OrderBookDepth depth, LiquiditySimulationRequest request) {
+        if (!depth.matches(request)) {
+            throw new IllegalArgumentException("order book depth was built for another book, side or assumptions");
+        }
+    }
+
     private int completedSlices(LiquiditySimulationAssumptions assumptions, int plannedSlices) {
         if (assumptions.sourceCloseAfterMillis() == null || plannedSlices == 1) {
             return plannedSlices;
@@ -182,6 +228,9 @@ public final class LiquiditySimulationEngine {
         );
     }
 
-    private record EffectiveLevel(BigDecimal price, BigDecimal quantity) {
+    private record StrategyPlan(LiquidityExecutionStrategy strategy,
+                                long duration,
+                                boolean sourceClosed,
+                                BigDecimal capacity) {
     }
 }
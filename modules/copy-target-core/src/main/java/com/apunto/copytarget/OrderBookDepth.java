@@ -0,0 +1,172 @@
+package com.apunto.copytarget;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One side of an {@link OrderBookSnapshot} after the liquidity assumptions (adverse selection and
+ * disappearing liquidity), with cumulative effective notional and quantity per level.
+ *
+ * <p>Built once per book, side and assumptions and shared by every strategy and requested
+ * notional. A fill finds its boundary level by binary search and only divides on that level; the
+ * cumulative arrays repeat the additions of a level-by-level walk in the same order, so the
+ * result is the same as walking the book.</p>
+ */
+public final class OrderBookDepth {
+
+    private static final BigDecimal BPS = new BigDecimal("10000");
+    private static final MathContext MC = new MathContext(34, RoundingMode.HALF_UP);
+
+    private final OrderBookSnapshot orderBook;
+    private final SourceSide side;
+    private final LiquiditySimulationAssumptions assumptions;
+    private final BigDecimal bestPrice;
+    private final BigDecimal[] prices;
+    private final BigDecimal[] cumulativeNotional;
+    private final BigDecimal[] cumulativeQuantity;
+
+    private OrderBookDepth(OrderBookSnapshot orderBook,
+                           SourceSide side,
+                           LiquiditySimulationAssumptions assumptions) {
+        this.orderBook = Objects.requireNonNull(orderBook, "orderBook");
+        this.side = Objects.requireNonNull(side, "side");
+        this.assumptions = Objects.requireNonNull(assumptions, "assumptions");
+        List<OrderBookLevel> levels = side == SourceSide.LONG ? orderBook.asks() : orderBook.bids();
+        this.bestPrice = levels.isEmpty() ? null : levels.getFirst().price();
+        this.prices = new BigDecimal[levels.size()];
+        this.cumulativeNotional = new BigDecimal[levels.size() + 1];
+        this.cumulativeQuantity = new BigDecimal[levels.size() + 1];
+        cumulativeNotional[0] = BigDecimal.ZERO;
+        cumulativeQuantity[0] = BigDecimal.ZERO;
+
+        BigDecimal survival = BigDecimal.ONE.subtract(assumptions.disappearingLiquidityPct(), MC);
+        BigDecimal adverseFactor = assumptions.adverseSelectionBps().divide(BPS, MC);
+        BigDecimal priceFactor = side == SourceSide.LONG
+                ? BigDecimal.ONE.add(adverseFactor, MC)
+                : BigDecimal.ONE.subtract(adverseFactor, MC);
+        for (int i = 0; i < levels.size(); i++) {
+            OrderBookLevel level = levels.get(i);
+            BigDecimal price = level.price().multiply(priceFactor, MC);
+            BigDecimal notional = price.multiply(level.quantity().multiply(survival, MC), MC);
+            prices[i] = price;
+            cumulativeNotional[i + 1] = cumulativeNotional[i].add(notional, MC);
+            cumulativeQuantity[i + 1] = cumulativeQuantity[i].add(notional.divide(price, MC), MC);
+        }
+    }
+
+    public static OrderBookDepth of(OrderBookSnapshot orderBook,
+                                    SourceSide side,
+                                    LiquiditySimulationAssumptions assumptions) {
+        return new OrderBookDepth(orderBook, side, assumptions);
+    }
+
+    public static OrderBookDepth of(LiquiditySimulationRequest request) {
+        return new OrderBookDepth(request.orderBook(), request.side(), request.assumptions());
+    }
+
+    public OrderBookSnapshot orderBook() {
+        return orderBook;
+    }
+
+    public SourceSide side() {
+        return side;
+    }
+
+    public LiquiditySimulationAssumptions assumptions() {
+        return assumptions;
+    }
+
+    public boolean isEmpty() {
+        return prices.length == 0;
+    }
+
+    public int levelCount() {
+        return prices.length;
+    }
+
+    /** Raw price of the first level, before adverse selection; {@code null} on an empty side. */
+    public BigDecimal bestPrice() {
+        return bestPrice;
+    }
+
+    public BigDecimal totalNotional() {
+        return cumulativeNotional[prices.length];
+    }
+
+    /** Whether this depth was built from the book, side and assumptions of {@code request}. */
+    public boolean matches(LiquiditySimulationRequest request) {
+        return (orderBook == request.orderBook() || orderBook.equals(request.orderBook()))
+                && side == request.side()
+                && assumptions.equals(request.assumptions());
+    }
+
+    /** Takes {@code notional} from the top of the book; caps at the visible depth. */
+    public Fill fill(BigDecimal notional) {
+        Objects.requireNonNull(notional, "notional");
+        if (notional.signum() <= 0) {
+            return Fill.EMPTY;
+        }
+        return fillAt(notional, boundary(notional));
+    }
+
+    /**
+     * {@link #fill} for many notionals in one pass over the levels; the fills come back in the
+     * order of {@code notionals}.
+     */
+    public List<Fill> fillAll(List<BigDecimal> notionals) {
+        Integer[] order = new Integer[notionals.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(notionals::get));
+        Fill[] fills = new Fill[order.length];
+        int level = 1;
+        for (int index : order) {
+            BigDecimal notional = Objects.requireNonNull(notionals.get(index), "notional");
+            if (notional.signum() <= 0) {
+                fills[index] = Fill.EMPTY;
+                continue;
+            }
+            while (level <= prices.length && cumulativeNotional[level].compareTo(notional) < 0) {
+                level++;
+            }
+            fills[index] = fillAt(notional, level);
+        }
+        return List.of(fills);
+    }
+
+    /** First level whose cumulative notional reaches {@code notional}, or {@code levelCount + 1}. */
+    private int boundary(BigDecimal notional) {
+        int low = 1;
+        int high = prices.length + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeNotional[middle].compareTo(notional) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Fill fillAt(BigDecimal notional, int level) {
+        if (level > prices.length) {
+            return new Fill(cumulativeNotional[prices.length], cumulativeQuantity[prices.length]);
+        }
+        BigDecimal quoteTaken = notional.subtract(cumulativeNotional[level - 1], MC);
+        return new Fill(
+                cumulativeNotional[level - 1].add(quoteTaken, MC),
+                cumulativeQuantity[level - 1].add(quoteTaken.divide(prices[level - 1], MC), MC));
+    }
+
+    /** Filled notional and base quantity at effective prices. */
+    public record Fill(BigDecimal notional, BigDecimal quantity) {
+        static final Fill EMPTY = new Fill(BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+}
@@ -9,10 +9,15 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
  * Pure, deterministic proportional portfolio calculator.
+ *
+ * <p>With {@link CalculationArithmetic#FIXED_POINT} each leg is sized on {@link FixedDecimal};
+ * a leg whose values do not fit a {@code long} is sized again in BigDecimal, so the result is
+ * the same in both modes.</p>
  */
 public final class TargetPortfolioCalculator {
 
@@ -22,12 +27,36 @@ public final class TargetPortfolioCalculator {
             .thenComparing(Candidate::roundingError)
             .thenComparing(candidate -> candidate.position().targetSymbol())
             .thenComparing(candidate -> candidate.position().sourceLegId());
+    private static final String EQUITY_NOT_ELIGIBLE = "source equity is not entry-eligible";
+
+    private final CalculationArithmetic arithmetic;
+
+    public TargetPortfolioCalculator() {
+        this(CalculationArithmetic.BIG_DECIMAL);
+    }
+
+    public TargetPortfolioCalculator(CalculationArithmetic arithmetic) {
+        this.arithmetic = Objects.requireNonNull(arithmetic, "arithmetic");
+    }
+
+    public CalculationArithmetic arithmetic() {
+        return arithmetic;
+    }
 
     public TargetPortfolioResult calculate(TargetPortfolioRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("request must not be null");
         }
+        return calculate(prepare(request), request);
+    }
 
+    /**
+     * Everything in {@link #calculate(TargetPortfolioRequest)} that does not read the sizing
+     * fields: filters, existing positions, equity checks and per-leg exposure and price. The
+     * result can be sized for any request that only differs from {@code request} in target
+     * capital, leverage and margins.
+     */
+    PreparedPortfolio prepare(TargetPortfolioRequest request) {
         Map<String, BinanceSymbolFilter> filters = indexFilters(request.filters());
         Map<String, ExistingTargetPosition> actualExisting = aggregateExisting(request.existingPositions());
         Map<String, ExistingTargetPosition> managedExisting = aggregateExisting(request.managedExistingPositions());
@@ -35,20 +64,35 @@ public final class TargetPortfolioCalculator {
         DecisionCode equityFailure = equityFailure(request);
         DecisionCode targetPositionFailure = targetPositionFailure(
                 request, actualExisting, managedExisting, existing);
+        FixedDecimal fixedEquity = fixedEquity(request);
 
-        List<TargetLegDecision> omitted = new ArrayList<>();
-        List<Candidate> candidates = new ArrayList<>();
+        List<PreparedLeg> legs = new ArrayList<>(request.sourcePositions().size());
         Set<String> sourceLegIds = new HashSet<>();
-
         for (SourcePosition position : request.sourcePositions()) {
             if (!sourceLegIds.add(position.sourceLegId())) {
                 throw new IllegalArgumentException("duplicate sourceLegId: " + position.sourceLegId());
             }
+            legs.add(prepareLeg(request, fixedEquity, position, filters));
+        }
+        return new PreparedPortfolio(filters, existing, equityFailure, targetPositionFailure, List.copyOf(legs));
+    }
+
+    /** Sizes {@code prepared}; {@code request} must be the prepared one up to the sizing fields. */
+    TargetPortfolioResult calculate(PreparedPortfolio prepared, TargetPortfolioRequest request) {
+        Map<String, ExistingTargetPosition> existing = prepared.existing();
+        DecisionCode equityFailure = prepared.equityFailure();
+        DecisionCode targetPositionFailure = prepared.targetPositionFailure();
+        FixedSizing fixedSizing = fixedSizing(request);
+
+        List<TargetLegDecision> omitted = new ArrayList<>();
+        List<Candidate> candidates = new ArrayList<>();
+
+        for (PreparedLeg leg : prepared.legs()) {
             if (equityFailure != null) {
-                omitted.add(omitted(position, equityFailure, "source equity is not entry-eligible"));
+                omitted.add(omitted(leg.position(), equityFailure, EQUITY_NOT_ELIGIBLE));
                 continue;
             }
-            CandidateResolution resolution = resolveCandidate(request, position, filters);
+            CandidateResolution resolution = resolveCandidate(request, fixedSizing, leg);
             if (resolution.omitted() != null) {
                 omitted.add(resolution.omitted());
             } else {
@@ -61,13 +105,12 @@ public final class TargetPortfolioCalculator {
         if (!collisionKeys.isEmpty()) {
             List<Candidate> unambiguous = new ArrayList<>();
             for (Candidate candidate : candidates) {
-                SourcePosition position = candidate.position();
-                String positionKey = key(position.targetSymbol(), position.side());
-                if (collisionKeys.contains(positionKey)) {
-                    omitted.add(omitted(position, DecisionCode.BLOCKED_TARGET_SYMBOL_COLLISION,
+                PreparedLeg leg = candidate.leg();
+                if (collisionKeys.contains(leg.positionKey())) {
+                    omitted.add(omitted(leg.position(), DecisionCode.BLOCKED_TARGET_SYMBOL_COLLISION,
                             "multiple source legs resolve to the same targetSymbol and side"));
-                    collisionProtectedPositionKeys.add(positionKey);
-                    collisionProtectedPositionKeys.add(key(position.targetSymbol(), opposite(position.side())));
+                    collisionProtectedPositionKeys.add(leg.positionKey());
+                    collisionProtectedPositionKeys.add(leg.oppositeKey());
                 } else {
                     unambiguous.add(candidate);
                 }
@@ -109,12 +152,13 @@ public final class TargetPortfolioCalculator {
         boolean authoritativeFlatOrSizedPortfolio = equityFailure == null
                 || request.sourcePositions().isEmpty();
         if (authoritativeFlatOrSizedPortfolio) {
-            addRequiredCloses(existing, desiredPositionKeys, selected, filters);
+            addRequiredCloses(existing, desiredPositionKeys, selected, prepared.filters());
         }
 
-        BigDecimal totalRawNotional = request.sourcePositions().stream()
-                .map(position -> rawTargetNotional(request, position))
-                .reduce(DecimalSupport.ZERO, BigDecimal::add);
+        BigDecimal totalRawNotional = DecimalSupport.ZERO;
+        for (PreparedLeg leg : prepared.legs()) {
+            totalRawNotional = totalRawNotional.add(rawTargetNotional(request, fixedSizing, leg));
+        }
         boolean equityBlockedWithSourcePositions = equityFailure != null
                 && !request.sourcePositions().isEmpty();
         BigDecimal movementCoverage = equityBlockedWithSourcePositions
@@ -169,8 +213,7 @@ public final class TargetPortfolioCalculator {
     private Set<String> targetCollisionKeys(List<Candidate> candidates) {
         Map<String, Integer> counts = new HashMap<>();
         for (Candidate candidate : candidates) {
-            SourcePosition position = candidate.position();
-            counts.merge(key(position.targetSymbol(), position.side()), 1, Integer::sum);
+            counts.merge(candidate.leg().positionKey(), 1, Integer::sum);
         }
         Set<String> collisions = new HashSet<>();
         for (Map.Entry<String, Integer> entry : counts.entrySet()) {
@@ -239,9 +282,9 @@ public final class TargetPortfolioCalculator {
 
     private boolean replacesAttributedPosition(Candidate candidate,
                                                 Map<String, ExistingTargetPosition> attributedExisting) {
-        SourcePosition position = candidate.position();
-        return attributedExisting.containsKey(key(position.targetSymbol(), position.side()))
-                || attributedExisting.containsKey(key(position.targetSymbol(), opposite(position.side())));
+        PreparedLeg leg = candidate.leg();
+        return attributedExisting.containsKey(leg.positionKey())
+                || attributedExisting.containsKey(leg.oppositeKey());
     }
 
     private BigDecimal scaleFactor(BigDecimal availableTargetMargin, BigDecimal totalRequiredMargin) {
@@ -251,66 +294,133 @@ public final class TargetPortfolioCalculator {
                 DecimalSupport.divideDown(availableTargetMargin, totalRequiredMargin));
     }
 
-    private CandidateResolution resolveCandidate(TargetPortfolioRequest request,
-                                                 SourcePosition position,
-                                                 Map<String, BinanceSymbolFilter> filters) {
+    private PreparedLeg prepareLeg(TargetPortfolioRequest request,
+                                   FixedDecimal fixedEquity,
+                                   SourcePosition position,
+                                   Map<String, BinanceSymbolFilter> filters) {
+        FixedDecimal fixedExposure = fixedExposure(fixedEquity, position);
+        BigDecimal exposure = null;
+        if (fixedExposure != null) {
+            exposure = fixedExposure.toBigDecimal();
+        } else if (request.sourceAccountEquityUsd() != null
+                && request.sourceAccountEquityUsd().compareTo(DecimalSupport.ZERO) > 0) {
+            exposure = DecimalSupport.divideDown(position.marginUsedUsd().abs(), request.sourceAccountEquityUsd());
+        }
+        PreparedLeg leg = new PreparedLeg(position, key(position.targetSymbol(), position.side()),
+                key(position.targetSymbol(), opposite(position.side())), exposure, fixedExposure,
+                null, null, null, null, null, null);
+
         if (position.targetSymbol() == null || position.targetSymbol().isBlank()) {
-            return CandidateResolution.omitted(omitted(position,
+            return leg.omittedBeforeLeverage(omitted(position,
                     DecisionCode.SKIPPED_NO_BINANCE_ALIAS, "target symbol alias is missing"));
         }
         BinanceSymbolFilter filter = filters.get(position.targetSymbol());
         if (filter == null || !filter.trading() || !filter.quoteAsset().equals(request.quoteAsset())) {
-            return CandidateResolution.omitted(omitted(position,
+            return leg.omittedBeforeLeverage(omitted(position,
                     DecisionCode.SKIPPED_SYMBOL_NOT_SUPPORTED,
                     "symbol is missing, suspended or uses a different quote asset"));
         }
         if (filter.stepSize().compareTo(DecimalSupport.ZERO) <= 0) {
-            return CandidateResolution.omitted(omitted(position,
+            return leg.omittedBeforeLeverage(omitted(position,
                     DecisionCode.REJECTED_BY_BINANCE_FILTER, "stepSize must be positive"));
         }
+        if (position.notionalUsd().compareTo(DecimalSupport.ZERO) == 0) {
+            return leg.omittedAfterLeverage(filter, omitted(position,
+                    DecisionCode.SKIPPED_ALREADY_AT_TARGET, "source position has zero notional"));
+        }
+        BigDecimal price = positivePrice(position);
+        if (price.compareTo(DecimalSupport.ZERO) <= 0) {
+            return leg.omittedAfterLeverage(filter, omitted(position,
+                    DecisionCode.REJECTED_BY_BINANCE_FILTER, "source price is not positive"));
+        }
+        return leg.sizable(filter, price,
+                filter.liquidityScore().max(position.liquidityScore()),
+                fixedExposure == null ? null : fixedFilter(filter, price));
+    }
+
+    private CandidateResolution resolveCandidate(TargetPortfolioRequest request,
+                                                 FixedSizing fixedSizing,
+                                                 PreparedLeg leg) {
+        if (leg.omittedBeforeLeverage() != null) {
+            return CandidateResolution.omitted(leg.omittedBeforeLeverage());
+        }
+        BinanceSymbolFilter filter = leg.filter();
         if (request.targetLeverage().compareTo(DecimalSupport.ZERO) <= 0
                 || filter.maximumLeverage().compareTo(DecimalSupport.ZERO) <= 0
                 || request.targetLeverage().compareTo(filter.maximumLeverage()) > 0) {
-            return CandidateResolution.omitted(omitted(position,
+            return CandidateResolution.omitted(omitted(leg.position(),
                     DecisionCode.BLOCKED_LEVERAGE_LIMIT, "target leverage exceeds the symbol contract"));
         }
-        if (position.notionalUsd().compareTo(DecimalSupport.ZERO) == 0) {
-            return CandidateResolution.omitted(omitted(position,
-                    DecisionCode.SKIPPED_ALREADY_AT_TARGET, "source position has zero notional"));
+        if (leg.omittedAfterLeverage() != null) {
+            return CandidateResolution.omitted(leg.omittedAfterLeverage());
         }
 
-        BigDecimal price = positivePrice(position);
-        if (price.compareTo(DecimalSupport.ZERO) <= 0) {
-            return CandidateResolution.omitted(omitted(position,
-                    DecisionCode.REJECTED_BY_BINANCE_FILTER, "source price is not positive"));
+        Candidate fixedCandidate = fixedSizing == null ? null : fixedCandidate(fixedSizing, leg);
+        if (fixedCandidate != null) {
+            return CandidateResolution.candidate(fixedCandidate);
         }
-        BigDecimal exposure = DecimalSupport.divideDown(
-                position.marginUsedUsd().abs(), request.sourceAccountEquityUsd());
         BigDecimal rawTargetMargin = DecimalSupport.normalize(
-                request.targetAllocatedCapitalUsd().multiply(exposure));
+                request.targetAllocatedCapitalUsd().multiply(leg.exposure()));
         BigDecimal rawTargetNotional = DecimalSupport.normalize(
                 rawTargetMargin.multiply(request.targetLeverage()));
-        BigDecimal preliminaryRawQty = DecimalSupport.divideDown(rawTargetNotional, price);
+        BigDecimal preliminaryRawQty = DecimalSupport.divideDown(rawTargetNotional, leg.price());
         BigDecimal preliminaryRoundedQty = DecimalSupport.floorToStep(preliminaryRawQty, filter.stepSize());
         BigDecimal roundingError = DecimalSupport.normalize(
                 preliminaryRawQty.subtract(preliminaryRoundedQty).max(DecimalSupport.ZERO));
-        BigDecimal liquidity = filter.liquidityScore().max(position.liquidityScore());
         return CandidateResolution.candidate(new Candidate(
-                position,
-                filter,
-                price,
-                exposure,
+                leg,
                 rawTargetNotional,
                 rawTargetMargin,
                 request.targetLeverage(),
-                liquidity,
-                roundingError
+                roundingError,
+                null
         ));
     }
 
+    private Candidate fixedCandidate(FixedSizing sizing, PreparedLeg leg) {
+        if (leg.fixedExposure() == null || leg.fixedFilter() == null) {
+            return null;
+        }
+        try {
+            FixedDecimal rawTargetMargin = sizing.targetCapital().multiply(leg.fixedExposure());
+            FixedDecimal rawTargetNotional = rawTargetMargin.multiply(sizing.targetLeverage());
+            FixedDecimal roundingError = FixedDecimal.quantize(
+                    rawTargetNotional, leg.fixedFilter().price(), leg.fixedFilter().stepSize()).remainder();
+            return new Candidate(
+                    leg,
+                    rawTargetNotional.toBigDecimal(),
+                    rawTargetMargin.toBigDecimal(),
+                    sizing.targetLeverageValue(),
+                    roundingError.toBigDecimal(),
+                    new FixedLeg(rawTargetNotional, sizing.targetLeverage())
+            );
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
+    private FixedFilter fixedFilter(BinanceSymbolFilter filter, BigDecimal price) {
+        try {
+            return new FixedFilter(
+                    FixedDecimal.of(price),
+                    FixedDecimal.of(filter.stepSize()),
+                    FixedDecimal.of(filter.minQty()),
+                    FixedDecimal.of(filter.maxQty()),
+                    FixedDecimal.of(filter.minNotional()));
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
     private TargetLegDecision finalizeCandidate(Candidate candidate,
                                                 BigDecimal scaleFactor,
                                                 Map<String, ExistingTargetPosition> existing) {
+        if (candidate.fixed() != null) {
+            TargetLegDecision decision = finalizeFixed(candidate, scaleFactor, existing);
+            if (decision != null) {
+                return decision;
+            }
+        }
         SourcePosition position = candidate.position();
         BinanceSymbolFilter filter = candidate.filter();
         BigDecimal scaledNotional = DecimalSupport.normalize(
@@ -341,8 +451,7 @@ public final class TargetPortfolioCalculator {
                     "rounded target is below Binance minNotional", rawQuantity, roundedQuantity);
         }
 
-        String positionKey = key(position.targetSymbol(), position.side());
-        ExistingTargetPosition current = existing.get(positionKey);
+        ExistingTargetPosition current = existing.get(candidate.leg().positionKey());
         BigDecimal existingQuantity = current == null ? DecimalSupport.ZERO : current.quantity();
         BigDecimal rawDelta = DecimalSupport.normalize(roundedQuantity.subtract(existingQuantity));
         BigDecimal executableDeltaMagnitude = DecimalSupport.floorToStep(rawDelta.abs(), filter.stepSize());
@@ -366,8 +475,7 @@ public final class TargetPortfolioCalculator {
                     : DeltaAction.REDUCE;
         }
 
-        boolean waitsForOppositeClose = existing.containsKey(
-                key(position.targetSymbol(), opposite(position.side())));
+        boolean waitsForOppositeClose = existing.containsKey(candidate.leg().oppositeKey());
         BigDecimal margin = DecimalSupport.divideDown(roundedNotional, candidate.targetLeverage());
         BigDecimal roundingLoss = DecimalSupport.normalize(
                 scaledNotional.subtract(roundedNotional).max(DecimalSupport.ZERO));
@@ -395,6 +503,99 @@ public final class TargetPortfolioCalculator {
         );
     }
 
+    /** {@link #finalizeCandidate} on {@link FixedDecimal}; {@code null} when a value overflows. */
+    private TargetLegDecision finalizeFixed(Candidate candidate,
+                                            BigDecimal scaleFactor,
+                                            Map<String, ExistingTargetPosition> existing) {
+        SourcePosition position = candidate.position();
+        FixedLeg leg = candidate.fixed();
+        FixedFilter filter = candidate.leg().fixedFilter();
+        try {
+            FixedDecimal scale = scaleFactor.compareTo(DecimalSupport.ONE) == 0
+                    ? FixedDecimal.ONE
+                    : FixedDecimal.of(scaleFactor);
+            FixedDecimal scaledNotional = leg.rawTargetNotional().multiply(scale);
+            if (scaledNotional.signum() <= 0) {
+                return omitted(candidate, DecisionCode.SKIPPED_CAPITAL_EXHAUSTED,
+                        "portfolio has no target margin capacity", DecimalSupport.ZERO, DecimalSupport.ZERO);
+            }
+
+            FixedDecimal.Quantized quantity = FixedDecimal.quantize(scaledNotional, filter.price(), filter.stepSize());
+            FixedDecimal roundedQuantity = quantity.rounded();
+            if (quantity.quotientBelow(filter.minQty()) || roundedQuantity.compareTo(filter.minQty()) < 0) {
+                return omitted(candidate, DecisionCode.SKIPPED_BELOW_MIN_QTY,
+                        "quantity is below Binance minQty", quantity.quotient(), roundedQuantity.toBigDecimal());
+            }
+            if (roundedQuantity.signum() <= 0) {
+                return omitted(candidate, DecisionCode.SKIPPED_ROUNDED_TO_ZERO,
+                        "quantity rounded to zero", quantity.quotient(), roundedQuantity.toBigDecimal());
+            }
+            if (filter.maxQty().signum() > 0 && roundedQuantity.compareTo(filter.maxQty()) > 0) {
+                return omitted(candidate, DecisionCode.REJECTED_BY_BINANCE_FILTER,
+                        "quantity exceeds Binance maxQty", quantity.quotient(), roundedQuantity.toBigDecimal());
+            }
+            FixedDecimal roundedNotional = roundedQuantity.multiply(filter.price());
+            if (roundedNotional.compareTo(filter.minNotional()) < 0) {
+                return omitted(candidate, DecisionCode.SKIPPED_BELOW_MIN_NOTIONAL,
+                        "rounded target is below Binance minNotional",
+                        quantity.quotient(), roundedQuantity.toBigDecimal());
+            }
+
+            ExistingTargetPosition current = existing.get(candidate.leg().positionKey());
+            BigDecimal existingQuantity = current == null ? DecimalSupport.ZERO : current.quantity();
+            FixedDecimal rawDelta = roundedQuantity.subtract(FixedDecimal.of(existingQuantity));
+            FixedDecimal executableDeltaMagnitude = FixedDecimal.floorToStep(rawDelta.abs(), filter.stepSize());
+            FixedDecimal deltaQuantity = rawDelta.signum() < 0
+                    ? executableDeltaMagnitude.negate()
+                    : executableDeltaMagnitude;
+            DeltaAction action;
+            DecisionCode decisionCode = DecisionCode.TARGET_CALCULATED;
+            if (executableDeltaMagnitude.signum() <= 0) {
+                action = DeltaAction.NONE;
+                decisionCode = rawDelta.signum() == 0
+                        ? DecisionCode.SKIPPED_ALREADY_AT_TARGET
+                        : DecisionCode.SKIPPED_DELTA_TOO_SMALL;
+            } else if (rawDelta.signum() > 0) {
+                action = existingQuantity.compareTo(DecimalSupport.ZERO) == 0
+                        ? DeltaAction.OPEN
+                        : DeltaAction.INCREASE;
+            } else {
+                action = roundedQuantity.signum() == 0
+                        ? DeltaAction.CLOSE
+                        : DeltaAction.REDUCE;
+            }
+
+            boolean waitsForOppositeClose = existing.containsKey(candidate.leg().oppositeKey());
+            FixedDecimal margin = FixedDecimal.divideDown(roundedNotional, leg.targetLeverage());
+            FixedDecimal roundingLoss = scaledNotional.subtract(roundedNotional).max(FixedDecimal.ZERO);
+            BigDecimal roundedQuantityValue = roundedQuantity.toBigDecimal();
+            return new TargetLegDecision(
+                    position.sourceLegId(),
+                    position.sourceSymbol(),
+                    position.targetSymbol(),
+                    position.side(),
+                    true,
+                    decisionCode,
+                    "",
+                    candidate.exposure(),
+                    candidate.rawTargetNotional(),
+                    roundedNotional.toBigDecimal(),
+                    margin.toBigDecimal(),
+                    quantity.quotient(),
+                    roundedQuantityValue,
+                    roundedQuantityValue,
+                    existingQuantity,
+                    deltaQuantity.toBigDecimal(),
+                    action,
+                    roundingLoss.toBigDecimal(),
+                    candidate.liquidity(),
+                    waitsForOppositeClose
+            );
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
     private void addRequiredCloses(Map<String, ExistingTargetPosition> existing,
                                    Set<String> desiredPositionKeys,
                                    List<TargetLegDecision> selected,
@@ -509,17 +710,65 @@ public final class TargetPortfolioCalculator {
         return DecimalSupport.min(capitalAfterReservations, exchangeTotalCapacity);
     }
 
-    private BigDecimal rawTargetNotional(TargetPortfolioRequest request, SourcePosition position) {
-        if (request.sourceAccountEquityUsd() == null
-                || request.sourceAccountEquityUsd().compareTo(DecimalSupport.ZERO) <= 0) {
+    private BigDecimal rawTargetNotional(TargetPortfolioRequest request,
+                                         FixedSizing fixedSizing,
+                                         PreparedLeg leg) {
+        if (leg.exposure() == null) {
             return DecimalSupport.ZERO;
         }
-        BigDecimal exposure = DecimalSupport.divideDown(position.marginUsedUsd().abs(),
-                request.sourceAccountEquityUsd());
-        BigDecimal margin = DecimalSupport.normalize(request.targetAllocatedCapitalUsd().multiply(exposure));
+        if (fixedSizing != null && leg.fixedExposure() != null) {
+            try {
+                return fixedSizing.targetCapital().multiply(leg.fixedExposure())
+                        .multiply(fixedSizing.targetLeverage())
+                        .toBigDecimal();
+            } catch (ArithmeticException overflow) {
+                // Falls through to the BigDecimal computation below.
+            }
+        }
+        BigDecimal margin = DecimalSupport.normalize(request.targetAllocatedCapitalUsd().multiply(leg.exposure()));
         return DecimalSupport.normalize(margin.multiply(request.targetLeverage()));
     }
 
+    /** {@code null} keeps the exposures in BigDecimal. */
+    private FixedDecimal fixedEquity(TargetPortfolioRequest request) {
+        if (arithmetic != CalculationArithmetic.FIXED_POINT
+                || request.sourceAccountEquityUsd() == null
+                || request.sourceAccountEquityUsd().compareTo(DecimalSupport.ZERO) <= 0) {
+            return null;
+        }
+        try {
+            return FixedDecimal.of(request.sourceAccountEquityUsd());
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
+    private FixedDecimal fixedExposure(FixedDecimal fixedEquity, SourcePosition position) {
+        if (fixedEquity == null) {
+            return null;
+        }
+        try {
+            return FixedDecimal.divideDown(FixedDecimal.of(position.marginUsedUsd()).abs(), fixedEquity);
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
+    /** Request-wide fixed-point inputs; {@code null} keeps the whole calculation in BigDecimal. */
+    private FixedSizing fixedSizing(TargetPortfolioRequest request) {
+        if (arithmetic != CalculationArithmetic.FIXED_POINT) {
+            return null;
+        }
+        try {
+            return new FixedSizing(
+                    FixedDecimal.of(request.targetAllocatedCapitalUsd()),
+                    FixedDecimal.of(request.targetLeverage()),
+                    request.targetLeverage());
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
     private Map<String, BinanceSymbolFilter> indexFilters(List<BinanceSymbolFilter> values) {
         Map<String, BinanceSymbolFilter> result = new HashMap<>();
         for (BinanceSymbolFilter filter : values) {
@@ -591,18 +840,98 @@ public final class TargetPortfolioCalculator {
         return side == SourceSide.LONG ? SourceSide.SHORT : SourceSide.LONG;
     }
 
-    private record Candidate(
+    /** Output of {@link #prepare}; read-only, so scenarios may size it concurrently. */
+    record PreparedPortfolio(
+            Map<String, BinanceSymbolFilter> filters,
+            Map<String, ExistingTargetPosition> existing,
+            DecisionCode equityFailure,
+            DecisionCode targetPositionFailure,
+            List<PreparedLeg> legs
+    ) { }
+
+    /**
+     * A source leg with what does not depend on capital or leverage. {@code exposure} is
+     * {@code null} without positive source equity; the omissions keep the order of the checks
+     * around the leverage check.
+     */
+    private record PreparedLeg(
             SourcePosition position,
+            String positionKey,
+            String oppositeKey,
+            BigDecimal exposure,
+            FixedDecimal fixedExposure,
+            TargetLegDecision omittedBeforeLeverage,
             BinanceSymbolFilter filter,
+            TargetLegDecision omittedAfterLeverage,
             BigDecimal price,
-            BigDecimal exposure,
+            BigDecimal liquidity,
+            FixedFilter fixedFilter
+    ) {
+        PreparedLeg omittedBeforeLeverage(TargetLegDecision decision) {
+            return new PreparedLeg(position, positionKey, oppositeKey, exposure, fixedExposure,
+                    decision, null, null, null, null, null);
+        }
+
+        PreparedLeg omittedAfterLeverage(BinanceSymbolFilter legFilter, TargetLegDecision decision) {
+            return new PreparedLeg(position, positionKey, oppositeKey, exposure, fixedExposure,
+                    null, legFilter, decision, null, null, null);
+        }
+
+        PreparedLeg sizable(BinanceSymbolFilter legFilter,
+                            BigDecimal legPrice,
+                            BigDecimal legLiquidity,
+                            FixedFilter legFixedFilter) {
+            return new PreparedLeg(position, positionKey, oppositeKey, exposure, fixedExposure,
+                    null, legFilter, null, legPrice, legLiquidity, legFixedFilter);
+        }
+    }
+
+    private record Candidate(
+            PreparedLeg leg,
             BigDecimal rawTargetNotional,
             BigDecimal rawTargetMargin,
             BigDecimal targetLeverage,
-            BigDecimal liquidity,
-            BigDecimal roundingError
+            BigDecimal roundingError,
+            FixedLeg fixed
+    ) {
+        SourcePosition position() {
+            return leg.position();
+        }
+
+        BinanceSymbolFilter filter() {
+            return leg.filter();
+        }
+
+        BigDecimal price() {
+            return leg.price();
+        }
+
+        BigDecimal exposure() {
+            return leg.exposure();
+        }
+
+        BigDecimal liquidity() {
+            return leg.liquidity();
+        }
+    }
+
+    private record FixedSizing(
+            FixedDecimal targetCapital,
+            FixedDecimal targetLeverage,
+            BigDecimal targetLeverageValue
     ) { }
 
+    /** Symbol filter and price of a prepared leg; {@code null} when one of them overflows. */
+    private record FixedFilter(
+            FixedDecimal price,
+            FixedDecimal stepSize,
+            FixedDecimal minQty,
+            FixedDecimal maxQty,
+            FixedDecimal minNotional
+    ) { }
+
+    private record FixedLeg(FixedDecimal rawTargetNotional, FixedDecimal targetLeverage) { }
+
     private record CandidateResolution(Candidate candidate, TargetLegDecision omitted) {
         static CandidateResolution candidate(Candidate candidate) {
             return new CandidateResolution(candidate, null);
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -76,6 +77,75 @@ class CapitalLeverageMatrixSimulatorTest {
         assertTrue(matrix.stream().allMatch(scenario -> scenario.netPnlUsd() == null));
     }
 
+    @Test
+    void sharedPreparationAndPooledScenariosMatchIndependentCalculations() {
+        TargetPortfolioRequest snapshot = mixedRequest(new BigDecimal("100"), new BigDecimal("5"));
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (CalculationArithmetic arithmetic : CalculationArithmetic.values()) {
+                TargetPortfolioCalculator calculator = new TargetPortfolioCalculator(arithmetic);
+                List<CapitalLeverageScenario> sequential =
+                        new CapitalLeverageMatrixSimulator(calculator).simulate(snapshot);
+                List<CapitalLeverageScenario> pooled =
+                        new CapitalLeverageMatrixSimulator(calculator, pool).simulate(snapshot);
+
+                assertEquals(sequential, pooled);
+                int index = 0;
+                for (BigDecimal capital : CapitalLeverageMatrixSimulator.CAPITAL_BANDS) {
+                    for (BigDecimal leverage : CapitalLeverageMatrixSimulator.LEVERAGE_BANDS) {
+                        assertEquals(calculator.calculate(mixedRequest(capital, leverage)),
+                                sequential.get(index++).targetPortfolio(), arithmetic + " " + capital + "x" + leverage);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private TargetPortfolioRequest mixedRequest(BigDecimal capital, BigDecimal leverage) {
+        Instant now = Instant.parse("2026-07-13T00:00:00Z");
+        return TargetPortfolioRequest.builder()
+                .calculatedAt(now)
+                .sourceAccountEquityUsd(new BigDecimal("250000"))
+                .equityObservedAt(now.minusSeconds(1))
+                .equitySource("hyperliquid.marginSummary.accountValue")
+                .sourceSnapshotVersion(7)
+                .sourcePositions(List.of(
+                        position("btc", "BTCUSDT", "0.5", "64000.1", "6400.01"),
+                        position("eth", "ETHUSDT", "3", "3100.25", "930.075"),
+                        position("doge", "DOGEUSDT", "12000", "0.12345", "148.14"),
+                        position("zero", "SOLUSDT", "0", "150", "0"),
+                        position("none", "XYZUSDT", "1", "10", "1"),
+                        position("alias", "", "1", "10", "1")))
+                .targetAllocatedCapitalUsd(capital)
+                .targetLeverage(leverage)
+                .availableMarginUsd(capital)
+                .filters(List.of(
+                        filter("BTCUSDT", "0.001", "100", "125"),
+                        filter("ETHUSDT", "0.001", "20", "100"),
+                        filter("DOGEUSDT", "1", "5", "10"),
+                        filter("SOLUSDT", "0.01", "5", "50")))
+                .quoteAsset("USDT")
+                .userMaxConcurrentPositions(2)
+                .versions(new CalculationVersions("strategy-v3", "sizing-v3", "symbols-v3"))
+                .build();
+    }
+
+    private static SourcePosition position(String id, String targetSymbol, String size, String price, String margin) {
+        BigDecimal quantity = new BigDecimal(size);
+        BigDecimal markPrice = new BigDecimal(price);
+        return new SourcePosition(id, id.toUpperCase(), targetSymbol, SourceSide.LONG, quantity,
+                quantity.multiply(markPrice), new BigDecimal(margin), markPrice, markPrice, new BigDecimal("5"), 7L,
+                new BigDecimal("100"));
+    }
+
+    private static BinanceSymbolFilter filter(String symbol, String stepSize, String minNotional, String maxLeverage) {
+        return new BinanceSymbolFilter(symbol, true, "USDT", new BigDecimal(stepSize), new BigDecimal("1000000"),
+                new BigDecimal(stepSize), new BigDecimal(minNotional), new BigDecimal("0.01"),
+                new BigDecimal(maxLeverage), new BigDecimal("100"));
+    }
+
     private TargetPortfolioRequest request(BigDecimal capital, BigDecimal leverage) {
         return request(capital, leverage, new BigDecimal("500000"));
     }
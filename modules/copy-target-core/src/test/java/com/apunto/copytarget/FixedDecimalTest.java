@@ -0,0 +1,127 @@
+package com.apunto.copytarget;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedDecimalTest {
+
+    @Test
+    void operationsMatchDecimalSupportIncludingScale() {
+        SplittableRandom random = new SplittableRandom(7L);
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal left = randomDecimal(random);
+            BigDecimal right = randomDecimal(random);
+            FixedDecimal fixedLeft = FixedDecimal.of(left);
+            FixedDecimal fixedRight = FixedDecimal.of(right);
+
+            assertEquals(DecimalSupport.normalize(left), fixedLeft.toBigDecimal());
+            assertSameOrOverflow(BigDecimal.valueOf(left.compareTo(right)),
+                    () -> FixedDecimal.of(BigDecimal.valueOf(Integer.signum(fixedLeft.compareTo(fixedRight)))));
+            assertSameOrOverflow(DecimalSupport.normalize(left.multiply(right)), () -> fixedLeft.multiply(fixedRight));
+            assertSameOrOverflow(DecimalSupport.normalize(left.subtract(right)), () -> fixedLeft.subtract(fixedRight));
+            assertSameOrOverflow(DecimalSupport.divideDown(left, right),
+                    () -> FixedDecimal.divideDown(fixedLeft, fixedRight));
+            assertSameOrOverflow(DecimalSupport.floorToStep(left, right),
+                    () -> FixedDecimal.floorToStep(fixedLeft, fixedRight));
+        }
+    }
+
+    @Test
+    void divisionKeepsTheIntermediateProductInOneHundredTwentyEightBits() {
+        BigDecimal notional = new BigDecimal("6000.123456");
+        BigDecimal price = new BigDecimal("64210.5");
+
+        assertEquals(DecimalSupport.divideDown(notional, price),
+                FixedDecimal.divideDown(FixedDecimal.of(notional), FixedDecimal.of(price)).toBigDecimal());
+        assertEquals(new BigDecimal("16.005"),
+                FixedDecimal.divideDown(FixedDecimal.of(new BigDecimal("160.05")), FixedDecimal.of(BigDecimal.TEN))
+                        .toBigDecimal());
+        assertThrows(ArithmeticException.class,
+                () -> FixedDecimal.divideDown(FixedDecimal.of(new BigDecimal("123456.789")),
+                        FixedDecimal.of(new BigDecimal("0.0421"))),
+                "2932465.29... with 18 decimals does not fit a long");
+    }
+
+    @Test
+    void quantizeSplitsTheQuotientIntoStepsAndRemainder() {
+        SplittableRandom random = new SplittableRandom(13L);
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal notional = randomDecimal(random).abs();
+            BigDecimal price = randomDecimal(random).abs().add(new BigDecimal("0.0001"));
+            BigDecimal step = BigDecimal.valueOf(random.nextLong(1L, 10L), random.nextInt(0, 9));
+            BigDecimal minQty = randomDecimal(random).abs();
+            BigDecimal quotient = DecimalSupport.divideDown(notional, price);
+            BigDecimal rounded = DecimalSupport.floorToStep(quotient, step);
+            FixedDecimal.Quantized quantized;
+            boolean below;
+            try {
+                quantized = FixedDecimal.quantize(FixedDecimal.of(notional), FixedDecimal.of(price), FixedDecimal.of(step));
+                below = quantized.quotientBelow(FixedDecimal.of(minQty));
+            } catch (ArithmeticException overflow) {
+                continue;
+            }
+            assertEquals(rounded, quantized.rounded().toBigDecimal());
+            assertEquals(DecimalSupport.normalize(quotient.subtract(rounded)), quantized.remainder().toBigDecimal());
+            assertEquals(quotient, quantized.quotient());
+            assertEquals(quotient.compareTo(minQty) < 0, below);
+        }
+    }
+
+    @Test
+    void quantizeHandlesQuotientsWiderThanALong() {
+        // 123456.789 / 0.0421 = 2932465.29... with 18 decimals does not fit a long; its parts do.
+        FixedDecimal.Quantized quantized = FixedDecimal.quantize(
+                FixedDecimal.of(new BigDecimal("123456.789")),
+                FixedDecimal.of(new BigDecimal("0.0421")),
+                FixedDecimal.of(new BigDecimal("0.001")));
+
+        BigDecimal quotient = DecimalSupport.divideDown(new BigDecimal("123456.789"), new BigDecimal("0.0421"));
+        assertEquals(quotient, quantized.quotient());
+        assertEquals(DecimalSupport.floorToStep(quotient, new BigDecimal("0.001")), quantized.rounded().toBigDecimal());
+    }
+
+    @Test
+    void unsignedDivisionMatchesBigInteger() {
+        SplittableRandom random = new SplittableRandom(11L);
+        BigInteger twoTo64 = BigInteger.ONE.shiftLeft(64);
+        for (int i = 0; i < 50_000; i++) {
+            long divisor = random.nextInt(4) == 0 ? random.nextLong(1L, 1L << 32) : random.nextLong(1L, Long.MAX_VALUE);
+            long high = random.nextLong(0L, divisor);
+            long low = random.nextLong();
+            BigInteger dividend = BigInteger.valueOf(high).shiftLeft(64).add(BigInteger.valueOf(low).mod(twoTo64));
+            BigInteger expected = dividend.divide(BigInteger.valueOf(divisor));
+            assertEquals(expected.longValue(), FixedDecimal.divide128(high, low, divisor),
+                    () -> high + ":" + low + "/" + divisor);
+        }
+    }
+
+    private static void assertSameOrOverflow(BigDecimal expected, Supplier<FixedDecimal> actual) {
+        FixedDecimal value;
+        try {
+            value = actual.get();
+        } catch (ArithmeticException overflow) {
+            return;
+        }
+        assertEquals(expected, value.toBigDecimal());
+    }
+
+    private static BigDecimal randomDecimal(SplittableRandom random) {
+        long unscaled = switch (random.nextInt(4)) {
+            case 0 -> random.nextLong(0L, 1_000L);
+            case 1 -> random.nextLong(0L, 1_000_000_000L);
+            case 2 -> random.nextLong(0L, 999_999_999_999_999_999L);
+            default -> random.nextLong(1L, 100L) * 1_000_000L;
+        };
+        if (random.nextInt(10) == 0) {
+            unscaled = -unscaled;
+        }
+        return BigDecimal.valueOf(unscaled, random.nextInt(-3, 19));
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class LiquiditySimulationEngineTest {
@@ -90,6 +91,31 @@ class LiquiditySimulationEngineTest {
         assertEquals(0, a.filledNotionalUsd().compareTo(b.filledNotionalUsd()));
     }
 
+    @Test
+    void notionalSweepMatchesOneSimulationPerNotional() {
+        LiquiditySimulationEngine engine = new LiquiditySimulationEngine();
+        LiquiditySimulationRequest request = request(new BigDecimal("1500"), assumptions(new BigDecimal("0.15"), 2_100L));
+        List<BigDecimal> notionals = List.of(new BigDecimal("1000000"), new BigDecimal("100"),
+                new BigDecimal("1500"), new BigDecimal("3030.3"), new BigDecimal("100"), new BigDecimal("0.01"));
+
+        List<List<LiquiditySimulationResult>> sweep = engine.simulateAll(request, notionals);
+
+        assertEquals(notionals.size(), sweep.size());
+        for (int i = 0; i < notionals.size(); i++) {
+            LiquiditySimulationRequest single = new LiquiditySimulationRequest(request.orderBook(), request.side(),
+                    notionals.get(i), request.assumptions(), request.modelVersion());
+            assertEquals(engine.simulateAll(single), sweep.get(i));
+        }
+    }
+
+    @Test
+    void sharedDepthMustBelongToTheRequestBook() {
+        LiquiditySimulationRequest request = request(new BigDecimal("1500"), assumptions(BigDecimal.ZERO, null));
+        OrderBookDepth depth = OrderBookDepth.of(request.orderBook(), SourceSide.SHORT, request.assumptions());
+
+        assertThrows(IllegalArgumentException.class, () -> new LiquiditySimulationEngine().simulateAll(depth, request));
+    }
+
     private static LiquiditySimulationResult result(LiquiditySimulationRequest request,
                                                     LiquidityExecutionStrategy strategy) {
         return new LiquiditySimulationEngine().simulateAll(request).stream()
@@ -0,0 +1,109 @@
+package com.apunto.copytarget;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderBookDepthTest {
+
+    private static final MathContext MC = new MathContext(34, RoundingMode.HALF_UP);
+
+    @Test
+    void fillsMatchTheLevelByLevelWalkOnRandomBooks() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int book = 0; book < 200; book++) {
+            LiquiditySimulationAssumptions assumptions = assumptions(
+                    BigDecimal.valueOf(random.nextInt(0, 90), 2), BigDecimal.valueOf(random.nextInt(0, 250), 1));
+            OrderBookSnapshot snapshot = book(random, 1 + random.nextInt(60));
+            for (SourceSide side : SourceSide.values()) {
+                OrderBookDepth depth = OrderBookDepth.of(snapshot, side, assumptions);
+                List<BigDecimal> notionals = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    notionals.add(BigDecimal.valueOf(random.nextLong(1, 50_000_000L), random.nextInt(0, 5)));
+                }
+                notionals.add(depth.totalNotional());
+                notionals.add(BigDecimal.ZERO);
+
+                List<OrderBookDepth.Fill> swept = depth.fillAll(notionals);
+                for (int i = 0; i < notionals.size(); i++) {
+                    OrderBookDepth.Fill expected = walk(snapshot, side, assumptions, notionals.get(i));
+                    assertEquals(expected, depth.fill(notionals.get(i)), "book " + book + " notional " + notionals.get(i));
+                    assertEquals(expected, swept.get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    void fillIsCappedAtTheVisibleDepth() {
+        OrderBookSnapshot snapshot = new OrderBookSnapshot("BTCUSDT", Instant.parse("2026-07-13T12:00:00Z"),
+                "BINANCE_FAPI_DEPTH", 1L, List.of(),
+                List.of(new OrderBookLevel(new BigDecimal("100"), new BigDecimal("1")),
+                        new OrderBookLevel(new BigDecimal("101"), new BigDecimal("2"))));
+        OrderBookDepth depth = OrderBookDepth.of(snapshot, SourceSide.LONG, assumptions(BigDecimal.ZERO, BigDecimal.ZERO));
+
+        OrderBookDepth.Fill fill = depth.fill(new BigDecimal("1000"));
+
+        assertEquals(0, fill.notional().compareTo(new BigDecimal("302")));
+        assertEquals(0, fill.quantity().compareTo(new BigDecimal("3")));
+        assertTrue(OrderBookDepth.of(snapshot, SourceSide.SHORT, depth.assumptions()).isEmpty());
+    }
+
+    /** The walk LiquiditySimulationEngine used before the prefix sums. */
+    private static OrderBookDepth.Fill walk(OrderBookSnapshot book,
+                                            SourceSide side,
+                                            LiquiditySimulationAssumptions assumptions,
+                                            BigDecimal desired) {
+        BigDecimal survival = BigDecimal.ONE.subtract(assumptions.disappearingLiquidityPct(), MC);
+        BigDecimal adverseFactor = assumptions.adverseSelectionBps().divide(new BigDecimal("10000"), MC);
+        BigDecimal remaining = desired;
+        BigDecimal filled = BigDecimal.ZERO;
+        BigDecimal filledQuantity = BigDecimal.ZERO;
+        for (OrderBookLevel level : side == SourceSide.LONG ? book.asks() : book.bids()) {
+            if (remaining.signum() <= 0) {
+                break;
+            }
+            BigDecimal price = side == SourceSide.LONG
+                    ? level.price().multiply(BigDecimal.ONE.add(adverseFactor, MC), MC)
+                    : level.price().multiply(BigDecimal.ONE.subtract(adverseFactor, MC), MC);
+            BigDecimal levelNotional = price.multiply(level.quantity().multiply(survival, MC), MC);
+            BigDecimal quoteTaken = remaining.min(levelNotional);
+            filled = filled.add(quoteTaken, MC);
+            filledQuantity = filledQuantity.add(quoteTaken.divide(price, MC), MC);
+            remaining = remaining.subtract(quoteTaken, MC);
+        }
+        return new OrderBookDepth.Fill(filled, filledQuantity);
+    }
+
+    private static OrderBookSnapshot book(SplittableRandom random, int levels) {
+        List<OrderBookLevel> bids = new ArrayList<>();
+        List<OrderBookLevel> asks = new ArrayList<>();
+        long mid = random.nextLong(1_000L, 10_000_000L);
+        int scale = random.nextInt(0, 5);
+        for (int i = 1; i <= levels; i++) {
+            bids.add(new OrderBookLevel(BigDecimal.valueOf(mid - i, scale), quantity(random)));
+            asks.add(new OrderBookLevel(BigDecimal.valueOf(mid + i, scale), quantity(random)));
+        }
+        return new OrderBookSnapshot("TESTUSDT", Instant.parse("2026-07-13T12:00:00Z"), "BINANCE_FAPI_DEPTH",
+                1L, bids, asks);
+    }
+
+    private static BigDecimal quantity(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(1L, 10_000_000L), random.nextInt(0, 6));
+    }
+
+    private static LiquiditySimulationAssumptions assumptions(BigDecimal disappearingLiquidityPct,
+                                                              BigDecimal adverseSelectionBps) {
+        return new LiquiditySimulationAssumptions(BigDecimal.ONE, new BigDecimal("0.10"), 10, 1_000L,
+                disappearingLiquidityPct, adverseSelectionBps, 100L, null, new BigDecimal("4"), new BigDecimal("1"));
+    }
+}
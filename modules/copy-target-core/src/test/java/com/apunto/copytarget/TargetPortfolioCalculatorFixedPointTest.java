@@ -0,0 +1,94 @@
+package com.apunto.copytarget;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the whole {@link TargetPortfolioCalculatorTest} corpus in fixed-point mode and requires the
+ * result to be equal, scale included, to the BigDecimal one.
+ */
+class TargetPortfolioCalculatorFixedPointTest extends TargetPortfolioCalculatorTest {
+
+    private static final Instant NOW = Instant.parse("2026-07-13T12:00:00Z");
+    private static final String[] CAPITALS = {"100", "250", "1000", "1234.56", "50000", "0.5"};
+    private static final String[] LEVERAGES = {"5", "7", "10", "20"};
+    private static final String[] STEPS = {"1", "0.1", "0.01", "0.001", "0.00001", "5"};
+
+    private final TargetPortfolioCalculator reference = new TargetPortfolioCalculator();
+    private final TargetPortfolioCalculator fixedPoint = new TargetPortfolioCalculator(CalculationArithmetic.FIXED_POINT);
+
+    @Override
+    TargetPortfolioResult calculate(TargetPortfolioRequest request) {
+        TargetPortfolioResult expected = reference.calculate(request);
+        TargetPortfolioResult actual = fixedPoint.calculate(request);
+        assertEquals(expected, actual);
+        return actual;
+    }
+
+    @Test
+    void randomizedPortfoliosMatchBigDecimalExactly() {
+        SplittableRandom random = new SplittableRandom(20260713L);
+        for (int run = 0; run < 500; run++) {
+            calculate(randomRequest(random));
+        }
+    }
+
+    private static TargetPortfolioRequest randomRequest(SplittableRandom random) {
+        int legs = 1 + random.nextInt(40);
+        List<SourcePosition> positions = new ArrayList<>();
+        List<BinanceSymbolFilter> filters = new ArrayList<>();
+        List<ExistingTargetPosition> existing = new ArrayList<>();
+        BigDecimal totalMargin = BigDecimal.ZERO;
+        for (int i = 0; i < legs; i++) {
+            String symbol = "S" + i + "USDT";
+            SourceSide side = random.nextBoolean() ? SourceSide.LONG : SourceSide.SHORT;
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(1, 100_000_000L), random.nextInt(0, 9));
+            BigDecimal notional = BigDecimal.valueOf(random.nextLong(1, 5_000_000_000L), random.nextInt(0, 7));
+            BigDecimal leverage = BigDecimal.valueOf(1 + random.nextInt(25));
+            BigDecimal margin = notional.divide(leverage, random.nextInt(2, 19), RoundingMode.DOWN);
+            totalMargin = totalMargin.add(margin);
+            BigDecimal step = new BigDecimal(STEPS[random.nextInt(STEPS.length)]);
+            positions.add(new SourcePosition("leg-" + i, "S" + i, symbol, side,
+                    notional.divide(price, 8, RoundingMode.DOWN), notional, margin, price, price, leverage,
+                    42L, BigDecimal.valueOf(random.nextInt(101))));
+            filters.add(new BinanceSymbolFilter(symbol, true, "USDT", step, new BigDecimal("1000000"), step,
+                    new BigDecimal(random.nextBoolean() ? "5" : "0.001"), new BigDecimal("0.01"),
+                    new BigDecimal("20"), BigDecimal.valueOf(random.nextInt(101))));
+            if (random.nextInt(3) == 0) {
+                existing.add(new ExistingTargetPosition(symbol, random.nextInt(4) == 0 ? opposite(side) : side,
+                        step.multiply(BigDecimal.valueOf(random.nextInt(1, 500))), price, BigDecimal.ONE));
+            }
+        }
+        // Sometimes the source uses more margin than its equity, pushing the scale factor below 1.
+        BigDecimal equityFactor = random.nextInt(4) == 0 ? new BigDecimal("0.37") : new BigDecimal("1.6");
+        return TargetPortfolioRequest.builder()
+                .calculatedAt(NOW)
+                .sourceAccountEquityUsd(totalMargin.multiply(equityFactor))
+                .equityObservedAt(NOW.minusSeconds(2))
+                .equitySource("HYPERLIQUID_CLEARINGHOUSE_MARGIN_SUMMARY")
+                .maximumEquityAge(Duration.ofSeconds(30))
+                .sourceSnapshotVersion(42L)
+                .sourcePositions(positions)
+                .targetAllocatedCapitalUsd(new BigDecimal(CAPITALS[random.nextInt(CAPITALS.length)]))
+                .targetLeverage(new BigDecimal(LEVERAGES[random.nextInt(LEVERAGES.length)]))
+                .existingPositions(existing)
+                .filters(filters)
+                .quoteAsset("USDT")
+                .userMaxConcurrentPositions(random.nextInt(3) == 0 ? 1 + random.nextInt(10) : null)
+                .versions(new CalculationVersions("strategy-v3", "sizing-v3", "symbols-v3"))
+                .build();
+    }
+
+    private static SourceSide opposite(SourceSide side) {
+        return side == SourceSide.LONG ? SourceSide.SHORT : SourceSide.LONG;
+    }
+}
@@ -21,9 +21,13 @@ class TargetPortfolioCalculatorTest {
 
     private final TargetPortfolioCalculator calculator = new TargetPortfolioCalculator();
 
+    TargetPortfolioResult calculate(TargetPortfolioRequest request) {
+        return calculator.calculate(request);
+    }
+
     @Test
     void usesSourceMarginOverEquityAndTargetCapital() {
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("500000"),
                 List.of(position("HYPE", "HYPEUSDT", "100000", "100", SourceSide.LONG)),
                 bd("100"),
@@ -41,7 +45,7 @@ class TargetPortfolioCalculatorTest {
     void targetPortfolioReplicatesSourceMarginUsageAtTargetLeverage() {
         SourcePosition source = positionWithMargin(
                 "HYPE", "HYPEUSDT", "1000", "100", "100", SourceSide.LONG);
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("2000"),
                 List.of(source),
                 bd("100"),
@@ -60,7 +64,7 @@ class TargetPortfolioCalculatorTest {
         List<SourcePosition> source = List.of(
                 position("A", "AUSDT", "100", "10", SourceSide.LONG));
 
-        TargetPortfolioResult zero = calculator.calculate(request(
+        TargetPortfolioResult zero = calculate(request(
                 bd("1000"), source, BigDecimal.ZERO, bd("5"), null));
 
         assertEquals(DecisionCode.BLOCKED_INSUFFICIENT_MARGIN, zero.portfolioDecisionCode());
@@ -73,7 +77,7 @@ class TargetPortfolioCalculatorTest {
 
     @Test
     void sourceExposureAboveOneHundredPercentUsesOneCommonScaleFactor() {
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("100"),
                 List.of(positionWithMargin("A", "AUSDT", "600", "600", "10", SourceSide.LONG)),
                 bd("100"), bd("5"), null));
@@ -96,9 +100,9 @@ class TargetPortfolioCalculatorTest {
                 base.notionalUsd(), base.marginUsedUsd(), base.markPrice(), base.entryPrice(), bd("50"),
                 base.snapshotVersion(), base.liquidityScore());
 
-        TargetPortfolioResult low = calculator.calculate(request(
+        TargetPortfolioResult low = calculate(request(
                 bd("1000"), List.of(lowLeverage), bd("100"), bd("5"), null));
-        TargetPortfolioResult high = calculator.calculate(request(
+        TargetPortfolioResult high = calculate(request(
                 bd("1000"), List.of(highLeverage), bd("100"), bd("5"), null));
 
         assertEquals(low.selectedLegs(), high.selectedLegs());
@@ -106,7 +110,7 @@ class TargetPortfolioCalculatorTest {
 
     @Test
     void doesNotAssignFixedTwentyDollarsPerPosition() {
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("1000"),
                 List.of(
                         position("A", "AUSDT", "100", "10", SourceSide.LONG),
@@ -128,7 +132,7 @@ class TargetPortfolioCalculatorTest {
             positions.add(position("L" + index, "S" + index + "USDT", "100", "10", SourceSide.LONG));
         }
 
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("1000"), positions, bd("1000"), bd("5"), null));
 
         assertEquals(8, result.selectedLegs().size());
@@ -143,7 +147,7 @@ class TargetPortfolioCalculatorTest {
                 position("B", "BUSDT", "200", "10", SourceSide.LONG)
         );
 
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("1000"), positions, bd("1000"), bd("5"), 2));
 
         assertEquals(List.of("AUSDT", "BUSDT"), result.selectedLegs().stream()
@@ -164,7 +168,7 @@ class TargetPortfolioCalculatorTest {
         TargetPortfolioRequest input = requestBuilder(
                 bd("100"), positions, bd("100"), bd("1"), 1).filters(filters).build();
 
-        TargetPortfolioResult result = calculator.calculate(input);
+        TargetPortfolioResult result = calculate(input);
 
         assertEquals(List.of("BUSDT"), result.selectedLegs().stream()
                 .map(TargetLegDecision::targetSymbol).toList());
@@ -187,7 +191,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of(incumbent))
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(input);
+        TargetPortfolioResult result = calculate(input);
 
         assertTrue(result.selectedLegs().stream().anyMatch(leg -> leg.targetSymbol().equals("AUSDT")));
         assertFalse(result.selectedLegs().stream().anyMatch(leg -> leg.targetSymbol().equals("BUSDT")));
@@ -212,7 +216,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of())
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(input);
+        TargetPortfolioResult result = calculate(input);
 
         assertEquals(List.of("AUSDT"), result.selectedLegs().stream()
                 .map(TargetLegDecision::targetSymbol).toList());
@@ -236,7 +240,7 @@ class TargetPortfolioCalculatorTest {
                 .filters(filters)
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(input);
+        TargetPortfolioResult result = calculate(input);
 
         assertEquals(List.of("AUSDT"), result.selectedLegs().stream()
                 .map(TargetLegDecision::targetSymbol).toList());
@@ -258,7 +262,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of(existing))
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(input);
+        TargetPortfolioResult result = calculate(input);
 
         assertEquals(DecisionCode.BLOCKED_TARGET_SYMBOL_COLLISION, result.portfolioDecisionCode());
         assertFalse(result.entrySizingAllowed());
@@ -271,7 +275,7 @@ class TargetPortfolioCalculatorTest {
 
     @Test
     void appliesOneCommonPortfolioScaleFactor() {
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("100"),
                 List.of(
                         positionWithMargin("A", "AUSDT", "100", "100", "10", SourceSide.LONG),
@@ -300,8 +304,8 @@ class TargetPortfolioCalculatorTest {
         List<SourcePosition> reversed = new ArrayList<>(original);
         Collections.reverse(reversed);
 
-        TargetPortfolioResult first = calculator.calculate(request(bd("1000"), original, bd("500"), bd("5"), null));
-        TargetPortfolioResult second = calculator.calculate(request(bd("1000"), reversed, bd("500"), bd("5"), null));
+        TargetPortfolioResult first = calculate(request(bd("1000"), original, bd("500"), bd("5"), null));
+        TargetPortfolioResult second = calculate(request(bd("1000"), reversed, bd("500"), bd("5"), null));
 
         assertEquals(first, second);
     }
@@ -318,7 +322,7 @@ class TargetPortfolioCalculatorTest {
                 bd("100"), bd("5"), null
         ).filters(List.of(filter)).build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertTrue(result.selectedLegs().isEmpty());
         assertEquals(DecisionCode.SKIPPED_BELOW_MIN_NOTIONAL, result.omittedLegs().getFirst().decisionCode());
@@ -338,7 +342,7 @@ class TargetPortfolioCalculatorTest {
                 bd("1000"), bd("5"), null
         ).filters(List.of(filter)).build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertTrue(result.selectedLegs().isEmpty());
         assertEquals(DecisionCode.REJECTED_BY_BINANCE_FILTER,
@@ -347,7 +351,7 @@ class TargetPortfolioCalculatorTest {
 
     @Test
     void zeroSourceNotionalIsAlreadyAtTargetWhenNoTargetPositionExists() {
-        TargetPortfolioResult result = calculator.calculate(request(
+        TargetPortfolioResult result = calculate(request(
                 bd("1000"),
                 List.of(position("A", "AUSDT", "0", "10", SourceSide.LONG)),
                 bd("100"), bd("5"), null
@@ -372,9 +376,9 @@ class TargetPortfolioCalculatorTest {
         ).equityObservedAt(NOW.minus(Duration.ofMinutes(10))).maximumEquityAge(Duration.ofSeconds(30)).build();
 
         assertEquals(DecisionCode.BLOCKED_SOURCE_EQUITY_MISSING,
-                calculator.calculate(missing).portfolioDecisionCode());
+                calculate(missing).portfolioDecisionCode());
         assertEquals(DecisionCode.BLOCKED_SOURCE_EQUITY_STALE,
-                calculator.calculate(stale).portfolioDecisionCode());
+                calculate(stale).portfolioDecisionCode());
     }
 
     @Test
@@ -387,7 +391,7 @@ class TargetPortfolioCalculatorTest {
                 bd("100"), bd("5"), null
         ).existingPositions(List.of(existing)).build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertEquals(DecisionCode.BLOCKED_SOURCE_EQUITY_MISSING, result.portfolioDecisionCode());
         assertTrue(result.selectedLegs().isEmpty());
@@ -405,7 +409,7 @@ class TargetPortfolioCalculatorTest {
         ).equityObservedAt(NOW.plusSeconds(1)).build();
 
         assertEquals(DecisionCode.BLOCKED_SOURCE_EQUITY_INVALID,
-                calculator.calculate(request).portfolioDecisionCode());
+                calculate(request).portfolioDecisionCode());
     }
 
     @Test
@@ -418,7 +422,7 @@ class TargetPortfolioCalculatorTest {
                 "AUSDT", SourceSide.LONG, bd("2"), bd("10"), bd("4")
         ))).build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         TargetLegDecision close = result.selectedLegs().getFirst();
         assertEquals(DeltaAction.CLOSE, close.deltaAction());
@@ -439,7 +443,7 @@ class TargetPortfolioCalculatorTest {
                     bd("1000"), bd("5"), null
             );
 
-            TargetLegDecision leg = calculator.calculate(request).allLegs().getFirst();
+            TargetLegDecision leg = calculate(request).allLegs().getFirst();
             assertTrue(leg.roundedQuantity().compareTo(leg.rawQuantity()) <= 0,
                     () -> "rounded quantity exceeded raw quantity for case " + caseIndex);
         }
@@ -458,7 +462,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of())
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertFalse(result.entrySizingAllowed());
         assertEquals(DecisionCode.BLOCKED_EXISTING_EXPOSURE_CONFLICT,
@@ -484,7 +488,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of(allocation))
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertTrue(result.entrySizingAllowed());
         TargetLegDecision desired = result.selectedLegs().getFirst();
@@ -506,7 +510,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of(managed))
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         assertFalse(result.entrySizingAllowed());
         assertEquals(DecisionCode.BLOCKED_EXISTING_EXPOSURE_CONFLICT,
@@ -534,16 +538,16 @@ class TargetPortfolioCalculatorTest {
                 .build();
 
         for (TargetPortfolioRequest request : List.of(conflict, unavailable)) {
-            TargetPortfolioResult result = calculator.calculate(request);
+            TargetPortfolioResult result = calculate(request);
             assertFalse(result.entrySizingAllowed());
             TargetLegDecision close = result.selectedLegs().getFirst();
             assertEquals(DeltaAction.CLOSE, close.deltaAction());
             assertEquals(0, bd("1").compareTo(close.deltaQuantity().abs()));
         }
         assertEquals(DecisionCode.BLOCKED_EXISTING_EXPOSURE_CONFLICT,
-                calculator.calculate(conflict).portfolioDecisionCode());
+                calculate(conflict).portfolioDecisionCode());
         assertEquals(DecisionCode.BLOCKED_TARGET_POSITION_SNAPSHOT_UNAVAILABLE,
-                calculator.calculate(unavailable).portfolioDecisionCode());
+                calculate(unavailable).portfolioDecisionCode());
     }
 
     @Test
@@ -559,7 +563,7 @@ class TargetPortfolioCalculatorTest {
                 .portfolioExistingPositions(List.of(opposite))
                 .build();
 
-        TargetPortfolioResult result = calculator.calculate(request);
+        TargetPortfolioResult result = calculate(request);
 
         TargetLegDecision desired = result.selectedLegs().stream()
                 .filter(decision -> decision.sourceLegId().equals("A"))
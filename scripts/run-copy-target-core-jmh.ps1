@@ -0,0 +1,36 @@
+param(
+    [string]$JavaHome = $env:JAVA_HOME,
+    [string]$Benchmarks = ".*",
+    [string]$ResultFile = "target\jmh-result.json"
+)
+
+$ErrorActionPreference = "Stop"
+if ([string]::IsNullOrWhiteSpace($JavaHome)) {
+    throw "Java 21 home is required: pass -JavaHome <path> or set JAVA_HOME"
+}
+if (-not (Test-Path -LiteralPath (Join-Path $JavaHome "bin\java.exe"))) {
+    throw "Java 21 was not found at $JavaHome"
+}
+
+$env:JAVA_HOME = $JavaHome
+$env:Path = "$JavaHome\bin;$env:Path"
+
+& .\mvnw.cmd -q -f modules\copy-target-core\pom.xml install -DskipTests
+if ($LASTEXITCODE -ne 0) {
+    throw "copy-target-core install failed with exit code $LASTEXITCODE"
+}
+
+& .\mvnw.cmd -q -f modules\copy-target-core-benchmarks\pom.xml package
+if ($LASTEXITCODE -ne 0) {
+    throw "copy-target-core-benchmarks package failed with exit code $LASTEXITCODE"
+}
+
+Push-Location modules\copy-target-core-benchmarks
+try {
+    & java -jar target\copy-target-core-benchmarks.jar $Benchmarks -prof gc -rf json -rff $ResultFile
+    if ($LASTEXITCODE -ne 0) {
+        throw "JMH run failed with exit code $LASTEXITCODE"
+    }
+} finally {
+    Pop-Location
+}
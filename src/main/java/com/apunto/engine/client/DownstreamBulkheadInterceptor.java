@@ -0,0 +1,92 @@
+package com.apunto.engine.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita las llamadas HTTP en vuelo hacia un downstream. Con hilos virtuales el tamaño del pool
+ * ya no acota la concurrencia, así que el límite vive aquí.
+ *
+ * <p>Si no se obtiene permiso a tiempo se lanza {@link RestClientException} antes de enviar la
+ * request: el caller la trata como error de cliente reintentable, nunca como timeout ambiguo.</p>
+ */
+public class DownstreamBulkheadInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String downstream;
+    private final int permits;
+    private final long acquireTimeoutMs;
+    private final Semaphore semaphore;
+    private Counter rejected;
+
+    public DownstreamBulkheadInterceptor(String downstream, int permits, Duration acquireTimeout) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("permits debe ser > 0");
+        }
+        this.downstream = downstream;
+        this.permits = permits;
+        this.acquireTimeoutMs = Math.max(0L, acquireTimeout.toMillis());
+        this.semaphore = new Semaphore(permits, true);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        acquire(request);
+        try {
+            return execution.execute(request, body);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    private void acquire(HttpRequest request) {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("downstream_bulkhead_interrupted downstream=" + downstream, ex);
+        }
+        if (!acquired) {
+            if (rejected != null) rejected.increment();
+            throw new RestClientException("downstream_bulkhead_saturated downstream=" + downstream
+                    + " permits=" + permits + " waitMs=" + acquireTimeoutMs
+                    + " method=" + request.getMethod() + " path=" + request.getURI().getPath());
+        }
+    }
+
+    public int inFlight() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public int waiting() {
+        return semaphore.getQueueLength();
+    }
+
+    public DownstreamBulkheadInterceptor bindMetrics(MeterRegistry registry) {
+        Gauge.builder("signals.downstream.bulkhead.in_flight", this, DownstreamBulkheadInterceptor::inFlight)
+                .description("Requests en vuelo hacia el downstream")
+                .tag("downstream", downstream)
+                .register(registry);
+        Gauge.builder("signals.downstream.bulkhead.waiting", this, DownstreamBulkheadInterceptor::waiting)
+                .description("Hilos esperando permiso para llamar al downstream")
+                .tag("downstream", downstream)
+                .register(registry);
+        rejected = Counter.builder("signals.downstream.bulkhead.rejected.total")
+                .description("Requests rechazadas por bulkhead saturado")
+                .tag("downstream", downstream)
+                .register(registry);
+        return this;
+    }
+}
@@ -1,5 +1,7 @@
 package com.apunto.engine.config;
 
+import com.apunto.engine.shared.util.KeyedOrderedExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,28 +14,71 @@ import java.util.concurrent.ThreadPoolExecutor;
 @Configuration
 public class CopyJobExecutorConfig {
 
+    private static final String VIRTUAL_THREADS_ENABLED =
+            "${operation.job.worker.virtual-threads.enabled:${copy.job.worker.virtual-threads.enabled:false}}";
+    private static final String VIRTUAL_THREADS_MAX_CONCURRENCY =
+            "${operation.job.worker.virtual-threads.max-concurrency:${copy.job.worker.virtual-threads.max-concurrency:10000}}";
+
     @Bean(name = "copyJobExecutor")
     public ThreadPoolTaskExecutor copyJobExecutor(
             @Value("${operation.job.worker.pool-size:${copy.job.worker.pool-size:16}}") int threads,
-            @Value("${operation.job.worker.queue:${copy.job.worker.queue:5000}}") int queueCapacity
+            @Value("${operation.job.worker.queue:${copy.job.worker.queue:5000}}") int queueCapacity,
+            @Value(VIRTUAL_THREADS_ENABLED) boolean virtualThreads,
+            @Value(VIRTUAL_THREADS_MAX_CONCURRENCY) int virtualMaxConcurrency
     ) {
-        return buildExecutor(threads, queueCapacity, "copy-job-");
+        return buildExecutor(virtualThreads ? virtualMaxConcurrency : threads, queueCapacity, "copy-job-", virtualThreads);
     }
 
     @Bean(name = "copyPriorityJobExecutor")
     public ThreadPoolTaskExecutor copyPriorityJobExecutor(
             @Value("${operation.job.priority-worker.pool-size:${copy.job.priority-worker.pool-size:16}}") int threads,
-            @Value("${operation.job.priority-worker.queue:${copy.job.priority-worker.queue:20000}}") int queueCapacity
+            @Value("${operation.job.priority-worker.queue:${copy.job.priority-worker.queue:20000}}") int queueCapacity,
+            @Value(VIRTUAL_THREADS_ENABLED) boolean virtualThreads,
+            @Value(VIRTUAL_THREADS_MAX_CONCURRENCY) int virtualMaxConcurrency
+    ) {
+        return buildExecutor(virtualThreads ? virtualMaxConcurrency : threads, queueCapacity, "copy-priority-", virtualThreads);
+    }
+
+    /**
+     * Carriles por userId para el worker de jobs: los jobs de un mismo usuario se ejecutan en
+     * orden en este proceso sin competir por el lock distribuido.
+     *
+     * <p>Cada carril es un único consumidor, así que la concurrencia del worker es el número de
+     * carriles. En modo virtual se usan {@code lanes.virtual-count} carriles (hilos virtuales
+     * baratos) para que el techo lo ponga el bulkhead hacia ms-binance-engine y no el pool; la cola
+     * por carril se achica para mantener parecida la capacidad total.</p>
+     */
+    @Bean(name = "copyJobLaneExecutor", destroyMethod = "shutdown")
+    public KeyedOrderedExecutor copyJobLaneExecutor(
+            @Value("${operation.job.worker.lanes.count:${copy.job.worker.lanes.count:48}}") int lanes,
+            @Value("${operation.job.worker.lanes.queue-per-lane:${copy.job.worker.lanes.queue-per-lane:1000}}") int queuePerLane,
+            @Value("${operation.job.worker.lanes.virtual-count:${copy.job.worker.lanes.virtual-count:512}}") int virtualLanes,
+            @Value("${operation.job.worker.lanes.virtual-queue-per-lane:${copy.job.worker.lanes.virtual-queue-per-lane:100}}") int virtualQueuePerLane,
+            @Value(VIRTUAL_THREADS_ENABLED) boolean virtualThreads,
+            MeterRegistry registry
     ) {
-        return buildExecutor(threads, queueCapacity, "copy-priority-");
+        KeyedOrderedExecutor executor = virtualThreads
+                ? new KeyedOrderedExecutor("copy-job", virtualLanes, virtualQueuePerLane, true)
+                : new KeyedOrderedExecutor("copy-job", lanes, queuePerLane, false);
+        executor.bindMetrics(registry);
+        return executor;
     }
 
-    private ThreadPoolTaskExecutor buildExecutor(int threads, int queueCapacity, String threadNamePrefix) {
+    /*
+     * En modo virtual el pool admite muchas llamadas bloqueantes en vuelo sin hilos de plataforma;
+     * el límite real hacia ms-binance-engine lo pone DownstreamBulkheadInterceptor.
+     */
+    private ThreadPoolTaskExecutor buildExecutor(int threads, int queueCapacity, String threadNamePrefix, boolean virtualThreads) {
         ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
         exec.setCorePoolSize(threads);
         exec.setMaxPoolSize(threads);
         exec.setQueueCapacity(queueCapacity);
         exec.setThreadNamePrefix(threadNamePrefix);
+        if (virtualThreads) {
+            exec.setThreadFactory(Thread.ofVirtual().name(threadNamePrefix + "v-", 0).factory());
+            exec.setKeepAliveSeconds(30);
+            exec.setAllowCoreThreadTimeOut(true);
+        }
 
 
         exec.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
@@ -54,7 +99,9 @@ public class CopyJobExecutorConfig {
         exec.setAwaitTerminationSeconds(30);
 
         exec.initialize();
-        exec.getThreadPoolExecutor().prestartAllCoreThreads();
+        if (!virtualThreads) {
+            exec.getThreadPoolExecutor().prestartAllCoreThreads();
+        }
         return exec;
     }
 }
@@ -0,0 +1,32 @@
+package com.apunto.engine.config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricOutboxKafkaConfig {
+
+    private final KafkaProperties kafkaProperties;
+
+    /**
+     * Producer del outbox de métricas. El payload ya está guardado como JSON, así que se envía
+     * tal cual en bytes en lugar de parsearlo y volver a serializarlo con {@code JsonSerializer}.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> metricOutboxKafkaTemplate() {
+        Map<String, Object> properties = kafkaProperties.buildProducerProperties(null);
+        properties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        properties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(properties));
+    }
+}
@@ -1,7 +1,9 @@
 package com.apunto.engine.config;
 
 import com.apunto.engine.client.BinanceClient;
+import com.apunto.engine.client.DownstreamBulkheadInterceptor;
 import com.apunto.engine.client.MetricWalletsInfoClient;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -55,6 +57,30 @@ public class RestClientConfig {
         return factory;
     }
 
+    /*
+     * Bulkheads separados para órdenes/consultas y para cierres: un engine lento no debe dejar
+     * a los cierres esperando detrás de aperturas en la misma cola de permisos.
+     */
+    @Bean
+    public DownstreamBulkheadInterceptor binanceDownstreamBulkhead(
+            @Value("${rest-client.binance-service.max-in-flight:64}") int permits,
+            @Value("${rest-client.binance-service.bulkhead-wait-ms:5000}") long waitMs,
+            MeterRegistry registry
+    ) {
+        log.info("event=rest_client.bulkhead name=binance permits={} waitMs={}", permits, waitMs);
+        return new DownstreamBulkheadInterceptor("binance", permits, Duration.ofMillis(waitMs)).bindMetrics(registry);
+    }
+
+    @Bean
+    public DownstreamBulkheadInterceptor binanceCloseDownstreamBulkhead(
+            @Value("${rest-client.binance-service.close-max-in-flight:64}") int permits,
+            @Value("${rest-client.binance-service.close-bulkhead-wait-ms:5000}") long waitMs,
+            MeterRegistry registry
+    ) {
+        log.info("event=rest_client.bulkhead name=binance_close permits={} waitMs={}", permits, waitMs);
+        return new DownstreamBulkheadInterceptor("binance_close", permits, Duration.ofMillis(waitMs)).bindMetrics(registry);
+    }
+
     @Bean
     public RestClient metricWalletRestClient(
             RestClient.Builder builder,
@@ -71,10 +97,12 @@ public class RestClientConfig {
     public RestClient binanceRestClient(
             RestClient.Builder builder,
             @Qualifier("binanceClientHttpRequestFactory") ClientHttpRequestFactory requestFactory,
-            @Value("${rest-client.binance-service.info-base}") String baseUrl
+            @Value("${rest-client.binance-service.info-base}") String baseUrl,
+            @Qualifier("binanceDownstreamBulkhead") DownstreamBulkheadInterceptor bulkhead
     ) {
         return builder
                 .requestFactory(requestFactory)
+                .requestInterceptor(bulkhead)
                 .baseUrl(baseUrl)
                 .build();
     }
@@ -83,10 +111,12 @@ public class RestClientConfig {
     public RestClient binanceCloseRestClient(
             RestClient.Builder builder,
             @Qualifier("binanceCloseClientHttpRequestFactory") ClientHttpRequestFactory requestFactory,
-            @Value("${rest-client.binance-service.info-base}") String baseUrl
+            @Value("${rest-client.binance-service.info-base}") String baseUrl,
+            @Qualifier("binanceCloseDownstreamBulkhead") DownstreamBulkheadInterceptor bulkhead
     ) {
         return builder
                 .requestFactory(requestFactory)
+                .requestInterceptor(bulkhead)
                 .baseUrl(baseUrl)
                 .build();
     }
@@ -49,9 +49,17 @@ public class CopyExecutionJobEntity {
     @Column(name = "locked_by", length = 128)
     private String lockedBy;
 
-    @Column(name = "payload", columnDefinition = "text", nullable = false)
+    /** Payload inline de jobs legacy; los jobs nuevos lo referencian por payloadHash. */
+    @Column(name = "payload", columnDefinition = "text")
     private String payload;
 
+    @Column(name = "payload_hash", length = 64)
+    private String payloadHash;
+
+    /** Payload compartido resuelto por hash al reclamar el batch; nunca se persiste en la fila. */
+    @Transient
+    private String sharedPayload;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "last_error_category", nullable = false, length = 32)
     private CopyJobErrorCategory lastErrorCategory;
@@ -105,6 +113,12 @@ public class CopyExecutionJobEntity {
     public void setLockedBy(String lockedBy) { this.lockedBy = lockedBy; }
     public String getPayload() { return payload; }
     public void setPayload(String payload) { this.payload = payload; }
+    public String getPayloadHash() { return payloadHash; }
+    public void setPayloadHash(String payloadHash) { this.payloadHash = payloadHash; }
+    public String getSharedPayload() { return sharedPayload; }
+    public void setSharedPayload(String sharedPayload) { this.sharedPayload = sharedPayload; }
+    public String effectivePayload() { return payload != null ? payload : sharedPayload; }
+    public String payloadKey() { return payloadHash != null ? payloadHash : payload; }
     public CopyJobErrorCategory getLastErrorCategory() { return lastErrorCategory; }
     public void setLastErrorCategory(CopyJobErrorCategory lastErrorCategory) { this.lastErrorCategory = lastErrorCategory; }
     public String getLastErrorMessage() { return lastErrorMessage; }
@@ -19,6 +19,8 @@ public class HyperliquidDirectIngestProperties {
     private long dedupeLeaseTtlMs = 60000;
     private boolean failOpenOnDedupeError = false;
     private long logIntervalMs = 10000;
+    /** Máximo de deltas por POST al endpoint de lotes. */
+    private int batchMaxItems = 1000;
 
     public boolean isEnabled() {
         return enabled;
@@ -99,4 +101,12 @@ public class HyperliquidDirectIngestProperties {
     public void setLogIntervalMs(long logIntervalMs) {
         this.logIntervalMs = logIntervalMs;
     }
+
+    public int getBatchMaxItems() {
+        return batchMaxItems;
+    }
+
+    public void setBatchMaxItems(int batchMaxItems) {
+        this.batchMaxItems = batchMaxItems;
+    }
 }
@@ -1,6 +1,7 @@
 package com.apunto.engine.hyperliquid.controller;
 
 import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaAcceptedResponse;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaBatchResponse;
 import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaRequest;
 import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
 import com.apunto.engine.hyperliquid.mapper.HyperliquidDeltaOperacionMapper;
@@ -17,6 +18,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -50,6 +55,72 @@ public class HyperliquidDirectDeltaController {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
     }
 
+    /**
+     * Lote ordenado de deltas, típicamente cuando la réplica upstream se pone al día. Cada item
+     * lleva su propio {@code idempotencyKey}; la respuesta trae el estado de cada uno en su índice.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<HyperliquidDeltaBatchResponse> receiveDeltaBatch(
+            @RequestHeader(value = "X-Source-Service", required = false) String sourceService,
+            @Valid @RequestBody List<@Valid HyperliquidDeltaRequest> requests
+    ) {
+        long startedNs = System.nanoTime();
+        int size = requests.size();
+        HyperliquidDeltaBatchResponse.Item[] results = new HyperliquidDeltaBatchResponse.Item[size];
+        List<HyperliquidMappedDelta> mappedDeltas = new ArrayList<>(size);
+        List<Integer> mappedIndexes = new ArrayList<>(size);
+        Set<String> rejectedPositions = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            HyperliquidDeltaRequest request = requests.get(i);
+            String positionKey = mapper.positionKeyOf(request);
+            if (positionKey != null && rejectedPositions.contains(positionKey)) {
+                results[i] = rejectedItem(i, "prior_delta_rejected", request, positionKey);
+                continue;
+            }
+            try {
+                mappedDeltas.add(mapper.map(request, null));
+                mappedIndexes.add(i);
+            } catch (IllegalArgumentException invalid) {
+                // Un item no mapeable se rechaza solo; los siguientes de su posición tampoco entran
+                // para que el reintento del upstream no llegue desordenado.
+                if (positionKey != null) {
+                    rejectedPositions.add(positionKey);
+                }
+                results[i] = rejectedItem(i, invalid.getMessage(), request, positionKey);
+            }
+        }
+        HyperliquidDeltaBatchResponse accepted = ingestService.acceptAll(mappedDeltas);
+        for (HyperliquidDeltaBatchResponse.Item item : accepted.items()) {
+            int index = mappedIndexes.get(item.index());
+            results[index] = new HyperliquidDeltaBatchResponse.Item(
+                    index, item.status(), item.reasonCode(), item.idempotencyKey(), item.positionKey(), item.deltaType());
+        }
+        HyperliquidDeltaBatchResponse response = HyperliquidDeltaBatchResponse.of(List.of(results), accepted.queueDepth());
+        log.debug("event=hyperliquid.direct_delta.batch_accepted sourceService={} received={} accepted={} duplicates={} rejected={} queueDepth={} httpElapsedMs={}",
+                safeLog(sourceService),
+                response.received(),
+                response.accepted(),
+                response.duplicates(),
+                response.rejected(),
+                response.queueDepth(),
+                Duration.ofNanos(System.nanoTime() - startedNs).toMillis());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    private HyperliquidDeltaBatchResponse.Item rejectedItem(int index,
+                                                           String reasonCode,
+                                                           HyperliquidDeltaRequest request,
+                                                           String positionKey) {
+        return new HyperliquidDeltaBatchResponse.Item(
+                index,
+                HyperliquidDeltaBatchResponse.REJECTED,
+                reasonCode,
+                request == null ? null : request.idempotencyKey(),
+                positionKey,
+                request == null ? null : request.deltaType()
+        );
+    }
+
     private String safeLog(String value) {
         if (value == null || value.isBlank()) {
             return "NA";
@@ -0,0 +1,61 @@
+package com.apunto.engine.hyperliquid.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record HyperliquidDeltaBatchResponse(
+        int received,
+        int accepted,
+        int duplicates,
+        int rejected,
+        int queueDepth,
+        List<Item> items,
+        Instant acceptedAt
+) {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String REJECTED = "REJECTED";
+
+    public static HyperliquidDeltaBatchResponse of(List<Item> items, int queueDepth) {
+        int accepted = 0;
+        int duplicates = 0;
+        int rejected = 0;
+        for (Item item : items) {
+            switch (item.status()) {
+                case ACCEPTED -> accepted++;
+                case DUPLICATE -> duplicates++;
+                default -> rejected++;
+            }
+        }
+        return new HyperliquidDeltaBatchResponse(
+                items.size(),
+                accepted,
+                duplicates,
+                rejected,
+                queueDepth,
+                List.copyOf(items),
+                Instant.now()
+        );
+    }
+
+    /** Resultado de un delta, en la misma posición que tenía en el array recibido. */
+    public record Item(
+            int index,
+            String status,
+            String reasonCode,
+            String idempotencyKey,
+            String positionKey,
+            String deltaType
+    ) {
+        public static Item of(int index, String status, String reasonCode, HyperliquidMappedDelta mappedDelta) {
+            return new Item(
+                    index,
+                    status,
+                    reasonCode,
+                    mappedDelta == null ? null : mappedDelta.idempotencyKey(),
+                    mappedDelta == null ? null : mappedDelta.positionKey(),
+                    mappedDelta == null ? null : mappedDelta.deltaType()
+            );
+        }
+    }
+}
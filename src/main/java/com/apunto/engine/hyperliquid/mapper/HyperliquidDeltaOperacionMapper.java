@@ -194,6 +194,24 @@ public class HyperliquidDeltaOperacionMapper {
         return UUID.nameUUIDFromBytes(positionKey(wallet, symbol, side).getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Clave de posición del delta aunque {@link #map} lo rechace (NO_CHANGE, sin idempotencyKey...);
+     * {@code null} si wallet, symbol o side no alcanzan para formarla.
+     */
+    public String positionKeyOf(HyperliquidDeltaRequest request) {
+        if (request == null) {
+            return null;
+        }
+        try {
+            return positionKey(
+                    requireText(request.wallet(), "wallet is required").toLowerCase(Locale.ROOT),
+                    toEngineSymbol(request.symbol()),
+                    mapSide(request.side()).name());
+        } catch (IllegalArgumentException unresolvable) {
+            return null;
+        }
+    }
+
     private String positionKey(String wallet, String symbol, String side) {
         return "hyperliquid-position:" + wallet + ':' + symbol + ':' + side;
     }
@@ -1,9 +1,15 @@
 package com.apunto.engine.hyperliquid.service;
 
 import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaAcceptedResponse;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaBatchResponse;
 import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
 
+import java.util.List;
+
 public interface HyperliquidDirectDeltaIngestService {
 
     HyperliquidDeltaAcceptedResponse accept(HyperliquidMappedDelta mappedDelta);
+
+    /** Acepta un lote ordenado; el orden se conserva por posición dentro de cada lane. */
+    HyperliquidDeltaBatchResponse acceptAll(List<HyperliquidMappedDelta> mappedDeltas);
 }
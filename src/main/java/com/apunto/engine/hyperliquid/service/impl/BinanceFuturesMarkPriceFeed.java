@@ -0,0 +1,249 @@
+package com.apunto.engine.hyperliquid.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mark price de todos los símbolos de Binance Futures con una sola llamada a
+ * {@code /fapi/v1/premiumIndex}, refrescada en background.
+ *
+ * <p>Cada refresh publica una tabla inmutable nueva (hash abierto con claves {@code int} y arrays
+ * paralelos), así que {@link #lookup(String)} es una lectura en memoria sin locks ni HTTP. La
+ * tabla lleva el instante en que se recibió y el lookup informa si ya pasó {@code max-age-ms}.</p>
+ *
+ * <p>Es opt-in ({@code binance-price-feed-enabled}): publica mark price, no el último precio
+ * operado que devuelven el engine y {@code /fapi/v1/ticker/price}.</p>
+ */
+@Slf4j
+@Component
+public class BinanceFuturesMarkPriceFeed {
+
+    private final boolean enabled;
+    private final long maxAgeMs;
+    private final ObjectMapper objectMapper;
+    private final RestClient restClient;
+    private final Clock clock;
+    private volatile PriceTable table = PriceTable.EMPTY;
+
+    @Autowired
+    public BinanceFuturesMarkPriceFeed(
+            ObjectMapper objectMapper,
+            @Value("${hyperliquid.direct-ingest.origin-store.binance-price-enabled:true}") boolean priceEnabled,
+            @Value("${hyperliquid.direct-ingest.origin-store.binance-price-feed-enabled:false}") boolean feedEnabled,
+            @Value("${hyperliquid.direct-ingest.origin-store.binance-price-feed-max-age-ms:5000}") long maxAgeMs,
+            @Value("${hyperliquid.direct-ingest.origin-store.binance-price-base-url:https://fapi.binance.com}") String baseUrl,
+            @Value("${hyperliquid.direct-ingest.origin-store.binance-price-feed-timeout-ms:2000}") int timeoutMs
+    ) {
+        this(objectMapper, priceEnabled && feedEnabled, maxAgeMs, restClient(baseUrl, timeoutMs), Clock.systemUTC());
+        log.info("event=hyperliquid.origin_store.price_feed.config enabled={} maxAgeMs={} timeoutMs={}",
+                enabled, this.maxAgeMs, Math.max(100, timeoutMs));
+    }
+
+    BinanceFuturesMarkPriceFeed(ObjectMapper objectMapper,
+                                boolean enabled,
+                                long maxAgeMs,
+                                RestClient restClient,
+                                Clock clock) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxAgeMs = Math.max(1L, maxAgeMs);
+        this.restClient = restClient;
+        this.clock = clock;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${hyperliquid.direct-ingest.origin-store.binance-price-feed-refresh-ms:1000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long startedNs = System.nanoTime();
+        try {
+            String body = restClient.get()
+                    .uri("/fapi/v1/premiumIndex")
+                    .retrieve()
+                    .body(String.class);
+            int symbols = apply(body);
+            log.debug("event=hyperliquid.origin_store.price_feed.refreshed symbols={} elapsedMs={}",
+                    symbols, elapsedMs(startedNs));
+        } catch (RestClientException | IllegalStateException | IllegalArgumentException | JsonProcessingException ex) {
+            log.warn("event=hyperliquid.origin_store.price_feed.refresh_failed tableAgeMs={} maxAgeMs={} errClass={} errMsg=\"{}\" elapsedMs={}",
+                    table.ageMs(clock.millis()), maxAgeMs, ex.getClass().getSimpleName(), safeLog(ex.getMessage()),
+                    elapsedMs(startedNs));
+        }
+    }
+
+    /** Publica la tabla del body de premiumIndex; un body vacío o sin precios no reemplaza la actual. */
+    int apply(String body) throws JsonProcessingException {
+        if (body == null || body.isBlank()) {
+            throw new IllegalStateException("premiumIndex body vacío");
+        }
+        JsonNode root = objectMapper.readTree(body);
+        if (!root.isArray()) {
+            throw new IllegalStateException("premiumIndex no devolvió un array");
+        }
+        List<String> symbols = new ArrayList<>(root.size());
+        List<BigDecimal> prices = new ArrayList<>(root.size());
+        List<Long> times = new ArrayList<>(root.size());
+        for (JsonNode node : root) {
+            String symbol = node.path("symbol").asText(null);
+            String rawPrice = node.path("markPrice").asText(null);
+            if (symbol == null || symbol.isBlank() || rawPrice == null || rawPrice.isBlank()) {
+                continue;
+            }
+            BigDecimal price = new BigDecimal(rawPrice);
+            if (price.signum() <= 0) {
+                continue;
+            }
+            symbols.add(symbol.trim().toUpperCase(Locale.ROOT));
+            prices.add(price);
+            times.add(node.path("time").asLong(0L));
+        }
+        if (symbols.isEmpty()) {
+            throw new IllegalStateException("premiumIndex sin precios positivos");
+        }
+        table = new PriceTable(symbols, prices, times, clock.millis());
+        return symbols.size();
+    }
+
+    /** Lectura en memoria; {@code canonicalSymbol} es el símbolo Binance ya normalizado. */
+    public Lookup lookup(String canonicalSymbol) {
+        PriceTable current = table;
+        long ageMs = current.ageMs(clock.millis());
+        if (current.size() == 0 || ageMs > maxAgeMs) {
+            return new Lookup(Status.STALE, null, 0L, ageMs);
+        }
+        int slot = current.slot(canonicalSymbol);
+        if (slot < 0) {
+            return new Lookup(Status.MISSING, null, 0L, ageMs);
+        }
+        return new Lookup(Status.FRESH, current.prices[slot], current.eventTimesMs[slot], ageMs);
+    }
+
+    public enum Status {
+        FRESH,
+        /** La tabla está al día y Binance no lista el símbolo. */
+        MISSING,
+        /** Sin refresh exitoso dentro de {@code max-age-ms}; no se puede afirmar nada del símbolo. */
+        STALE
+    }
+
+    public record Lookup(Status status, BigDecimal markPrice, long eventTimeMs, long tableAgeMs) {
+    }
+
+    private static RestClient restClient(String baseUrl, int timeoutMs) {
+        Duration timeout = Duration.ofMillis(Math.max(100, timeoutMs));
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .baseUrl(baseUrl)
+                .build();
+    }
+
+    private long elapsedMs(long startedNs) {
+        return Duration.ofNanos(System.nanoTime() - startedNs).toMillis();
+    }
+
+    private String safeLog(String value) {
+        if (value == null || value.isBlank()) {
+            return "NA";
+        }
+        String clean = value.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ').replace('"', '\'');
+        return clean.length() > 500 ? clean.substring(0, 500) : clean;
+    }
+
+    /**
+     * Hash abierto con sondeo lineal: {@code hashes} descarta casi todas las colisiones sin tocar
+     * el String y solo se compara el símbolo cuando coincide el hash.
+     */
+    static final class PriceTable {
+
+        static final PriceTable EMPTY = new PriceTable(List.of(), List.of(), List.of(), 0L);
+
+        private final int[] hashes;
+        private final String[] symbols;
+        private final BigDecimal[] prices;
+        private final long[] eventTimesMs;
+        private final int mask;
+        private final int size;
+        private final long receivedAtMs;
+
+        PriceTable(List<String> symbols, List<BigDecimal> prices, List<Long> eventTimesMs, long receivedAtMs) {
+            int capacity = Integer.highestOneBit(Math.max(2, symbols.size()) * 2 - 1) << 1;
+            this.hashes = new int[capacity];
+            this.symbols = new String[capacity];
+            this.prices = new BigDecimal[capacity];
+            this.eventTimesMs = new long[capacity];
+            this.mask = capacity - 1;
+            this.receivedAtMs = receivedAtMs;
+            int stored = 0;
+            for (int i = 0; i < symbols.size(); i++) {
+                String symbol = symbols.get(i);
+                int hash = hash(symbol);
+                int slot = hash & mask;
+                while (this.symbols[slot] != null && !this.symbols[slot].equals(symbol)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (this.symbols[slot] == null) {
+                    stored++;
+                }
+                this.hashes[slot] = hash;
+                this.symbols[slot] = symbol;
+                this.prices[slot] = prices.get(i);
+                this.eventTimesMs[slot] = eventTimesMs.get(i);
+            }
+            this.size = stored;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long ageMs(long nowMs) {
+            return receivedAtMs == 0L ? Long.MAX_VALUE : Math.max(0L, nowMs - receivedAtMs);
+        }
+
+        /** Slot del símbolo o {@code -1}. */
+        int slot(String symbol) {
+            if (symbol == null) {
+                return -1;
+            }
+            int hash = hash(symbol);
+            int slot = hash & mask;
+            while (symbols[slot] != null) {
+                if (hashes[slot] == hash && symbols[slot].equals(symbol)) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private static int hash(String symbol) {
+            int h = symbol.hashCode();
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -47,6 +47,7 @@ public class BinanceFuturesPriceNormalizerService {
     private final ObjectMapper objectMapper;
     private final BinanceFuturesSymbolCatalog symbolCatalog;
     private final ProcesBinanceService procesBinanceService;
+    private final BinanceFuturesMarkPriceFeed priceFeed;
     private final boolean enginePriceEnabled;
     private final boolean enginePriceAllowStale;
     private final Cache<String, BinancePriceReference> cache;
@@ -57,6 +58,7 @@ public class BinanceFuturesPriceNormalizerService {
             ObjectMapper objectMapper,
             BinanceFuturesSymbolCatalog symbolCatalog,
             ProcesBinanceService procesBinanceService,
+            BinanceFuturesMarkPriceFeed priceFeed,
             @Value("${hyperliquid.direct-ingest.origin-store.binance-price-enabled:true}") boolean enabled,
             @Value("${hyperliquid.direct-ingest.origin-store.binance-price-engine-enabled:true}") boolean enginePriceEnabled,
             @Value("${hyperliquid.direct-ingest.origin-store.binance-price-engine-allow-stale:true}") boolean enginePriceAllowStale,
@@ -72,6 +74,7 @@ public class BinanceFuturesPriceNormalizerService {
         this.objectMapper = objectMapper;
         this.symbolCatalog = symbolCatalog;
         this.procesBinanceService = procesBinanceService;
+        this.priceFeed = priceFeed;
         this.enabled = enabled;
         this.enginePriceEnabled = enginePriceEnabled;
         this.enginePriceAllowStale = enginePriceAllowStale;
@@ -108,6 +111,10 @@ public class BinanceFuturesPriceNormalizerService {
      * - origin symbol: PEPEUSD, Binance symbol: 1000PEPEUSDT
      * - Binance ticker price is the price of 1000 PEPE.
      * - This method returns price = tickerPrice / 1000, so origin_store metrics stay on PEPE unit price.
+     *
+     * With the mark price feed enabled (opt-in) a fresh feed is an in-memory read of the mark price,
+     * not the last traded price. A stale feed falls back to the per-symbol engine/ticker path, with
+     * its short cache, before the last good price.
      */
     public Optional<BinancePriceReference> resolve(String symbol) {
         if (!enabled) {
@@ -131,7 +138,7 @@ public class BinanceFuturesPriceNormalizerService {
         BigDecimal contractMultiplier = contractMultiplier(symbol, canonical);
         String cacheKey = normalize(symbol) + "::" + canonical + "::" + contractMultiplier.stripTrailingZeros().toPlainString();
 
-        BinancePriceReference cached = cache.getIfPresent(cacheKey);
+        BinancePriceReference cached = priceFeed.enabled() ? null : cache.getIfPresent(cacheKey);
         if (cached != null) {
             return Optional.of(cached.withSource("binance_cache"));
         }
@@ -149,10 +156,24 @@ public class BinanceFuturesPriceNormalizerService {
                     : Optional.empty();
         }
 
-        Optional<BinancePriceReference> fetched = fetch(canonical, symbol, contractMultiplier, lastGood);
+        BinanceFuturesMarkPriceFeed.Lookup lookup = priceFeed.enabled() ? priceFeed.lookup(canonical) : null;
+        boolean fromFeed = lookup != null && lookup.status() != BinanceFuturesMarkPriceFeed.Status.STALE;
+        if (lookup != null && !fromFeed) {
+            BinancePriceReference staleFeedCached = cache.getIfPresent(cacheKey);
+            if (staleFeedCached != null) {
+                return Optional.of(staleFeedCached.withSource("binance_cache"));
+            }
+            log.debug("event=hyperliquid.origin_store.binance_price.feed_stale symbol={} tableAgeMs={} fallback=engine_or_ticker",
+                    safeLog(canonical), lookup.tableAgeMs());
+        }
+        Optional<BinancePriceReference> fetched = fromFeed
+                ? fromFeed(lookup, canonical, symbol, contractMultiplier, lastGood)
+                : fetch(canonical, symbol, contractMultiplier, lastGood);
         if (fetched.isPresent()) {
             BinancePriceReference price = fetched.get();
-            cache.put(cacheKey, price);
+            if (!fromFeed) {
+                cache.put(cacheKey, price);
+            }
             if (isPositive(price.price())) {
                 lastGoodCache.put(cacheKey, price);
             }
@@ -169,6 +190,38 @@ public class BinanceFuturesPriceNormalizerService {
         }
     }
 
+    private Optional<BinancePriceReference> fromFeed(BinanceFuturesMarkPriceFeed.Lookup lookup,
+                                                     String canonicalSymbol,
+                                                     String rawSymbol,
+                                                     BigDecimal contractMultiplier,
+                                                     BinancePriceReference lastGood) {
+        long startedNs = System.nanoTime();
+        if (lookup.status() == BinanceFuturesMarkPriceFeed.Status.MISSING) {
+            missCache.put(canonicalSymbol, Boolean.TRUE);
+            log.debug("event=hyperliquid.origin_store.binance_price.invalid_symbol symbol={} source=price_feed",
+                    safeLog(canonicalSymbol));
+            return fallbackLastGood(canonicalSymbol, lastGood, startedNs, null, null, "symbol_not_in_price_feed");
+        }
+        BigDecimal contractPrice = lookup.markPrice();
+        BigDecimal safeMultiplier = contractMultiplier == null || contractMultiplier.compareTo(ZERO) <= 0 ? ONE : contractMultiplier;
+        BigDecimal unitPrice = contractPrice.divide(safeMultiplier, CALC_SCALE, RoundingMode.HALF_UP).stripTrailingZeros();
+        OffsetDateTime ts = lookup.eventTimeMs() > 0L
+                ? OffsetDateTime.ofInstant(Instant.ofEpochMilli(lookup.eventTimeMs()), ZoneOffset.UTC)
+                : OffsetDateTime.now(ZoneOffset.UTC);
+        return Optional.of(new BinancePriceReference(
+                canonicalSymbol,
+                unitPrice,
+                "binance_futures_mark_price_feed",
+                ts,
+                elapsedMs(startedNs),
+                lookup.tableAgeMs(),
+                contractPrice,
+                safeMultiplier,
+                rawSymbol,
+                canonicalSymbol
+        ));
+    }
+
     private Optional<BinancePriceReference> fetch(String canonicalSymbol,
                                                   String rawSymbol,
                                                   BigDecimal contractMultiplier,
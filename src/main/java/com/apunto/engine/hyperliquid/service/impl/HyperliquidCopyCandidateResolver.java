@@ -194,6 +194,7 @@ public class HyperliquidCopyCandidateResolver {
         Map<String, CopyStrategyGuardDecision> guardByProfile = new HashMap<>();
         Map<String, Integer> excluded = new LinkedHashMap<>();
         Set<UUID> activeUserIds = new java.util.LinkedHashSet<>();
+        CopyStrategyRuntimeRouter.RoutedEvent routedEvent = copyStrategyRuntimeRouter.routeEvent(action, deltaType, side, symbol);
         int matchingAllocations = 0;
         for (UserCopyAllocationEntity allocation : activeAllocations) {
             if (allocation == null) {
@@ -207,7 +208,7 @@ public class HyperliquidCopyCandidateResolver {
                     allocation.isActive(),
                     allocation.getEndsAt(),
                     safeLog(allocation.getCopyStrategyCode()));
-            if (!copyStrategyRuntimeRouter.allocationAppliesToEvent(allocation, action, deltaType, side, symbol)) {
+            if (!routedEvent.admits(allocation)) {
                 String reasonCode = scopeBlockReason(allocation);
                 exclude(excluded, reasonCode, allocation.getExecutionMode());
                 log.info("event=copy.candidate.resolve.allocation_filtered userCopyAllocationId={} executionMode={} reasonCode={} sourceReasonCode=STRATEGY_SCOPE_NOT_MATCHED",
@@ -15,15 +15,18 @@ import com.apunto.engine.metric.TradingMetrics;
 import com.apunto.engine.service.ActiveCopyOperationCache;
 import com.apunto.engine.service.BinanceCopyExecutionService;
 import com.apunto.engine.service.OperacionEventIngestService;
+import com.apunto.engine.service.copy.position.BinanceTargetPositionSnapshotService;
 import com.apunto.engine.service.copy.observability.CopyFlowTiming;
 import com.apunto.engine.service.copy.observability.CopyFlowTimingContext;
 import com.apunto.engine.shared.exception.CopyPersistenceConflictException;
 import com.apunto.engine.shared.exception.EngineException;
 import com.apunto.engine.shared.exception.SkipExecutionException;
 import com.apunto.engine.shared.util.CopyLogAdvice;
+import com.apunto.engine.shared.util.CopyLogThrottle;
 import com.apunto.engine.shared.util.CopySymbolIdentity;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.slf4j.spi.LoggingEventBuilder;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
@@ -52,10 +55,14 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
     private final ThreadPoolTaskExecutor copyJobExecutor;
     private final ThreadPoolTaskExecutor copyPriorityJobExecutor;
     private final TradingMetrics tradingMetrics;
+    private final BinanceTargetPositionSnapshotService targetPositionSnapshotService;
 
     @Value("${hyperliquid.direct-ingest.fallback-db-on-direct-failure:true}")
     private boolean fallbackDbOnDirectFailure;
 
+    @Value("${copy.target-position-authority.prefetch-on-origin-event:true}")
+    private boolean prefetchTargetPositions;
+
     public HyperliquidDirectCopyDispatchServiceImpl(
             BinanceCopyExecutionService binanceCopyExecutionService,
             ActiveCopyOperationCache activeCopyOperationCache,
@@ -64,7 +71,8 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
             OperacionEventIngestService fallbackIngestService,
             @Qualifier("copyJobExecutor") ThreadPoolTaskExecutor copyJobExecutor,
             @Qualifier("copyPriorityJobExecutor") ThreadPoolTaskExecutor copyPriorityJobExecutor,
-            TradingMetrics tradingMetrics
+            TradingMetrics tradingMetrics,
+            BinanceTargetPositionSnapshotService targetPositionSnapshotService
     ) {
         this.binanceCopyExecutionService = binanceCopyExecutionService;
         this.activeCopyOperationCache = activeCopyOperationCache;
@@ -74,6 +82,7 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
         this.copyJobExecutor = copyJobExecutor;
         this.copyPriorityJobExecutor = copyPriorityJobExecutor;
         this.tradingMetrics = tradingMetrics;
+        this.targetPositionSnapshotService = targetPositionSnapshotService;
     }
 
     @Override
@@ -113,29 +122,32 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
                 && action != CopyJobAction.CLOSE) {
             businessSkipped.incrementAndGet();
             firstReasonCode.compareAndSet(null, candidates.reasonCode());
-            String traceId = originTraceId(originId, wallet, symbol);
-            log.info("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=allocation_empty friendlyReason=sin_asignacion_live explanation=no_se_envio_orden_porque_no_hay_usuarios_live_asignados_a_este_wallet copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive=false activeCacheSize={} source={} {}",
-                    traceId, originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, candidates.reasonCode(), activeCopyOperationCache.activeSize(), candidates.source(),
-                    CopyLogAdvice.fields(candidates.reasonCode(), CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source())));
+            if (CopyLogThrottle.allow(candidates.reasonCode(), wallet)) {
+                CopyLogAdvice.withAdvice(log.atInfo(), candidates.reasonCode(), CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source()))
+                        .log("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=allocation_empty friendlyReason=sin_asignacion_live explanation=no_se_envio_orden_porque_no_hay_usuarios_live_asignados_a_este_wallet copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive=false activeCacheSize={} source={}",
+                        originTraceId(originId, wallet, symbol), originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, candidates.reasonCode(), activeCopyOperationCache.activeSize(), candidates.source());
+            }
         }
 
         if (eligibleUsers.isEmpty() && action == CopyJobAction.OPEN && deltaType.canAdjustExistingCopy()) {
             businessSkipped.incrementAndGet();
             firstReasonCode.compareAndSet(null, adjustmentReason(deltaType));
-            String traceId = originTraceId(originId, wallet, symbol);
             String reasonCode = adjustmentReason(deltaType);
-            log.info("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=adjustment_without_active_copy friendlyReason=ajuste_sin_copia_activa explanation=ajuste_no_copiado_porque_no_existe_copia_abierta copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive=false activeCacheSize={} source={} {}",
-                    traceId, originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, reasonCode, activeCopyOperationCache.activeSize(), candidates.source(),
-                    CopyLogAdvice.fields(reasonCode, CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source())));
+            if (CopyLogThrottle.allow(reasonCode, wallet)) {
+                CopyLogAdvice.withAdvice(log.atInfo(), reasonCode, CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source()))
+                        .log("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=adjustment_without_active_copy friendlyReason=ajuste_sin_copia_activa explanation=ajuste_no_copiado_porque_no_existe_copia_abierta copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive=false activeCacheSize={} source={}",
+                        originTraceId(originId, wallet, symbol), originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, reasonCode, activeCopyOperationCache.activeSize(), candidates.source());
+            }
         }
 
         if (eligibleUsers.isEmpty() && action == CopyJobAction.CLOSE) {
             businessSkipped.incrementAndGet();
             firstReasonCode.compareAndSet(null, "close_without_open_copy");
-            String traceId = originTraceId(originId, wallet, symbol);
-            log.info("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=close_without_active_copy friendlyReason=cierre_sin_copia_activa explanation=cierre_no_copiado_porque_no_existe_copia_abierta copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode=close_without_open_copy cacheActive=false activeCacheSize={} source={} {}",
-                    traceId, originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, activeCopyOperationCache.activeSize(), candidates.source(),
-                    CopyLogAdvice.fields("close_without_open_copy", CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source())));
+            if (CopyLogThrottle.allow("close_without_open_copy", wallet)) {
+                CopyLogAdvice.withAdvice(log.atInfo(), "close_without_open_copy", CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, false, activeCopyOperationCache.activeSize(), candidates.source()))
+                        .log("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=close_without_active_copy friendlyReason=cierre_sin_copia_activa explanation=cierre_no_copiado_porque_no_existe_copia_abierta copyImpact=no_copy_order traceId={} originId={} userId=NA wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode=close_without_open_copy cacheActive=false activeCacheSize={} source={}",
+                        originTraceId(originId, wallet, symbol), originId, safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, activeCopyOperationCache.activeSize(), candidates.source());
+            }
         }
 
         for (UserDetailDto user : eligibleUsers) {
@@ -152,15 +164,20 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
             if (!decision.allowed()) {
                 businessSkipped.incrementAndGet();
                 firstReasonCode.compareAndSet(null, decision.reasonCode());
-                log.info("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=blocked_by_lifecycle_guard friendlyReason=guard_bloqueo_la_copia explanation=no_se_envio_orden_porque_la_regla_de_lifecycle_no_lo_permitio copyImpact=no_copy_order traceId={} originId={} userId={} wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive={} activeCacheSize={} source={} {}",
-                        userTraceId, originId, userId(user), safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, decision.reasonCode(), decision.cacheActive(), activeCopyOperationCache.activeSize(), candidates.source(),
-                        CopyLogAdvice.fields(decision.reasonCode(), CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, decision.cacheActive(), activeCopyOperationCache.activeSize(), candidates.source())));
+                CopyLogAdvice.withAdvice(log.atInfo(), decision.reasonCode(), CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, decision.cacheActive(), activeCopyOperationCache.activeSize(), candidates.source()))
+                        .log("event=hyperliquid.direct_copy.business_skip category=copy reasonAlias=blocked_by_lifecycle_guard friendlyReason=guard_bloqueo_la_copia explanation=no_se_envio_orden_porque_la_regla_de_lifecycle_no_lo_permitio copyImpact=no_copy_order traceId={} originId={} userId={} wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} reasonCode={} cacheActive={} activeCacheSize={} source={}",
+                        userTraceId, originId, userId(user), safeLog(wallet), safeLog(symbol), actionLabel, action, copyIntent(action, deltaType), deltaType, decision.reasonCode(), decision.cacheActive(), activeCopyOperationCache.activeSize(), candidates.source());
                 continue;
             }
             String executorLane = executorLane(action, deltaType);
             try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", userTraceId)) {
                 executorFor(action, deltaType).execute(() -> executeCopy(event, user, action, fallbackSubmitted, fallbackJobs, eventReceivedNs));
                 submitted.incrementAndGet();
+                if (prefetchTargetPositions) {
+                    // El job va a pedir las posiciones Binance del usuario; la lectura arranca ya
+                    // y el job la encuentra cargada o en curso.
+                    targetPositionSnapshotService.prefetch(user, userTraceId);
+                }
             } catch (RejectedExecutionException rejected) {
                 tradingMetrics.directCopyRejected(copyIntent(action, deltaType), "executor_rejected");
                 log.warn("event=hyperliquid.direct_copy.rejected traceId={} originId={} wallet={} symbol={} action={} engineAction={} deltaType={} executorLane={} eligibleUsers={} submitted={} reasonCode=executor_rejected errClass={} errMsg=\"{}\" humanMessage=no_hay_espacio_en_la_cola_para_enviar_esta_copia_ahora {}",
@@ -174,11 +191,12 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
 
         long elapsedMs = Duration.ofNanos(System.nanoTime() - startedNs).toMillis();
         String dispatchReasonCode = firstReasonCode.get();
-        String dispatchDiagnostic = dispatchReasonCode == null ? "" : CopyLogAdvice.fields(
-                dispatchReasonCode,
-                CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, null, activeCopyOperationCache.activeSize(), candidates.source())
-        );
-        log.info("event=hyperliquid.direct_copy.dispatched traceId={} originId={} wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} usersCached={} eligibleUsers={} eligibleUserIds={} submitted={} businessSkipped={} fallbackJobs={} fallbackUsed={} source={} copySkipReasonCode={} elapsedMs={} humanMessage=termine_de_decidir_a_quienes_se_debe_copiar_esta_operacion {}",
+        LoggingEventBuilder dispatchedLog = log.atInfo();
+        if (dispatchReasonCode != null) {
+            dispatchedLog = CopyLogAdvice.withAdvice(dispatchedLog, dispatchReasonCode,
+                    CopyLogAdvice.context(eligibleUsers.size(), eligibleUsers.size(), submitted.get(), businessSkipped.get(), null, null, activeCopyOperationCache.activeSize(), candidates.source()));
+        }
+        dispatchedLog.log("event=hyperliquid.direct_copy.dispatched traceId={} originId={} wallet={} symbol={} action={} engineAction={} copyIntent={} deltaType={} usersCached={} eligibleUsers={} eligibleUserIds={} submitted={} businessSkipped={} fallbackJobs={} fallbackUsed={} source={} copySkipReasonCode={} elapsedMs={} humanMessage=termine_de_decidir_a_quienes_se_debe_copiar_esta_operacion",
                 originTraceId(originId, wallet, symbol),
                 originId,
                 safeLog(wallet),
@@ -196,8 +214,7 @@ public class HyperliquidDirectCopyDispatchServiceImpl implements HyperliquidDire
                 fallbackSubmitted.get(),
                 candidates.source(),
                 safeLog(dispatchReasonCode),
-                elapsedMs,
-                dispatchDiagnostic);
+                elapsedMs);
         tradingMetrics.directCopyDispatch(copyIntent(action, deltaType), eligibleUsers.size(), submitted.get(), businessSkipped.get(), fallbackJobs.get(), fallbackSubmitted.get(), dispatchReasonCode, elapsedMs);
 
         return HyperliquidDirectCopyDispatchResult.ok(
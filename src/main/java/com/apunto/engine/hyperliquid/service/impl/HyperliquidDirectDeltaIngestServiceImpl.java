@@ -2,6 +2,7 @@ package com.apunto.engine.hyperliquid.service.impl;
 
 import com.apunto.engine.hyperliquid.config.HyperliquidDirectIngestProperties;
 import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaAcceptedResponse;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaBatchResponse;
 import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
 import com.apunto.engine.hyperliquid.exception.HyperliquidDirectIngestRejectedException;
 import com.apunto.engine.hyperliquid.model.HyperliquidDeltaType;
@@ -13,8 +14,10 @@ import com.apunto.engine.service.ShadowCopyTradingService;
 import com.apunto.engine.service.copy.concurrency.PostgresDeadlockRetryExecutor;
 import com.apunto.engine.service.copy.recovery.ShadowEventDeadLetterStore;
 import com.apunto.engine.shared.exception.EngineException;
+import com.apunto.engine.shared.exception.ErrorCode;
 import com.apunto.engine.shared.util.CopyTraceIdUtil;
 import com.apunto.engine.shared.util.CopyLogAdvice;
+import com.apunto.engine.shared.util.CopyLogThrottle;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import io.micrometer.core.instrument.Gauge;
@@ -24,6 +27,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.slf4j.spi.LoggingEventBuilder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
@@ -33,8 +37,13 @@ import org.springframework.web.client.RestClientException;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -98,6 +107,10 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
     @Autowired(required = false)
     private ShadowEventDeadLetterStore shadowEventDeadLetterStore;
 
+    /** Eventos por transacción de cada lane shadow; 1 vuelve a una transacción por evento. */
+    @Value("${copy.shadow.tx-batch-size:32}")
+    private int shadowBatchSize = 32;
+
     public HyperliquidDirectDeltaIngestServiceImpl(
             HyperliquidDirectIngestProperties properties,
             HyperliquidDirectCopyDispatchService directCopyDispatchService,
@@ -220,9 +233,11 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         if (properties.isDedupeEnabled() && recentKeys.asMap().putIfAbsent(dedupeKey, Boolean.TRUE) != null) {
             duplicates.incrementAndGet();
             incrementDuplicateMetric(mappedDelta.deltaType(), "in_memory");
-            log.info("event=hyperliquid.direct_ingest.duplicate dedupeKey={} idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} reasonCode=movement_already_recorded queueDepth={} {}",
-                    dedupeKey, mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.wallet(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), queueDepth(),
-                    CopyLogAdvice.fields("movement_already_recorded", CopyLogAdvice.context(null, null, null, null, queueDepth(), null, null, "direct_ingest_dedupe")));
+            if (CopyLogThrottle.allow("movement_already_recorded", mappedDelta.wallet())) {
+                CopyLogAdvice.withAdvice(log.atInfo(), "movement_already_recorded", CopyLogAdvice.context(null, null, null, null, queueDepth(), null, null, "direct_ingest_dedupe"))
+                        .log("event=hyperliquid.direct_ingest.duplicate dedupeKey={} idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} reasonCode=movement_already_recorded queueDepth={}",
+                        dedupeKey, mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.wallet(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), queueDepth());
+            }
             return response(mappedDelta, true);
         }
 
@@ -253,6 +268,132 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         return response(mappedDelta, false);
     }
 
+    /**
+     * {@link #accept} para un lote ordenado: el dedupe en memoria sigue siendo por item, pero las
+     * leases distribuidas salen de una sola sentencia multi-fila. Los aceptados entran a su lane
+     * en el orden recibido; si un delta se rechaza, los siguientes de la misma posición también,
+     * para que el reintento del upstream no llegue desordenado.
+     */
+    @Override
+    public HyperliquidDeltaBatchResponse acceptAll(List<HyperliquidMappedDelta> mappedDeltas) {
+        if (mappedDeltas == null || mappedDeltas.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("mappedDeltas is required");
+        }
+        if (mappedDeltas.isEmpty()) {
+            // Todos los items del lote se rechazaron al mapear.
+            return HyperliquidDeltaBatchResponse.of(List.of(), queueDepth());
+        }
+        int size = mappedDeltas.size();
+        if (size > Math.max(1, properties.getBatchMaxItems())) {
+            throw new EngineException(ErrorCode.VALIDATION_ERROR, "Hyperliquid delta batch too large",
+                    Map.of("reason", "batch_too_large", "items", size, "maxItems", properties.getBatchMaxItems()));
+        }
+        List<HyperliquidDeltaBatchResponse.Item> items = new ArrayList<>(size);
+        if (!properties.isEnabled()) {
+            if (properties.isRejectWhenDisabled()) {
+                throw rejected("direct_ingest_disabled", mappedDeltas.getFirst(), queueDepth());
+            }
+            for (int i = 0; i < size; i++) {
+                items.add(HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.ACCEPTED, "direct_ingest_disabled", mappedDeltas.get(i)));
+            }
+            return HyperliquidDeltaBatchResponse.of(items, queueDepth());
+        }
+
+        String[] dedupeKeys = new String[size];
+        HyperliquidDeltaBatchResponse.Item[] results = new HyperliquidDeltaBatchResponse.Item[size];
+        List<Integer> pending = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            HyperliquidMappedDelta mappedDelta = mappedDeltas.get(i);
+            dedupeKeys[i] = buildDedupeKey(mappedDelta);
+            if (properties.isDedupeEnabled() && recentKeys.asMap().putIfAbsent(dedupeKeys[i], Boolean.TRUE) != null) {
+                duplicates.incrementAndGet();
+                incrementDuplicateMetric(mappedDelta.deltaType(), "in_memory");
+                results[i] = HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.DUPLICATE, "movement_already_recorded", mappedDelta);
+            } else {
+                pending.add(i);
+            }
+        }
+
+        if (pending.isEmpty()) {
+            return HyperliquidDeltaBatchResponse.of(List.of(results), queueDepth());
+        }
+
+        List<HyperliquidDirectIngestIdempotencyGuard.Claim> claims;
+        try {
+            claims = idempotencyGuard.tryAcquireAll(
+                    pending.stream().map(mappedDeltas::get).toList(),
+                    pending.stream().map(i -> dedupeKeys[i]).toList());
+        } catch (RuntimeException ex) {
+            if (properties.isDedupeEnabled()) {
+                pending.forEach(i -> recentKeys.invalidate(dedupeKeys[i]));
+            }
+            throw ex;
+        }
+
+        Set<String> rejectedPositions = new HashSet<>();
+        for (int j = 0; j < pending.size(); j++) {
+            int i = pending.get(j);
+            HyperliquidMappedDelta mappedDelta = mappedDeltas.get(i);
+            HyperliquidDirectIngestIdempotencyGuard.Claim claim = claims.get(j);
+            String positionKey = laneKey(mappedDelta, dedupeKeys[i]);
+            if (claim.rejection() != null) {
+                releaseRecentKey(dedupeKeys[i]);
+                rejectedPositions.add(positionKey);
+                meterRegistry.counter("signals.hyperliquid.direct_ingest.rejected.total", "reason", "idempotency_conflict").increment();
+                results[i] = HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.REJECTED, rejectionReason(claim.rejection()), mappedDelta);
+                continue;
+            }
+            if (!claim.acquired()) {
+                duplicates.incrementAndGet();
+                incrementDuplicateMetric(mappedDelta.deltaType(), "distributed");
+                results[i] = HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.DUPLICATE, "distributed_duplicate", mappedDelta);
+                continue;
+            }
+            String rejection = null;
+            if (rejectedPositions.contains(positionKey)) {
+                rejection = "prior_delta_rejected";
+            } else if (!lanes[laneFor(mappedDelta, dedupeKeys[i])].offer(
+                    new QueuedDelta(mappedDelta, dedupeKeys[i], System.nanoTime()))) {
+                rejection = "queue_full";
+            }
+            if (rejection != null) {
+                releaseRecentKey(dedupeKeys[i]);
+                idempotencyGuard.markRejected(mappedDelta, rejection, null);
+                rejectedPositions.add(positionKey);
+                meterRegistry.counter("signals.hyperliquid.direct_ingest.rejected.total", "reason", rejection).increment();
+                results[i] = HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.REJECTED, rejection, mappedDelta);
+                continue;
+            }
+            accepted.incrementAndGet();
+            meterRegistry.counter("signals.hyperliquid.direct_ingest.accepted.total", "deltaType", safeTag(mappedDelta.deltaType())).increment();
+            results[i] = HyperliquidDeltaBatchResponse.Item.of(
+                    i, HyperliquidDeltaBatchResponse.ACCEPTED, null, mappedDelta);
+        }
+        recordQueueHighWater(queueDepth());
+        ensureWorkersHealthy("accept_batch");
+        HyperliquidDeltaBatchResponse response = HyperliquidDeltaBatchResponse.of(List.of(results), queueDepth());
+        meterRegistry.summary("signals.hyperliquid.direct_ingest.batch.size").record(size);
+        log.debug("event=hyperliquid.direct_ingest.batch_accepted received={} accepted={} duplicates={} rejected={} queueDepth={}",
+                response.received(), response.accepted(), response.duplicates(), response.rejected(), response.queueDepth());
+        return response;
+    }
+
+    private void releaseRecentKey(String dedupeKey) {
+        if (properties.isDedupeEnabled()) {
+            recentKeys.invalidate(dedupeKey);
+        }
+    }
+
+    private static String rejectionReason(EngineException rejection) {
+        Object reason = rejection.getDetails() == null ? null : rejection.getDetails().get("reason");
+        return reason == null ? "idempotency_conflict" : String.valueOf(reason);
+    }
+
     static String buildDedupeKey(HyperliquidMappedDelta mappedDelta) {
         if (mappedDelta == null) {
             return "hyperliquid:missing";
@@ -456,14 +597,15 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
             meterRegistry.timer("copy_event_ingest_duration", "source_platform", "hyperliquid", "result", "ok")
                     .record(System.nanoTime() - startedNs, java.util.concurrent.TimeUnit.NANOSECONDS);
             String copySkipReasonCode = dispatchResult.reasonCode();
-            String copySkipDiagnostic = copySkipReasonCode == null ? "" : CopyLogAdvice.fields(
-                    copySkipReasonCode,
-                    CopyLogAdvice.context(dispatchResult.eligibleUsers(), dispatchResult.eligibleUsers(), dispatchResult.submittedTasks(), dispatchResult.businessSkipped(), queueDepth(), null, null, "direct_ingest")
-            );
-            log.info("event=hyperliquid.direct_ingest.processed dedupeKey={} idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} eligibleUsers={} submittedTasks={} businessSkipped={} fallbackJobs={} fallbackUsed={} copySkipReasonCode={} queueDelayMs={} elapsedMs={} queueDepth={} {}",
+            LoggingEventBuilder processedLog = log.atInfo();
+            if (copySkipReasonCode != null) {
+                processedLog = CopyLogAdvice.withAdvice(processedLog, copySkipReasonCode,
+                        CopyLogAdvice.context(dispatchResult.eligibleUsers(), dispatchResult.eligibleUsers(), dispatchResult.submittedTasks(), dispatchResult.businessSkipped(), queueDepth(), null, null, "direct_ingest"));
+            }
+            processedLog.log("event=hyperliquid.direct_ingest.processed dedupeKey={} idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} eligibleUsers={} submittedTasks={} businessSkipped={} fallbackJobs={} fallbackUsed={} copySkipReasonCode={} queueDelayMs={} elapsedMs={} queueDepth={}",
                     task.dedupeKey(), copyReady.idempotencyKey(), copyReady.positionKey(), copyReady.wallet(), copyReady.symbol(), copyReady.side(), copyReady.deltaType(),
                     dispatchResult.eligibleUsers(), dispatchResult.submittedTasks(), dispatchResult.businessSkipped(), dispatchResult.fallbackJobs(), dispatchResult.fallbackUsed(), safeLog(copySkipReasonCode),
-                    queueDelayMs, elapsedMs, queueDepth(), copySkipDiagnostic);
+                    queueDelayMs, elapsedMs, queueDepth());
             log.info("event=hyperliquid.direct_ingest.hot_path_completed dedupeKey={} idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} liveDispatchElapsedMs={} shadowEnqueued={} shadowReasonCode={} shadowEnqueueLatencyMs={} shadowQueueDepth={} shadowQueueRemainingCapacity={} totalElapsedMs={} liveImpact=LIVE_DISPATCH_NOT_BLOCKED_BY_SHADOW",
                     task.dedupeKey(), copyReady.idempotencyKey(), copyReady.positionKey(), copyReady.wallet(), copyReady.symbol(), copyReady.side(), copyReady.deltaType(),
                     liveDispatchElapsedMs, shadowEnqueue.enqueued(), safeLog(shadowEnqueue.reasonCode()), shadowEnqueue.enqueueLatencyMs(), shadowEnqueue.queueDepth(), shadowEnqueue.remainingCapacity(), elapsedMs);
@@ -651,10 +793,14 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         log.info("event=shadow_worker_started workerIndex={} startReason={} queueDepth={} activeShadowWorkers={} expectedShadowWorkers={}",
                 workerIndex, safeLog(startReason), shadowQueueDepth(), activeShadowWorkers.get(), shadowWorkerCount);
         try {
+            List<ShadowTask> batch = new ArrayList<>();
             while (shadowRunning.get() || !lane.isEmpty()) {
                 ShadowTask task = lane.poll(250, TimeUnit.MILLISECONDS);
                 if (task != null) {
-                    processShadowTask(task, workerIndex);
+                    batch.add(task);
+                    lane.drainTo(batch, Math.max(0, shadowBatchSize - 1));
+                    processShadowBatch(batch, workerIndex);
+                    batch.clear();
                 }
             }
         } catch (InterruptedException interrupted) {
@@ -670,34 +816,66 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         }
     }
 
+    /**
+     * Lote transaccional síncrono: lo acumulado en la lane se aplica en una transacción, con los
+     * perfiles de cada wallet resueltos y los advisory locks de todo el lote tomados una sola vez. El estado durable es siempre el último
+     * lote confirmado; si el lote falla se revierte entero y cada evento se reprocesa solo, con
+     * retry de deadlock y dead-letter como antes.
+     */
+    void processShadowBatch(List<ShadowTask> batch, int workerIndex) {
+        if (batch.size() == 1) {
+            processShadowTask(batch.getFirst(), workerIndex);
+            return;
+        }
+        long startedNs = System.nanoTime();
+        for (ShadowTask task : batch) {
+            recordShadowQueueDelay(task, startedNs);
+        }
+        int[] recorded;
+        try {
+            recorded = shadowCopyTradingService.recordShadowEvents(batch.stream()
+                    .map(task -> new ShadowCopyTradingService.ShadowEventInput(
+                            task.mappedDelta().event(), task.eventReceivedNs()))
+                    .toList());
+        } catch (RuntimeException ex) {
+            meterRegistry.counter("signals.copy.shadow.tx_batch.total", "result", "replay_per_event").increment();
+            log.warn("event=shadow.tx_batch.rolled_back reasonCode=SHADOW_BATCH_ROLLED_BACK decision=REPLAY_PER_EVENT workerIndex={} batchSize={} errClass={} errMsg=\"{}\" elapsedMs={} queueDepth={} liveImpact=LIVE_NOT_BLOCKED",
+                    workerIndex, batch.size(), ex.getClass().getSimpleName(), safeLog(ex.getMessage()),
+                    elapsedMs(startedNs), shadowQueueDepth());
+            for (ShadowTask task : batch) {
+                processDequeuedShadowTask(task, workerIndex, startedNs);
+            }
+            return;
+        }
+        meterRegistry.counter("signals.copy.shadow.tx_batch.total", "result", "committed").increment();
+        meterRegistry.summary("signals.copy.shadow.tx_batch.size").record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            ShadowTask task = batch.get(i);
+            try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", task.traceId())) {
+                completeShadowTask(task, workerIndex, recorded[i], elapsedMs(task.acceptedNs(), startedNs), startedNs);
+            }
+        }
+    }
+
     private void processShadowTask(ShadowTask task, int workerIndex) {
         long shadowDequeuedNs = System.nanoTime();
-        long queueDelayMs = elapsedMs(task.acceptedNs(), shadowDequeuedNs);
-        long startedNs = shadowDequeuedNs;
-        HyperliquidMappedDelta mappedDelta = task.mappedDelta();
+        recordShadowQueueDelay(task, shadowDequeuedNs);
+        processDequeuedShadowTask(task, workerIndex, shadowDequeuedNs);
+    }
+
+    private void recordShadowQueueDelay(ShadowTask task, long shadowDequeuedNs) {
         meterRegistry.timer("shadow_queue_delay", Tags.of("result", "dequeued"))
                 .record(Duration.ofNanos(Math.max(0L, shadowDequeuedNs - task.acceptedNs())));
+    }
+
+    /** Aplica un evento solo; en el replay de un lote la espera en cola ya quedó medida al sacarlo. */
+    private void processDequeuedShadowTask(ShadowTask task, int workerIndex, long shadowDequeuedNs) {
+        long queueDelayMs = elapsedMs(task.acceptedNs(), shadowDequeuedNs);
+        long startedNs = System.nanoTime();
+        HyperliquidMappedDelta mappedDelta = task.mappedDelta();
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", task.traceId())) {
             int recorded = recordShadowWithDeadlockRetry(mappedDelta, task.eventReceivedNs());
-            if (recorded > 0) {
-                shadowRecorded.addAndGet(recorded);
-            } else {
-                shadowDuplicates.incrementAndGet();
-            }
-            long elapsedMs = elapsedMs(startedNs);
-            meterRegistry.timer("signals.copy.shadow.async.worker.duration", Tags.of("result", "ok", "deltaType", safeTag(mappedDelta.deltaType())))
-                    .record(Duration.ofNanos(System.nanoTime() - startedNs));
-            meterRegistry.timer("shadow_processing_duration", Tags.of("stage", "total", "result", "success"))
-                    .record(Duration.ofNanos(System.nanoTime() - startedNs));
-            if (elapsedMs >= shadowSlowLogMs) {
-                log.warn("event=shadow.processing.slow reasonCode=SHADOW_PROCESSING_SLOW workerIndex={} walletId={} profileKey=MULTIPLE strategyCode=MULTIPLE idempotencyKey={} positionKey={} symbol={} side={} deltaType={} recorded={} queueDepth={} queueDelayMs={} lockWaitMs=NA dbPersistMs=NA totalElapsedMs={} slowestStage=SHADOW_PERSIST shouldAlert=false liveImpact=LIVE_NOT_BLOCKED",
-                        workerIndex, mappedDelta.wallet(), mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), recorded, shadowQueueDepth(), queueDelayMs, elapsedMs);
-            }
-            log.info("event=shadow_worker_completed workerIndex={} idempotencyKey={} positionKey={} walletId={} symbol={} side={} deltaType={} recorded={} reasonCode={} shadowImpact={} queueDelayMs={} elapsedMs={} queueDepth={} liveImpact=LIVE_NOT_BLOCKED",
-                    workerIndex, mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.wallet(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), recorded,
-                    recorded > 0 ? "SHADOW_EVENT_RECORDED" : "DUPLICATE_OR_NO_SHADOW_EVENT",
-                    recorded > 0 ? "SHADOW_EVENT_RECORDED" : "NO_SHADOW_EVENT",
-                    queueDelayMs, elapsedMs, shadowQueueDepth());
+            completeShadowTask(task, workerIndex, recorded, queueDelayMs, startedNs);
         } catch (RuntimeException ex) {
             shadowFailed.incrementAndGet();
             boolean deadlockExhausted = PostgresDeadlockRetryExecutor.isDeadlock(ex);
@@ -742,6 +920,29 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         }
     }
 
+    private void completeShadowTask(ShadowTask task, int workerIndex, int recorded, long queueDelayMs, long startedNs) {
+        HyperliquidMappedDelta mappedDelta = task.mappedDelta();
+        if (recorded > 0) {
+            shadowRecorded.addAndGet(recorded);
+        } else {
+            shadowDuplicates.incrementAndGet();
+        }
+        long elapsedMs = elapsedMs(startedNs);
+        meterRegistry.timer("signals.copy.shadow.async.worker.duration", Tags.of("result", "ok", "deltaType", safeTag(mappedDelta.deltaType())))
+                .record(Duration.ofNanos(System.nanoTime() - startedNs));
+        meterRegistry.timer("shadow_processing_duration", Tags.of("stage", "total", "result", "success"))
+                .record(Duration.ofNanos(System.nanoTime() - startedNs));
+        if (elapsedMs >= shadowSlowLogMs) {
+            log.warn("event=shadow.processing.slow reasonCode=SHADOW_PROCESSING_SLOW workerIndex={} walletId={} profileKey=MULTIPLE strategyCode=MULTIPLE idempotencyKey={} positionKey={} symbol={} side={} deltaType={} recorded={} queueDepth={} queueDelayMs={} lockWaitMs=NA dbPersistMs=NA totalElapsedMs={} slowestStage=SHADOW_PERSIST shouldAlert=false liveImpact=LIVE_NOT_BLOCKED",
+                    workerIndex, mappedDelta.wallet(), mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), recorded, shadowQueueDepth(), queueDelayMs, elapsedMs);
+        }
+        log.info("event=shadow_worker_completed workerIndex={} idempotencyKey={} positionKey={} walletId={} symbol={} side={} deltaType={} recorded={} reasonCode={} shadowImpact={} queueDelayMs={} elapsedMs={} queueDepth={} liveImpact=LIVE_NOT_BLOCKED",
+                workerIndex, mappedDelta.idempotencyKey(), mappedDelta.positionKey(), mappedDelta.wallet(), mappedDelta.symbol(), mappedDelta.side(), mappedDelta.deltaType(), recorded,
+                recorded > 0 ? "SHADOW_EVENT_RECORDED" : "DUPLICATE_OR_NO_SHADOW_EVENT",
+                recorded > 0 ? "SHADOW_EVENT_RECORDED" : "NO_SHADOW_EVENT",
+                queueDelayMs, elapsedMs, shadowQueueDepth());
+    }
+
     private int recordShadowWithDeadlockRetry(HyperliquidMappedDelta mappedDelta, long eventReceivedNs) {
         if (postgresDeadlockRetryExecutor == null) {
             return shadowCopyTradingService.recordShadowEvent(mappedDelta.event(), eventReceivedNs);
@@ -946,7 +1147,11 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
 
 
     private int laneFor(HyperliquidMappedDelta mappedDelta, String dedupeKey) {
-        String key = firstNonBlank(
+        return Math.floorMod(laneKey(mappedDelta, dedupeKey).hashCode(), laneCount);
+    }
+
+    private static String laneKey(HyperliquidMappedDelta mappedDelta, String dedupeKey) {
+        return firstNonBlank(
                 mappedDelta == null ? null : mappedDelta.positionKey(),
                 mappedDelta == null ? null : String.join("|",
                         normalizeKey(mappedDelta.wallet()),
@@ -954,7 +1159,6 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
                         normalizeKey(mappedDelta.side())),
                 dedupeKey
         );
-        return Math.floorMod(key.hashCode(), laneCount);
     }
 
     private int queueDepth() {
@@ -985,13 +1189,14 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
         return shadowQueueDepth() + shadowRemainingCapacity();
     }
 
+    /**
+     * Lane por wallet: todos los perfiles shadow de una wallet mutan en el mismo hilo, así que un
+     * lote nunca compite por sus advisory locks con otra lane de esta instancia.
+     */
     private int shadowLaneFor(HyperliquidMappedDelta mappedDelta) {
         String key = firstNonBlank(
+                mappedDelta == null || mappedDelta.wallet() == null ? null : mappedDelta.wallet().toLowerCase(Locale.ROOT),
                 mappedDelta == null ? null : mappedDelta.positionKey(),
-                mappedDelta == null ? null : String.join("|",
-                        normalizeKey(mappedDelta.wallet()),
-                        normalizeKey(mappedDelta.symbol()),
-                        normalizeKey(mappedDelta.side())),
                 firstNonBlank(mappedDelta == null ? null : mappedDelta.idempotencyKey(), null, "shadow:missing")
         );
         return Math.floorMod(key.hashCode(), shadowWorkerCount);
@@ -1023,7 +1228,7 @@ public class HyperliquidDirectDeltaIngestServiceImpl implements HyperliquidDirec
     private record QueuedDelta(HyperliquidMappedDelta mappedDelta, String dedupeKey, long acceptedNs) {
     }
 
-    private record ShadowTask(HyperliquidMappedDelta mappedDelta, long eventReceivedNs, long acceptedNs, String traceId) {
+    record ShadowTask(HyperliquidMappedDelta mappedDelta, long eventReceivedNs, long acceptedNs, String traceId) {
     }
 
     private record ShadowSyncResult(
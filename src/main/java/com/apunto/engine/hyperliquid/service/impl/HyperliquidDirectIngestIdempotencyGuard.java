@@ -14,6 +14,9 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
@@ -68,6 +71,58 @@ public class HyperliquidDirectIngestIdempotencyGuard {
             SELECT COALESCE(max(attempt_count), 0) FROM acquired
             """;
 
+    /**
+     * Misma claim que {@link #ACQUIRE_SQL} para un lote completo: una sola sentencia con arrays
+     * paralelos. Devuelve solo las keys que quedaron con lease; el resto se resuelve como en el
+     * camino unitario. Las keys deben ser únicas dentro del lote.
+     */
+    private static final String ACQUIRE_BATCH_SQL = """
+            WITH input AS (
+                SELECT *
+                FROM unnest(?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::bigint[], ?::text[])
+                    AS t(idempotency_key, dedupe_key, position_key, wallet, symbol, side, delta_type, source_ts_ms, payload_fingerprint)
+            ), acquired AS (
+                INSERT INTO futuros_operaciones.hyperliquid_direct_ingest_dedupe (
+                    idempotency_key,
+                    dedupe_key,
+                    position_key,
+                    wallet,
+                    symbol,
+                    side,
+                    delta_type,
+                    source_ts_ms,
+                    payload_fingerprint,
+                    status,
+                    attempt_count,
+                    lease_until,
+                    first_seen_at,
+                    last_seen_at
+                )
+                SELECT idempotency_key, dedupe_key, position_key, wallet, symbol, side, delta_type, source_ts_ms,
+                       payload_fingerprint, 'PROCESSING', 1, now() + (? * interval '1 millisecond'), now(), now()
+                FROM input
+                ON CONFLICT (idempotency_key) DO UPDATE SET
+                    dedupe_key = EXCLUDED.dedupe_key,
+                    position_key = EXCLUDED.position_key,
+                    wallet = EXCLUDED.wallet,
+                    symbol = EXCLUDED.symbol,
+                    side = EXCLUDED.side,
+                    delta_type = EXCLUDED.delta_type,
+                    source_ts_ms = EXCLUDED.source_ts_ms,
+                    payload_fingerprint = COALESCE(futuros_operaciones.hyperliquid_direct_ingest_dedupe.payload_fingerprint, EXCLUDED.payload_fingerprint),
+                    status = EXCLUDED.status,
+                    attempt_count = futuros_operaciones.hyperliquid_direct_ingest_dedupe.attempt_count + 1,
+                    lease_until = EXCLUDED.lease_until,
+                    last_seen_at = now(),
+                    last_reason_code = 'lease_reacquired_after_stale_or_failed'
+                WHERE (futuros_operaciones.hyperliquid_direct_ingest_dedupe.status IN ('FAILED', 'REJECTED')
+                   OR futuros_operaciones.hyperliquid_direct_ingest_dedupe.lease_until < now())
+                  AND futuros_operaciones.hyperliquid_direct_ingest_dedupe.payload_fingerprint = EXCLUDED.payload_fingerprint
+                RETURNING idempotency_key, attempt_count
+            )
+            SELECT idempotency_key, attempt_count FROM acquired
+            """;
+
     private static final String EXISTING_CLAIM_SQL = """
             SELECT payload_fingerprint, status, lease_until < now() AS lease_expired,
                    wallet, symbol, source_ts_ms
@@ -175,66 +230,174 @@ public class HyperliquidDirectIngestIdempotencyGuard {
                     payloadFingerprint,
                     Math.max(1000L, properties.getDedupeLeaseTtlMs())
             );
-            boolean allowed = acquired != null && acquired > 0L;
-            if (!allowed) {
-                ExistingClaim existing = existingClaim(idempotencyKey);
-                if (existing == null) {
-                    throw payloadConflictException(idempotencyKey, mappedDelta,
-                            "IDEMPOTENCY_CLAIM_DISAPPEARED", "NA", payloadFingerprint);
+            return resolveClaim(acquired == null ? 0L : acquired, idempotencyKey, mappedDelta, dedupeKey, payloadFingerprint);
+        } catch (DataAccessException ex) {
+            return onStorageFailure(ex, idempotencyKey, mappedDelta);
+        }
+    }
+
+    /**
+     * {@link #tryAcquire} para un lote ordenado con una sola sentencia multi-fila. Solo los que no
+     * quedaron con lease (duplicados, conflictos) vuelven a consultar su claim uno por uno. Un
+     * conflicto de payload queda como rechazo de ese item; una key repetida dentro del lote se
+     * resuelve después de la sentencia, ya contra la claim de su primera aparición.
+     */
+    public List<Claim> tryAcquireAll(List<HyperliquidMappedDelta> mappedDeltas, List<String> dedupeKeys) {
+        if (mappedDeltas.size() != dedupeKeys.size()) {
+            throw new IllegalArgumentException("mappedDeltas and dedupeKeys must have the same size");
+        }
+        if (!properties.isDistributedDedupeEnabled()) {
+            return mappedDeltas.stream().map(delta -> Claim.ACQUIRED).toList();
+        }
+        int size = mappedDeltas.size();
+        String[] idempotencyKeys = new String[size];
+        String[] fingerprints = new String[size];
+        Map<String, Integer> firstByKey = new HashMap<>();
+        List<Integer> batched = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            idempotencyKeys[i] = requireIdempotencyKey(mappedDeltas.get(i));
+            fingerprints[i] = payloadFingerprint(mappedDeltas.get(i), dedupeKeys.get(i));
+            if (firstByKey.putIfAbsent(idempotencyKeys[i], i) == null) {
+                batched.add(i);
+            }
+        }
+
+        Map<String, Long> acquired;
+        try {
+            acquired = acquireBatch(batched, idempotencyKeys, fingerprints, mappedDeltas, dedupeKeys);
+        } catch (DataAccessException ex) {
+            onStorageFailure(ex, idempotencyKeys[0], mappedDeltas.getFirst());
+            return mappedDeltas.stream().map(delta -> Claim.ACQUIRED).toList();
+        }
+
+        Claim[] claims = new Claim[size];
+        for (int i = 0; i < size; i++) {
+            HyperliquidMappedDelta mappedDelta = mappedDeltas.get(i);
+            try {
+                boolean allowed = firstByKey.get(idempotencyKeys[i]) == i
+                        ? resolveClaim(acquired.getOrDefault(idempotencyKeys[i], 0L),
+                        idempotencyKeys[i], mappedDelta, dedupeKeys.get(i), fingerprints[i])
+                        : tryAcquire(mappedDelta, dedupeKeys.get(i));
+                claims[i] = allowed ? Claim.ACQUIRED : Claim.DUPLICATE;
+            } catch (HyperliquidDirectIngestDedupeException ex) {
+                claims[i] = Claim.rejected(ex);
+            } catch (DataAccessException ex) {
+                claims[i] = onStorageFailure(ex, idempotencyKeys[i], mappedDelta) ? Claim.ACQUIRED : Claim.DUPLICATE;
+            }
+        }
+        return List.of(claims);
+    }
+
+    private Map<String, Long> acquireBatch(
+            List<Integer> indexes,
+            String[] idempotencyKeys,
+            String[] fingerprints,
+            List<HyperliquidMappedDelta> mappedDeltas,
+            List<String> dedupeKeys
+    ) {
+        int size = indexes.size();
+        String[] keys = new String[size];
+        String[] dedupe = new String[size];
+        String[] positions = new String[size];
+        String[] wallets = new String[size];
+        String[] symbols = new String[size];
+        String[] sides = new String[size];
+        String[] deltaTypes = new String[size];
+        Long[] sourceTs = new Long[size];
+        String[] payloadFingerprints = new String[size];
+        for (int row = 0; row < size; row++) {
+            int index = indexes.get(row);
+            HyperliquidMappedDelta mappedDelta = mappedDeltas.get(index);
+            keys[row] = idempotencyKeys[index];
+            dedupe[row] = safe(dedupeKeys.get(index));
+            positions[row] = safe(mappedDelta.positionKey());
+            wallets[row] = safe(mappedDelta.wallet());
+            symbols[row] = safe(mappedDelta.symbol());
+            sides[row] = safe(mappedDelta.side());
+            deltaTypes[row] = safe(mappedDelta.deltaType());
+            sourceTs[row] = sourceTs(mappedDelta);
+            payloadFingerprints[row] = fingerprints[index];
+        }
+        Map<String, Long> acquired = new HashMap<>();
+        jdbcTemplate.query(
+                ACQUIRE_BATCH_SQL,
+                (ResultSet rs) -> {
+                    acquired.put(rs.getString("idempotency_key"), rs.getLong("attempt_count"));
+                },
+                keys, dedupe, positions, wallets, symbols, sides, deltaTypes, sourceTs, payloadFingerprints,
+                Math.max(1000L, properties.getDedupeLeaseTtlMs()));
+        meterRegistry.summary("signals.hyperliquid.direct_ingest.distributed_dedupe.batch.size").record(size);
+        return acquired;
+    }
+
+    private boolean resolveClaim(
+            long acquired,
+            String idempotencyKey,
+            HyperliquidMappedDelta mappedDelta,
+            String dedupeKey,
+            String payloadFingerprint
+    ) {
+        boolean allowed = acquired > 0L;
+        if (!allowed) {
+            ExistingClaim existing = existingClaim(idempotencyKey);
+            if (existing == null) {
+                throw payloadConflictException(idempotencyKey, mappedDelta,
+                        "IDEMPOTENCY_CLAIM_DISAPPEARED", "NA", payloadFingerprint);
+            }
+            if (existing.payloadFingerprint() == null || existing.payloadFingerprint().isBlank()) {
+                markPayloadUnverified(idempotencyKey, mappedDelta, dedupeKey, existing);
+                return false;
+            }
+            if (existing.payloadFingerprint() != null
+                    && !existing.payloadFingerprint().isBlank()
+                    && !existing.payloadFingerprint().equals(payloadFingerprint)) {
+                if (isAuthoritativeUserFill(mappedDelta)) {
+                    markPayloadConflict(
+                            idempotencyKey, mappedDelta, dedupeKey,
+                            existing, payloadFingerprint);
                 }
-                if (existing.payloadFingerprint() == null || existing.payloadFingerprint().isBlank()) {
-                    markPayloadUnverified(idempotencyKey, mappedDelta, dedupeKey, existing);
+                if (sameImmutableSourceIdentity(existing, mappedDelta)) {
+                    markReplicaPayloadDivergence(
+                            idempotencyKey, mappedDelta, dedupeKey, existing, payloadFingerprint);
                     return false;
                 }
-                if (existing.payloadFingerprint() != null
-                        && !existing.payloadFingerprint().isBlank()
-                        && !existing.payloadFingerprint().equals(payloadFingerprint)) {
-                    if (isAuthoritativeUserFill(mappedDelta)) {
-                        markPayloadConflict(
-                                idempotencyKey, mappedDelta, dedupeKey,
-                                existing, payloadFingerprint);
-                    }
-                    if (sameImmutableSourceIdentity(existing, mappedDelta)) {
-                        markReplicaPayloadDivergence(
-                                idempotencyKey, mappedDelta, dedupeKey, existing, payloadFingerprint);
-                        return false;
-                    }
-                    markPayloadConflict(idempotencyKey, mappedDelta, dedupeKey, existing, payloadFingerprint);
-                }
-                markDuplicate(idempotencyKey, mappedDelta, dedupeKey, payloadFingerprint);
-            } else {
-                String result = acquired > 1L ? "reacquired" : "acquired";
-                recordDedupeMetric(result);
-                if (acquired > 1L) {
-                    log.info("event=hyperliquid.direct_ingest.lease_reacquired reasonCode=DISTRIBUTED_DEDUPE_LEASE_REACQUIRED decision=PROCESS expected=true shouldAlert=false retryable=false copyImpact=SAFE_RETRY_SAME_PAYLOAD idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} attempt={}",
-                            safe(idempotencyKey), safe(mappedDelta.positionKey()), safe(mappedDelta.wallet()), safe(mappedDelta.symbol()),
-                            safe(mappedDelta.side()), safe(mappedDelta.deltaType()), acquired);
-                }
+                markPayloadConflict(idempotencyKey, mappedDelta, dedupeKey, existing, payloadFingerprint);
             }
-            return allowed;
-        } catch (DataAccessException ex) {
-            recordDedupeMetric("error");
-            if (properties.isFailOpenOnDedupeError()) {
-                log.error("event=hyperliquid.direct_ingest.dedupe_guard_unavailable reasonCode=dedupe_guard_unavailable policy=fail_open copyImpact=duplicate_risk idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} errClass={} errMsg=\"{}\" {}",
-                        safe(idempotencyKey), safe(mappedDelta.positionKey()), safe(mappedDelta.wallet()), safe(mappedDelta.symbol()), safe(mappedDelta.side()), safe(mappedDelta.deltaType()),
-                        ex.getClass().getSimpleName(), safeLog(ex.getMessage()),
-                        CopyLogAdvice.fields("dedupe_guard_unavailable", CopyLogAdvice.context(null, null, null, null, null, null, null, "direct_ingest_dedupe")));
-                return true;
+            markDuplicate(idempotencyKey, mappedDelta, dedupeKey, payloadFingerprint);
+        } else {
+            String result = acquired > 1L ? "reacquired" : "acquired";
+            recordDedupeMetric(result);
+            if (acquired > 1L) {
+                log.info("event=hyperliquid.direct_ingest.lease_reacquired reasonCode=DISTRIBUTED_DEDUPE_LEASE_REACQUIRED decision=PROCESS expected=true shouldAlert=false retryable=false copyImpact=SAFE_RETRY_SAME_PAYLOAD idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} attempt={}",
+                        safe(idempotencyKey), safe(mappedDelta.positionKey()), safe(mappedDelta.wallet()), safe(mappedDelta.symbol()),
+                        safe(mappedDelta.side()), safe(mappedDelta.deltaType()), acquired);
             }
-            throw new HyperliquidDirectIngestDedupeException(
-                    "No se pudo validar idempotencia distribuida de Hyperliquid direct ingest",
-                    ex,
-                    Map.of(
-                            "reason", "dedupe_guard_unavailable",
-                            "idempotencyKey", idempotencyKey,
-                            "positionKey", safe(mappedDelta.positionKey()),
-                            "wallet", safe(mappedDelta.wallet()),
-                            "symbol", safe(mappedDelta.symbol()),
-                            "side", safe(mappedDelta.side()),
-                            "deltaType", safe(mappedDelta.deltaType())
-                    )
-            );
         }
+        return allowed;
+    }
+
+    private boolean onStorageFailure(DataAccessException ex, String idempotencyKey, HyperliquidMappedDelta mappedDelta) {
+        recordDedupeMetric("error");
+        if (properties.isFailOpenOnDedupeError()) {
+            log.error("event=hyperliquid.direct_ingest.dedupe_guard_unavailable reasonCode=dedupe_guard_unavailable policy=fail_open copyImpact=duplicate_risk idempotencyKey={} positionKey={} wallet={} symbol={} side={} deltaType={} errClass={} errMsg=\"{}\" {}",
+                    safe(idempotencyKey), safe(mappedDelta.positionKey()), safe(mappedDelta.wallet()), safe(mappedDelta.symbol()), safe(mappedDelta.side()), safe(mappedDelta.deltaType()),
+                    ex.getClass().getSimpleName(), safeLog(ex.getMessage()),
+                    CopyLogAdvice.fields("dedupe_guard_unavailable", CopyLogAdvice.context(null, null, null, null, null, null, null, "direct_ingest_dedupe")));
+            return true;
+        }
+        throw new HyperliquidDirectIngestDedupeException(
+                "No se pudo validar idempotencia distribuida de Hyperliquid direct ingest",
+                ex,
+                Map.of(
+                        "reason", "dedupe_guard_unavailable",
+                        "idempotencyKey", idempotencyKey,
+                        "positionKey", safe(mappedDelta.positionKey()),
+                        "wallet", safe(mappedDelta.wallet()),
+                        "symbol", safe(mappedDelta.symbol()),
+                        "side", safe(mappedDelta.side()),
+                        "deltaType", safe(mappedDelta.deltaType())
+                )
+        );
     }
 
     public void markProcessed(HyperliquidMappedDelta mappedDelta, String reasonCode) {
@@ -534,4 +697,15 @@ public class HyperliquidDirectIngestIdempotencyGuard {
         String clean = value.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ').replace('"', '\'').trim();
         return clean.length() > 1000 ? clean.substring(0, 1000) : clean;
     }
+
+    /** Resultado por item de {@link #tryAcquireAll}; {@code rejection} solo en conflictos de payload. */
+    public record Claim(boolean acquired, HyperliquidDirectIngestDedupeException rejection) {
+
+        public static final Claim ACQUIRED = new Claim(true, null);
+        public static final Claim DUPLICATE = new Claim(false, null);
+
+        static Claim rejected(HyperliquidDirectIngestDedupeException rejection) {
+            return new Claim(false, rejection);
+        }
+    }
 }
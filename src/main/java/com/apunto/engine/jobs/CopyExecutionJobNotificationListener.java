@@ -0,0 +1,142 @@
+package com.apunto.engine.jobs;
+
+import com.apunto.engine.service.CopyExecutionJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Conexión dedicada (fuera del pool Hikari) que hace LISTEN sobre
+ * {@link CopyExecutionJobService#READY_CHANNEL} y despierta al {@link CopyExecutionJobWorker}
+ * apenas un enqueue confirma. Si la conexión cae, el worker vuelve a su polling corto hasta
+ * que el listener reconecta.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+        name = "engine.copy.execution-job-worker.enabled",
+        havingValue = "true"
+)
+public class CopyExecutionJobNotificationListener implements SmartLifecycle {
+
+    private static final int RECEIVE_TIMEOUT_MS = 500;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 30_000L;
+
+    private final CopyExecutionJobWorker worker;
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${operation.job.worker.notify.enabled:${copy.job.worker.notify.enabled:true}}")
+    private boolean enabled = true;
+
+    @Value("${operation.job.worker.notify.reconnect-ms:${copy.job.worker.notify.reconnect-ms:5000}}")
+    private long reconnectMs = 5000L;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public CopyExecutionJobNotificationListener(CopyExecutionJobWorker worker, DataSourceProperties dataSourceProperties) {
+        this.worker = worker;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        Thread listener = new Thread(this::listenLoop, "copy-job-notify");
+        listener.setDaemon(true);
+        thread = listener;
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread listener = thread;
+        if (listener != null) {
+            listener.interrupt();
+            try {
+                listener.join(RECEIVE_TIMEOUT_MS * 2L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        worker.onNotifyListenerState(false);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                listen(connection);
+            } catch (SQLException | RuntimeException ex) {
+                worker.onNotifyListenerState(false);
+                if (!running) {
+                    return;
+                }
+                log.warn("event=copy.job.notify_listener.error channel={} reconnectMs={} errClass={} errMsg=\"{}\"",
+                        CopyExecutionJobService.READY_CHANNEL, reconnectMs, ex.getClass().getSimpleName(), ex.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + CopyExecutionJobService.READY_CHANNEL);
+        }
+        log.info("event=copy.job.notify_listener.listening channel={}", CopyExecutionJobService.READY_CHANNEL);
+        worker.onNotifyListenerState(true);
+        // Lo encolado mientras no había LISTEN no generó wake-up: se drena al conectar.
+        worker.onJobsReady();
+
+        long lastActivity = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+            long now = System.currentTimeMillis();
+            if (notifications != null && notifications.length > 0) {
+                lastActivity = now;
+                worker.onJobsReady();
+            } else if (now - lastActivity >= HEALTH_CHECK_INTERVAL_MS) {
+                // getNotifications no detecta un socket medio abierto; un round-trip sí.
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastActivity = now;
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(Math.max(100L, reconnectMs));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
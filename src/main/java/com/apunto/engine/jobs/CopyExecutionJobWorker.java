@@ -24,6 +24,7 @@ import com.apunto.engine.shared.enums.PositionSide;
 import com.apunto.engine.shared.enums.Side;
 import com.apunto.engine.shared.util.CopyLogAdvice;
 import com.apunto.engine.shared.util.CopySymbolIdentity;
+import com.apunto.engine.shared.util.KeyedOrderedExecutor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +50,8 @@ import java.util.Map;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Component
@@ -72,8 +75,13 @@ public class CopyExecutionJobWorker {
     private final ObjectMapper objectMapper;
     private final ThreadPoolTaskExecutor executor;
     private final ThreadPoolTaskExecutor priorityExecutor;
+    private final KeyedOrderedExecutor laneExecutor;
     private final TradingMetrics tradingMetrics;
     private final String workerId;
+    private final ReentrantLock claimLock = new ReentrantLock();
+    private final AtomicBoolean wakeRequested = new AtomicBoolean();
+    private volatile boolean notifyListening;
+    private volatile long lastClaimNanos = System.nanoTime();
 
     @Value("${operation.job.worker.max-batch:${copy.job.worker.max-batch:50}}")
     private int maxBatch;
@@ -81,9 +89,21 @@ public class CopyExecutionJobWorker {
     @Value("${operation.job.worker.max-attempts:${copy.job.worker.max-attempts:10}}")
     private int maxAttempts;
 
+    @Value("${operation.job.worker.notify.fallback-poll-ms:${copy.job.worker.notify.fallback-poll-ms:1000}}")
+    private long notifyFallbackPollMs = 1000L;
+
+    @Value("${operation.job.worker.lanes.enabled:${copy.job.worker.lanes.enabled:false}}")
+    private boolean lanesEnabled;
+
     @Value("${engine.copy.allow-legacy-unknown-delta-jobs:false}")
     private boolean allowLegacyUnknownDeltaJobs;
 
+    @Value("${copy.job.payload-purge.retention:PT24H}")
+    private Duration payloadPurgeRetention = Duration.ofHours(24);
+
+    @Value("${copy.job.payload-purge.batch-size:1000}")
+    private int payloadPurgeBatchSize = 1000;
+
     public CopyExecutionJobWorker(
             CopyExecutionJobService jobService,
             BinanceCopyExecutionService binanceCopyExecutionService,
@@ -93,6 +113,7 @@ public class CopyExecutionJobWorker {
             ObjectMapper objectMapper,
             @Qualifier("copyJobExecutor") ThreadPoolTaskExecutor executor,
             @Qualifier("copyPriorityJobExecutor") ThreadPoolTaskExecutor priorityExecutor,
+            @Qualifier("copyJobLaneExecutor") KeyedOrderedExecutor laneExecutor,
             TradingMetrics tradingMetrics
     ) {
         this.jobService = jobService;
@@ -103,43 +124,153 @@ public class CopyExecutionJobWorker {
         this.objectMapper = objectMapper;
         this.executor = executor;
         this.priorityExecutor = priorityExecutor;
+        this.laneExecutor = laneExecutor;
         this.tradingMetrics = tradingMetrics;
         this.workerId = buildWorkerId();
     }
 
+    /**
+     * Poll de respaldo. Mientras el listener de NOTIFY está conectado solo reclama si no hubo un
+     * claim en los últimos fallback-poll-ms; si el listener cae, vuelve al polling de poll-ms.
+     */
     @Scheduled(fixedDelayString = "${operation.job.worker.poll-ms:${copy.job.worker.poll-ms:50}}")
     public void tick() {
-        try {
-            OffsetDateTime now = OffsetDateTime.now();
+        if (notifyListening
+                && Duration.ofNanos(System.nanoTime() - lastClaimNanos).toMillis() < notifyFallbackPollMs) {
+            return;
+        }
+        claimAndDispatch("poll");
+    }
+
+    /** Invocado por el listener de NOTIFY cuando un enqueue confirmó jobs nuevos. */
+    public void onJobsReady() {
+        claimAndDispatch("notify");
+    }
 
-            int requeued = jobService.requeueStaleProcessing(now.minus(STALE_LOCK_TTL));
+    public void onNotifyListenerState(boolean listening) {
+        if (notifyListening != listening) {
+            log.info("event=copy.job.notify_listener_state workerId={} listening={}", workerId, listening);
+        }
+        notifyListening = listening;
+    }
+
+    @Scheduled(fixedDelayString = "${operation.job.worker.stale-requeue-ms:${copy.job.worker.stale-requeue-ms:30000}}")
+    public void requeueStale() {
+        try {
+            int requeued = jobService.requeueStaleProcessing(OffsetDateTime.now().minus(STALE_LOCK_TTL));
             if (requeued > 0) {
                 ExecSnapshot s = execSnapshot();
                 log.warn("event=copy.job.requeued_stale workerId={} count={} staleTtlSec={} execPool={} execActive={} execQueue={} execQueueRemaining={}",
                         workerId, requeued, STALE_LOCK_TTL.toSeconds(),
                         s.poolSize(), s.activeCount(), s.queueSize(), s.queueRemaining());
+                onJobsReady();
             }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("event=copy.job.requeue_stale.error workerId={} errClass={} errMsg=\"{}\"",
+                    workerId, e.getClass().getSimpleName(), safeMsgForLog(safeMsg(e)), e);
+        }
+    }
 
-            List<CopyExecutionJobEntity> jobs = jobService.claimBatch(workerId, maxBatch);
-            if (jobs.isEmpty()) return;
+    /**
+     * Un job refrescado con otro evento apunta a un payload nuevo y deja el anterior huérfano. Se
+     * purgan en lotes los huérfanos más viejos que {@code retention}; el resto espera a la próxima
+     * pasada.
+     */
+    @Scheduled(initialDelayString = "${copy.job.payload-purge.initial-delay-ms:60000}",
+            fixedDelayString = "${copy.job.payload-purge.interval-ms:600000}")
+    public void purgeOrphanPayloads() {
+        try {
+            int purged = jobService.purgeOrphanPayloads(
+                    OffsetDateTime.now().minus(payloadPurgeRetention), payloadPurgeBatchSize);
+            if (purged > 0) {
+                log.info("event=copy.job.payload_purged workerId={} count={} retentionSec={} batchSize={}",
+                        workerId, purged, payloadPurgeRetention.toSeconds(), payloadPurgeBatchSize);
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("event=copy.job.payload_purge.error workerId={} errClass={} errMsg=\"{}\"",
+                    workerId, e.getClass().getSimpleName(), safeMsgForLog(safeMsg(e)), e);
+        }
+    }
+
+    /*
+     * Un solo claim a la vez por réplica: si llega un wake-up mientras otro hilo reclama, queda
+     * marcado y el hilo en curso repite el claim al soltar el lock. Con batch lleno se sigue
+     * drenando mientras los executors tengan cola libre.
+     */
+    private void claimAndDispatch(String wakeup) {
+        wakeRequested.set(true);
+        while (wakeRequested.get() && claimLock.tryLock()) {
+            try {
+                boolean moreReady;
+                do {
+                    wakeRequested.set(false);
+                    moreReady = claimOnce(wakeup);
+                } while (moreReady);
+            } finally {
+                claimLock.unlock();
+            }
+        }
+    }
+
+    /** Devuelve true si el batch salió lleno y todavía hay espacio para reclamar otro. */
+    private boolean claimOnce(String wakeup) {
+        try {
+            lastClaimNanos = System.nanoTime();
+            int budget = claimBudget();
+            tradingMetrics.claimBudget(budget);
+            if (budget <= 0) {
+                log.debug("event=copy.job.claim_backpressure workerId={} wakeup={} maxBatch={}", workerId, wakeup, maxBatch);
+                return false;
+            }
+            List<CopyExecutionJobEntity> jobs = jobService.claimBatch(workerId, budget);
+            if (jobs.isEmpty()) return false;
 
             tradingMetrics.claimedBatch(jobs.size());
+            OffsetDateTime claimedAt = OffsetDateTime.now();
+            for (CopyExecutionJobEntity job : jobs) {
+                tradingMetrics.jobClaimLatency(job, wakeup, claimedAt);
+            }
 
             ExecSnapshot s = execSnapshot();
-            log.info("event=copy.job.claimed workerId={} batch={} execPool={} execActive={} execQueue={} execQueueRemaining={}",
-                    workerId, jobs.size(),
+            log.info("event=copy.job.claimed workerId={} batch={} wakeup={} execPool={} execActive={} execQueue={} execQueueRemaining={}",
+                    workerId, jobs.size(), wakeup,
                     s.poolSize(), s.activeCount(), s.queueSize(), s.queueRemaining());
 
+            Map<String, OperacionEvent> batchEvents = parseDistinctPayloads(jobs);
             for (CopyExecutionJobEntity job : jobs) {
-                submitOrRescheduleOnReject(job);
+                submitOrRescheduleOnReject(job, batchEvents.get(job.payloadKey()));
             }
+            return jobs.size() >= budget && hasRoomForBatch();
 
         } catch (EngineException | DataAccessException | RestClientException | IllegalStateException | IllegalArgumentException e) {
             log.error("event=copy.tick.error workerId={} errClass={} errMsg=\"{}\"",
                     workerId, e.getClass().getSimpleName(), safeMsgForLog(safeMsg(e)), e);
+            return false;
         }
     }
 
+    /*
+     * Con carriles, el batch se limita al espacio libre de las colas: reclamar más solo dejaría
+     * jobs en PROCESSING que el executor rechaza y hay que reprogramar.
+     */
+    private int claimBudget() {
+        if (!lanesEnabled) {
+            return maxBatch;
+        }
+        return Math.min(maxBatch, laneExecutor.remainingCapacity());
+    }
+
+    private boolean hasRoomForBatch() {
+        if (lanesEnabled) {
+            return claimBudget() > 0;
+        }
+        return hasRoomForBatch(execSnapshot()) && hasRoomForBatch(execSnapshot(priorityExecutor));
+    }
+
+    private boolean hasRoomForBatch(ExecSnapshot s) {
+        return s.queueRemaining() < 0 || s.queueRemaining() >= maxBatch;
+    }
+
 
     private void assertBusinessLifecycleAllowed(CopyExecutionJobEntity job, OperacionEvent event) {
         if (event == null) {
@@ -223,11 +354,35 @@ public class CopyExecutionJobWorker {
                 .anyMatch(copy -> copy.getTypeOperation() != null && !newSide.equalsIgnoreCase(copy.getTypeOperation()));
     }
 
-    private void submitOrRescheduleOnReject(CopyExecutionJobEntity job) {
-        ThreadPoolTaskExecutor selectedExecutor = executorFor(job);
+    /**
+     * Un fan-out comparte el mismo payload entre muchos jobs del batch: se deserializa una sola
+     * vez por hash. Si falla, el job queda sin evento pre-parseado y process() reporta el error.
+     */
+    private Map<String, OperacionEvent> parseDistinctPayloads(List<CopyExecutionJobEntity> jobs) {
+        Map<String, OperacionEvent> events = new HashMap<>();
+        for (CopyExecutionJobEntity job : jobs) {
+            String key = job.payloadKey();
+            if (key == null || events.containsKey(key) || job.effectivePayload() == null) {
+                continue;
+            }
+            try {
+                events.put(key, readPayload(job));
+            } catch (EngineException ex) {
+                events.put(key, null);
+            }
+        }
+        return events;
+    }
+
+    private void submitOrRescheduleOnReject(CopyExecutionJobEntity job, OperacionEvent parsedEvent) {
         String executorLane = executorLane(job);
         try {
-            selectedExecutor.execute(() -> process(job));
+            if (lanesEnabled) {
+                // Los cierres adelantan a las aperturas ya encoladas en el carril, como hacía el pool prioritario.
+                laneExecutor.execute(job.getUserId(), job.getAction() == CopyJobAction.CLOSE, () -> process(job, parsedEvent));
+            } else {
+                executorFor(job).execute(() -> process(job, parsedEvent));
+            }
         } catch (RejectedExecutionException rej) {
             // IMPORTANT: si el executor rechaza, el job ya está en PROCESSING.
             // Lo volvemos a PENDING inmediatamente para no dejarlo pegado esperando el stale TTL.
@@ -236,7 +391,7 @@ public class CopyExecutionJobWorker {
 
             jobService.reschedule(job, nextRunAt, CopyJobErrorCategory.REJECTED.name(), "executor_rejected");
 
-            ExecSnapshot s = execSnapshot(selectedExecutor);
+            ExecSnapshot s = lanesEnabled ? laneSnapshot() : execSnapshot(executorFor(job));
             log.warn("event=copy.job.rejected id={} originId={} userId={} action={} attempts={} category={} retryable=true nextRunAt={} workerId={} executorLane={} execPool={} execActive={} execQueue={} execQueueRemaining={} errClass={} errMsg=\"{}\"",
                     job.getId(), job.getOriginId(), job.getUserId(), job.getAction(), job.getAttempt() + 1,
                     CopyJobErrorCategory.REJECTED,
@@ -246,7 +401,7 @@ public class CopyExecutionJobWorker {
         }
     }
 
-    private void process(CopyExecutionJobEntity job) {
+    private void process(CopyExecutionJobEntity job, OperacionEvent parsedEvent) {
         long t0 = System.nanoTime();
         OperacionEvent event = null;
 
@@ -258,7 +413,7 @@ public class CopyExecutionJobWorker {
                     job.getId(), job.getOriginId(), job.getUserId(), job.getAction(), job.getAttempt(), workerId);
 
             long phaseNs = System.nanoTime();
-            event = readPayload(job);
+            event = parsedEvent != null ? parsedEvent : readPayload(job);
             log.info("event=copy.job.phase id={} originId={} userId={} action={} phase=load_job elapsedMs={}",
                     job.getId(), job.getOriginId(), job.getUserId(), job.getAction(), elapsedMsSince(phaseNs));
 
@@ -310,7 +465,8 @@ public class CopyExecutionJobWorker {
             tradingMetrics.jobResult(job, "skipped", skip.getReasonCode());
 
             CopyJobLogContext ctx = copyJobLogContext(event, skip);
-            log.info("event=copy.job.skipped id={} originId={} userId={} action={} wallet={} symbol={} side={} positionSide={} qty={} attempts={} category={} retryable=false workerId={} reasonCode={} errCode={} httpStatus={} binanceCode={} traceId={} reason=\"{}\" errMsg=\"{}\" details=\"{}\" {}",
+            CopyLogAdvice.withAdvice(log.atInfo(), skip.getReasonCode(), CopyLogAdvice.context(null, null, null, 1, null, null, null, "copy_job_worker"))
+                    .log("event=copy.job.skipped id={} originId={} userId={} action={} wallet={} symbol={} side={} positionSide={} qty={} attempts={} category={} retryable=false workerId={} reasonCode={} errCode={} httpStatus={} binanceCode={} traceId={} reason=\"{}\" errMsg=\"{}\" details=\"{}\"",
                     job.getId(),
                     job.getOriginId(),
                     job.getUserId(),
@@ -330,8 +486,7 @@ public class CopyExecutionJobWorker {
                     orNA(extractLogFmtValue(skip.getDetails(), "traceId")),
                     safeMsgForLog(skip.getReason()),
                     safeMsgForLog(skip.getMessage()),
-                    safeMsgForLog(skip.getDetails()),
-                    CopyLogAdvice.fields(skip.getReasonCode(), CopyLogAdvice.context(null, null, null, 1, null, null, null, "copy_job_worker")));
+                    safeMsgForLog(skip.getDetails()));
 
         } catch (EngineException | DataAccessException | RestClientException | IllegalStateException | IllegalArgumentException ex) {
             handleFailure(job, event, ex);
@@ -678,8 +833,12 @@ public class CopyExecutionJobWorker {
     }
 
     private OperacionEvent readPayload(CopyExecutionJobEntity job) {
+        String payload = job.effectivePayload();
+        if (payload == null) {
+            return null;
+        }
         try {
-            return objectMapper.readValue(job.getPayload(), OperacionEvent.class);
+            return objectMapper.readValue(payload, OperacionEvent.class);
         } catch (JsonProcessingException ex) {
             Map<String, Object> details = new HashMap<>();
             if (job.getId() != null) details.put("jobId", job.getId().toString());
@@ -719,7 +878,12 @@ public class CopyExecutionJobWorker {
     }
 
     private ExecSnapshot execSnapshot() {
-        return execSnapshot(executor);
+        return lanesEnabled ? laneSnapshot() : execSnapshot(executor);
+    }
+
+    private ExecSnapshot laneSnapshot() {
+        return new ExecSnapshot(laneExecutor.laneCount(), laneExecutor.activeLanes(),
+                laneExecutor.queuedTasks(), laneExecutor.remainingCapacity());
     }
 
     private ExecSnapshot execSnapshot(ThreadPoolTaskExecutor selectedExecutor) {
@@ -741,6 +905,9 @@ public class CopyExecutionJobWorker {
     }
 
     private String executorLane(CopyExecutionJobEntity job) {
+        if (lanesEnabled && job != null) {
+            return "lane-" + laneExecutor.laneOf(job.getUserId());
+        }
         return job != null && job.getAction() == CopyJobAction.CLOSE ? "priority" : "standard";
     }
 
@@ -15,7 +15,9 @@ import com.apunto.engine.service.copy.dispatch.NormalizedBinanceExecution;
 import com.apunto.engine.shared.enums.OrderType;
 import com.apunto.engine.shared.enums.PositionSide;
 import com.apunto.engine.shared.enums.Side;
+import com.apunto.engine.shared.util.WeightedRateLimiter;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,10 +26,21 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
@@ -51,6 +64,27 @@ public class CopyOrderReconciliationWorker {
     private int maxAttempts;
     @Value("${copy.reconciliation.dispatch-stale-after:PT30S}")
     private Duration dispatchStaleAfter;
+    @Value("${copy.reconciliation.concurrency:8}")
+    private int concurrency = 8;
+    @Value("${copy.reconciliation.per-account-concurrency:2}")
+    private int perAccountConcurrency = 2;
+    @Value("${copy.reconciliation.weight-per-minute:600}")
+    private int weightPerMinute = 600;
+    @Value("${copy.reconciliation.order-lookup-weight:1}")
+    private int orderLookupWeight = 1;
+    @Value("${copy.reconciliation.recent-orders-weight:5}")
+    private int recentOrdersWeight = 5;
+
+    private volatile WeightedRateLimiter weightLimiter;
+    private volatile ExecutorService lanePool;
+
+    @PreDestroy
+    public void stop() {
+        ExecutorService pool = lanePool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
 
     @Scheduled(initialDelayString = "${copy.reconciliation.initial-delay-ms:10000}",
             fixedDelayString = "${copy.reconciliation.fixed-delay-ms:5000}")
@@ -58,32 +92,152 @@ public class CopyOrderReconciliationWorker {
         runOnce();
     }
 
+    /**
+     * Reconcilia el batch reclamado en carriles concurrentes: como mucho {@code concurrency} en total
+     * y {@code per-account-concurrency} por cuenta, porque el límite de órdenes del exchange es por
+     * cuenta. Cada request pasa por un presupuesto de peso compartido; lo que no entra antes de la
+     * mitad del lease se libera sin gastar el intento y vuelve en el próximo ciclo. Las escrituras
+     * al intent store son las mismas que en serie: cada intent lo procesa un solo carril.
+     */
     public int runOnce() {
         List<CopyDispatchIntentEntity> batch = reconciliationService.claimBatch(batchSize, dispatchStaleAfter, workerId);
-        int completed = 0;
+        if (batch.isEmpty()) return 0;
+        long startedNs = System.nanoTime();
+        long deadlineNs = startedNs + leaseBudgetNanos();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger deferred = new AtomicInteger();
+
+        List<Runnable> lanes = new ArrayList<>();
+        for (Queue<PendingIntent> account : pendingByAccount(batch).values()) {
+            int accountLanes = Math.min(Math.max(1, perAccountConcurrency), account.size());
+            for (int i = 0; i < accountLanes; i++) {
+                lanes.add(() -> {
+                    PendingIntent pending;
+                    while ((pending = account.poll()) != null) {
+                        switch (reconcileIsolated(pending, deadlineNs)) {
+                            case COMPLETED -> completed.incrementAndGet();
+                            case DEFERRED -> deferred.incrementAndGet();
+                            case FAILED -> { }
+                        }
+                    }
+                });
+            }
+        }
+        runLanes(lanes);
+
+        if (deferred.get() > 0) {
+            log.warn("event=copy.reconciliation.deferred reasonCode=RECONCILIATION_WEIGHT_BUDGET_EXHAUSTED claimed={} completed={} deferred={} weightPerMinute={} decision=RELEASED_FOR_NEXT_RUN",
+                    batch.size(), completed.get(), deferred.get(), weightPerMinute);
+        }
+        meterRegistry.timer("copy_reconciliation_batch_duration", "result", deferred.get() > 0 ? "deferred" : "complete")
+                .record(System.nanoTime() - startedNs, java.util.concurrent.TimeUnit.NANOSECONDS);
+        return completed.get();
+    }
+
+    private Outcome reconcileIsolated(PendingIntent pending, long deadlineNs) {
+        CopyDispatchIntentEntity intent = pending.intent();
+        try {
+            reconcileOne(intent, pending.recentOrders(), deadlineNs);
+            return Outcome.COMPLETED;
+        } catch (WeightBudgetExhausted ex) {
+            meterRegistry.counter("copy_reconciliation_total", "result", "rate_limited").increment();
+            releaseDeferred(intent);
+            return Outcome.DEFERRED;
+        } catch (RuntimeException ex) {
+            reconciliationService.markFailure(intent.getId(), maxAttempts, "RECONCILIATION_ITEM_FAILED", safe(ex.getMessage()));
+            meterRegistry.counter("signals.copy.reconciliation.total", "result", "failed").increment();
+            meterRegistry.counter("copy_reconciliation_total", "result", "failed").increment();
+            reconciliationFailure(intent, "item_failed");
+            if (exhausted(intent)) {
+                manualReview(intent, "item_failed_exhausted");
+            }
+            log.error("event=copy.reconciliation.failed dispatchIntentId={} reasonCode=RECONCILIATION_ITEM_FAILED nextRetryAt=backoff errClass={} errMsg=\"{}\"",
+                    intent.getId(), ex.getClass().getSimpleName(), safe(ex.getMessage()));
+            return Outcome.FAILED;
+        }
+    }
+
+    /** Si la liberación falla el intent vuelve igual al vencer el claim, con el intento ya contado. */
+    private void releaseDeferred(CopyDispatchIntentEntity intent) {
+        try {
+            reconciliationService.releaseDeferred(intent.getId(), workerId);
+        } catch (RuntimeException ex) {
+            log.warn("event=copy.reconciliation.release_failed dispatchIntentId={} decision=RETRY_AFTER_CLAIM_LEASE errClass={} errMsg=\"{}\"",
+                    intent.getId(), ex.getClass().getSimpleName(), safe(ex.getMessage()));
+        }
+    }
+
+    private void runLanes(List<Runnable> lanes) {
+        if (Math.max(1, concurrency) <= 1 || lanes.size() <= 1) {
+            lanes.forEach(Runnable::run);
+            return;
+        }
+        // El pool tiene concurrency hilos, así que a lo sumo concurrency carriles corren a la vez.
+        ExecutorService pool = lanePool();
+        try {
+            List<Future<?>> running = new ArrayList<>(lanes.size());
+            for (Runnable lane : lanes) {
+                running.add(pool.submit(lane));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            log.error("event=copy.reconciliation.lane_failed errClass={} errMsg=\"{}\"",
+                    ex.getCause().getClass().getSimpleName(), safe(ex.getCause().getMessage()));
+        }
+    }
+
+    private ExecutorService lanePool() {
+        ExecutorService pool = lanePool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = lanePool;
+                if (pool == null) {
+                    pool = Executors.newFixedThreadPool(Math.max(1, concurrency),
+                            Thread.ofPlatform().name("copy-reconcile-lane-", 0).daemon(true).factory());
+                    lanePool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Agrupa por cuenta y, dentro de la cuenta, por símbolo: los intents de un mismo símbolo quedan
+     * contiguos y comparten una sola consulta de órdenes recientes cuando el gateway la ofrece y
+     * cuesta menos peso que buscarlos uno a uno.
+     */
+    private Map<String, Queue<PendingIntent>> pendingByAccount(List<CopyDispatchIntentEntity> batch) {
+        Map<String, Map<String, List<CopyDispatchIntentEntity>>> grouped = new LinkedHashMap<>();
         for (CopyDispatchIntentEntity intent : batch) {
-            try {
-                reconcileOne(intent);
-                completed++;
-            } catch (RuntimeException ex) {
-                reconciliationService.markFailure(intent.getId(), maxAttempts, "RECONCILIATION_ITEM_FAILED", safe(ex.getMessage()));
-                meterRegistry.counter("signals.copy.reconciliation.total", "result", "failed").increment();
-                meterRegistry.counter("copy_reconciliation_total", "result", "failed").increment();
-                reconciliationFailure(intent, "item_failed");
-                if (exhausted(intent)) {
-                    manualReview(intent, "item_failed_exhausted");
+            grouped.computeIfAbsent(String.valueOf(intent.getIdUser()), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(String.valueOf(intent.getSymbol()), k -> new ArrayList<>())
+                    .add(intent);
+        }
+        Map<String, Queue<PendingIntent>> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, List<CopyDispatchIntentEntity>>> account : grouped.entrySet()) {
+            Queue<PendingIntent> queue = new ConcurrentLinkedQueue<>();
+            for (List<CopyDispatchIntentEntity> symbolIntents : account.getValue().values()) {
+                RecentOrders recentOrders = binanceGateway.supportsRecentOrders()
+                        && symbolIntents.size() * Math.max(1, orderLookupWeight) > Math.max(1, recentOrdersWeight)
+                        ? new RecentOrders(symbolIntents.getFirst().getSymbol())
+                        : null;
+                for (CopyDispatchIntentEntity intent : symbolIntents) {
+                    queue.add(new PendingIntent(intent, recentOrders));
                 }
-                log.error("event=copy.reconciliation.failed dispatchIntentId={} reasonCode=RECONCILIATION_ITEM_FAILED nextRetryAt=backoff errClass={} errMsg=\"{}\"",
-                        intent.getId(), ex.getClass().getSimpleName(), safe(ex.getMessage()));
             }
+            pending.put(account.getKey(), queue);
         }
-        return completed;
+        return pending;
     }
 
-    private void reconcileOne(CopyDispatchIntentEntity intent) {
+    private void reconcileOne(CopyDispatchIntentEntity intent, RecentOrders recentOrders, long deadlineNs) {
         long startedNs = System.nanoTime();
         try {
-            reconcileOneMeasured(intent);
+            reconcileOneMeasured(intent, recentOrders, deadlineNs);
         } finally {
             meterRegistry.timer("copy_reconciliation_duration",
                             "execution_mode", metricTag(intent == null ? null : intent.getExecutionMode()),
@@ -92,15 +246,20 @@ public class CopyOrderReconciliationWorker {
         }
     }
 
-    private void reconcileOneMeasured(CopyDispatchIntentEntity intent) {
+    private void reconcileOneMeasured(CopyDispatchIntentEntity intent, RecentOrders recentOrders, long deadlineNs) {
         OperationDto lookup = lookupRequest(intent);
         log.info("event=copy.reconciliation.started dispatchIntentId={} clientOrderId={} orderId={} userCopyAllocationId={} executionMode={}",
                 intent.getId(), safe(intent.getClientOrderId()), intent.getBinanceOrderId(),
                 intent.getUserCopyAllocationId(), intent.getExecutionMode());
-        Optional<BinanceFuturesOrderClientResponse> found = intent.getBinanceOrderId() == null
+        Optional<BinanceFuturesOrderClientResponse> found = recentOrders == null
                 ? Optional.empty()
-                : binanceGateway.findOrderByOrderId(lookup, intent.getBinanceOrderId());
+                : recentOrders.find(intent, lookup, deadlineNs);
+        if (found.isEmpty() && intent.getBinanceOrderId() != null) {
+            acquireWeight(orderLookupWeight, deadlineNs);
+            found = binanceGateway.findOrderByOrderId(lookup, intent.getBinanceOrderId());
+        }
         if (found.isEmpty()) {
+            acquireWeight(orderLookupWeight, deadlineNs);
             found = binanceGateway.findOrderByClientOrderId(lookup);
         }
         if (found.isEmpty()) {
@@ -197,6 +356,108 @@ public class CopyOrderReconciliationWorker {
         return intent != null && intent.getReconciliationAttempts() >= Math.max(1, maxAttempts);
     }
 
+    private void acquireWeight(int weight, long deadlineNs) {
+        boolean acquired;
+        try {
+            acquired = weightLimiter().acquire(weight, deadlineNs - System.nanoTime());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new WeightBudgetExhausted();
+        }
+        if (!acquired) {
+            throw new WeightBudgetExhausted();
+        }
+    }
+
+    private WeightedRateLimiter weightLimiter() {
+        WeightedRateLimiter limiter = weightLimiter;
+        if (limiter == null) {
+            synchronized (this) {
+                limiter = weightLimiter;
+                if (limiter == null) {
+                    limiter = new WeightedRateLimiter(Math.max(1, weightPerMinute), Duration.ofMinutes(1).toNanos());
+                    weightLimiter = limiter;
+                }
+            }
+        }
+        return limiter;
+    }
+
+    /** Mitad del lease del claim: lo que no se resuelve antes vuelve al vencer el claim, sin doble proceso. */
+    private long leaseBudgetNanos() {
+        Duration lease = dispatchStaleAfter == null || dispatchStaleAfter.isZero() || dispatchStaleAfter.isNegative()
+                ? Duration.ofSeconds(30) : dispatchStaleAfter;
+        return lease.toNanos() / 2;
+    }
+
+    private enum Outcome { COMPLETED, DEFERRED, FAILED }
+
+    private record PendingIntent(CopyDispatchIntentEntity intent, RecentOrders recentOrders) {
+    }
+
+    /** El presupuesto de peso no alcanzó antes del deadline; el intent queda para el próximo claim. */
+    private static final class WeightBudgetExhausted extends RuntimeException {
+        private WeightBudgetExhausted() {
+            super("reconciliation weight budget exhausted", null, false, false);
+        }
+    }
+
+    /**
+     * Órdenes recientes de una cuenta y símbolo, pedidas una sola vez por el primer carril que las
+     * necesita. Solo se arma si el gateway ofrece la consulta; si falla o vuelve vacía, cada intent
+     * cae a su búsqueda individual.
+     */
+    private final class RecentOrders {
+        private final String symbol;
+        private boolean loaded;
+        private Map<Long, BinanceFuturesOrderClientResponse> byOrderId = Map.of();
+        private Map<String, BinanceFuturesOrderClientResponse> byClientOrderId = Map.of();
+
+        private RecentOrders(String symbol) {
+            this.symbol = symbol;
+        }
+
+        synchronized Optional<BinanceFuturesOrderClientResponse> find(CopyDispatchIntentEntity intent,
+                                                                      OperationDto account,
+                                                                      long deadlineNs) {
+            if (!loaded) {
+                acquireWeight(recentOrdersWeight, deadlineNs);
+                loaded = true;
+                load(account);
+            }
+            BinanceFuturesOrderClientResponse match = intent.getBinanceOrderId() == null
+                    ? null
+                    : byOrderId.get(intent.getBinanceOrderId());
+            if (match == null && intent.getClientOrderId() != null) {
+                match = byClientOrderId.get(intent.getClientOrderId());
+            }
+            meterRegistry.counter("copy_reconciliation_lookup", "source", "recent_orders",
+                    "result", match == null ? "miss" : "hit").increment();
+            return Optional.ofNullable(match);
+        }
+
+        private void load(OperationDto account) {
+            Optional<List<BinanceFuturesOrderClientResponse>> orders;
+            try {
+                orders = binanceGateway.findRecentOrders(account, symbol);
+            } catch (RuntimeException ex) {
+                log.warn("event=copy.reconciliation.recent_orders_failed userId={} symbol={} decision=FALLBACK_PER_ORDER errClass={} errMsg=\"{}\"",
+                        account.getUserId(), symbol, ex.getClass().getSimpleName(), safe(ex.getMessage()));
+                return;
+            }
+            if (orders.isEmpty()) return;
+            Map<Long, BinanceFuturesOrderClientResponse> orderIds = new HashMap<>();
+            Map<String, BinanceFuturesOrderClientResponse> clientOrderIds = new HashMap<>();
+            for (BinanceFuturesOrderClientResponse order : orders.get()) {
+                if (order == null || order.getOrderId() == null) continue;
+                orderIds.put(order.getOrderId(), order);
+                if (order.getClientOrderId() != null) clientOrderIds.put(order.getClientOrderId(), order);
+            }
+            byOrderId = orderIds;
+            byClientOrderId = clientOrderIds;
+        }
+    }
+
     private OperationDto lookupRequest(CopyDispatchIntentEntity intent) {
         UserDetailDto user = userDetailCachedService.getUserById(intent.getIdUser())
                 .orElseThrow(() -> new IllegalStateException("User/API credentials unavailable for reconciliation"));
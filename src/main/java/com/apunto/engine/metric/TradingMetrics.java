@@ -80,6 +80,10 @@ public class TradingMetrics {
         registry.summary("signals.copy.job.claim.batch").record(batchSize);
     }
 
+    public void claimBudget(int budget) {
+        registry.summary("signals.copy.job.claim.budget").record(Math.max(0, budget));
+    }
+
     public void jobQueueWait(CopyExecutionJobEntity job) {
         if (job.getCreatedAt() == null || job.getAction() == null) return;
 
@@ -90,6 +94,21 @@ public class TradingMetrics {
         }
     }
 
+    /**
+     * Latencia desde que el job quedó elegible (next_run_at) hasta el claim, etiquetada por el
+     * disparador del claim (notify o poll) para comparar ambos caminos.
+     */
+    public void jobClaimLatency(CopyExecutionJobEntity job, String wakeup, OffsetDateTime claimedAt) {
+        if (job.getNextRunAt() == null || claimedAt == null) return;
+
+        Duration latency = Duration.between(job.getNextRunAt(), claimedAt);
+        String action = job.getAction() == null ? "UNKNOWN" : job.getAction().name();
+        registry.timer("signals.copy.job.claim.latency",
+                        "action", action,
+                        "wakeup", safeTag(wakeup))
+                .record(latency.isNegative() ? Duration.ZERO : latency);
+    }
+
     public void jobExecution(CopyExecutionJobEntity job, String result, long nanos) {
         String action = job.getAction() == null ? "UNKNOWN" : job.getAction().name();
 
@@ -2,24 +2,26 @@ package com.apunto.engine.outbox.jobs;
 
 import com.apunto.engine.outbox.dto.MetricOutboxRecord;
 import com.apunto.engine.shared.util.LogFmt;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaProducerException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -29,11 +31,21 @@ import java.util.concurrent.TimeoutException;
 @RequiredArgsConstructor
 public class MetricMovementOutboxPublisher {
 
-    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() { };
+    private static final String MARK_PUBLISHED_SQL = """
+            UPDATE futuros_operaciones.metric_event_outbox
+            SET published_at = now(), locked_at = NULL, locked_by = NULL
+            WHERE id = ANY(?::bigint[])
+            """;
+
+    private static final String MARK_FAILED_SQL = """
+            UPDATE futuros_operaciones.metric_event_outbox o
+            SET locked_at = NULL, locked_by = NULL, last_error = f.last_error
+            FROM unnest(?::bigint[], ?::text[]) AS f(id, last_error)
+            WHERE o.id = f.id
+            """;
 
     private final JdbcTemplate jdbcTemplate;
-    private final KafkaTemplate<Object, Object> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> metricOutboxKafkaTemplate;
 
     @Value("${metric.outbox.publisher.enabled:false}")
     private boolean enabled;
@@ -65,13 +77,87 @@ public class MetricMovementOutboxPublisher {
         if (records.isEmpty()) {
             return;
         }
-        int published = 0;
+        List<PendingSend> sends = sendAll(records);
+        List<Long> published = new ArrayList<>(records.size());
+        List<Failure> failed = new ArrayList<>();
+        awaitAll(sends, published, failed);
+        markOutcomes(published, failed);
+        log.info("event=metric_outbox.batch published={} failed={} claimed={} instanceId={}",
+                published.size(), failed.size(), records.size(), safe(instanceId));
+    }
+
+    /**
+     * Envía todo el lote sin esperar acks. Los registros salen en el orden del claim y el producer
+     * conserva el orden por partición, así que el orden por key se mantiene. Si un envío falla al
+     * encolarse, los siguientes de la misma key no se envían en este lote para no adelantarlo.
+     */
+    private List<PendingSend> sendAll(List<MetricOutboxRecord> records) {
+        List<PendingSend> sends = new ArrayList<>(records.size());
+        Set<String> blockedKeys = new HashSet<>();
         for (MetricOutboxRecord record : records) {
-            if (publish(record)) {
-                published++;
+            String topic = topicFor(record.eventType());
+            if (blockedKeys.contains(record.kafkaKey())) {
+                sends.add(new PendingSend(record, topic, CompletableFuture.failedFuture(
+                        new IllegalStateException("previous record with same key failed to send"))));
+                continue;
+            }
+            try {
+                byte[] payload = record.payload().getBytes(StandardCharsets.UTF_8);
+                sends.add(new PendingSend(record, topic, metricOutboxKafkaTemplate.send(topic, record.kafkaKey(), payload)));
+            } catch (RuntimeException ex) {
+                blockedKeys.add(record.kafkaKey());
+                sends.add(new PendingSend(record, topic, CompletableFuture.failedFuture(ex)));
+            }
+        }
+        return sends;
+    }
+
+    private void awaitAll(List<PendingSend> sends, List<Long> published, List<Failure> failed) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(1000, publishTimeoutMs));
+        boolean interrupted = false;
+        for (PendingSend send : sends) {
+            MetricOutboxRecord record = send.record();
+            if (interrupted) {
+                failed.add(new Failure(record.id(), "interrupted"));
+                continue;
             }
+            try {
+                send.future().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                published.add(record.id());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                failed.add(new Failure(record.id(), "interrupted"));
+                log.warn("event=metric_outbox.interrupted outboxId={} topic={}", record.id(), send.topic());
+            } catch (ExecutionException | TimeoutException ex) {
+                Throwable cause = sendFailureCause(ex);
+                failed.add(new Failure(record.id(), cause.getClass().getSimpleName() + ":" + safe(cause.getMessage())));
+                log.error("event=metric_outbox.publish_failed outboxId={} topic={} key={} errClass={} errMsg=\"{}\" {}",
+                        record.id(), send.topic(), safe(record.kafkaKey()), cause.getClass().getSimpleName(), safe(cause.getMessage()),
+                        LogFmt.kv("component", "metric_outbox_publisher"), cause);
+            }
+        }
+    }
+
+    private Throwable sendFailureCause(Exception ex) {
+        Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+        // KafkaTemplate envuelve el error del producer; el que sirve para diagnosticar es el de adentro.
+        if (cause instanceof KafkaProducerException && cause.getCause() != null) {
+            return cause.getCause();
+        }
+        return cause;
+    }
+
+    private void markOutcomes(List<Long> published, List<Failure> failed) {
+        try {
+            markPublished(published);
+            markFailed(failed);
+        } catch (DataAccessException ex) {
+            // Las filas quedan bloqueadas hasta lock-timeout-ms y se reintentan: entrega at-least-once.
+            log.error("event=metric_outbox.mark_failed published={} failed={} errClass={} errMsg=\"{}\" {}",
+                    published.size(), failed.size(), ex.getClass().getSimpleName(), safe(ex.getMessage()),
+                    LogFmt.kv("component", "metric_outbox_publisher"), ex);
         }
-        log.info("event=metric_outbox.batch published={} claimed={} instanceId={}", published, records.size(), safe(instanceId));
     }
 
     private List<MetricOutboxRecord> claimPending() {
@@ -107,32 +193,6 @@ public class MetricMovementOutboxPublisher {
         );
     }
 
-    private boolean publish(MetricOutboxRecord record) {
-        try {
-            Map<String, Object> payload = objectMapper.readValue(record.payload(), JSON_MAP);
-            String topic = topicFor(record.eventType());
-            kafkaTemplate.send(topic, record.kafkaKey(), payload).get(Math.max(1000, publishTimeoutMs), TimeUnit.MILLISECONDS);
-            markPublished(record.id());
-            return true;
-        } catch (JsonProcessingException ex) {
-            markFailed(record.id(), "json_processing:" + ex.getOriginalMessage());
-            log.error("event=metric_outbox.bad_payload outboxId={} errMsg=\"{}\"", record.id(), safe(ex.getOriginalMessage()), ex);
-            return false;
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-            markFailed(record.id(), "interrupted");
-            log.warn("event=metric_outbox.interrupted outboxId={} topic={}", record.id(), topicFor(record.eventType()));
-            return false;
-        } catch (KafkaException | DataAccessException | ExecutionException | TimeoutException ex) {
-            markFailed(record.id(), ex.getClass().getSimpleName() + ":" + safe(ex.getMessage()));
-            log.error("event=metric_outbox.publish_failed outboxId={} topic={} key={} errClass={} errMsg=\"{}\" {}",
-                    record.id(), topicFor(record.eventType()), safe(record.kafkaKey()), ex.getClass().getSimpleName(), safe(ex.getMessage()),
-                    LogFmt.kv("component", "metric_outbox_publisher"), ex);
-            return false;
-        }
-    }
-
-
     private String topicFor(String eventType) {
         if ("copy-operation-event-persisted-v1".equals(eventType)) {
             return copyOperationEventTopic;
@@ -140,19 +200,28 @@ public class MetricMovementOutboxPublisher {
         return movementTopic;
     }
 
-    private void markPublished(long id) {
-        jdbcTemplate.update(
-                "UPDATE futuros_operaciones.metric_event_outbox SET published_at = now(), locked_at = NULL, locked_by = NULL WHERE id = ?",
-                id
-        );
+    private void markPublished(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MARK_PUBLISHED_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray(Long[]::new))));
     }
 
-    private void markFailed(long id, String error) {
-        jdbcTemplate.update(
-                "UPDATE futuros_operaciones.metric_event_outbox SET locked_at = NULL, locked_by = NULL, last_error = ? WHERE id = ?",
-                truncate(error, 1000),
-                id
-        );
+    private void markFailed(List<Failure> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        Long[] ids = new Long[failures.size()];
+        String[] errors = new String[failures.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = failures.get(i).id();
+            errors[i] = truncate(failures.get(i).error(), 1000);
+        }
+        jdbcTemplate.update(MARK_FAILED_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("text", errors));
+        });
     }
 
     private OffsetDateTime toOffsetDateTime(Timestamp timestamp) {
@@ -169,4 +238,10 @@ public class MetricMovementOutboxPublisher {
     private String safe(Object value) {
         return value == null ? "null" : String.valueOf(value).replace('\n', '_').replace('\r', '_');
     }
+
+    private record PendingSend(MetricOutboxRecord record, String topic, CompletableFuture<SendResult<String, byte[]>> future) {
+    }
+
+    private record Failure(long id, String error) {
+    }
 }
@@ -2,6 +2,12 @@ package com.apunto.engine.outbox.service;
 
 import com.apunto.engine.entity.OperationMovementEventEntity;
 
+import java.util.List;
+
 public interface MetricMovementOutboxService {
     void enqueue(OperationMovementEventEntity entity);
+
+    default void enqueueAll(List<OperationMovementEventEntity> entities) {
+        entities.forEach(this::enqueue);
+    }
 }
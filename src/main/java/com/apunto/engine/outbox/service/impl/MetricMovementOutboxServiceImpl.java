@@ -31,6 +31,11 @@ public class MetricMovementOutboxServiceImpl implements MetricMovementOutboxServ
 
     private static final String EVENT_TYPE = "operation-movement-persisted-v1";
     private static final String EVENT_VERSION = "2";
+    private static final String INSERT_SQL = """
+            INSERT INTO futuros_operaciones.metric_event_outbox(
+                event_type, aggregate_key, kafka_key, payload
+            ) VALUES (?, ?, ?, ?::jsonb)
+            """;
 
     private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
@@ -53,16 +58,44 @@ public class MetricMovementOutboxServiceImpl implements MetricMovementOutboxServ
         insertOutbox(entity, payload);
     }
 
+    /** Mismas filas que {@link #enqueue} por cada movimiento, en un solo batch JDBC. */
+    @Override
+    public void enqueueAll(List<OperationMovementEventEntity> entities) {
+        if (!enabled || entities == null || entities.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (OperationMovementEventEntity entity : entities) {
+            if (entity == null) {
+                continue;
+            }
+            if (!StringUtils.hasText(entity.getMovementKey()) || !StringUtils.hasText(entity.getIdWalletOrigin())) {
+                log.warn("event=metric_outbox.skip reason=payload_incomplete movementKey={} wallet={}",
+                        safe(entity.getMovementKey()), safe(entity.getIdWalletOrigin()));
+                continue;
+            }
+            rows.add(new Object[]{EVENT_TYPE, entity.getMovementKey(), metricPartitionKey(entity), serialize(toEvent(entity))});
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            log.debug("event=metric_outbox.enqueued_batch rows={} topicEvent={}", rows.size(), EVENT_TYPE);
+        } catch (DataAccessException ex) {
+            log.error("event=metric_outbox.enqueue_failed rows={} errClass={} errMsg=\"{}\" {}",
+                    rows.size(), ex.getClass().getSimpleName(), safe(ex.getMessage()),
+                    LogFmt.kv("component", "metric_outbox"), ex);
+            throw ex;
+        }
+    }
+
     private void insertOutbox(OperationMovementEventEntity entity, String payload) {
         String wallet = normalizeWallet(entity.getIdWalletOrigin());
         String partitionKey = metricPartitionKey(entity);
         try {
             jdbcTemplate.update(
-                    """
-                    INSERT INTO futuros_operaciones.metric_event_outbox(
-                        event_type, aggregate_key, kafka_key, payload
-                    ) VALUES (?, ?, ?, ?::jsonb)
-                    """,
+                    INSERT_SQL,
                     EVENT_TYPE,
                     entity.getMovementKey(),
                     partitionKey,
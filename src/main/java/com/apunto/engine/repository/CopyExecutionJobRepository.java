@@ -86,62 +86,6 @@ public interface CopyExecutionJobRepository extends JpaRepository<CopyExecutionJ
             @Param("now") OffsetDateTime now
     );
 
-    @Modifying(clearAutomatically = true, flushAutomatically = true)
-    @Query(value = """
-    INSERT INTO copy_execution_job (
-        id, origin_id, user_id, action, status, attempt, next_run_at,
-        payload, last_error_category, created_at, updated_at
-    ) VALUES (
-        :id, :originId, :userId, :action, :status, :attempt, :nextRunAt,
-        :payload, :lastErrorCategory, :createdAt, :updatedAt
-    )
-    ON CONFLICT (origin_id, user_id, action) DO UPDATE
-       SET status = CASE
-               WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN 'PENDING'
-               ELSE copy_execution_job.status
-           END,
-           attempt = CASE
-               WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN 0
-               ELSE copy_execution_job.attempt
-           END,
-           next_run_at = CASE
-               WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN EXCLUDED.next_run_at
-               ELSE copy_execution_job.next_run_at
-           END,
-           payload = EXCLUDED.payload,
-           last_error_category = EXCLUDED.last_error_category,
-           last_error_message = CASE
-               WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN NULL
-               ELSE copy_execution_job.last_error_message
-           END,
-           last_error_at = CASE
-               WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN NULL
-               ELSE copy_execution_job.last_error_at
-           END,
-           locked_at = CASE
-               WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN NULL
-               ELSE copy_execution_job.locked_at
-           END,
-           locked_by = CASE
-               WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN NULL
-               ELSE copy_execution_job.locked_by
-           END,
-           updated_at = EXCLUDED.updated_at
-    """, nativeQuery = true)
-    int upsertPending(
-            @Param("id") UUID id,
-            @Param("originId") String originId,
-            @Param("userId") String userId,
-            @Param("action") String action,
-            @Param("status") String status,
-            @Param("attempt") int attempt,
-            @Param("nextRunAt") OffsetDateTime nextRunAt,
-            @Param("payload") String payload,
-            @Param("lastErrorCategory") String lastErrorCategory,
-            @Param("createdAt") OffsetDateTime createdAt,
-            @Param("updatedAt") OffsetDateTime updatedAt
-    );
-
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(value = """
             UPDATE copy_execution_job
@@ -156,10 +100,12 @@ public interface CopyExecutionJobRepository extends JpaRepository<CopyExecutionJ
                 updated_at = :now
             WHERE id = :id
               AND status = 'PROCESSING'
-              AND payload = :payload
+              AND payload_hash IS NOT DISTINCT FROM CAST(:payloadHash AS varchar)
+              AND payload IS NOT DISTINCT FROM CAST(:payload AS text)
             """, nativeQuery = true)
     int markDoneIfPayloadUnchanged(
             @Param("id") UUID id,
+            @Param("payloadHash") String payloadHash,
             @Param("payload") String payload,
             @Param("attempt") int attempt,
             @Param("errorCategory") String errorCategory,
@@ -180,10 +126,12 @@ public interface CopyExecutionJobRepository extends JpaRepository<CopyExecutionJ
                 updated_at = :now
             WHERE id = :id
               AND status = 'PROCESSING'
-              AND payload IS DISTINCT FROM :payload
+              AND (payload_hash IS DISTINCT FROM CAST(:payloadHash AS varchar)
+                   OR payload IS DISTINCT FROM CAST(:payload AS text))
             """, nativeQuery = true)
     int requeueDoneWhenPayloadChanged(
             @Param("id") UUID id,
+            @Param("payloadHash") String payloadHash,
             @Param("payload") String payload,
             @Param("errorCategory") String errorCategory,
             @Param("now") OffsetDateTime now
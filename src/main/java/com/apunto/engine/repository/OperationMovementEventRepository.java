@@ -7,6 +7,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -58,6 +60,20 @@ public interface OperationMovementEventRepository extends JpaRepository<Operatio
             @Param("movementKey") String movementKey
     );
 
+    /** Último movimiento por orden económico de cada posición; usado por el group-commit del ledger. */
+    @Query(value = """
+            SELECT DISTINCT ON (e.position_key) e.*
+            FROM futuros_operaciones.operation_movement_event e
+            WHERE e.position_key IN (:positionKeys)
+            ORDER BY e.position_key,
+                     e.event_time DESC,
+                     COALESCE(e.source_sequence, (-9223372036854775807 - 1)) DESC,
+                     e.movement_key DESC
+            """, nativeQuery = true)
+    List<OperationMovementEventEntity> findLatestByEconomicOrder(
+            @Param("positionKeys") Collection<String> positionKeys
+    );
+
     @Query(value = """
             SELECT pg_advisory_xact_lock(
               hashtextextended(:positionKey, 0)
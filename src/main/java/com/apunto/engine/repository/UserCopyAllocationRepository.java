@@ -290,7 +290,7 @@ public interface UserCopyAllocationRepository extends JpaRepository<UserCopyAllo
             """, nativeQuery = true)
     List<UserCopyAllocationEntity> findActiveByWalletId(@Param("walletId") String walletId);
 
-    @Query(value = """
+    String ACTIVE_RUNTIME_ALLOCATIONS_SQL = """
             select *
             from futuros_operaciones.user_copy_allocation uca
             where uca.ends_at is null
@@ -304,9 +304,33 @@ public interface UserCopyAllocationRepository extends JpaRepository<UserCopyAllo
                   coalesce(uca.execution_mode, 'LIVE') = 'MICRO_LIVE'
                   or coalesce(uca.allocation_pct, 0) > 0
               )
-            """, nativeQuery = true)
+            """;
+
+    /**
+     * Filas escritas por transacciones con xid >= :sinceXmin. Usa xmin porque cubre cualquier
+     * escritor (JPA o SQL nativo) y, a diferencia de updated_at, no pierde commits tardíos de
+     * transacciones que empezaron antes del último refresh.
+     */
+    String CHANGED_SINCE_XMIN_SQL = """
+            age(uca.xmin) <= age(cast(cast(cast(:sinceXmin as bigint) % 4294967296 as text) as xid))
+            """;
+
+    @Query(value = ACTIVE_RUNTIME_ALLOCATIONS_SQL, nativeQuery = true)
     List<UserCopyAllocationEntity> findAllActiveRuntimeAllocations();
 
+    @Query(value = ACTIVE_RUNTIME_ALLOCATIONS_SQL + " and " + CHANGED_SINCE_XMIN_SQL, nativeQuery = true)
+    List<UserCopyAllocationEntity> findActiveRuntimeAllocationsChangedSince(@Param("sinceXmin") String sinceXmin);
+
+    @Query(value = """
+            select uca.id
+            from futuros_operaciones.user_copy_allocation uca
+            where\s""" + CHANGED_SINCE_XMIN_SQL, nativeQuery = true)
+    List<Long> findAllocationIdsChangedSince(@Param("sinceXmin") String sinceXmin);
+
+    /** xmin del snapshot actual: toda transacción con xid menor ya terminó y es visible. */
+    @Query(value = "select cast(pg_snapshot_xmin(pg_current_snapshot()) as text)", nativeQuery = true)
+    String currentSnapshotXmin();
+
     @Query("""
             select uca
             from UserCopyAllocationEntity uca
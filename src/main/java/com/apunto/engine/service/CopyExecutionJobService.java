@@ -10,6 +10,9 @@ import java.util.List;
 
 public interface CopyExecutionJobService {
 
+    /** Canal de Postgres NOTIFY emitido al confirmar un enqueue; despierta a los workers. */
+    String READY_CHANNEL = "copy_execution_job_ready";
+
     int enqueueForUsers(OperacionEvent event, List<UserDetailDto> users, CopyJobAction action);
 
     List<CopyExecutionJobEntity> claimBatch(String workerId, int limit);
@@ -21,4 +24,7 @@ public interface CopyExecutionJobService {
     void reschedule(CopyExecutionJobEntity job, OffsetDateTime nextRunAt, String category, String message);
 
     int requeueStaleProcessing(OffsetDateTime threshold);
+
+    /** Borra hasta {@code limit} payloads compartidos sin jobs que los referencien, creados antes del corte. */
+    int purgeOrphanPayloads(OffsetDateTime createdBefore, int limit);
 }
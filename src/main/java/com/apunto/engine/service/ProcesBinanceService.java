@@ -27,6 +27,20 @@ public interface ProcesBinanceService {
 
     Optional<BinanceFuturesOrderClientResponse> findOrderByClientOrderId(OperationDto dto);
 
+    /**
+     * Órdenes recientes (abiertas y cerradas) de la cuenta de {@code account} para {@code symbol}
+     * en una sola llamada. Vacío cuando el engine no ofrece la consulta: el caller vuelve a la
+     * búsqueda orden por orden. Una orden ausente de la lista no prueba que no exista.
+     */
+    default Optional<List<BinanceFuturesOrderClientResponse>> findRecentOrders(OperationDto account, String symbol) {
+        return Optional.empty();
+    }
+
+    /** {@code true} si {@link #findRecentOrders} consulta de verdad; si no, el caller ni lo intenta. */
+    default boolean supportsRecentOrders() {
+        return false;
+    }
+
     List<BinanceFuturesPositionClientDto> getPositions(String apiKey, String secret, String traceId);
 
     /**
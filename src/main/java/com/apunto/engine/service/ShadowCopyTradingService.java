@@ -20,6 +20,15 @@ public interface ShadowCopyTradingService {
         return recordShadowEvent(event);
     }
 
+    /** Registra varios eventos y devuelve lo registrado por cada uno, en el mismo orden. */
+    default int[] recordShadowEvents(List<ShadowEventInput> events) {
+        int[] recorded = new int[events.size()];
+        for (int i = 0; i < events.size(); i++) {
+            recorded[i] = recordShadowEvent(events.get(i).event(), events.get(i).eventReceivedNs());
+        }
+        return recorded;
+    }
+
     boolean isSeparateShadowEnabled();
 
     boolean isLivePromotable(UUID idUser, MetricaWalletDto candidate);
@@ -27,4 +36,7 @@ public interface ShadowCopyTradingService {
     default boolean isMicroLivePromotable(UUID idUser, MetricaWalletDto candidate) {
         return false;
     }
+
+    record ShadowEventInput(OperacionEvent event, long eventReceivedNs) {
+    }
 }
@@ -12,8 +12,10 @@ import org.springframework.stereotype.Component;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -90,6 +92,16 @@ public class CopyStrategyRuntimeRouter {
             SWING_ONLY
     );
 
+    private static final int RUNTIME_DELTAS = deltaBit(HyperliquidDeltaType.OPEN)
+            | deltaBit(HyperliquidDeltaType.RESIZE)
+            | deltaBit(HyperliquidDeltaType.CLOSE)
+            | deltaBit(HyperliquidDeltaType.FLIP);
+
+    private static final int MAX_COMPILED_ROUTES = 256;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private volatile SymbolClasses symbolClasses;
+
     @Value("${copy-profile.movement-all-enabled:true}")
     private boolean movementAllEnabled = true;
 
@@ -251,7 +263,7 @@ public class CopyStrategyRuntimeRouter {
             String side,
             String symbol
     ) {
-        return strategyAppliesToEvent(strategyCodeOf(allocation), action, deltaType, side, symbol, allocation == null ? null : allocation.getScopeValue());
+        return routeEvent(action, deltaType, side, symbol).admits(allocation);
     }
 
     public boolean metricAppliesToEvent(
@@ -260,7 +272,7 @@ public class CopyStrategyRuntimeRouter {
             HyperliquidDeltaType deltaType,
             String side
     ) {
-        return strategyAppliesToEvent(strategyCodeOf(metric), action, deltaType, side, null, scopeValue(metric));
+        return routeEvent(action, deltaType, side, null).admits(strategyCodeOf(metric), scopeValue(metric));
     }
 
     public boolean strategyCodeAppliesToEvent(
@@ -269,7 +281,7 @@ public class CopyStrategyRuntimeRouter {
             HyperliquidDeltaType deltaType,
             String side
     ) {
-        return strategyAppliesToEvent(strategyCode, action, deltaType, side, null, null);
+        return routeEvent(action, deltaType, side, null).admits(strategyCode, null);
     }
 
     public boolean strategyCodeAppliesToEvent(
@@ -280,7 +292,7 @@ public class CopyStrategyRuntimeRouter {
             String side,
             String symbol
     ) {
-        return strategyAppliesToEvent(strategyCode, action, deltaType, side, symbol, scopeValue);
+        return routeEvent(action, deltaType, side, symbol).admits(strategyCode, scopeValue);
     }
 
     public boolean metricAllowsTargetLeg(
@@ -301,25 +313,28 @@ public class CopyStrategyRuntimeRouter {
             String triggerOriginId,
             String symbol
     ) {
-        String strategy = strategyCodeOf(metric);
-        String sideCode = side == null ? null : normalize(side.name());
-
-        if (!symbolAllowedForStrategy(strategy, symbol, scopeValue(metric))) {
+        Route route = route(strategyCodeOf(metric));
+        if (!route.symbolAllowed(symbolView(symbol), scopeValue(metric))) {
             return false;
         }
-        if (LONG_ONLY.equals(strategy)) {
-            return "LONG".equals(sideCode);
-        }
-        if (SHORT_ONLY.equals(strategy)) {
-            return "SHORT".equals(sideCode);
-        }
-        if (PURE_OPEN_CLOSE.equals(strategy)) {
-            return triggerDeltaType == HyperliquidDeltaType.OPEN && sameOrigin(legOriginId, triggerOriginId);
-        }
-        if (FLIP_ONLY.equals(strategy)) {
-            return triggerDeltaType == HyperliquidDeltaType.FLIP && sameOrigin(legOriginId, triggerOriginId);
+        if (!route.sideAllowed(side == null ? null : Side.of(side.name()))) {
+            return false;
         }
-        return true;
+        return switch (route.legRule()) {
+            case OPEN_SAME_ORIGIN -> triggerDeltaType == HyperliquidDeltaType.OPEN && sameOrigin(legOriginId, triggerOriginId);
+            case FLIP_SAME_ORIGIN -> triggerDeltaType == HyperliquidDeltaType.FLIP && sameOrigin(legOriginId, triggerOriginId);
+            case ANY -> true;
+        };
+    }
+
+    /**
+     * Clasifica el evento una sola vez (bit del delta, lado y clase del símbolo) para evaluarlo
+     * contra todas las asignaciones de la wallet. Cada asignación se resuelve con la ruta
+     * compilada de su estrategia, sin normalizar códigos ni recorrer sets por asignación.
+     */
+    public RoutedEvent routeEvent(CopyJobAction action, HyperliquidDeltaType deltaType, String side, String symbol) {
+        HyperliquidDeltaType effectiveDelta = deltaType == null ? HyperliquidDeltaType.UNKNOWN : deltaType;
+        return new RoutedEvent(deltaBit(effectiveDelta), Side.of(side), symbolView(symbol));
     }
 
     public Comparator<MetricaWalletDto> metricPreferenceComparator(
@@ -391,75 +406,85 @@ public class CopyStrategyRuntimeRouter {
                 && !Boolean.FALSE.equals(supportedByJoyas);
     }
 
-    private boolean strategyAppliesToEvent(
-            String strategy,
-            CopyJobAction action,
-            HyperliquidDeltaType deltaType,
-            String side,
-            String symbol,
-            String scopeValue
-    ) {
-        String strategyCode = normalizeStrategyCode(strategy);
-        if (strategyCode == null) strategyCode = DEFAULT_STRATEGY_CODE;
-
-        if (!profileEnabled(strategyCode)) {
-            return false;
+    private Route route(String rawStrategyCode) {
+        if (rawStrategyCode == null) {
+            return route(DEFAULT_STRATEGY_CODE);
         }
-        CopyProfileCategory category = profileCategory(strategyCode);
-        if (category == CopyProfileCategory.SCORING_WINDOW
-                || category == CopyProfileCategory.ROBUSTNESS_CHECK
-                || category == CopyProfileCategory.DIAGNOSTIC_ONLY
-                || category == CopyProfileCategory.UNKNOWN) {
-            return false;
+        Route cached = routes.get(rawStrategyCode);
+        if (cached != null) {
+            return cached;
         }
-
-        HyperliquidDeltaType effectiveDelta = deltaType == null ? HyperliquidDeltaType.UNKNOWN : deltaType;
-        if (effectiveDelta == HyperliquidDeltaType.UPDATE
-                || effectiveDelta == HyperliquidDeltaType.NO_CHANGE
-                || effectiveDelta == HyperliquidDeltaType.UNKNOWN) {
-            return false;
+        String code = normalizeStrategyCode(rawStrategyCode);
+        Route compiled = compile(code == null ? DEFAULT_STRATEGY_CODE : code);
+        // Los códigos vienen de BD; el tope evita que valores basura hagan crecer el mapa sin límite.
+        if (routes.size() < MAX_COMPILED_ROUTES) {
+            routes.putIfAbsent(rawStrategyCode, compiled);
         }
+        return compiled;
+    }
 
-        if (!symbolAllowedForStrategy(strategyCode, symbol, scopeValue)) {
-            return false;
-        }
+    private Route compile(String strategyCode) {
+        CopyProfileCategory category = profileCategory(strategyCode);
+        boolean runtimeProfile = profileEnabled(strategyCode)
+                && (category == CopyProfileCategory.CORE_COPY_PROFILE
+                || category == CopyProfileCategory.ADVANCED_COPY_PROFILE);
+
+        int deltaMask;
+        if (!runtimeProfile) {
+            deltaMask = 0;
+        } else if (PURE_OPEN_CLOSE.equals(strategyCode)) {
+            deltaMask = deltaBit(HyperliquidDeltaType.OPEN) | deltaBit(HyperliquidDeltaType.CLOSE);
+        } else if (FLIP_ONLY.equals(strategyCode)) {
+            deltaMask = deltaBit(HyperliquidDeltaType.FLIP);
+        } else if (LONG_ONLY.equals(strategyCode) || SHORT_ONLY.equals(strategyCode)
+                || ALL_FLOW_COPY_PROFILES.contains(strategyCode)) {
+            deltaMask = RUNTIME_DELTAS;
+        } else {
+            deltaMask = 0;
+        }
+
+        Side side = LONG_ONLY.equals(strategyCode) ? Side.LONG
+                : SHORT_ONLY.equals(strategyCode) ? Side.SHORT
+                : null;
+        SymbolRule symbolRule = switch (strategyCode) {
+            case SYMBOL_SPECIALIST -> SymbolRule.SCOPE;
+            case MAJORS_ONLY -> SymbolRule.MAJORS;
+            case HIGH_QUALITY_SYMBOLS_ONLY -> SymbolRule.QUALITY;
+            default -> SymbolRule.ANY;
+        };
+        LegRule legRule = switch (strategyCode) {
+            case PURE_OPEN_CLOSE -> LegRule.OPEN_SAME_ORIGIN;
+            case FLIP_ONLY -> LegRule.FLIP_SAME_ORIGIN;
+            default -> LegRule.ANY;
+        };
+        return new Route(deltaMask, side, symbolRule, legRule);
+    }
 
-        String sideCode = normalize(side);
-        if (LONG_ONLY.equals(strategyCode)) {
-            return "LONG".equals(sideCode);
-        }
-        if (SHORT_ONLY.equals(strategyCode)) {
-            return "SHORT".equals(sideCode);
-        }
-        if (PURE_OPEN_CLOSE.equals(strategyCode)) {
-            return effectiveDelta == HyperliquidDeltaType.OPEN || effectiveDelta == HyperliquidDeltaType.CLOSE;
-        }
-        if (FLIP_ONLY.equals(strategyCode)) {
-            return effectiveDelta == HyperliquidDeltaType.FLIP;
+    private SymbolView symbolView(String rawSymbol) {
+        SymbolClasses classes = symbolClasses();
+        String symbol = normalizeSymbol(rawSymbol);
+        if (symbol == null) {
+            return new SymbolView(null, null, false, classes.allowed().isEmpty());
         }
-        return ALL_FLOW_COPY_PROFILES.contains(strategyCode);
+        String base = stripQuote(symbol);
+        boolean major = classes.majors().contains(symbol) || classes.majors().contains(base);
+        boolean allowed = classes.allowed().isEmpty()
+                || classes.allowed().contains(symbol) || classes.allowed().contains(base);
+        boolean blocked = classes.blocked().contains(symbol) || classes.blocked().contains(base);
+        return new SymbolView(symbol, base, major, allowed && !blocked);
     }
 
-    private boolean symbolAllowedForStrategy(String strategyCode, String symbol, String scopeValue) {
-        String code = normalizeStrategyCode(strategyCode);
-        if (code == null) {
-            return true;
-        }
-        if (SYMBOL_SPECIALIST.equals(code)) {
-            String scope = normalizeSymbol(scopeValue);
-            return scope == null || "ALL".equals(scope) || symbolMatches(symbol, Set.of(scope));
-        }
-        if (MAJORS_ONLY.equals(code)) {
-            return symbolMatches(symbol, parseCsv(majorsSymbols));
+    private SymbolClasses symbolClasses() {
+        SymbolClasses current = symbolClasses;
+        if (current == null) {
+            current = new SymbolClasses(parseCsv(majorsSymbols), parseCsv(allowedSymbols), parseCsv(blockedSymbols));
+            symbolClasses = current;
         }
-        if (HIGH_QUALITY_SYMBOLS_ONLY.equals(code)) {
-            Set<String> allowed = parseCsv(allowedSymbols);
-            if (!allowed.isEmpty() && !symbolMatches(symbol, allowed)) {
-                return false;
-            }
-            return !symbolMatches(symbol, parseCsv(blockedSymbols));
-        }
-        return true;
+        return current;
+    }
+
+    private static int deltaBit(HyperliquidDeltaType deltaType) {
+        return 1 << deltaType.ordinal();
     }
 
     private boolean profileEnabled(String code) {
@@ -518,15 +543,6 @@ public class CopyStrategyRuntimeRouter {
         return score == null ? 0.0 : score.doubleValue();
     }
 
-    private static boolean symbolMatches(String rawSymbol, Set<String> configuredSymbols) {
-        String symbol = normalizeSymbol(rawSymbol);
-        if (symbol == null || configuredSymbols == null || configuredSymbols.isEmpty()) {
-            return false;
-        }
-        String base = stripQuote(symbol);
-        return configuredSymbols.contains(symbol) || configuredSymbols.contains(base);
-    }
-
     private static Set<String> parseCsv(String raw) {
         if (raw == null || raw.isBlank()) {
             return Set.of();
@@ -640,6 +656,92 @@ public class CopyStrategyRuntimeRouter {
         return value;
     }
 
+    /** Evento clasificado por {@link #routeEvent}; se evalúa contra cada asignación del fan-out. */
+    public final class RoutedEvent {
+        private final int deltaBit;
+        private final Side side;
+        private final SymbolView symbol;
+
+        private RoutedEvent(int deltaBit, Side side, SymbolView symbol) {
+            this.deltaBit = deltaBit;
+            this.side = side;
+            this.symbol = symbol;
+        }
+
+        public boolean admits(UserCopyAllocationEntity allocation) {
+            if (allocation == null) {
+                return admits(null, null);
+            }
+            return admits(allocation.getCopyStrategyCode(), allocation.getScopeValue());
+        }
+
+        public boolean admits(String strategyCode, String scopeValue) {
+            Route route = route(strategyCode);
+            return (route.deltaMask() & deltaBit) != 0
+                    && route.sideAllowed(side)
+                    && route.symbolAllowed(symbol, scopeValue);
+        }
+    }
+
+    private enum Side {
+        LONG,
+        SHORT;
+
+        private static Side of(String raw) {
+            String value = normalize(raw);
+            if ("LONG".equals(value)) return LONG;
+            if ("SHORT".equals(value)) return SHORT;
+            return null;
+        }
+    }
+
+    private enum SymbolRule {
+        ANY,
+        SCOPE,
+        MAJORS,
+        QUALITY
+    }
+
+    private enum LegRule {
+        ANY,
+        OPEN_SAME_ORIGIN,
+        FLIP_SAME_ORIGIN
+    }
+
+    /**
+     * Ruta compilada de un código de estrategia. {@code deltaMask} es 0 para perfiles apagados o
+     * que no operan en runtime (ventanas de scoring, robustez, diagnóstico, desconocidos) y
+     * {@code side} null significa cualquier lado.
+     */
+    private record Route(int deltaMask, Side side, SymbolRule symbolRule, LegRule legRule) {
+
+        private boolean sideAllowed(Side eventSide) {
+            return side == null || side == eventSide;
+        }
+
+        private boolean symbolAllowed(SymbolView symbol, String scopeValue) {
+            return switch (symbolRule) {
+                case ANY -> true;
+                case MAJORS -> symbol.major();
+                case QUALITY -> symbol.quality();
+                case SCOPE -> {
+                    String scope = normalizeSymbol(scopeValue);
+                    yield scope == null || "ALL".equals(scope) || symbol.matches(scope);
+                }
+            };
+        }
+    }
+
+    private record SymbolView(String symbol, String base, boolean major, boolean quality) {
+
+        private boolean matches(String scope) {
+            return symbol != null && (scope.equals(symbol) || scope.equals(base));
+        }
+    }
+
+    private record SymbolClasses(Set<String> majors, Set<String> allowed, Set<String> blocked) {
+    }
+
     private static final class ListHolder {
         private static final String[] QUOTES = {"USDT", "USDC", "USD", "BTC", "ETH"};
     }
@@ -0,0 +1,111 @@
+package com.apunto.engine.service.copy.certification;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Candidatos de certificación por request de autorización, en memoria, para que el fan-out live
+ * no vaya a Postgres en cada orden.
+ *
+ * <p>Cada entrada guarda la versión con la que se cargó. Un cambio en
+ * {@code strategy_live_certification} o {@code user_live_certification_adoption} llega por NOTIFY
+ * ({@link LiveCertificationChangeListener}), sube la versión y deja todas las entradas inválidas.
+ * Es fail-closed: sin listener conectado no se usa el cache, una entrada de más de
+ * {@code max-age-ms} se vuelve a leer y si esa lectura falla la excepción llega al gate, que
+ * bloquea la entrada. La vigencia de la adopción se sigue evaluando contra el reloj en cada
+ * orden, y las reducciones no pasan por aquí.</p>
+ */
+@Slf4j
+@Component
+public class LiveCertificationCandidateCache {
+
+    public static final String CHANGED_CHANNEL = "live_certification_changed";
+
+    private final boolean enabled;
+    private final long maxAgeMs;
+    private final Clock clock;
+    private final Cache<LiveEntryAuthorizationRequest, Entry> entries;
+    private final AtomicLong version = new AtomicLong();
+    private volatile boolean listening;
+
+    @Autowired
+    public LiveCertificationCandidateCache(
+            @Value("${copy.live.certification-cache.enabled:true}") boolean enabled,
+            @Value("${copy.live.certification-cache.max-age-ms:30000}") long maxAgeMs,
+            @Value("${copy.live.certification-cache.maximum-size:10000}") long maximumSize
+    ) {
+        this(enabled, maxAgeMs, maximumSize, Clock.systemUTC());
+    }
+
+    LiveCertificationCandidateCache(boolean enabled, long maxAgeMs, long maximumSize, Clock clock) {
+        this.enabled = enabled;
+        this.maxAgeMs = Math.max(0L, maxAgeMs);
+        this.clock = clock;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(1L, maximumSize))
+                .build();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public List<LiveCertificationAuthorizationRecord> findCandidates(LiveEntryAuthorizationRequest request,
+                                                                     LiveCertificationReadStore store) {
+        if (!enabled || !listening) {
+            record("bypass");
+            return store.findCandidates(request);
+        }
+        long current = version.get();
+        long nowMs = clock.millis();
+        Entry cached = entries.getIfPresent(request);
+        if (cached != null && cached.version() == current && nowMs - cached.loadedAtMs() <= maxAgeMs) {
+            record("hit");
+            return cached.records();
+        }
+        record(cached == null ? "miss" : "stale");
+        List<LiveCertificationAuthorizationRecord> loaded = store.findCandidates(request);
+        // Una invalidación durante la lectura gana: lo leído puede ser anterior al cambio.
+        if (loaded != null && listening && version.get() == current) {
+            entries.put(request, new Entry(current, nowMs, loaded));
+        }
+        return loaded;
+    }
+
+    /** Invocado por el listener con cada NOTIFY de cambio. */
+    public void invalidateAll(String source) {
+        version.incrementAndGet();
+        entries.invalidateAll();
+        record("invalidated");
+        log.debug("event=copy.live.certification_cache.invalidated source={} version={}", source, version.get());
+    }
+
+    /**
+     * Sin LISTEN los cambios no avisan, así que el cache se vacía y se deja de usar hasta que el
+     * listener vuelva; al reconectar se vacía de nuevo por los avisos perdidos.
+     */
+    public void onListenerState(boolean connected) {
+        if (listening == connected) {
+            return;
+        }
+        listening = connected;
+        invalidateAll(connected ? "listener_connected" : "listener_disconnected");
+        log.info("event=copy.live.certification_cache.listener_state connected={}", connected);
+    }
+
+    private static void record(String result) {
+        Metrics.counter("copy_live_certification_cache_total", "result", result).increment();
+    }
+
+    private record Entry(long version, long loadedAtMs, List<LiveCertificationAuthorizationRecord> records) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.apunto.engine.service.copy.certification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Conexión dedicada (fuera del pool Hikari) que hace LISTEN sobre
+ * {@link LiveCertificationCandidateCache#CHANGED_CHANNEL} e invalida el cache de certificaciones
+ * en cada cambio confirmado. Mientras la conexión está caída el cache no se usa.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+        name = "copy.live.certification-cache.enabled",
+        havingValue = "true",
+        matchIfMissing = true
+)
+public class LiveCertificationChangeListener implements SmartLifecycle {
+
+    private static final int RECEIVE_TIMEOUT_MS = 500;
+    private static final long HEALTH_CHECK_INTERVAL_MS = 30_000L;
+
+    private final LiveCertificationCandidateCache cache;
+    private final DataSourceProperties dataSourceProperties;
+
+    @Value("${copy.live.certification-cache.reconnect-ms:5000}")
+    private long reconnectMs = 5000L;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public LiveCertificationChangeListener(LiveCertificationCandidateCache cache,
+                                           DataSourceProperties dataSourceProperties) {
+        this.cache = cache;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread listener = new Thread(this::listenLoop, "live-certification-notify");
+        listener.setDaemon(true);
+        thread = listener;
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread listener = thread;
+        if (listener != null) {
+            listener.interrupt();
+            try {
+                listener.join(RECEIVE_TIMEOUT_MS * 2L);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        cache.onListenerState(false);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                listen(connection);
+            } catch (SQLException | RuntimeException ex) {
+                cache.onListenerState(false);
+                if (!running) {
+                    return;
+                }
+                log.warn("event=copy.live.certification_cache.listener_error channel={} reconnectMs={} errClass={} errMsg=\"{}\"",
+                        LiveCertificationCandidateCache.CHANGED_CHANNEL, reconnectMs, ex.getClass().getSimpleName(), ex.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + LiveCertificationCandidateCache.CHANGED_CHANNEL);
+        }
+        log.info("event=copy.live.certification_cache.listening channel={}", LiveCertificationCandidateCache.CHANGED_CHANNEL);
+        cache.onListenerState(true);
+
+        long lastActivity = System.currentTimeMillis();
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(RECEIVE_TIMEOUT_MS);
+            long now = System.currentTimeMillis();
+            if (notifications != null && notifications.length > 0) {
+                lastActivity = now;
+                cache.invalidateAll(notifications[notifications.length - 1].getParameter());
+            } else if (now - lastActivity >= HEALTH_CHECK_INTERVAL_MS) {
+                // getNotifications no detecta un socket medio abierto; un round-trip sí.
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastActivity = now;
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(Math.max(100L, reconnectMs));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -2,19 +2,25 @@ package com.apunto.engine.service.copy.certification;
 
 import com.apunto.engine.dto.OperationDto;
 import com.apunto.engine.entity.UserCopyAllocationEntity;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class PostgresLiveEntryAuthorizationGate implements LiveEntryAuthorizationGate {
 
     private final LiveEntryAuthorizationRequestFactory requestFactory;
-    private final LiveCertificationReadStore readStore;
+    private final LiveEntryAuthorizationService authorizationService;
+
+    public PostgresLiveEntryAuthorizationGate(LiveEntryAuthorizationRequestFactory requestFactory,
+                                              LiveCertificationReadStore readStore,
+                                              LiveCertificationCandidateCache candidateCache) {
+        this.requestFactory = requestFactory;
+        this.authorizationService = new LiveEntryAuthorizationService(
+                request -> candidateCache.findCandidates(request, readStore));
+    }
 
     @Override
     public LiveEntryAuthorizationDecision evaluate(OperationDto operation, UserCopyAllocationEntity allocation) {
@@ -24,7 +30,7 @@ public class PostgresLiveEntryAuthorizationGate implements LiveEntryAuthorizatio
         }
         try {
             LiveEntryAuthorizationDecision decision =
-                    new LiveEntryAuthorizationService(readStore).evaluate(context.request(), OffsetDateTime.now());
+                    authorizationService.evaluate(context.request(), OffsetDateTime.now());
             log.info("event=copy.live.certification_gate decision={} reasonCode={} certificationId={} userId={} walletId={} allocationId={} strategyCode={} scopeType={} scopeValue={} capitalUsd={} leverage={} quoteAsset={}",
                     decision.allowed() ? "ALLOW" : "BLOCK", decision.reasonCode(), decision.certificationId(),
                     context.request().userId(), context.request().walletId(), context.request().allocationId(),
@@ -37,6 +37,20 @@ public class CopyOrderReconciliationService {
         return intents;
     }
 
+    /**
+     * Hands back a claimed intent that was never looked up because the reconciliation weight
+     * budget ran out: the claim's attempt is refunded and the intent is due again right away.
+     * A claim already taken over by another worker is left alone.
+     */
+    @Transactional
+    public void releaseDeferred(UUID intentId, String workerId) {
+        CopyDispatchIntentEntity intent = required(intentId);
+        if (workerId != null && !workerId.equals(intent.getClaimedBy())) return;
+        intent.setReconciliationAttempts(Math.max(0, intent.getReconciliationAttempts() - 1));
+        intent.setNextReconciliationAt(OffsetDateTime.now(ZoneOffset.UTC));
+        repository.saveAndFlush(intent);
+    }
+
     @Transactional
     public void markLookupNotFound(UUID intentId, int maxAttempts) {
         CopyDispatchIntentEntity intent = required(intentId);
@@ -12,9 +12,10 @@ import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Arrays;
-import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
@@ -53,13 +54,16 @@ public class CopyRealExecutionGate {
     @Autowired(required = false)
     private B2bRealMoneyExecutionGuard b2bRealMoneyExecutionGuard;
 
+    /** Whitelists ya parseadas por valor crudo; la config no cambia entre órdenes. */
+    private final Map<String, Set<String>> parsedWhitelists = new ConcurrentHashMap<>();
+
     @PostConstruct
     void logEffectiveConfiguration() {
         log.info("event=copy.real_execution_gate.config newDispatchEnabled={} deriskExecutionEnabled={} microLiveEnabled={} liveEnabled={} liveDryRun={} liveCanaryEnabled={} whitelistUsers={} whitelistWallets={} whitelistSymbols={} whitelistAllocations={} whitelistStrategies={} reasonCode=EFFECTIVE_COPY_SWITCHES",
                 newDispatchEnabled, deriskExecutionEnabled, microLiveEnabled, liveEnabled, liveDryRun, liveCanaryEnabled,
-                parseWhitelist(liveWhitelistUserIds).size(), parseWhitelist(liveWhitelistWalletIds).size(),
-                parseWhitelist(liveWhitelistSymbols).size(), parseWhitelist(liveWhitelistAllocationIds).size(),
-                parseWhitelist(liveWhitelistStrategyCodes).size());
+                whitelist(liveWhitelistUserIds).size(), whitelist(liveWhitelistWalletIds).size(),
+                whitelist(liveWhitelistSymbols).size(), whitelist(liveWhitelistAllocationIds).size(),
+                whitelist(liveWhitelistStrategyCodes).size());
     }
 
     public Decision evaluate(OperationDto operation, UserCopyAllocationEntity allocation) {
@@ -121,28 +125,28 @@ public class CopyRealExecutionGate {
 
     private boolean liveWhitelisted(OperationDto operation, UserCopyAllocationEntity allocation) {
         boolean anyConfigured = false;
-        Set<String> users = parseWhitelist(liveWhitelistUserIds);
+        Set<String> users = whitelist(liveWhitelistUserIds);
         if (!users.isEmpty()) {
             anyConfigured = true;
             if (!users.contains(normalize(operation == null ? null : operation.getUserId()))) return false;
         }
-        Set<String> wallets = parseWhitelist(liveWhitelistWalletIds);
+        Set<String> wallets = whitelist(liveWhitelistWalletIds);
         if (!wallets.isEmpty()) {
             anyConfigured = true;
             if (!wallets.contains(normalize(operation == null ? null : operation.getWalletId()))) return false;
         }
-        Set<String> symbols = parseWhitelist(liveWhitelistSymbols);
+        Set<String> symbols = whitelist(liveWhitelistSymbols);
         if (!symbols.isEmpty()) {
             anyConfigured = true;
             if (!symbols.contains(normalize(operation == null ? null : operation.getSymbol()))) return false;
         }
-        Set<String> allocations = parseWhitelist(liveWhitelistAllocationIds);
+        Set<String> allocations = whitelist(liveWhitelistAllocationIds);
         if (!allocations.isEmpty()) {
             anyConfigured = true;
             if (!allocations.contains(normalize(allocation == null || allocation.getId() == null
                     ? null : allocation.getId().toString()))) return false;
         }
-        Set<String> strategies = parseWhitelist(liveWhitelistStrategyCodes);
+        Set<String> strategies = whitelist(liveWhitelistStrategyCodes);
         if (!strategies.isEmpty()) {
             anyConfigured = true;
             if (!strategies.contains(normalize(allocation == null ? null : allocation.getCopyStrategyCode()))) return false;
@@ -150,12 +154,16 @@ public class CopyRealExecutionGate {
         return anyConfigured;
     }
 
-    private Set<String> parseWhitelist(String raw) {
+    private Set<String> whitelist(String raw) {
         if (raw == null || raw.isBlank()) return Set.of();
+        return parsedWhitelists.computeIfAbsent(raw, this::parseWhitelist);
+    }
+
+    private Set<String> parseWhitelist(String raw) {
         return Arrays.stream(raw.split(","))
                 .map(this::normalize)
                 .filter(value -> value != null && !value.isBlank())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
+                .collect(Collectors.toUnmodifiableSet());
     }
 
     private String executionMode(UserCopyAllocationEntity allocation) {
@@ -7,7 +7,11 @@ import com.apunto.engine.dto.UserDetailDto;
 import com.apunto.engine.dto.client.BinanceFuturesPositionClientDto;
 import com.apunto.engine.entity.UserApiKeyEntity;
 import com.apunto.engine.service.ProcesBinanceService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -15,11 +19,32 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Snapshot autoritativo de posiciones Binance por usuario.
+ *
+ * <p>Las lecturas concurrentes del mismo usuario comparten un solo {@link CompletableFuture}: no
+ * hay monitor por usuario, así que un hilo virtual que espera no fija su carrier. Entre
+ * {@code cache-ttl-ms} y {@code max-age-ms} el snapshot se sirve y se refresca en background;
+ * pasado {@code max-age-ms} hay que esperar la lectura. Los usuarios sin actividad salen del
+ * cache tras {@code idle-eviction-ms}.</p>
+ *
+ * <p>El prefetch es best effort y tiene su propio tope de lecturas en vuelo
+ * ({@code prefetch-max-in-flight}): sin permiso libre no se lanza y el job lee al ejecutar, así
+ * un evento con muchos usuarios no ocupa el bulkhead hacia ms-binance-engine que usan las
+ * órdenes.</p>
+ */
 @Service
 @Slf4j
 public class BinanceTargetPositionSnapshotService {
@@ -29,8 +54,10 @@ public class BinanceTargetPositionSnapshotService {
     static final String STALE = "BLOCKED_TARGET_POSITION_SNAPSHOT_STALE";
 
     private final ProcesBinanceService binance;
-    private final Map<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
-    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Executor refreshExecutor;
+    private final Semaphore prefetchPermits;
+    private final Cache<String, CachedSnapshot> snapshots;
+    private final ConcurrentMap<String, Load> loads = new ConcurrentHashMap<>();
 
     @Value("${copy.target-position-authority.cache-ttl-ms:250}")
     private long cacheTtlMs = 250L;
@@ -38,69 +65,136 @@ public class BinanceTargetPositionSnapshotService {
     @Value("${copy.target-position-authority.max-age-ms:1000}")
     private long maxAgeMs = 1_000L;
 
+    @Autowired
+    public BinanceTargetPositionSnapshotService(
+            ProcesBinanceService binance,
+            @Value("${copy.target-position-authority.idle-eviction-ms:600000}") long idleEvictionMs,
+            @Value("${copy.target-position-authority.max-users:10000}") long maxUsers,
+            @Value("${copy.target-position-authority.prefetch-max-in-flight:16}") int prefetchMaxInFlight
+    ) {
+        this(binance, idleEvictionMs, maxUsers, Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("target-positions-", 0).factory()), prefetchMaxInFlight);
+    }
+
     public BinanceTargetPositionSnapshotService(ProcesBinanceService binance) {
+        this(binance, 600_000L, 10_000L, Runnable::run);
+    }
+
+    BinanceTargetPositionSnapshotService(ProcesBinanceService binance,
+                                         long idleEvictionMs,
+                                         long maxUsers,
+                                         Executor refreshExecutor) {
+        this(binance, idleEvictionMs, maxUsers, refreshExecutor, 16);
+    }
+
+    BinanceTargetPositionSnapshotService(ProcesBinanceService binance,
+                                         long idleEvictionMs,
+                                         long maxUsers,
+                                         Executor refreshExecutor,
+                                         int prefetchMaxInFlight) {
         this.binance = binance;
+        this.refreshExecutor = refreshExecutor;
+        this.prefetchPermits = new Semaphore(Math.max(1, prefetchMaxInFlight));
+        this.snapshots = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(Math.max(1_000L, idleEvictionMs)))
+                .maximumSize(Math.max(1L, maxUsers))
+                .build();
     }
 
     public BinanceTargetPositionSnapshot load(UserDetailDto userDetail, String traceId) {
-        UserApiKeyEntity credentials = userDetail == null ? null : userDetail.getUserApiKey();
-        String userId = userDetail == null || userDetail.getUser() == null
-                || userDetail.getUser().getId() == null
-                ? null
-                : userDetail.getUser().getId().toString();
-        if (userId == null || !hasText(credentials == null ? null : credentials.getApiKey())
-                || !hasText(credentials == null ? null : credentials.getApiSecret())) {
+        UserApiKeyEntity credentials = credentials(userDetail);
+        String userId = userId(userDetail);
+        if (userId == null || credentials == null) {
             return unavailable("Binance credentials or user identity are missing");
         }
 
-        CachedSnapshot cached = snapshots.get(userId);
+        CachedSnapshot cached = snapshots.getIfPresent(userId);
         if (isFresh(cached)) {
+            record("hit");
+            return authoritative(cached);
+        }
+        if (isUsable(cached)) {
+            record("stale_while_revalidate");
+            start(userId, credentials, traceId, true);
             return authoritative(cached);
         }
 
-        Object lock = locks.computeIfAbsent(userId, ignored -> new Object());
-        synchronized (lock) {
-            cached = snapshots.get(userId);
-            if (isFresh(cached)) {
-                return authoritative(cached);
+        try {
+            return authoritative(join(start(userId, credentials, traceId, false)));
+        } catch (RuntimeException failure) {
+            if (cached != null) {
+                long ageMs = ageMs(cached);
+                log.warn("event=copy.target_positions.snapshot_stale reasonCode={} traceId={} userId={} ageMs={} maxAgeMs={} retryable=true shouldAlert=true errorClass={} errorMessage=\"{}\"",
+                        STALE, safe(traceId), userId, ageMs, nonNegative(maxAgeMs),
+                        failure.getClass().getSimpleName(), safe(failure.getMessage()));
+                return new BinanceTargetPositionSnapshot(
+                        TargetPositionSnapshotStatus.STALE,
+                        cached.observedAt(), SOURCE, cached.positions(), STALE,
+                        "Authoritative Binance position refresh failed: " + failure.getClass().getSimpleName());
             }
-            try {
-                List<BinanceFuturesPositionClientDto> response = binance.getPositions(
-                        credentials.getApiKey(), credentials.getApiSecret(), traceId);
-                CachedSnapshot loaded = new CachedSnapshot(
-                        Instant.now(), System.nanoTime(), mapPositions(response));
-                snapshots.put(userId, loaded);
-                log.info("event=copy.target_positions.snapshot_loaded reasonCode=TARGET_POSITION_SNAPSHOT_AUTHORITATIVE traceId={} userId={} positions={} cacheTtlMs={} maxAgeMs={} source={}",
-                        safe(traceId), userId, loaded.positions().size(), nonNegative(cacheTtlMs),
-                        nonNegative(maxAgeMs), SOURCE);
-                return authoritative(loaded);
-            } catch (RuntimeException failure) {
-                if (cached != null) {
-                    long ageMs = ageMs(cached);
-                    log.warn("event=copy.target_positions.snapshot_stale reasonCode={} traceId={} userId={} ageMs={} maxAgeMs={} retryable=true shouldAlert=true errorClass={} errorMessage=\"{}\"",
-                            STALE, safe(traceId), userId, ageMs, nonNegative(maxAgeMs),
-                            failure.getClass().getSimpleName(), safe(failure.getMessage()));
-                    return new BinanceTargetPositionSnapshot(
-                            TargetPositionSnapshotStatus.STALE,
-                            cached.observedAt(), SOURCE, cached.positions(), STALE,
-                            "Authoritative Binance position refresh failed: " + failure.getClass().getSimpleName());
-                }
-                log.warn("event=copy.target_positions.snapshot_unavailable reasonCode={} traceId={} userId={} retryable=true shouldAlert=true errorClass={} errorMessage=\"{}\"",
-                        UNAVAILABLE, safe(traceId), userId, failure.getClass().getSimpleName(),
-                        safe(failure.getMessage()));
-                return unavailable("Authoritative Binance position read failed: "
-                        + failure.getClass().getSimpleName());
+            log.warn("event=copy.target_positions.snapshot_unavailable reasonCode={} traceId={} userId={} retryable=true shouldAlert=true errorClass={} errorMessage=\"{}\"",
+                    UNAVAILABLE, safe(traceId), userId, failure.getClass().getSimpleName(),
+                    safe(failure.getMessage()));
+            return unavailable("Authoritative Binance position read failed: "
+                    + failure.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Lanza en background la lectura de los usuarios a los que ya se les envió un job y que no
+     * tengan un snapshot fresco, para que el job lo encuentre cargado o en curso. Devuelve cuántas
+     * lecturas se iniciaron o ya estaban en curso; sin permiso de prefetch el usuario se omite.
+     */
+    public int prefetch(Collection<UserDetailDto> users, String traceId) {
+        if (users == null || users.isEmpty()) {
+            return 0;
+        }
+        int started = 0;
+        int throttled = 0;
+        for (UserDetailDto user : users) {
+            UserApiKeyEntity credentials = credentials(user);
+            String userId = userId(user);
+            if (userId == null || credentials == null || isFresh(snapshots.getIfPresent(userId))) {
+                continue;
+            }
+            if (loads.containsKey(userId)) {
+                record("coalesced");
+                started++;
+                continue;
+            }
+            if (!prefetchPermits.tryAcquire()) {
+                record("prefetch_throttled");
+                throttled++;
+                continue;
             }
+            start(userId, credentials, traceId, true, prefetchPermits::release);
+            started++;
         }
+        if (started > 0 || throttled > 0) {
+            log.debug("event=copy.target_positions.prefetch traceId={} users={} started={} throttled={}",
+                    safe(traceId), users.size(), started, throttled);
+        }
+        return started;
+    }
+
+    public int prefetch(UserDetailDto user, String traceId) {
+        return user == null ? 0 : prefetch(List.of(user), traceId);
     }
 
     public void invalidate(String userId, String reasonCode) {
         if (!hasText(userId)) {
             return;
         }
-        boolean removed = snapshots.remove(userId.trim()) != null;
+        String key = userId.trim();
+        boolean removed = snapshots.asMap().remove(key) != null;
+        // Una lectura en curso pudo empezar antes del cambio: la siguiente load() no la reutiliza
+        // y su resultado no se guarda.
+        Load running = loads.remove(key);
+        if (running != null) {
+            running.invalidated = true;
+        }
         log.info("event=copy.target_positions.snapshot_invalidated reasonCode={} userId={} cacheEntryRemoved={}",
-                safe(reasonCode), userId.trim(), removed);
+                safe(reasonCode), key, removed);
     }
 
     static List<ExistingTargetPosition> mapPositions(List<BinanceFuturesPositionClientDto> values) {
@@ -128,12 +222,107 @@ public class BinanceTargetPositionSnapshotService {
         this.maxAgeMs = maxAgeMs;
     }
 
+    private Load start(String userId, UserApiKeyEntity credentials, String traceId, boolean background) {
+        return start(userId, credentials, traceId, background, () -> { });
+    }
+
+    /**
+     * Lectura única por usuario; {@code background} la corre en el executor de refresh.
+     * {@code onDone} corre una sola vez, también si la lectura se une a otra en curso.
+     */
+    private Load start(String userId, UserApiKeyEntity credentials, String traceId, boolean background, Runnable onDone) {
+        Load load = new Load();
+        Load running = loads.putIfAbsent(userId, load);
+        if (running != null) {
+            onDone.run();
+            record("coalesced");
+            return running;
+        }
+        record(background ? "refresh" : "miss");
+        if (!background) {
+            try {
+                fetch(userId, credentials, traceId, load);
+            } finally {
+                onDone.run();
+            }
+            return load;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    fetch(userId, credentials, traceId, load);
+                } finally {
+                    onDone.run();
+                }
+            });
+        } catch (RejectedExecutionException rejected) {
+            loads.remove(userId, load);
+            load.result.completeExceptionally(rejected);
+            onDone.run();
+        }
+        return load;
+    }
+
+    private void fetch(String userId, UserApiKeyEntity credentials, String traceId, Load load) {
+        try {
+            List<BinanceFuturesPositionClientDto> response = binance.getPositions(
+                    credentials.getApiKey(), credentials.getApiSecret(), traceId);
+            CachedSnapshot loaded = new CachedSnapshot(
+                    Instant.now(), System.nanoTime(), mapPositions(response));
+            if (!load.invalidated) {
+                snapshots.put(userId, loaded);
+            }
+            log.info("event=copy.target_positions.snapshot_loaded reasonCode=TARGET_POSITION_SNAPSHOT_AUTHORITATIVE traceId={} userId={} positions={} cacheTtlMs={} maxAgeMs={} source={}",
+                    safe(traceId), userId, loaded.positions().size(), nonNegative(cacheTtlMs),
+                    nonNegative(maxAgeMs), SOURCE);
+            load.result.complete(loaded);
+        } catch (RuntimeException failure) {
+            log.debug("event=copy.target_positions.snapshot_fetch_failed traceId={} userId={} errorClass={} errorMessage=\"{}\"",
+                    safe(traceId), userId, failure.getClass().getSimpleName(), safe(failure.getMessage()));
+            load.result.completeExceptionally(failure);
+        } finally {
+            loads.remove(userId, load);
+        }
+    }
+
+    private static CachedSnapshot join(Load load) {
+        try {
+            return load.result.join();
+        } catch (CompletionException failure) {
+            if (failure.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw failure;
+        }
+    }
+
+    private static UserApiKeyEntity credentials(UserDetailDto userDetail) {
+        UserApiKeyEntity credentials = userDetail == null ? null : userDetail.getUserApiKey();
+        return credentials == null || !hasText(credentials.getApiKey()) || !hasText(credentials.getApiSecret())
+                ? null
+                : credentials;
+    }
+
+    private static String userId(UserDetailDto userDetail) {
+        return userDetail == null || userDetail.getUser() == null || userDetail.getUser().getId() == null
+                ? null
+                : userDetail.getUser().getId().toString();
+    }
+
+    private static void record(String result) {
+        Metrics.counter("copy_target_position_snapshot_load_total", "result", result).increment();
+    }
+
     private boolean isFresh(CachedSnapshot cached) {
         return cached != null
                 && ageMs(cached) <= nonNegative(cacheTtlMs)
                 && ageMs(cached) <= nonNegative(maxAgeMs);
     }
 
+    private boolean isUsable(CachedSnapshot cached) {
+        return cached != null && ageMs(cached) <= nonNegative(maxAgeMs);
+    }
+
     private long ageMs(CachedSnapshot cached) {
         return Duration.ofNanos(Math.max(0L, System.nanoTime() - cached.loadedAtNanos())).toMillis();
     }
@@ -202,6 +391,11 @@ public class BinanceTargetPositionSnapshotService {
         return value.replace('\n', '_').replace('\r', '_').replace('"', '_');
     }
 
+    private static final class Load {
+        private final CompletableFuture<CachedSnapshot> result = new CompletableFuture<>();
+        private volatile boolean invalidated;
+    }
+
     private record CachedSnapshot(
             Instant observedAt,
             long loadedAtNanos,
@@ -5,21 +5,37 @@ import com.apunto.copytarget.OrderBookSnapshot;
 import com.apunto.engine.dto.client.BinanceOrderBookLevelClientDto;
 import com.apunto.engine.dto.client.BinanceOrderBookSnapshotClientDto;
 import com.apunto.engine.service.ProcesBinanceService;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Books de ms-binance detrás de {@link CachedCopyOrderBookProvider}: los candidatos de un mismo
+ * símbolo dentro de la ventana de frescura comparten una sola llamada HTTP.
+ */
 @Component
-@RequiredArgsConstructor
 public class BinanceCopyOrderBookProvider implements CopyOrderBookProvider {
 
     private final ProcesBinanceService procesBinanceService;
+    private final CopyOrderBookProvider cache;
+
+    public BinanceCopyOrderBookProvider(ProcesBinanceService procesBinanceService,
+                                        CopyLiquiditySimulationProperties properties) {
+        this.procesBinanceService = procesBinanceService;
+        this.cache = new CachedCopyOrderBookProvider(
+                this::fetch,
+                properties.getOrderBookFreshness(),
+                properties.getOrderBookCacheMaximumSymbols());
+    }
 
     @Override
     public Optional<OrderBookSnapshot> snapshot(String symbol, int limit) {
+        return cache.snapshot(symbol, limit);
+    }
+
+    private Optional<OrderBookSnapshot> fetch(String symbol, int limit) {
         return procesBinanceService.getOrderBookSnapshot(symbol, limit).map(this::toCore);
     }
 
@@ -0,0 +1,136 @@
+package com.apunto.engine.service.copy.simulation;
+
+import com.apunto.copytarget.OrderBookLevel;
+import com.apunto.copytarget.OrderBookSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache de books por símbolo con ventanas de frescura fijas ({@code floor(now / freshness)}):
+ * todo pedido dentro de la misma ventana usa el mismo snapshot, y uno con más profundidad sirve
+ * a los pedidos de {@code limit} menor recortando niveles.
+ *
+ * <p>Los pedidos concurrentes del mismo símbolo y limit esperan la misma carga en vez de ir cada
+ * uno a ms-binance. Un resultado vacío (fallo del proveedor) no se cachea, pero sí se comparte
+ * con los que esperaban esa carga.</p>
+ */
+final class CachedCopyOrderBookProvider implements CopyOrderBookProvider {
+
+    private final CopyOrderBookProvider delegate;
+    private final long freshnessMs;
+    private final Clock clock;
+    private final Cache<String, CachedBook> books;
+    private final ConcurrentMap<String, CompletableFuture<Optional<OrderBookSnapshot>>> loads =
+            new ConcurrentHashMap<>();
+
+    CachedCopyOrderBookProvider(CopyOrderBookProvider delegate, Duration freshness, int maximumSymbols) {
+        this(delegate, freshness, maximumSymbols, Clock.systemUTC());
+    }
+
+    CachedCopyOrderBookProvider(CopyOrderBookProvider delegate,
+                                Duration freshness,
+                                int maximumSymbols,
+                                Clock clock) {
+        this.delegate = delegate;
+        this.freshnessMs = freshness == null ? 0L : Math.max(0L, freshness.toMillis());
+        this.clock = clock;
+        this.books = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maximumSymbols))
+                .expireAfterWrite(Duration.ofMillis(Math.max(1L, freshnessMs)))
+                .build();
+    }
+
+    @Override
+    public Optional<OrderBookSnapshot> snapshot(String symbol, int limit) {
+        if (freshnessMs == 0L || limit <= 0 || symbol == null || symbol.isBlank()) {
+            return delegate.snapshot(symbol, limit);
+        }
+        String key = symbol.trim().toUpperCase(Locale.ROOT);
+        long bucket = clock.millis() / freshnessMs;
+        CachedBook cached = books.getIfPresent(key);
+        if (cached != null && cached.serves(bucket, limit)) {
+            record("hit");
+            return Optional.of(cached.trimmed(limit));
+        }
+
+        String loadKey = key + "|" + limit;
+        CompletableFuture<Optional<OrderBookSnapshot>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<OrderBookSnapshot>> running = loads.putIfAbsent(loadKey, load);
+        if (running != null) {
+            record("coalesced");
+            return join(running);
+        }
+        record("miss");
+        try {
+            Optional<OrderBookSnapshot> loaded = delegate.snapshot(key, limit);
+            loaded.ifPresent(book -> store(key, new CachedBook(book, bucket, limit)));
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loads.remove(loadKey, load);
+        }
+    }
+
+    /** Dentro de la misma ventana se queda el book más profundo; una ventana nueva lo reemplaza. */
+    private void store(String key, CachedBook book) {
+        books.asMap().merge(key, book, (current, loaded) ->
+                loaded.bucket() > current.bucket()
+                        || (loaded.bucket() == current.bucket() && loaded.limit() >= current.limit())
+                        ? loaded
+                        : current);
+    }
+
+    private static Optional<OrderBookSnapshot> join(CompletableFuture<Optional<OrderBookSnapshot>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static void record(String result) {
+        Metrics.counter("copy_liquidity_order_book_cache_total", "result", result).increment();
+    }
+
+    private record CachedBook(OrderBookSnapshot book, long bucket, int limit) {
+
+        boolean serves(long currentBucket, int requestedLimit) {
+            return bucket == currentBucket && limit >= requestedLimit;
+        }
+
+        OrderBookSnapshot trimmed(int requestedLimit) {
+            if (requestedLimit >= limit) {
+                return book;
+            }
+            return new OrderBookSnapshot(
+                    book.symbol(),
+                    book.capturedAt(),
+                    book.source(),
+                    book.sequenceNumber(),
+                    top(book.bids(), requestedLimit),
+                    top(book.asks(), requestedLimit)
+            );
+        }
+
+        private static List<OrderBookLevel> top(List<OrderBookLevel> levels, int count) {
+            return levels.size() <= count ? levels : levels.subList(0, count);
+        }
+    }
+}
@@ -18,6 +18,8 @@ public class CopyLiquiditySimulationProperties {
     private Duration staleLock = Duration.ofMinutes(10);
     private Duration retryDelay = Duration.ofMinutes(1);
     private int depthLimit = 100;
+    private Duration orderBookFreshness = Duration.ofSeconds(2);
+    private int orderBookCacheMaximumSymbols = 512;
     private BigDecimal minimumCapitalUsd = new BigDecimal("5000");
     private BigDecimal maximumDepthConsumptionPct = new BigDecimal("0.30");
     private BigDecimal participationCapPct = new BigDecimal("0.05");
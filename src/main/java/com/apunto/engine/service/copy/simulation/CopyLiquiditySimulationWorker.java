@@ -11,8 +11,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
@@ -20,6 +24,8 @@ import java.util.Optional;
 @ConditionalOnProperty(prefix = "copy.simulation.liquidity-worker", name = "enabled", havingValue = "true")
 public class CopyLiquiditySimulationWorker {
 
+    private static final String MODEL_VERSION = "liquidity-v3";
+
     private final CopyLiquiditySimulationStore store;
     private final CopyOrderBookProvider orderBookProvider;
     private final LiquiditySimulationAssumptions assumptions;
@@ -45,49 +51,88 @@ public class CopyLiquiditySimulationWorker {
         this.properties = new CopyLiquiditySimulationProperties();
     }
 
+    /**
+     * Los candidatos del batch con el mismo símbolo y lado (las bandas de capital de un mismo
+     * escenario) comparten un snapshot del book y se costean juntos con un solo barrido de la
+     * profundidad. Cada candidato se guarda o falla por separado.
+     */
     @Scheduled(fixedDelayString = "${copy.simulation.liquidity-worker.fixed-delay-ms:5000}")
     public void tick() {
         store.requeueStale(OffsetDateTime.now().minus(properties.getStaleLock()));
+        Map<String, List<CopyLiquidityCandidate>> groups = new LinkedHashMap<>();
         for (CopyLiquidityCandidate candidate : store.claimBatch(
                 "cold-liquidity", Math.max(1, properties.getBatchSize()))) {
+            groups.computeIfAbsent(candidate.symbol() + "|" + candidate.side(), key -> new ArrayList<>())
+                    .add(candidate);
+        }
+        for (List<CopyLiquidityCandidate> group : groups.values()) {
+            GroupSimulation simulation;
             try {
-                process(candidate);
+                simulation = simulate(group);
             } catch (RuntimeException ex) {
-                store.markFailed(candidate, safeMessage(ex),
-                        OffsetDateTime.now().plus(properties.getRetryDelay()));
-                log.error("event=copy.liquidity.failed liquidityJobId={} capitalScenarioId={} symbol={} side={} attempt={} errorClass={} error={}",
-                        candidate.id(), candidate.capitalScenarioId(), candidate.symbol(), candidate.side(), candidate.attempt(),
-                        ex.getClass().getSimpleName(), safeMessage(ex), ex);
+                group.forEach(candidate -> fail(candidate, ex));
+                continue;
+            }
+            for (int i = 0; i < group.size(); i++) {
+                try {
+                    complete(group.get(i), simulation, i);
+                } catch (RuntimeException ex) {
+                    fail(group.get(i), ex);
+                }
             }
         }
     }
 
     public CopyLiquidityWorkerOutcome process(CopyLiquidityCandidate candidate) {
-        Optional<OrderBookSnapshot> snapshot = orderBookProvider.snapshot(
-                candidate.symbol(), properties.getDepthLimit());
+        return complete(candidate, simulate(List.of(candidate)), 0);
+    }
+
+    private GroupSimulation simulate(List<CopyLiquidityCandidate> group) {
+        CopyLiquidityCandidate first = group.getFirst();
+        Optional<OrderBookSnapshot> snapshot = orderBookProvider.snapshot(first.symbol(), properties.getDepthLimit());
         if (snapshot.isEmpty()) {
-            store.markNoBook(candidate, "NO_BOOK",
-                    OffsetDateTime.now().plus(properties.getRetryDelay()));
-            return CopyLiquidityWorkerOutcome.NO_BOOK;
+            return new GroupSimulation(null, List.of());
         }
         LiquiditySimulationRequest request = new LiquiditySimulationRequest(
                 snapshot.get(),
-                candidate.side(),
-                candidate.requestedNotionalUsd(),
+                first.side(),
+                first.requestedNotionalUsd(),
                 assumptions,
-                "liquidity-v3"
+                MODEL_VERSION
         );
-        List<LiquiditySimulationResult> results = engine.simulateAll(request);
+        List<BigDecimal> notionals = group.stream().map(CopyLiquidityCandidate::requestedNotionalUsd).toList();
+        return new GroupSimulation(snapshot.get(), engine.simulateAll(request, notionals));
+    }
+
+    private CopyLiquidityWorkerOutcome complete(CopyLiquidityCandidate candidate, GroupSimulation simulation, int index) {
+        if (simulation.snapshot() == null) {
+            store.markNoBook(candidate, "NO_BOOK",
+                    OffsetDateTime.now().plus(properties.getRetryDelay()));
+            return CopyLiquidityWorkerOutcome.NO_BOOK;
+        }
+        List<LiquiditySimulationResult> results = simulation.results().get(index);
         if (results.size() != 4 || results.stream().anyMatch(LiquiditySimulationResult::realValidated)) {
             throw new IllegalStateException("liquidity worker must create four simulation-only strategies");
         }
-        store.saveResults(candidate, snapshot.get(), assumptions, results);
+        store.saveResults(candidate, simulation.snapshot(), assumptions, results);
         return CopyLiquidityWorkerOutcome.COMPLETED;
     }
 
+    private void fail(CopyLiquidityCandidate candidate, RuntimeException ex) {
+        store.markFailed(candidate, safeMessage(ex),
+                OffsetDateTime.now().plus(properties.getRetryDelay()));
+        log.error("event=copy.liquidity.failed liquidityJobId={} capitalScenarioId={} symbol={} side={} attempt={} errorClass={} error={}",
+                candidate.id(), candidate.capitalScenarioId(), candidate.symbol(), candidate.side(), candidate.attempt(),
+                ex.getClass().getSimpleName(), safeMessage(ex), ex);
+    }
+
     private String safeMessage(Throwable error) {
         String message = error.getMessage();
         if (message == null || message.isBlank()) return error.getClass().getSimpleName();
         return message.length() <= 1000 ? message : message.substring(0, 1000);
     }
+
+    /** {@code snapshot} es null si no hubo book; {@code results} va en el orden del grupo. */
+    private record GroupSimulation(OrderBookSnapshot snapshot, List<List<LiquiditySimulationResult>> results) {
+    }
 }
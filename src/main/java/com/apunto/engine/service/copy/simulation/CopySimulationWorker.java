@@ -1,9 +1,12 @@
 package com.apunto.engine.service.copy.simulation;
 
+import com.apunto.copytarget.CalculationArithmetic;
 import com.apunto.copytarget.CapitalLeverageMatrixSimulator;
 import com.apunto.copytarget.CapitalLeverageScenario;
 import com.apunto.copytarget.TargetPortfolioCalculator;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,6 +15,8 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 @Slf4j
 @Component
@@ -20,8 +25,8 @@ public class CopySimulationWorker {
 
     private final CopySimulationJobStore store;
     private final long yieldMillis;
-    private final CapitalLeverageMatrixSimulator simulator =
-            new CapitalLeverageMatrixSimulator(new TargetPortfolioCalculator());
+    private final ForkJoinPool scenarioPool;
+    private final CapitalLeverageMatrixSimulator simulator;
 
     @Value("${copy.simulation.worker.batch-size:1}")
     private int batchSize = 1;
@@ -35,12 +40,39 @@ public class CopySimulationWorker {
     @Value("${copy.simulation.worker.instance-id:${spring.application.name}:cold-simulation}")
     private String workerId = "cold-simulation";
 
+    public CopySimulationWorker(CopySimulationJobStore store, long yieldMillis) {
+        this(store, yieldMillis, CalculationArithmetic.BIG_DECIMAL, 0);
+    }
+
+    /**
+     * {@code arithmetic} elige cómo dimensiona el calculador; {@code FIXED_POINT} da el mismo
+     * resultado exacto con menos asignaciones y cae a BigDecimal por pierna si no cabe en long.
+     *
+     * <p>Con {@code parallelism > 0} los 44 escenarios de cada job se dimensionan en un
+     * fork-join propio de ese tamaño, con hilos daemon de prioridad mínima. El pool acota la CPU
+     * que toma la simulación fría, así que subir {@code batch-size} no le quita núcleos al hot
+     * path más allá de {@code parallelism}. Con 0 todo corre en el hilo del scheduler.</p>
+     */
+    @Autowired
     public CopySimulationWorker(
             CopySimulationJobStore store,
-            @Value("${copy.simulation.worker.yield-ms:2}") long yieldMillis
+            @Value("${copy.simulation.worker.yield-ms:2}") long yieldMillis,
+            @Value("${copy.simulation.worker.arithmetic:BIG_DECIMAL}") CalculationArithmetic arithmetic,
+            @Value("${copy.simulation.worker.parallelism:0}") int parallelism
     ) {
         this.store = store;
         this.yieldMillis = Math.max(0L, yieldMillis);
+        this.scenarioPool = parallelism > 0
+                ? new ForkJoinPool(parallelism, CopySimulationWorker::scenarioThread, null, false)
+                : null;
+        this.simulator = new CapitalLeverageMatrixSimulator(new TargetPortfolioCalculator(arithmetic), scenarioPool);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scenarioPool != null) {
+            scenarioPool.shutdownNow();
+        }
     }
 
     @Scheduled(fixedDelayString = "${copy.simulation.worker.fixed-delay-ms:2000}")
@@ -90,6 +122,14 @@ public class CopySimulationWorker {
         }
     }
 
+    private static ForkJoinWorkerThread scenarioThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("copy-simulation-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    }
+
     private static String safeMessage(Throwable error) {
         String message = error.getMessage();
         if (message == null || message.isBlank()) {
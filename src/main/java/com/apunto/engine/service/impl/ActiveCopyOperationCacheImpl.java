@@ -18,8 +18,10 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,6 +35,17 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
     private final CopyOperationRepository repository;
     private final CopyOperationMapper mapper;
     private final ConcurrentMap<String, RuntimeCopyRef> byRuntimeKey = new ConcurrentHashMap<>();
+    /*
+     * Índices secundarios: apuntan a claves de byRuntimeKey y se mantienen bajo indexLock
+     * en cada escritura. Las lecturas no bloquean y siempre revalidan el ref contra el
+     * predicado original, así que una entrada de índice vieja nunca cambia el resultado.
+     */
+    private final ConcurrentMap<String, Set<String>> keysByOrigin = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> keysByUser = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> keysByWallet = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> keysByWalletAndBase = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+    private volatile int activeCount;
 
     @Value("${copy.operation.active-cache.pending-ttl-ms:120000}")
     private long pendingTtlMs;
@@ -54,7 +67,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public boolean isActive(String originId, String userId) {
-        return byRuntimeKey.values().stream()
+        return originUserRefs(originId, userId).stream()
                 .anyMatch(ref -> matchesOriginUser(ref, originId, userId) && ref.status() == RuntimeCopyStatus.ACTIVE);
     }
 
@@ -66,7 +79,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public boolean isKnown(String originId, String userId) {
-        return byRuntimeKey.values().stream()
+        return originUserRefs(originId, userId).stream()
                 .anyMatch(ref -> matchesOriginUser(ref, originId, userId) && !ref.isExpiredNonActive(pendingTtlMs));
     }
 
@@ -78,7 +91,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public CopyOperationDto activeOperation(String originId, String userId) {
-        return byRuntimeKey.values().stream()
+        return originUserRefs(originId, userId).stream()
                 .filter(ref -> matchesOriginUser(ref, originId, userId))
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .map(RuntimeCopyRef::operation)
@@ -95,7 +108,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public List<CopyOperationDto> activeOperations(String originId, String userId) {
-        return byRuntimeKey.values().stream()
+        return originUserRefs(originId, userId).stream()
                 .filter(ref -> matchesOriginUser(ref, originId, userId))
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .map(RuntimeCopyRef::operation)
@@ -110,7 +123,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedUser == null || normalizedWallet == null) {
             return List.of();
         }
-        return byRuntimeKey.values().stream()
+        return refs(smallerOf(keysByUser.get(normalizedUser), keysByWallet.get(normalizedWallet))).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedUser.equals(normalize(ref.userId())))
                 .filter(ref -> normalizedWallet.equals(normalize(ref.wallet())))
@@ -125,7 +138,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedUser == null) {
             return List.of();
         }
-        return byRuntimeKey.values().stream()
+        return refs(keysByUser.get(normalizedUser)).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedUser.equals(normalize(ref.userId())))
                 .map(RuntimeCopyRef::operation)
@@ -139,7 +152,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedOrigin == null) {
             return Collections.emptySet();
         }
-        return byRuntimeKey.values().stream()
+        return refs(keysByOrigin.get(normalizedOrigin)).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedOrigin.equals(normalize(ref.originId())))
                 .map(RuntimeCopyRef::userId)
@@ -153,7 +166,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedWallet == null) {
             return Collections.emptySet();
         }
-        return byRuntimeKey.values().stream()
+        return refs(keysByWallet.get(normalizedWallet)).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedWallet.equals(normalize(ref.wallet())))
                 .map(RuntimeCopyRef::userId)
@@ -168,7 +181,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedWallet == null || normalizedSymbol == null) {
             return Collections.emptySet();
         }
-        return byRuntimeKey.values().stream()
+        return refs(keysByWalletAndBase.get(walletBaseKey(normalizedWallet, CopySymbolIdentity.primaryBaseAsset(symbol)))).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedWallet.equals(normalize(ref.wallet())))
                 .filter(ref -> normalizedSymbol.equals(normalize(ref.symbol())))
@@ -183,7 +196,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         if (normalizedWallet == null || CopySymbolIdentity.primaryBaseAsset(symbol) == null) {
             return Collections.emptySet();
         }
-        return byRuntimeKey.values().stream()
+        return walletBaseRefs(normalizedWallet, symbol).stream()
                 .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
                 .filter(ref -> normalizedWallet.equals(normalize(ref.wallet())))
                 .filter(ref -> CopySymbolIdentity.sameBaseAsset(ref.symbol(), symbol))
@@ -194,7 +207,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public String traceId(String originId, String userId, String walletId, String symbol) {
-        RuntimeCopyRef existing = byRuntimeKey.values().stream()
+        RuntimeCopyRef existing = originUserRefs(originId, userId).stream()
                 .filter(ref -> matchesOriginUser(ref, originId, userId))
                 .filter(ref -> Objects.equals(normalize(ref.wallet()), normalize(walletId)))
                 .filter(ref -> CopySymbolIdentity.sameBaseAsset(ref.symbol(), symbol))
@@ -211,7 +224,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public String traceId(String originId, String userId, String walletId, String symbol, Long allocationId, String strategyCode) {
-        RuntimeCopyRef existing = byRuntimeKey.values().stream()
+        RuntimeCopyRef existing = originUserRefs(originId, userId).stream()
                 .filter(ref -> matchesOriginUser(ref, originId, userId))
                 .filter(ref -> sameAllocationScope(ref, allocationId, strategyCode))
                 .filter(ref -> Objects.equals(normalize(ref.wallet()), normalize(walletId)))
@@ -229,7 +242,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
             return;
         }
         RuntimeCopyRef next = RuntimeCopyRef.pending(originId, userId, walletId, symbol, typeOperation, allocationId, strategyCode, traceId);
-        byRuntimeKey.put(key, next);
+        store(key, next);
         log.info("event=copy_runtime_state.pending_open category=runtime_state reasonAlias=open_in_progress friendlyReason=apertura_en_proceso explanation=la_operacion_queda_en_ram_para_evitar_duplicados_mientras_se_envia_a_binance copyImpact=blocks_duplicate_open traceId={} originId={} userId={} allocationId={} strategyCode={} walletId={} symbol={} typeOperation={} runtimeSize={}",
                 safeLog(next.traceId()), safeLog(originId), safeLog(userId), allocationId, safeLog(strategyCode), safeLog(walletId), safeLog(symbol), safeLog(typeOperation), byRuntimeKey.size());
     }
@@ -245,7 +258,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         }
         String traceId = traceId(operation.getIdOrderOrigin(), operation.getIdUser(), operation.getIdWalletOrigin(), operation.getParsymbol(), operation.getUserCopyAllocationId(), operation.getCopyStrategyCode());
         RuntimeCopyRef next = RuntimeCopyRef.active(operation, traceId);
-        byRuntimeKey.put(key, next);
+        store(key, next);
         log.info("event=copy_runtime_state.active category=runtime_state reasonAlias=copy_active friendlyReason=copia_activa_en_ram explanation=la_copia_quedo_disponible_en_ram_para_la_ruta_caliente copyImpact=copy_tracked traceId={} originId={} userId={} allocationId={} strategyCode={} walletId={} symbol={} typeOperation={} qty={} runtimeSize={}",
                 safeLog(traceId), safeLog(operation.getIdOrderOrigin()), safeLog(operation.getIdUser()),
                 operation.getUserCopyAllocationId(), safeLog(operation.getCopyStrategyCode()), safeLog(operation.getIdWalletOrigin()),
@@ -262,7 +275,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
             return;
         }
         RuntimeCopyRef next = RuntimeCopyRef.uncertain(operation, traceId);
-        byRuntimeKey.put(key, next);
+        store(key, next);
         log.warn("event=copy_runtime_state.uncertain category=runtime_state reasonAlias=copy_state_uncertain friendlyReason=estado_de_copia_incierto explanation=hubo_orden_binance_o_estado_parcial_y_se_requiere_reconciliacion copyImpact=blocks_duplicate_open traceId={} originId={} userId={} allocationId={} strategyCode={} walletId={} symbol={} typeOperation={} reasonCode={} runtimeSize={}",
                 safeLog(next.traceId()), safeLog(operation.getIdOrderOrigin()), safeLog(operation.getIdUser()),
                 operation.getUserCopyAllocationId(), safeLog(operation.getCopyStrategyCode()), safeLog(operation.getIdWalletOrigin()),
@@ -272,12 +285,12 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
     @Override
     public void forgetPending(String originId, String userId, String traceId, String reasonCode) {
         int removed = 0;
-        for (java.util.Map.Entry<String, RuntimeCopyRef> entry : new ArrayList<>(byRuntimeKey.entrySet())) {
-            RuntimeCopyRef current = entry.getValue();
+        for (String key : originUserKeys(originId, userId)) {
+            RuntimeCopyRef current = byRuntimeKey.get(key);
             if (current == null || current.status() == RuntimeCopyStatus.ACTIVE || !matchesOriginUser(current, originId, userId)) {
                 continue;
             }
-            if (byRuntimeKey.remove(entry.getKey(), current)) removed++;
+            if (evict(key, current)) removed++;
         }
         log.info("event=copy_runtime_state.pending_removed category=runtime_state reasonAlias=pending_cancelled friendlyReason=apertura_pendiente_cancelada explanation=se_remueve_el_estado_temporal_porque_no_quedo_copia_activa copyImpact=allows_future_open traceId={} originId={} userId={} reasonCode={} removed={} runtimeSize={}",
                 safeLog(traceId), safeLog(originId), safeLog(userId), safeLog(reasonCode), removed, byRuntimeKey.size());
@@ -287,13 +300,13 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
     public void markClosed(String originId, String userId) {
         int removed = 0;
         String traceId = CopyTraceIdUtil.copyTraceId(originId, userId, null, null);
-        for (java.util.Map.Entry<String, RuntimeCopyRef> entry : new ArrayList<>(byRuntimeKey.entrySet())) {
-            RuntimeCopyRef ref = entry.getValue();
+        for (String key : originUserKeys(originId, userId)) {
+            RuntimeCopyRef ref = byRuntimeKey.get(key);
             if (ref == null || !matchesOriginUser(ref, originId, userId)) {
                 continue;
             }
             traceId = firstNonBlank(ref.traceId(), traceId);
-            if (byRuntimeKey.remove(entry.getKey(), ref)) removed++;
+            if (evict(key, ref)) removed++;
         }
         log.info("event=copy_runtime_state.closed category=runtime_state reasonAlias=copy_closed friendlyReason=copia_cerrada_en_ram explanation=la_copia_se_removio_de_la_ruta_caliente copyImpact=no_active_copy traceId={} originId={} userId={} removed={} runtimeSize={}",
                 safeLog(traceId), safeLog(originId), safeLog(userId), removed, byRuntimeKey.size());
@@ -305,7 +318,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
             return;
         }
         String key = key(operation);
-        RuntimeCopyRef removed = key == null ? null : byRuntimeKey.remove(key);
+        RuntimeCopyRef removed = key == null ? null : evict(key);
         log.info("event=copy_runtime_state.closed category=runtime_state reasonAlias=copy_closed friendlyReason=copia_cerrada_en_ram explanation=la_copia_se_removio_de_la_ruta_caliente copyImpact=no_active_copy traceId={} originId={} userId={} allocationId={} strategyCode={} removed={} runtimeSize={}",
                 removed == null ? traceId(operation.getIdOrderOrigin(), operation.getIdUser(), operation.getIdWalletOrigin(), operation.getParsymbol(), operation.getUserCopyAllocationId(), operation.getCopyStrategyCode()) : safeLog(removed.traceId()),
                 safeLog(operation.getIdOrderOrigin()), safeLog(operation.getIdUser()), operation.getUserCopyAllocationId(),
@@ -314,9 +327,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
 
     @Override
     public int activeSize() {
-        return (int) byRuntimeKey.values().stream()
-                .filter(ref -> ref.status() == RuntimeCopyStatus.ACTIVE)
-                .count();
+        return activeCount;
     }
 
     private void refreshFromDatabase(String trigger) {
@@ -359,8 +370,7 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
             int missingInCache = countMissing(nextActiveKeys, previousActiveKeys);
             int missingInDb = countMissing(previousActiveKeys, nextActiveKeys);
 
-            byRuntimeKey.clear();
-            byRuntimeKey.putAll(next);
+            replaceAll(next);
             log.info("event=copy_state.reconcile.ok category=runtime_state trigger={} dbActive={} runtimeActive={} runtimeTotal={} missingInCache={} missingInDb={} duplicateKeys={} preservedPending={} elapsedMs={}",
                     trigger, active.size(), activeSize(), byRuntimeKey.size(), missingInCache, missingInDb, duplicatedKeys.size(), preserved.size(), elapsedMs(startedNs));
         } catch (DataAccessException | IllegalStateException | IllegalArgumentException ex) {
@@ -387,6 +397,161 @@ public class ActiveCopyOperationCacheImpl implements ActiveCopyOperationCache {
         return preserved;
     }
 
+    private void store(String key, RuntimeCopyRef next) {
+        synchronized (indexLock) {
+            RuntimeCopyRef previous = byRuntimeKey.put(key, next);
+            if (previous != null) {
+                unindex(key, previous);
+            }
+            index(key, next);
+        }
+    }
+
+    private RuntimeCopyRef evict(String key) {
+        synchronized (indexLock) {
+            RuntimeCopyRef removed = byRuntimeKey.remove(key);
+            if (removed != null) {
+                unindex(key, removed);
+            }
+            return removed;
+        }
+    }
+
+    private boolean evict(String key, RuntimeCopyRef expected) {
+        synchronized (indexLock) {
+            if (!byRuntimeKey.remove(key, expected)) {
+                return false;
+            }
+            unindex(key, expected);
+            return true;
+        }
+    }
+
+    private void replaceAll(Map<String, RuntimeCopyRef> next) {
+        synchronized (indexLock) {
+            byRuntimeKey.clear();
+            keysByOrigin.clear();
+            keysByUser.clear();
+            keysByWallet.clear();
+            keysByWalletAndBase.clear();
+            activeCount = 0;
+            for (Map.Entry<String, RuntimeCopyRef> entry : next.entrySet()) {
+                byRuntimeKey.put(entry.getKey(), entry.getValue());
+                index(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void index(String key, RuntimeCopyRef ref) {
+        addIndexKey(keysByOrigin, normalize(ref.originId()), key);
+        addIndexKey(keysByUser, normalize(ref.userId()), key);
+        String wallet = normalize(ref.wallet());
+        addIndexKey(keysByWallet, wallet, key);
+        if (wallet != null) {
+            for (String base : CopySymbolIdentity.baseAssetCandidates(ref.symbol())) {
+                addIndexKey(keysByWalletAndBase, walletBaseKey(wallet, base), key);
+            }
+        }
+        if (ref.status() == RuntimeCopyStatus.ACTIVE) {
+            activeCount++;
+        }
+    }
+
+    private void unindex(String key, RuntimeCopyRef ref) {
+        removeIndexKey(keysByOrigin, normalize(ref.originId()), key);
+        removeIndexKey(keysByUser, normalize(ref.userId()), key);
+        String wallet = normalize(ref.wallet());
+        removeIndexKey(keysByWallet, wallet, key);
+        if (wallet != null) {
+            for (String base : CopySymbolIdentity.baseAssetCandidates(ref.symbol())) {
+                removeIndexKey(keysByWalletAndBase, walletBaseKey(wallet, base), key);
+            }
+        }
+        if (ref.status() == RuntimeCopyStatus.ACTIVE) {
+            activeCount--;
+        }
+    }
+
+    private void addIndexKey(ConcurrentMap<String, Set<String>> index, String indexKey, String runtimeKey) {
+        if (indexKey == null) {
+            return;
+        }
+        index.computeIfAbsent(indexKey, ignored -> ConcurrentHashMap.newKeySet()).add(runtimeKey);
+    }
+
+    private void removeIndexKey(ConcurrentMap<String, Set<String>> index, String indexKey, String runtimeKey) {
+        if (indexKey == null) {
+            return;
+        }
+        index.computeIfPresent(indexKey, (ignored, keys) -> {
+            keys.remove(runtimeKey);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private Set<String> originUserKeys(String originId, String userId) {
+        String origin = normalize(originId);
+        String user = normalize(userId);
+        if (origin == null || user == null) {
+            return Set.of();
+        }
+        Set<String> keys = smallerOf(keysByOrigin.get(origin), keysByUser.get(user));
+        return keys.isEmpty() ? Set.of() : Set.copyOf(keys);
+    }
+
+    /**
+     * Un origen puede hacer fan-out a miles de usuarios y un usuario puede tener muchas copias,
+     * así que se recorre el índice más chico y el otro criterio se revalida por ref.
+     */
+    private List<RuntimeCopyRef> originUserRefs(String originId, String userId) {
+        String origin = normalize(originId);
+        String user = normalize(userId);
+        if (origin == null || user == null) {
+            return List.of();
+        }
+        return refs(smallerOf(keysByOrigin.get(origin), keysByUser.get(user)));
+    }
+
+    private List<RuntimeCopyRef> walletBaseRefs(String normalizedWallet, String symbol) {
+        List<String> bases = CopySymbolIdentity.baseAssetCandidates(symbol);
+        if (bases.size() == 1) {
+            return refs(keysByWalletAndBase.get(walletBaseKey(normalizedWallet, bases.get(0))));
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (String base : bases) {
+            Set<String> indexed = keysByWalletAndBase.get(walletBaseKey(normalizedWallet, base));
+            if (indexed != null) {
+                keys.addAll(indexed);
+            }
+        }
+        return refs(keys);
+    }
+
+    private Set<String> smallerOf(Set<String> left, Set<String> right) {
+        if (left == null || right == null) {
+            return Set.of();
+        }
+        return left.size() <= right.size() ? left : right;
+    }
+
+    private List<RuntimeCopyRef> refs(Set<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return List.of();
+        }
+        List<RuntimeCopyRef> refs = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            RuntimeCopyRef ref = byRuntimeKey.get(key);
+            if (ref != null) {
+                refs.add(ref);
+            }
+        }
+        return refs;
+    }
+
+    private String walletBaseKey(String normalizedWallet, String baseAsset) {
+        return normalizedWallet + '|' + baseAsset;
+    }
+
     private int countMissing(Set<String> expected, Set<String> actual) {
         int count = 0;
         for (String key : expected) {
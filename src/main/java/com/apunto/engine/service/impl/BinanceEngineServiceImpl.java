@@ -1733,6 +1733,7 @@ public class BinanceEngineServiceImpl implements BinanceEngineService, BinanceCo
         }
         final List<UserCopyAllocationEntity> allocations = userCopyAllocationService.getActiveAllocationsForUserWalletCachedOnly(userId, walletId);
         final List<AllocationCopyContext> contexts = new ArrayList<>();
+        final CopyStrategyRuntimeRouter.RoutedEvent routedEvent = copyStrategyRuntimeRouter.routeEvent(action, deltaType, side, operation.getParSymbol());
 
         for (UserCopyAllocationEntity allocation : allocations) {
             if (allocation == null) continue;
@@ -1754,7 +1755,7 @@ public class BinanceEngineServiceImpl implements BinanceEngineService, BinanceCo
                         safeLog(walletId), strategyCode, operation.getParSymbol(), side, deltaType);
                 continue;
             }
-            if (!copyStrategyRuntimeRouter.allocationAppliesToEvent(allocation, action, deltaType, side, operation.getParSymbol())) {
+            if (!routedEvent.admits(allocation)) {
                 log.info("event=copy_open_skipped reasonCode=strategy_not_applicable originId={} userId={} allocationId={} wallet={} strategy={} side={} action={} deltaType={}",
                         originId, userId, allocation.getId(), safeLog(walletId), strategyCode, side, action, deltaType);
                 continue;
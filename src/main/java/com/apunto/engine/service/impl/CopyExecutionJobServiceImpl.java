@@ -16,11 +16,27 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Slf4j
@@ -46,8 +62,102 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
             RETURNING *
             """;
 
+    /*
+     * Reusar un payload viejo renueva su created_at y, aun sin actualizar, deja la fila bloqueada
+     * hasta el commit del enqueue: la purga de huérfanos la salta y el FK de los jobs nuevos la
+     * encuentra.
+     */
+    static final String INSERT_SHARED_PAYLOAD_SQL = """
+            INSERT INTO copy_execution_job_payload (payload_hash, payload)
+            VALUES (?, ?)
+            ON CONFLICT (payload_hash) DO UPDATE
+               SET created_at = now()
+             WHERE copy_execution_job_payload.created_at < now() - interval '1 hour'
+            """;
+
+    /* Payloads que ningún job referencia ya (el job se refrescó con otro hash), en lotes. */
+    static final String PURGE_ORPHAN_PAYLOADS_SQL = """
+            DELETE FROM copy_execution_job_payload p
+            WHERE p.payload_hash IN (
+                SELECT o.payload_hash
+                FROM copy_execution_job_payload o
+                WHERE o.created_at < ?
+                  AND NOT EXISTS (
+                      SELECT 1 FROM copy_execution_job j WHERE j.payload_hash = o.payload_hash
+                  )
+                ORDER BY o.created_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            """;
+
+    static final String SELECT_SHARED_PAYLOADS_SQL = """
+            SELECT payload_hash, payload
+            FROM copy_execution_job_payload
+            WHERE payload_hash = ANY(?::varchar[])
+            """;
+
+    /* NOTIFY es transaccional: Postgres lo entrega a los LISTEN recién al hacer commit. */
+    static final String NOTIFY_READY_SQL = "SELECT pg_notify('" + READY_CHANNEL + "', ?)";
+
+    /*
+     * UPSERT idempotente multi-fila: refresca el payload incluso cuando un job anterior quedó
+     * DONE/DEAD o cuando llega un payload nuevo mientras el job actual está PROCESSING.
+     * Postgres cuenta 1 fila afectada por usuario, sea insert o refresh. El payload vive una
+     * sola vez en copy_execution_job_payload; el refresh limpia el payload inline legacy.
+     */
+    static final String BULK_UPSERT_PENDING_SQL = """
+            INSERT INTO copy_execution_job (
+                id, origin_id, user_id, action, status, attempt, next_run_at,
+                payload_hash, last_error_category, created_at, updated_at
+            )
+            SELECT u.id, ?, u.user_id, ?, 'PENDING', 0, ?, ?, ?, ?, ?
+            FROM unnest(?::uuid[], ?::text[]) AS u(id, user_id)
+            ON CONFLICT (origin_id, user_id, action) DO UPDATE
+               SET status = CASE
+                       WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN 'PENDING'
+                       ELSE copy_execution_job.status
+                   END,
+                   attempt = CASE
+                       WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN 0
+                       ELSE copy_execution_job.attempt
+                   END,
+                   next_run_at = CASE
+                       WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN EXCLUDED.next_run_at
+                       ELSE copy_execution_job.next_run_at
+                   END,
+                   payload = NULL,
+                   payload_hash = EXCLUDED.payload_hash,
+                   last_error_category = EXCLUDED.last_error_category,
+                   last_error_message = CASE
+                       WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN NULL
+                       ELSE copy_execution_job.last_error_message
+                   END,
+                   last_error_at = CASE
+                       WHEN copy_execution_job.status IN ('PENDING', 'DONE', 'DEAD') THEN NULL
+                       ELSE copy_execution_job.last_error_at
+                   END,
+                   locked_at = CASE
+                       WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN NULL
+                       ELSE copy_execution_job.locked_at
+                   END,
+                   locked_by = CASE
+                       WHEN copy_execution_job.status IN ('DONE', 'DEAD') THEN NULL
+                       ELSE copy_execution_job.locked_by
+                   END,
+                   updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final Comparator<CopyExecutionJobEntity> CLAIM_ORDER = Comparator
+            .comparing(CopyExecutionJobEntity::getNextRunAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(CopyExecutionJobEntity::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
     private final CopyExecutionJobRepository repository;
     private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${copy.job.enqueue.chunk-size:1000}")
+    private int enqueueChunkSize = 1000;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -57,34 +167,34 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
     public int enqueueForUsers(OperacionEvent event, List<UserDetailDto> users, CopyJobAction action) {
         final String originId = String.valueOf(event.getOperacion().getIdOperacion());
         final String payload = serializeEvent(event);
+        final String payloadHash = payloadHash(payload);
 
         final OffsetDateTime now = OffsetDateTime.now();
-        int enqueued = 0;
 
+        // ON CONFLICT DO UPDATE no admite tocar la misma fila dos veces en un statement.
+        Set<String> distinctUserIds = new LinkedHashSet<>();
         for (UserDetailDto u : users) {
-            final String userId = u.getUser().getId().toString();
-
-            // UPSERT idempotente: refresca el payload incluso cuando un job anterior quedó DONE/DEAD
-            // o cuando llega un payload nuevo mientras el job actual está PROCESSING.
-            int inserted = repository.upsertPending(
-                    UUID.randomUUID(),
-                    originId,
-                    userId,
-                    action.name(),
-                    CopyJobStatus.PENDING.name(),
-                    0,
-                    now,
-                    payload,
-                    CopyJobErrorCategory.NONE.name(),
-                    now,
-                    now
-            );
-
-            if (inserted == 1) {
-                enqueued++;
-            }
+            distinctUserIds.add(u.getUser().getId().toString());
+        }
+
+        List<String> userIds = new ArrayList<>(distinctUserIds);
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update(INSERT_SHARED_PAYLOAD_SQL, payloadHash, payload);
+        int chunkSize = Math.max(1, enqueueChunkSize);
+        int enqueued = 0;
+        for (int from = 0; from < userIds.size(); from += chunkSize) {
+            List<String> chunk = userIds.subList(from, Math.min(userIds.size(), from + chunkSize));
+            enqueued += upsertPendingChunk(originId, chunk, action, payloadHash, now);
+        }
+
+        if (enqueued > 0) {
+            jdbcTemplate.query(NOTIFY_READY_SQL, rs -> null, action.name());
         }
 
+        log.debug("event=copy.job.enqueued_bulk originId={} action={} users={} enqueued={} chunkSize={} payloadHash={}",
+                originId, action, userIds.size(), enqueued, chunkSize, payloadHash);
         return enqueued;
     }
 
@@ -108,6 +218,9 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
         if (claimed == null || claimed.isEmpty()) {
             return List.of();
         }
+        // RETURNING no garantiza orden; los carriles por usuario ejecutan en el orden entregado.
+        claimed.sort(CLAIM_ORDER);
+        resolveSharedPayloads(claimed);
 
         log.debug("event=copy.job.claimed_atomic workerId={} count={} limit={}", safeWorkerId, claimed.size(), limit);
         return claimed;
@@ -121,6 +234,7 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
 
         final int markedDone = repository.markDoneIfPayloadUnchanged(
                 job.getId(),
+                job.getPayloadHash(),
                 job.getPayload(),
                 job.getAttempt(),
                 none,
@@ -133,6 +247,7 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
 
         final int requeued = repository.requeueDoneWhenPayloadChanged(
                 job.getId(),
+                job.getPayloadHash(),
                 job.getPayload(),
                 none,
                 now
@@ -170,6 +285,76 @@ public class CopyExecutionJobServiceImpl implements CopyExecutionJobService {
         return repository.requeueStaleProcessing(threshold, OffsetDateTime.now());
     }
 
+    @Override
+    @Transactional
+    public int purgeOrphanPayloads(OffsetDateTime createdBefore, int limit) {
+        return jdbcTemplate.update(PURGE_ORPHAN_PAYLOADS_SQL, createdBefore, Math.max(1, limit));
+    }
+
+    private void resolveSharedPayloads(List<CopyExecutionJobEntity> claimed) {
+        Set<String> hashes = new LinkedHashSet<>();
+        for (CopyExecutionJobEntity job : claimed) {
+            if (job.getPayload() == null && job.getPayloadHash() != null) {
+                hashes.add(job.getPayloadHash());
+            }
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+        Map<String, String> payloads = new HashMap<>();
+        jdbcTemplate.query(SELECT_SHARED_PAYLOADS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", hashes.toArray(String[]::new))),
+                (RowCallbackHandler) rs ->
+                        payloads.put(rs.getString("payload_hash"), rs.getString("payload")));
+        for (CopyExecutionJobEntity job : claimed) {
+            if (job.getPayload() == null && job.getPayloadHash() != null) {
+                job.setSharedPayload(payloads.get(job.getPayloadHash()));
+            }
+        }
+    }
+
+    static String payloadHash(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible para payload de copy_execution_job", ex);
+        }
+    }
+
+    private int upsertPendingChunk(String originId, List<String> userIds, CopyJobAction action, String payloadHash, OffsetDateTime now) {
+        UUID[] ids = new UUID[userIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        return jdbcTemplate.update(BULK_UPSERT_PENDING_SQL, ps -> bindBulkUpsert(
+                ps, originId, action.name(), now, payloadHash, CopyJobErrorCategory.NONE.name(),
+                ids, userIds.toArray(String[]::new)));
+    }
+
+    static void bindBulkUpsert(
+            PreparedStatement ps,
+            String originId,
+            String action,
+            OffsetDateTime now,
+            String payloadHash,
+            String errorCategory,
+            UUID[] ids,
+            String[] userIds
+    ) throws SQLException {
+        Array idArray = ps.getConnection().createArrayOf("uuid", ids);
+        Array userIdArray = ps.getConnection().createArrayOf("text", userIds);
+        ps.setString(1, originId);
+        ps.setString(2, action);
+        ps.setObject(3, now);
+        ps.setString(4, payloadHash);
+        ps.setString(5, errorCategory);
+        ps.setObject(6, now);
+        ps.setObject(7, now);
+        ps.setArray(8, idArray);
+        ps.setArray(9, userIdArray);
+    }
+
     private String serializeEvent(OperacionEvent event) {
         try {
             return objectMapper.writeValueAsString(event);
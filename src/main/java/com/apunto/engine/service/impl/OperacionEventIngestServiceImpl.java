@@ -277,9 +277,10 @@ public class OperacionEventIngestServiceImpl implements OperacionEventIngestServ
         }
 
         final List<UserCopyAllocationEntity> activeAllocations = userCopyAllocationService.getActiveAllocationsByWallet(walletId);
+        final CopyStrategyRuntimeRouter.RoutedEvent routedEvent = copyStrategyRuntimeRouter.routeEvent(action, deltaType, side, operation.getParSymbol());
         final Set<UUID> activeUserIds = activeAllocations.stream()
                 .filter(Objects::nonNull)
-                .filter(a -> copyStrategyRuntimeRouter.allocationAppliesToEvent(a, action, deltaType, side, operation.getParSymbol()))
+                .filter(routedEvent::admits)
                 .filter(a -> !requiresCopyHealthGuard(action, deltaType)
                         || metricWalletService.isCopyStrategyHealthyForCopy(a.getWalletId(), a.getCopyStrategyCode()))
                 .map(UserCopyAllocationEntity::getIdUser)
@@ -10,6 +10,8 @@ import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
 import com.apunto.engine.hyperliquid.model.HyperliquidDeltaType;
 import com.apunto.engine.repository.OperationMovementEventRepository;
 import com.apunto.engine.service.movement.AuthoritativeMovementIdentity;
+import com.apunto.engine.service.movement.MovementEconomicOrder;
+import com.apunto.engine.service.movement.OperationMovementBatchStore;
 import com.apunto.engine.outbox.service.MetricMovementOutboxService;
 import com.apunto.engine.outbox.exception.MetricOutboxHashException;
 import com.apunto.engine.outbox.exception.MetricOutboxSerializationException;
@@ -25,6 +27,7 @@ import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -42,12 +45,15 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -75,7 +81,9 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
     private final MetricMovementOutboxService metricMovementOutboxService;
     private final TransactionTemplate transactionTemplate;
     private final MeterRegistry meterRegistry;
+    private final OperationMovementBatchStore batchStore;
     private final boolean enabled;
+    private final int batchSize;
     private final BlockingQueue<QueuedMovement> queue;
     private final ExecutorService workers;
     private final AtomicBoolean running = new AtomicBoolean(false);
@@ -92,21 +100,40 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
             MetricMovementOutboxService metricMovementOutboxService,
             PlatformTransactionManager transactionManager,
             MeterRegistry meterRegistry,
+            boolean enabled,
+            int workerThreads,
+            int queueCapacity
+    ) {
+        this(repository, objectMapper, metricMovementOutboxService, transactionManager, meterRegistry, null,
+                enabled, workerThreads, queueCapacity, 1);
+    }
+
+    @Autowired
+    public OperationMovementEventServiceImpl(
+            OperationMovementEventRepository repository,
+            ObjectMapper objectMapper,
+            MetricMovementOutboxService metricMovementOutboxService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            OperationMovementBatchStore batchStore,
             @Value("${operation.movement-ledger.enabled:true}") boolean enabled,
             @Value("${operation.movement-ledger.worker-threads:2}") int workerThreads,
-            @Value("${operation.movement-ledger.queue-capacity:20000}") int queueCapacity
+            @Value("${operation.movement-ledger.queue-capacity:20000}") int queueCapacity,
+            @Value("${operation.movement-ledger.batch-size:128}") int batchSize
     ) {
         this.repository = repository;
         this.objectMapper = objectMapper;
         this.metricMovementOutboxService = metricMovementOutboxService;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.meterRegistry = meterRegistry;
+        this.batchStore = batchStore;
         this.enabled = enabled;
+        this.batchSize = batchStore == null ? 1 : Math.max(1, batchSize);
         this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
         this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), new NamedThreadFactory("operation-movement-ledger-"));
         registerMetrics();
-        log.info("event=operation_movement_event.config category=audit enabled={} workerThreads={} queueCapacity={}",
-                enabled, Math.max(1, workerThreads), Math.max(1, queueCapacity));
+        log.info("event=operation_movement_event.config category=audit enabled={} workerThreads={} queueCapacity={} batchSize={}",
+                enabled, Math.max(1, workerThreads), Math.max(1, queueCapacity), this.batchSize);
     }
 
     @PostConstruct
@@ -179,9 +206,16 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
     private void workerLoop() {
         activeWorkers.incrementAndGet();
         try {
+            List<QueuedMovement> batch = new ArrayList<>();
             while (running.get() || !queue.isEmpty()) {
-                QueuedMovement task = queue.take();
-                persistSafely(task);
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                if (batch.size() == 1) {
+                    persistSafely(batch.getFirst());
+                } else {
+                    persistBatchSafely(batch);
+                }
+                batch.clear();
             }
         } catch (InterruptedException interrupted) {
             Thread.currentThread().interrupt();
@@ -217,11 +251,7 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
             repository.lockEconomicPosition(command.getPositionKey());
         }
         if (repository.existsByMovementKeyInGuard(command.getMovementKey())) {
-            skipped.incrementAndGet();
-            log.info("event=operation_movement_event.idempotent category=audit reasonCode=movement_already_recorded reasonAlias=movement_already_recorded friendlyReason=movimiento_ya_registrado explanation=movementKey_ya_existia_en_guard_y_no_se_duplica copyImpact=ledger_idempotent traceId={} originId={} wallet={} symbol={} deltaType={} movementKey={} source={} sourceCategory={} metricEligible={} {}",
-                    safe(command.getTraceId()), safe(asString(command.getIdOrderOrigin())), safe(command.getIdWalletOrigin()), safe(command.getParsymbol()),
-                    safe(command.getDeltaType()), safe(command.getMovementKey()), sourceForLog(command.getSource()), sourceCategory(command.getSource()), metricEligible(command.getSource()),
-                    CopyLogAdvice.fields("movement_already_recorded", CopyLogAdvice.context(null, null, null, null, queue.size(), null, null, "operation_movement_event")));
+            alreadyRecorded(command);
             return;
         }
 
@@ -229,6 +259,133 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
         OperationMovementEventEntity entity = toEntity(command, previous);
         repository.saveAndFlush(entity);
         metricMovementOutboxService.enqueue(entity);
+        recorded(entity, acceptedNs, startedNs);
+    }
+
+    /**
+     * Group-commit: el lote drenado de la cola se escribe en una transacción con una sentencia por
+     * paso (guard de dedupe, locks, último movimiento por posición, insert de movimientos e insert
+     * del outbox). Si el lote falla se revierte entero y cada movimiento se reprocesa solo por
+     * {@link #persistSafely}, con el mismo manejo de duplicados y errores que antes.
+     */
+    private void persistBatchSafely(List<QueuedMovement> batch) {
+        long startedNs = System.nanoTime();
+        BatchOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> persistBatch(batch));
+        } catch (MetricOutboxSerializationException | MetricOutboxHashException
+                 | DataAccessException | IllegalStateException | IllegalArgumentException ex) {
+            batchFailed(batch, startedNs, ex);
+            return;
+        }
+        meterRegistry.timer("signals.operation_movement_event.batch.commit.duration", "result", "committed")
+                .record(Duration.ofNanos(System.nanoTime() - startedNs));
+        meterRegistry.summary("signals.operation_movement_event.batch.size").record(batch.size());
+        for (QueuedMovement task : outcome.duplicates()) {
+            try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", safeTraceId(task.command()))) {
+                alreadyRecorded(task.command());
+            }
+        }
+        for (WrittenMovement movement : outcome.written()) {
+            try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", safeTraceId(movement.task().command()))) {
+                recorded(movement.entity(), movement.task().acceptedNs(), startedNs);
+            }
+        }
+        for (QueuedMovement task : outcome.deferred()) {
+            persistSafely(task);
+        }
+    }
+
+    private BatchOutcome persistBatch(List<QueuedMovement> batch) {
+        Set<String> seen = new HashSet<>(batchStore.recordedMovementKeys(
+                batch.stream().map(task -> task.command().getMovementKey()).distinct().toList()));
+        List<QueuedMovement> duplicates = new ArrayList<>();
+        List<QueuedMovement> deferred = new ArrayList<>();
+        Map<String, List<QueuedMovement>> byPosition = new LinkedHashMap<>();
+        for (QueuedMovement task : batch) {
+            OperationMovementEventRecordCommand command = task.command();
+            if (!seen.add(command.getMovementKey())) {
+                duplicates.add(task);
+            } else if (StringUtils.hasText(command.getPositionKey())) {
+                byPosition.computeIfAbsent(command.getPositionKey(), ignored -> new ArrayList<>()).add(task);
+            } else {
+                deferred.add(task);
+            }
+        }
+        List<WrittenMovement> written = new ArrayList<>();
+        if (!byPosition.isEmpty()) {
+            batchStore.lockPositions(byPosition.keySet());
+            Map<String, OperationMovementEventEntity> latest = new HashMap<>();
+            for (OperationMovementEventEntity entity : repository.findLatestByEconomicOrder(byPosition.keySet())) {
+                latest.put(entity.getPositionKey(), entity);
+            }
+            for (Map.Entry<String, List<QueuedMovement>> position : byPosition.entrySet()) {
+                OperationMovementEventEntity previous = latest.get(position.getKey());
+                String fallbackReason = inMemoryChainFallback(position.getValue(), previous);
+                if (fallbackReason != null) {
+                    meterRegistry.counter("signals.operation_movement_event.batch.fallback.total", "reason", fallbackReason).increment();
+                    deferred.addAll(position.getValue());
+                    continue;
+                }
+                for (QueuedMovement task : position.getValue()) {
+                    OperationMovementEventEntity entity = toEntity(task.command(), previous);
+                    written.add(new WrittenMovement(task, entity));
+                    previous = entity;
+                }
+            }
+        }
+        List<OperationMovementEventEntity> entities = written.stream().map(WrittenMovement::entity).toList();
+        batchStore.insertAll(entities);
+        metricMovementOutboxService.enqueueAll(entities);
+        return new BatchOutcome(duplicates, written, deferred);
+    }
+
+    /**
+     * El anterior de cada movimiento se toma del lote solo si coincide con lo que devolvería
+     * {@code findPreviousByEconomicOrder}: todos traen orden económico completo, llegaron en orden
+     * creciente y el primero va después del último movimiento guardado de la posición. Si no,
+     * devuelve el motivo y la posición se procesa movimiento por movimiento.
+     */
+    private String inMemoryChainFallback(List<QueuedMovement> tasks, OperationMovementEventEntity latest) {
+        MovementEconomicOrder last = latest == null || latest.getEventTime() == null
+                ? null
+                : new MovementEconomicOrder(latest.getEventTime(), latest.getSourceSequence(), latest.getMovementKey());
+        for (QueuedMovement task : tasks) {
+            OperationMovementEventRecordCommand command = task.command();
+            if (command.getEventTime() == null
+                    || command.getSourceSequence() == null
+                    || !StringUtils.hasText(command.getMovementKey())) {
+                return "economic_order_missing";
+            }
+            MovementEconomicOrder order = new MovementEconomicOrder(
+                    command.getEventTime(), command.getSourceSequence(), command.getMovementKey());
+            if (last != null && order.compareTo(last) <= 0) {
+                return "out_of_order";
+            }
+            last = order;
+        }
+        return null;
+    }
+
+    private void batchFailed(List<QueuedMovement> batch, long startedNs, RuntimeException ex) {
+        meterRegistry.timer("signals.operation_movement_event.batch.commit.duration", "result", "rolled_back")
+                .record(Duration.ofNanos(System.nanoTime() - startedNs));
+        log.warn("event=operation_movement_event.batch_failed category=audit reasonCode=ledger_batch_rolled_back decision=REPLAY_PER_MOVEMENT copyImpact=copy_not_blocked batchSize={} errClass={} errMsg=\"{}\" elapsedMs={} queueDepth={}",
+                batch.size(), ex.getClass().getSimpleName(), safe(ex.getMessage()), elapsedMs(startedNs), queue.size());
+        for (QueuedMovement task : batch) {
+            persistSafely(task);
+        }
+    }
+
+    private void alreadyRecorded(OperationMovementEventRecordCommand command) {
+        skipped.incrementAndGet();
+        log.info("event=operation_movement_event.idempotent category=audit reasonCode=movement_already_recorded reasonAlias=movement_already_recorded friendlyReason=movimiento_ya_registrado explanation=movementKey_ya_existia_en_guard_y_no_se_duplica copyImpact=ledger_idempotent traceId={} originId={} wallet={} symbol={} deltaType={} movementKey={} source={} sourceCategory={} metricEligible={} {}",
+                safe(command.getTraceId()), safe(asString(command.getIdOrderOrigin())), safe(command.getIdWalletOrigin()), safe(command.getParsymbol()),
+                safe(command.getDeltaType()), safe(command.getMovementKey()), sourceForLog(command.getSource()), sourceCategory(command.getSource()), metricEligible(command.getSource()),
+                CopyLogAdvice.fields("movement_already_recorded", CopyLogAdvice.context(null, null, null, null, queue.size(), null, null, "operation_movement_event")));
+    }
+
+    private void recorded(OperationMovementEventEntity entity, long acceptedNs, long startedNs) {
         persisted.incrementAndGet();
         String entitySource = sourceForLog(entity.getSource());
         String entitySourceCategory = sourceCategory(entity.getSource());
@@ -1189,6 +1346,12 @@ public class OperationMovementEventServiceImpl implements OperationMovementEvent
     ) {
     }
 
+    private record WrittenMovement(QueuedMovement task, OperationMovementEventEntity entity) {
+    }
+
+    private record BatchOutcome(List<QueuedMovement> duplicates, List<WrittenMovement> written, List<QueuedMovement> deferred) {
+    }
+
     private record QueuedMovement(OperationMovementEventRecordCommand command, long acceptedNs) {
     }
 
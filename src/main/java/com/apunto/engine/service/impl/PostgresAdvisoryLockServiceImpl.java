@@ -4,9 +4,10 @@ import com.apunto.engine.service.DistributedLockService;
 import com.apunto.engine.shared.exception.EngineException;
 import com.apunto.engine.shared.exception.ErrorCode;
 import com.apunto.engine.shared.exception.SkipExecutionException;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.apunto.engine.shared.util.LogFmt;
 import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
@@ -16,17 +17,48 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
+/**
+ * Lock distribuido con advisory locks de sesión de PostgreSQL.
+ *
+ * <p>Los waiters de la misma réplica esperan en un lock local por key, sin conexión. Solo el
+ * primero en la cola toma una conexión del sub-pool de locks y espera en PostgreSQL con
+ * {@code lock_timeout}, así que la entrega entre réplicas no depende de un polling. Al terminar,
+ * si hay otro waiter local el lock de PostgreSQL se le entrega tal cual, hasta
+ * {@code max-local-handoffs} veces seguidas para no dejar sin turno a otras réplicas.</p>
+ */
 @Slf4j
 @Service
 @ConditionalOnProperty(name = "engine.copy.lock.provider", havingValue = "postgres")
-@RequiredArgsConstructor
 public class PostgresAdvisoryLockServiceImpl implements DistributedLockService {
 
-    private static final long DEFAULT_RETRY_DELAY_MS = 50L;
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
 
     private final DataSource dataSource;
+    private final Semaphore lockConnections;
+    private final int maxConnections;
+    private final int maxLocalHandoffs;
+    private final ConcurrentMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    public PostgresAdvisoryLockServiceImpl(
+            DataSource dataSource,
+            @Value("${engine.copy.lock.postgres.max-connections:16}") int maxConnections,
+            @Value("${engine.copy.lock.postgres.max-local-handoffs:16}") int maxLocalHandoffs
+    ) {
+        this.dataSource = dataSource;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.lockConnections = new Semaphore(this.maxConnections, true);
+        this.maxLocalHandoffs = Math.max(0, maxLocalHandoffs);
+        Metrics.gauge("position_lock_connections_in_use", lockConnections,
+                s -> this.maxConnections - s.availablePermits());
+        Metrics.gauge("position_lock_keys_active", locks, ConcurrentMap::size);
+    }
 
     @Override
     public <T> T withLock(String key, Duration maxWait, Supplier<T> action) {
@@ -42,53 +74,132 @@ public class PostgresAdvisoryLockServiceImpl implements DistributedLockService {
             throw new SkipExecutionException(
                     "lock_action_null",
                     "Acción del lock es null",
-                    com.apunto.engine.shared.util.LogFmt.kv("key", key)
+                    LogFmt.kv("key", key)
             );
         }
 
         final long waitMs = maxWait == null ? 0L : Math.max(0L, maxWait.toMillis());
-        final long deadline = System.currentTimeMillis() + waitMs;
-
-        while (true) {
-            try (Connection con = dataSource.getConnection()) {
-                if (tryLock(con, key)) {
-                    Metrics.timer(
-                            "position_lock_wait_duration",
-                            "result", "acquired"
-                    ).record(
-                            System.nanoTime() - waitStartedNs,
-                            java.util.concurrent.TimeUnit.NANOSECONDS);
-                    try {
-                        return action.get();
-                    } finally {
-                        unlockQuietly(con, key);
-                    }
+        final long deadlineNs = waitStartedNs + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        final KeyLock entry = locks.compute(key, (k, existing) -> {
+            KeyLock value = existing == null ? new KeyLock() : existing;
+            value.users++;
+            return value;
+        });
+        boolean locallyHeld = false;
+        boolean reentrant = false;
+        try {
+            locallyHeld = entry.local.tryLock(waitMs, TimeUnit.MILLISECONDS);
+            if (!locallyHeld) {
+                recordWait(waitStartedNs, "timeout");
+                throw lockTimeout(key, waitMs);
+            }
+            reentrant = entry.local.getHoldCount() > 1;
+            if (reentrant) {
+                // Mismo hilo, misma key: la sesión de PostgreSQL ya es nuestra.
+                return action.get();
+            }
+            String result = "handoff";
+            if (entry.connection == null) {
+                acquirePostgres(entry, key, deadlineNs, waitStartedNs, waitMs);
+                result = "acquired";
+            } else {
+                entry.handoffs++;
+            }
+            recordWait(waitStartedNs, result);
+            return action.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            recordWait(waitStartedNs, "interrupted");
+            throw new SkipExecutionException(
+                    "lock_interrupted",
+                    "Interrumpido esperando advisory lock",
+                    LogFmt.kv("key", key)
+            );
+        } finally {
+            if (reentrant) {
+                entry.local.unlock();
+            } else {
+                if (locallyHeld) {
+                    releaseOrHandOff(entry, key);
                 }
-            } catch (SQLException e) {
-                Metrics.timer(
-                        "position_lock_wait_duration",
-                        "result", "error"
-                ).record(
-                        System.nanoTime() - waitStartedNs,
-                        java.util.concurrent.TimeUnit.NANOSECONDS);
-                throw new EngineException(ErrorCode.EXTERNAL_SERVICE_ERROR, "DB lock error: " + e.getMessage());
+                releaseIfAbandoned(entry, key);
             }
+            locks.computeIfPresent(key, (k, existing) -> --existing.users == 0 ? null : existing);
+        }
+    }
 
-            if (System.currentTimeMillis() >= deadline) {
-                Metrics.timer(
-                        "position_lock_wait_duration",
-                        "result", "timeout"
-                ).record(
-                        System.nanoTime() - waitStartedNs,
-                        java.util.concurrent.TimeUnit.NANOSECONDS);
-                throw new SkipExecutionException(
-                        "lock_timeout",
-                        "Timeout esperando advisory lock",
-                        com.apunto.engine.shared.util.LogFmt.kv("key", key, "maxWaitMs", waitMs)
-                );
+    private void acquirePostgres(KeyLock entry, String key, long deadlineNs, long waitStartedNs, long waitMs)
+            throws InterruptedException {
+        if (!lockConnections.tryAcquire(Math.max(0L, deadlineNs - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+            recordWait(waitStartedNs, "timeout");
+            throw new SkipExecutionException(
+                    "lock_connection_timeout",
+                    "Timeout esperando conexión del sub-pool de advisory locks",
+                    LogFmt.kv("key", key, "maxWaitMs", waitMs, "maxConnections", maxConnections)
+            );
+        }
+        Connection con = null;
+        try {
+            con = dataSource.getConnection();
+            if (!lockSession(con, key, deadlineNs)) {
+                recordWait(waitStartedNs, "timeout");
+                throw lockTimeout(key, waitMs);
+            }
+            entry.connection = con;
+            entry.heldSinceNs = System.nanoTime();
+            entry.handoffs = 0;
+        } catch (SQLException e) {
+            recordWait(waitStartedNs, "error");
+            throw new EngineException(ErrorCode.EXTERNAL_SERVICE_ERROR, "DB lock error: " + e.getMessage());
+        } finally {
+            if (entry.connection == null) {
+                closeQuietly(con, key);
+                lockConnections.release();
             }
+        }
+    }
 
-            sleep(DEFAULT_RETRY_DELAY_MS);
+    /**
+     * Espera el advisory lock en el servidor hasta el deadline. {@code lock_timeout = 0} significa
+     * sin límite, así que sin tiempo restante se usa el intento no bloqueante.
+     */
+    private boolean lockSession(Connection con, String key, long deadlineNs) throws SQLException {
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadlineNs - System.nanoTime());
+        if (remainingMs <= 0L) {
+            return tryLock(con, key);
+        }
+        try (PreparedStatement ps = con.prepareStatement("SELECT set_config('lock_timeout', ?, false)")) {
+            ps.setString(1, remainingMs + "ms");
+            ps.execute();
+        }
+        boolean acquired = false;
+        try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_lock(hashtext(?))")) {
+            ps.setString(1, key);
+            ps.execute();
+            acquired = true;
+        } catch (SQLException e) {
+            if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+                resetLockTimeoutQuietly(con, key);
+                throw e;
+            }
+        }
+        // La conexión vuelve al pool compartido: no debe llevarse el lock_timeout.
+        try (PreparedStatement ps = con.prepareStatement("RESET lock_timeout")) {
+            ps.execute();
+        } catch (SQLException e) {
+            if (acquired) {
+                unlockQuietly(con, key);
+            }
+            throw e;
+        }
+        return acquired;
+    }
+
+    private void resetLockTimeoutQuietly(Connection con, String key) {
+        try (PreparedStatement ps = con.prepareStatement("RESET lock_timeout")) {
+            ps.execute();
+        } catch (SQLException e) {
+            log.warn("event=lock.reset_timeout.failed key={} err={}", key, e.toString());
         }
     }
 
@@ -101,6 +212,54 @@ public class PostgresAdvisoryLockServiceImpl implements DistributedLockService {
         }
     }
 
+    /** Se llama con el lock local tomado. */
+    private void releaseOrHandOff(KeyLock entry, String key) {
+        try {
+            if (entry.connection != null
+                    && (!entry.local.hasQueuedThreads() || entry.handoffs >= maxLocalHandoffs)) {
+                releasePostgres(entry, key);
+            }
+        } finally {
+            entry.local.unlock();
+        }
+    }
+
+    /**
+     * Si se decidió entregar el lock pero el waiter se fue por timeout, nadie lo liberaría.
+     * Tanto el holder al salir como cada waiter que abandona revisan esto; el último en actuar
+     * encuentra el lock local libre y la cola vacía.
+     */
+    private void releaseIfAbandoned(KeyLock entry, String key) {
+        if (entry.connection == null || entry.local.hasQueuedThreads() || !entry.local.tryLock()) {
+            return;
+        }
+        try {
+            if (entry.connection != null && !entry.local.hasQueuedThreads()) {
+                releasePostgres(entry, key);
+            }
+        } finally {
+            entry.local.unlock();
+        }
+    }
+
+    private void releasePostgres(KeyLock entry, String key) {
+        Connection con = entry.connection;
+        entry.connection = null;
+        try {
+            unlockQuietly(con, key);
+        } finally {
+            Metrics.timer("position_lock_connection_hold_duration", "namespace", namespace(key))
+                    .record(System.nanoTime() - entry.heldSinceNs, TimeUnit.NANOSECONDS);
+            if (entry.handoffs > 0) {
+                Metrics.counter("position_lock_local_handoff_total", "namespace", namespace(key))
+                        .increment(entry.handoffs);
+            }
+            entry.handoffs = 0;
+            closeQuietly(con, key);
+            lockConnections.release();
+        }
+    }
+
     private void unlockQuietly(Connection con, String key) {
         try (PreparedStatement ps = con.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
             ps.setString(1, key);
@@ -110,16 +269,45 @@ public class PostgresAdvisoryLockServiceImpl implements DistributedLockService {
         }
     }
 
-    private void sleep(long ms) {
+    private void closeQuietly(Connection con, String key) {
+        if (con == null) {
+            return;
+        }
         try {
-            Thread.sleep(ms);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new SkipExecutionException(
-                    "lock_interrupted",
-                    "Interrumpido esperando advisory lock",
-                    null
-            );
+            con.close();
+        } catch (SQLException e) {
+            log.warn("event=lock.connection_close.failed key={} err={}", key, e.toString());
         }
     }
+
+    private SkipExecutionException lockTimeout(String key, long waitMs) {
+        return new SkipExecutionException(
+                "lock_timeout",
+                "Timeout esperando advisory lock",
+                LogFmt.kv("key", key, "maxWaitMs", waitMs)
+        );
+    }
+
+    private void recordWait(long waitStartedNs, String result) {
+        Metrics.timer(
+                "position_lock_wait_duration",
+                "result", result
+        ).record(System.nanoTime() - waitStartedNs, TimeUnit.NANOSECONDS);
+    }
+
+    /** Prefijo de la key ({@code copy-user-symbol-lock::...}); acota la cardinalidad del tag. */
+    static String namespace(String key) {
+        int separator = key.indexOf("::");
+        return separator > 0 ? key.substring(0, separator) : "other";
+    }
+
+    private static final class KeyLock {
+        private final ReentrantLock local = new ReentrantLock(true);
+        // Protegido por el compute del mapa.
+        private int users;
+        // Protegidos por local; volatile porque releaseIfAbandoned los lee antes de tomarlo.
+        private volatile Connection connection;
+        private long heldSinceNs;
+        private int handoffs;
+    }
 }
@@ -51,6 +51,7 @@ import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -70,6 +71,16 @@ public class ShadowCopyTradingServiceImpl implements ShadowCopyTradingService {
 
     private static final BigDecimal ZERO = BigDecimal.ZERO;
     private static final ThreadLocal<CopyFlowTiming> SHADOW_FLOW_TIMING = new ThreadLocal<>();
+    private static final ThreadLocal<ShadowBatchScope> SHADOW_BATCH = new ThreadLocal<>();
+
+    /**
+     * Estado de un lote transaccional de eventos shadow: perfiles por wallet y advisory locks ya
+     * tomados en la transacción del lote, para no repetir la consulta ni el lock en cada evento.
+     */
+    private static final class ShadowBatchScope {
+        private final Map<String, List<ShadowCopyAllocationEntity>> representativesByWallet = new HashMap<>();
+        private final Set<String> lockedProfileKeys = new HashSet<>();
+    }
 
     private record ShadowProfileRoutingDecision(
             ShadowCopyAllocationEntity allocation,
@@ -669,6 +680,42 @@ public class ShadowCopyTradingServiceImpl implements ShadowCopyTradingService {
         return recordShadowEvent(event, 0L);
     }
 
+    /**
+     * Aplica los eventos de una lane en una sola transacción. Los advisory locks de todos los
+     * perfiles del lote se toman antes del primer evento, ordenados globalmente, para que dos
+     * instancias drenando la misma wallet no se bloqueen en orden cruzado. Si un evento falla se
+     * revierte el lote completo y el llamador lo reprocesa evento por evento.
+     */
+    @Override
+    @Transactional
+    public int[] recordShadowEvents(List<ShadowEventInput> events) {
+        if (events == null || events.isEmpty()) {
+            return new int[0];
+        }
+        ShadowBatchScope previous = SHADOW_BATCH.get();
+        SHADOW_BATCH.set(new ShadowBatchScope());
+        try {
+            if (separateShadowEnabled) {
+                lockShadowProfileMutations(events.stream()
+                        .filter(Objects::nonNull)
+                        .flatMap(input -> applicableProfileMutationKeys(input.event()).stream())
+                        .toList());
+            }
+            int[] recorded = new int[events.size()];
+            for (int i = 0; i < events.size(); i++) {
+                ShadowEventInput input = events.get(i);
+                recorded[i] = recordShadowEvent(input.event(), input.eventReceivedNs());
+            }
+            return recorded;
+        } finally {
+            if (previous == null) {
+                SHADOW_BATCH.remove();
+            } else {
+                SHADOW_BATCH.set(previous);
+            }
+        }
+    }
+
     @Override
     @Transactional
     public int recordShadowEvent(OperacionEvent event, long eventReceivedNs) {
@@ -697,22 +744,9 @@ public class ShadowCopyTradingServiceImpl implements ShadowCopyTradingService {
                     originId, walletId, operation.getParSymbol(), side, action, deltaType);
             return 0;
         }
-        List<ShadowProfileRoutingDecision> routingDecisions = allocations.stream()
-                .map(allocation -> {
-                    boolean applicable = copyStrategyRuntimeRouter.strategyCodeAppliesToEvent(
-                            allocation.getCopyStrategyCode(), allocation.getScopeValue(), action, deltaType,
-                            side, operation.getParSymbol());
-                    String filterReason = applicable ? null : profileFilterReason(
-                            allocation.getCopyStrategyCode(), allocation.getScopeValue(), action, deltaType,
-                            side, operation.getParSymbol());
-                    return new ShadowProfileRoutingDecision(allocation, applicable, filterReason);
-                })
-                .toList();
-        lockShadowProfileMutations(routingDecisions.stream()
-                .filter(ShadowProfileRoutingDecision::applicable)
-                .map(ShadowProfileRoutingDecision::allocation)
-                .map(this::shadowMutationKey)
-                .toList());
+        List<ShadowProfileRoutingDecision> routingDecisions = routeShadowProfiles(
+                allocations, action, deltaType, side, operation.getParSymbol());
+        lockShadowProfileMutations(applicableMutationKeys(routingDecisions));
 
         int recorded = 0;
         int filtered = 0;
@@ -740,7 +774,63 @@ public class ShadowCopyTradingServiceImpl implements ShadowCopyTradingService {
         return recorded;
     }
 
+    private List<ShadowProfileRoutingDecision> routeShadowProfiles(
+            List<ShadowCopyAllocationEntity> allocations,
+            CopyJobAction action,
+            HyperliquidDeltaType deltaType,
+            String side,
+            String symbol
+    ) {
+        CopyStrategyRuntimeRouter.RoutedEvent routedEvent = copyStrategyRuntimeRouter.routeEvent(
+                action, deltaType, side, symbol);
+        return allocations.stream()
+                .map(allocation -> {
+                    boolean applicable = routedEvent.admits(allocation.getCopyStrategyCode(), allocation.getScopeValue());
+                    String filterReason = applicable ? null : profileFilterReason(
+                            allocation.getCopyStrategyCode(), allocation.getScopeValue(), action, deltaType,
+                            side, symbol);
+                    return new ShadowProfileRoutingDecision(allocation, applicable, filterReason);
+                })
+                .toList();
+    }
+
+    private List<String> applicableMutationKeys(List<ShadowProfileRoutingDecision> routingDecisions) {
+        return routingDecisions.stream()
+                .filter(ShadowProfileRoutingDecision::applicable)
+                .map(ShadowProfileRoutingDecision::allocation)
+                .map(this::shadowMutationKey)
+                .toList();
+    }
+
+    /** Mismo ruteo que {@link #recordShadowEvent(OperacionEvent, long)}, sin logs ni escrituras. */
+    private List<String> applicableProfileMutationKeys(OperacionEvent event) {
+        if (event == null || event.getOperacion() == null) {
+            return List.of();
+        }
+        OperacionDto operation = event.getOperacion();
+        String walletId = normalizeWallet(operation.getIdCuenta());
+        if (walletId == null || normalizeSymbol(operation.getParSymbol()) == null || operation.getIdOperacion() == null) {
+            return List.of();
+        }
+        List<ShadowCopyAllocationEntity> allocations = runtimeProfileRepresentatives(walletId);
+        if (allocations.isEmpty()) {
+            return List.of();
+        }
+        CopyJobAction action = event.getTipo() == OperacionEvent.Tipo.CERRADA ? CopyJobAction.CLOSE : CopyJobAction.OPEN;
+        String side = operation.getTipoOperacion() == null ? null : operation.getTipoOperacion().name();
+        return applicableMutationKeys(routeShadowProfiles(
+                allocations, action, HyperliquidDeltaType.from(event.getDeltaType()), side, operation.getParSymbol()));
+    }
+
     private List<ShadowCopyAllocationEntity> runtimeProfileRepresentatives(String walletId) {
+        ShadowBatchScope batch = SHADOW_BATCH.get();
+        if (batch != null) {
+            return batch.representativesByWallet.computeIfAbsent(walletId, this::queryRuntimeProfileRepresentatives);
+        }
+        return queryRuntimeProfileRepresentatives(walletId);
+    }
+
+    private List<ShadowCopyAllocationEntity> queryRuntimeProfileRepresentatives(String walletId) {
         List<ShadowCopyAllocationEntity> queried = shadowAllocationRepository.findRuntimeProfileRepresentativesByWallet(walletId);
         if (queried == null || queried.isEmpty()) {
             return List.of();
@@ -786,12 +876,14 @@ public class ShadowCopyTradingServiceImpl implements ShadowCopyTradingService {
 
     private void lockShadowProfileMutations(List<String> rawKeys) {
         if (rawKeys == null || rawKeys.isEmpty()) return;
+        ShadowBatchScope batch = SHADOW_BATCH.get();
         rawKeys.stream()
                 .filter(Objects::nonNull)
                 .map(String::trim)
                 .filter(key -> !key.isBlank())
                 .distinct()
                 .sorted()
+                .filter(key -> batch == null || batch.lockedProfileKeys.add(key))
                 .forEach(key -> shadowEventRepository.lockShadowProfileMutation("shadow-profile:" + key));
     }
 
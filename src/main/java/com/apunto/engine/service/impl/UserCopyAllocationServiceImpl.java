@@ -13,6 +13,7 @@ import com.apunto.engine.service.copy.allocation.LiveAllocationDistributionEntry
 import com.apunto.engine.service.copy.allocation.LiveAllocationDistributionPublication;
 import com.apunto.engine.service.copy.allocation.LiveAllocationDistributionPublisher;
 import com.apunto.engine.service.copy.allocation.PostgresLiveAllocationDistributionService;
+import com.apunto.engine.service.copy.concurrency.PostgresDeadlockRetryExecutor;
 import com.apunto.engine.service.copy.distribution.CopyDistributionUnitExecutor;
 import com.apunto.engine.service.copy.distribution.CopyDistributionUnitExecutor.UnitMutationResult;
 import com.apunto.engine.service.copy.promotion.UserCopyAllocationCopyModeResolver;
@@ -22,6 +23,7 @@ import com.apunto.engine.service.copy.symbol.CopySymbolResolver;
 import com.apunto.engine.shared.enums.FuturesCapitalAsset;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +31,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -47,8 +50,18 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -87,6 +100,15 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
     @Value("${metric-wallet.allocation.direct-live-policy:REQUIRE_MICRO_LIVE}")
     private String directLivePolicy;
 
+    @Value("${metric-wallet.allocation.sync-parallelism:4}")
+    private int syncParallelism = 4;
+
+    @Value("${metric-wallet.allocation.sync-deadline:PT90S}")
+    private Duration syncDeadline = Duration.ofSeconds(90);
+
+    /** Usuarios que quedaron sin sincronizar al vencer el deadline; encabezan el siguiente ciclo. */
+    private final Set<UUID> deferredSyncUsers = ConcurrentHashMap.newKeySet();
+
     private volatile Cache<String, List<UserCopyAllocationEntity>> activeByWalletCache;
     private volatile Cache<UUID, List<UserCopyAllocationEntity>> activeByUserCache;
     private volatile RuntimeAllocationSnapshot runtimeAllocationSnapshot = RuntimeAllocationSnapshot.empty();
@@ -94,6 +116,15 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
     @Value("${copy.runtime.allocation-snapshot.max-stale:PT30S}")
     private Duration runtimeAllocationMaxStale;
 
+    @Value("${copy.runtime.allocation-snapshot.incremental.enabled:true}")
+    private boolean runtimeAllocationIncremental = true;
+
+    @Value("${copy.runtime.allocation-snapshot.full-refresh:PT5M}")
+    private Duration runtimeAllocationFullRefresh;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     @PostConstruct
     void initRuntimeCaches() {
         Duration ttl = runtimeCacheTtl == null || runtimeCacheTtl.isNegative() || runtimeCacheTtl.isZero()
@@ -112,6 +143,10 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
                 .build();
         log.info("event=user_copy_allocation.runtime_cache.config ttlMs={} maxSize={} copyImpact=reduces_hot_path_db_reads",
                 ttl.toMillis(), maxSize);
+        if (meterRegistry != null) {
+            meterRegistry.gauge("copy_allocation_snapshot_age_seconds", this,
+                    UserCopyAllocationServiceImpl::runtimeAllocationSnapshotAgeSeconds);
+        }
     }
 
     @Override
@@ -144,260 +179,380 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
             return;
         }
 
+        runUserSyncs(users, user -> syncUser(user, liveSource, shadowSource, now));
+
+        invalidateRuntimeCaches("sync_distribution");
+    }
+
+    /**
+     * Sincroniza los usuarios en un pool acotado de {@code sync-parallelism} hilos. Cada usuario corre
+     * en un hilo del pool, así que sus transacciones por unidad nunca se unen a las de otro usuario ni
+     * a una transacción del llamador, y un fallo solo afecta a ese usuario. Vencido
+     * {@code sync-deadline} no se arrancan más usuarios: los que estaban en curso terminan (cortarlos a
+     * mitad dejaría la publicación de la distribución a medias) y los pendientes se difieren al
+     * siguiente ciclo, donde van primero.
+     */
+    private void runUserSyncs(List<UserDetailDto> users, Consumer<UserDetailDto> sync) {
+        final long startedNs = System.nanoTime();
+        final long deadlineNs = startedNs + syncDeadlineNanos();
+        final Queue<UserDetailDto> pending = new ConcurrentLinkedQueue<>(deferredFirst(users));
+        final int workers = Math.max(1, Math.min(syncParallelism, pending.size()));
+        final AtomicBoolean stopped = new AtomicBoolean();
+        final AtomicInteger synced = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        Runnable worker = () -> {
+            UserDetailDto user;
+            while (!stopped.get() && System.nanoTime() - deadlineNs < 0 && (user = pending.poll()) != null) {
+                if (syncUserIsolated(user, sync)) {
+                    synced.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+        };
+
+        if (workers == 1) {
+            worker.run();
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(workers,
+                    Thread.ofPlatform().name("user-allocation-sync-", 0).factory());
+            try {
+                List<Future<?>> running = new ArrayList<>(workers);
+                for (int i = 0; i < workers; i++) {
+                    running.add(pool.submit(worker));
+                }
+                for (Future<?> future : running) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                stopped.set(true);
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                log.error("event=user_copy_allocation.sync_worker_failed errClass={} errMsg=\"{}\"",
+                        ex.getCause().getClass().getSimpleName(), safeLog(ex.getCause().getMessage()));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        List<UUID> deferred = new ArrayList<>();
+        for (UserDetailDto user : pending) {
+            UUID idUser = user == null || user.getUser() == null ? null : user.getUser().getId();
+            if (idUser != null) deferred.add(idUser);
+        }
+        deferredSyncUsers.clear();
+        deferredSyncUsers.addAll(deferred);
+
+        long makespanNs = System.nanoTime() - startedNs;
+        recordUserSyncRun(synced.get(), failed.get(), deferred.size(), makespanNs);
+        if (!deferred.isEmpty()) {
+            log.warn("event=user_copy_allocation.sync_deferred reasonCode=ALLOCATION_SYNC_DEADLINE users={} synced={} failed={} deferred={} workers={} deadlineMs={} makespanMs={} sampleUserIds={} result=RECOVERABLE_NEXT_SCHEDULE",
+                    users.size(), synced.get(), failed.get(), deferred.size(), workers,
+                    syncDeadlineNanos() / 1_000_000L, makespanNs / 1_000_000L,
+                    deferred.subList(0, Math.min(10, deferred.size())));
+        } else {
+            log.info("event=user_copy_allocation.sync_run users={} synced={} failed={} deferred=0 workers={} makespanMs={}",
+                    users.size(), synced.get(), failed.get(), workers, makespanNs / 1_000_000L);
+        }
+    }
+
+    private boolean syncUserIsolated(UserDetailDto user, Consumer<UserDetailDto> sync) {
+        final long startedNs = System.nanoTime();
+        String result = "ok";
+        try {
+            sync.accept(user);
+            return true;
+        } catch (RuntimeException ex) {
+            result = "failed";
+            boolean deadlockExhausted = PostgresDeadlockRetryExecutor.isDeadlock(ex);
+            log.warn("event=user_copy_allocation.sync_user_failed reasonCode={} userId={} errClass={} errMsg=\"{}\" result=RECOVERABLE_NEXT_SCHEDULE",
+                    deadlockExhausted ? "ALLOCATION_SYNC_DEADLOCK_RETRY_EXHAUSTED" : "ALLOCATION_SYNC_USER_FAILED",
+                    user == null || user.getUser() == null ? null : user.getUser().getId(),
+                    ex.getClass().getSimpleName(), safeLog(ex.getMessage()));
+            return false;
+        } finally {
+            if (meterRegistry != null) {
+                meterRegistry.timer("copy_allocation_sync_user_duration", "result", result)
+                        .record(System.nanoTime() - startedNs, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private List<UserDetailDto> deferredFirst(List<UserDetailDto> users) {
+        if (deferredSyncUsers.isEmpty()) return users;
+        List<UserDetailDto> ordered = new ArrayList<>(users.size());
+        List<UserDetailDto> rest = new ArrayList<>(users.size());
         for (UserDetailDto user : users) {
-            if (user == null || user.getDetail() == null || user.getUser() == null) continue;
+            UUID idUser = user == null || user.getUser() == null ? null : user.getUser().getId();
+            if (idUser != null && deferredSyncUsers.contains(idUser)) {
+                ordered.add(user);
+            } else {
+                rest.add(user);
+            }
+        }
+        ordered.addAll(rest);
+        return ordered;
+    }
 
-            final UUID idUser = user.getUser().getId();
-            if (idUser == null) continue;
+    private long syncDeadlineNanos() {
+        return syncDeadline == null || syncDeadline.isNegative() || syncDeadline.isZero()
+                ? Duration.ofSeconds(90).toNanos()
+                : syncDeadline.toNanos();
+    }
 
-            final Integer maxWalletBoxed = user.getDetail().getMaxWallet();
-            final int maxWallet = (maxWalletBoxed == null) ? 0 : maxWalletBoxed;
+    private void recordUserSyncRun(int synced, int failed, int deferred, long makespanNs) {
+        if (meterRegistry == null) return;
+        meterRegistry.timer("copy_allocation_sync_makespan", "result", deferred > 0 ? "deadline" : "complete")
+                .record(makespanNs, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("copy_allocation_sync_users_total", "result", "ok").increment(synced);
+        meterRegistry.counter("copy_allocation_sync_users_total", "result", "failed").increment(failed);
+        meterRegistry.counter("copy_allocation_sync_users_total", "result", "deferred").increment(deferred);
+    }
 
-            if (maxWallet <= 0) {
-                continue;
+    private void syncUser(UserDetailDto user,
+                          List<MetricaWalletDto> liveSource,
+                          List<MetricaWalletDto> shadowSource,
+                          OffsetDateTime now) {
+        if (user == null || user.getDetail() == null || user.getUser() == null) return;
+
+        final UUID idUser = user.getUser().getId();
+        if (idUser == null) return;
+
+        final Integer maxWalletBoxed = user.getDetail().getMaxWallet();
+        final int maxWallet = (maxWalletBoxed == null) ? 0 : maxWalletBoxed;
+
+        if (maxWallet <= 0) {
+            return;
+        }
+
+        final Map<String, CopySymbolResolution> symbolResolutionByAllocationKey = new HashMap<>();
+        final List<MetricaWalletDto> userLiveSource = filterSymbolSpecialistByCapitalAsset(
+                liveSource,
+                user,
+                idUser,
+                "LIVE",
+                symbolResolutionByAllocationKey
+        );
+        final List<MetricaWalletDto> userShadowSource = shadowSource == liveSource
+                ? userLiveSource
+                : filterSymbolSpecialistByCapitalAsset(shadowSource, user, idUser, "SHADOW", null);
+
+        shadowCopyTradingService.syncShadowAllocations(idUser, userShadowSource, maxWallet, now);
+
+        final boolean separateShadowEnabled = shadowCopyTradingService.isSeparateShadowEnabled();
+        final Map<String, CopyExecutionDecision> realExecutionByAllocationKey = new HashMap<>();
+        final List<MetricaWalletDto> liveCandidates = separateShadowEnabled
+                ? userLiveSource.stream()
+                .filter(dto -> {
+                    CopyExecutionDecision decision = resolveCopyExecutionDecision(idUser, dto);
+                    String key = allocationKey(dto);
+                    if (decision.openable() && key != null) {
+                        realExecutionByAllocationKey.put(key, decision);
+                    }
+                    return decision.openable();
+                })
+                .toList()
+                : userLiveSource;
+        final Map<String, LivePauseDecision> pauseByAllocationKey = shadowCopyTradingService.isSeparateShadowEnabled()
+                ? livePauseDecisions(idUser, userShadowSource)
+                : Map.of();
+        final Set<String> liveCandidateKeys = liveCandidates.stream()
+                .map(this::allocationKey)
+                .filter(Objects::nonNull)
+                .collect(java.util.stream.Collectors.toUnmodifiableSet());
+        final BigDecimal targetTotalPct = sumPositivePct(liveCandidates);
+
+        final List<UserCopyAllocationEntity> existingActive =
+                repository.findAllByIdUserAndEndsAtIsNull(idUser);
+
+        final Set<String> blockedAllocationKeys = new HashSet<>();
+        for (UserCopyAllocationEntity e : existingActive) {
+            if (e == null) continue;
+            final String allocationKey = allocationKey(e);
+            if (allocationKey == null) continue;
+            if (!e.isActive()
+                    || e.getStatus() == UserCopyAllocationEntity.Status.DISABLED_MANUAL
+                    || (e.getStatus() != UserCopyAllocationEntity.Status.ACTIVE && !liveCandidateKeys.contains(allocationKey))) {
+                    blockedAllocationKeys.add(allocationKey);
             }
+        }
+
+        final List<MetricaWalletDto> rankedForPersist = liveCandidates.stream()
+                .filter(Objects::nonNull)
+                .filter(dto -> dto.getWallet() != null)
+                .filter(dto -> normalize(dto.getWallet().getIdWallet()) != null)
+                .filter(dto -> !blockedAllocationKeys.contains(allocationKey(dto)))
+                .filter(dto -> safePct(dto.getCapitalShare()).signum() > 0)
+                .sorted(
+                        Comparator
+                                .comparing(
+                                        (MetricaWalletDto dto) -> safePct(dto.getCapitalShare()),
+                                        Comparator.reverseOrder()
+                                )
+                                .thenComparing(
+                                        UserCopyAllocationServiceImpl::safeScore,
+                                        Comparator.nullsLast(Comparator.reverseOrder())
+                                )
+                                .thenComparing(
+                                        dto -> normalize(dto.getWallet().getIdWallet()),
+                                        Comparator.nullsLast(String::compareToIgnoreCase)
+                                )
+                )
+                .toList();
+
+        final List<MetricaWalletDto> top = selectTopProfilesForUser(rankedForPersist, maxWallet, idUser);
+
+        final Map<String, Dist> newDist = new LinkedHashMap<>();
+
+        final List<MetricaWalletDto> validTop = new ArrayList<>();
+        BigDecimal topTotalPct = ZERO;
+
+        for (MetricaWalletDto dto : top) {
+            if (dto == null || dto.getWallet() == null) continue;
+
+            final String walletId = normalize(dto.getWallet().getIdWallet());
+            final String allocationKey = allocationKey(dto);
+            if (walletId == null || allocationKey == null) continue;
+
+            final BigDecimal pct = safePct(dto.getCapitalShare());
+            if (pct.signum() <= 0) continue;
+
+            validTop.add(dto);
+            topTotalPct = topTotalPct.add(pct);
+        }
+
+        topTotalPct = topTotalPct.setScale(6, RoundingMode.HALF_UP);
+
+        if (validTop.isEmpty() || topTotalPct.signum() <= 0 || targetTotalPct.signum() <= 0) {
+            final List<UserCopyAllocationEntity> toSave = new ArrayList<>();
+            int closed = 0;
+            int paused = 0;
 
-            final Map<String, CopySymbolResolution> symbolResolutionByAllocationKey = new HashMap<>();
-            final List<MetricaWalletDto> userLiveSource = filterSymbolSpecialistByCapitalAsset(
-                    liveSource,
-                    user,
-                    idUser,
-                    "LIVE",
-                    symbolResolutionByAllocationKey
-            );
-            final List<MetricaWalletDto> userShadowSource = shadowSource == liveSource
-                    ? userLiveSource
-                    : filterSymbolSpecialistByCapitalAsset(shadowSource, user, idUser, "SHADOW", null);
-
-            shadowCopyTradingService.syncShadowAllocations(idUser, userShadowSource, maxWallet, now);
-
-            final boolean separateShadowEnabled = shadowCopyTradingService.isSeparateShadowEnabled();
-            final Map<String, CopyExecutionDecision> realExecutionByAllocationKey = new HashMap<>();
-            final List<MetricaWalletDto> liveCandidates = separateShadowEnabled
-                    ? userLiveSource.stream()
-                    .filter(dto -> {
-                        CopyExecutionDecision decision = resolveCopyExecutionDecision(idUser, dto);
-                        String key = allocationKey(dto);
-                        if (decision.openable() && key != null) {
-                            realExecutionByAllocationKey.put(key, decision);
-                        }
-                        return decision.openable();
-                    })
-                    .toList()
-                    : userLiveSource;
-            final Map<String, LivePauseDecision> pauseByAllocationKey = shadowCopyTradingService.isSeparateShadowEnabled()
-                    ? livePauseDecisions(idUser, userShadowSource)
-                    : Map.of();
-            final Set<String> liveCandidateKeys = liveCandidates.stream()
-                    .map(this::allocationKey)
-                    .filter(Objects::nonNull)
-                    .collect(java.util.stream.Collectors.toUnmodifiableSet());
-            final BigDecimal targetTotalPct = sumPositivePct(liveCandidates);
-
-            final List<UserCopyAllocationEntity> existingActive =
-                    repository.findAllByIdUserAndEndsAtIsNull(idUser);
-
-            final Set<String> blockedAllocationKeys = new HashSet<>();
             for (UserCopyAllocationEntity e : existingActive) {
                 if (e == null) continue;
+                if (!e.isActive()) continue;
+
                 final String allocationKey = allocationKey(e);
-                if (allocationKey == null) continue;
-                if (!e.isActive()
-                        || e.getStatus() == UserCopyAllocationEntity.Status.DISABLED_MANUAL
-                        || (e.getStatus() != UserCopyAllocationEntity.Status.ACTIVE && !liveCandidateKeys.contains(allocationKey))) {
-                        blockedAllocationKeys.add(allocationKey);
+                LivePauseDecision pause = allocationKey == null ? null : pauseByAllocationKey.get(allocationKey);
+                if (pause != null) {
+                    if (activatePromotedMicroLiveWhenShadowOnlyPause(e, pause, now)) {
+                        toSave.add(e);
+                        continue;
+                    } else {
+                        applyLivePause(e, pause, now);
+                        paused++;
+                    }
+                } else {
+                    e.setStatus(UserCopyAllocationEntity.Status.CLOSED);
+                    e.setEndsAt(now);
+                    closed++;
                 }
+                e.setUpdatedAt(now);
+                toSave.add(e);
             }
 
-            final List<MetricaWalletDto> rankedForPersist = liveCandidates.stream()
-                    .filter(Objects::nonNull)
-                    .filter(dto -> dto.getWallet() != null)
-                    .filter(dto -> normalize(dto.getWallet().getIdWallet()) != null)
-                    .filter(dto -> !blockedAllocationKeys.contains(allocationKey(dto)))
-                    .filter(dto -> safePct(dto.getCapitalShare()).signum() > 0)
-                    .sorted(
-                            Comparator
-                                    .comparing(
-                                            (MetricaWalletDto dto) -> safePct(dto.getCapitalShare()),
-                                            Comparator.reverseOrder()
-                                    )
-                                    .thenComparing(
-                                            UserCopyAllocationServiceImpl::safeScore,
-                                            Comparator.nullsLast(Comparator.reverseOrder())
-                                    )
-                                    .thenComparing(
-                                            dto -> normalize(dto.getWallet().getIdWallet()),
-                                            Comparator.nullsLast(String::compareToIgnoreCase)
-                                    )
-                    )
-                    .toList();
-
-            final List<MetricaWalletDto> top = selectTopProfilesForUser(rankedForPersist, maxWallet, idUser);
-
-            final Map<String, Dist> newDist = new LinkedHashMap<>();
-
-            final List<MetricaWalletDto> validTop = new ArrayList<>();
-            BigDecimal topTotalPct = ZERO;
-
-            for (MetricaWalletDto dto : top) {
-                if (dto == null || dto.getWallet() == null) continue;
-
-                final String walletId = normalize(dto.getWallet().getIdWallet());
-                final String allocationKey = allocationKey(dto);
-                if (walletId == null || allocationKey == null) continue;
-
-                final BigDecimal pct = safePct(dto.getCapitalShare());
-                if (pct.signum() <= 0) continue;
-
-                validTop.add(dto);
-                topTotalPct = topTotalPct.add(pct);
+            LiveAllocationDistributionPublication publication = stageDistribution(idUser, List.of(), now);
+            int failedUnits = persistDistributionUnits(idUser, toSave, false);
+            finishDistribution(publication, failedUnits);
+            if (failedUnits > 0) {
+                log.warn("event=user_copy_allocation.sync_partial reasonCode=COPY_DISTRIBUTION_UNIT_FAILED userId={} closed={} paused={} blocked={} failedUnits={} shadowSeparate={} result=PARTIAL",
+                        idUser, closed, paused, blockedAllocationKeys.size(), failedUnits,
+                        shadowCopyTradingService.isSeparateShadowEnabled());
+            } else {
+                log.debug("event=user_copy_allocation.sync_ok reasonCode=empty_distribution userId={} closed={} paused={} blocked={} failedUnits=0 shadowSeparate={}",
+                        idUser, closed, paused, blockedAllocationKeys.size(),
+                        shadowCopyTradingService.isSeparateShadowEnabled());
             }
+            return;
+        }
 
-            topTotalPct = topTotalPct.setScale(6, RoundingMode.HALF_UP);
-
-            if (validTop.isEmpty() || topTotalPct.signum() <= 0 || targetTotalPct.signum() <= 0) {
-                final List<UserCopyAllocationEntity> toSave = new ArrayList<>();
-                int closed = 0;
-                int paused = 0;
-
-                for (UserCopyAllocationEntity e : existingActive) {
-                    if (e == null) continue;
-                    if (!e.isActive()) continue;
-
-                    final String allocationKey = allocationKey(e);
-                    LivePauseDecision pause = allocationKey == null ? null : pauseByAllocationKey.get(allocationKey);
-                    if (pause != null) {
-                        if (activatePromotedMicroLiveWhenShadowOnlyPause(e, pause, now)) {
-                            toSave.add(e);
-                            continue;
-                        } else {
-                            applyLivePause(e, pause, now);
-                            paused++;
-                        }
-                    } else {
-                        e.setStatus(UserCopyAllocationEntity.Status.CLOSED);
-                        e.setEndsAt(now);
-                        closed++;
-                    }
-                    e.setUpdatedAt(now);
-                    toSave.add(e);
-                }
+        final BigDecimal scaleFactor = targetTotalPct.divide(topTotalPct, 18, RoundingMode.HALF_UP);
 
-                LiveAllocationDistributionPublication publication = stageDistribution(idUser, List.of(), now);
-                int failedUnits = persistDistributionUnits(idUser, toSave, false);
-                finishDistribution(publication, failedUnits);
-                if (failedUnits > 0) {
-                    log.warn("event=user_copy_allocation.sync_partial reasonCode=COPY_DISTRIBUTION_UNIT_FAILED userId={} closed={} paused={} blocked={} failedUnits={} shadowSeparate={} result=PARTIAL",
-                            idUser, closed, paused, blockedAllocationKeys.size(), failedUnits,
-                            shadowCopyTradingService.isSeparateShadowEnabled());
-                } else {
-                    log.debug("event=user_copy_allocation.sync_ok reasonCode=empty_distribution userId={} closed={} paused={} blocked={} failedUnits=0 shadowSeparate={}",
-                            idUser, closed, paused, blockedAllocationKeys.size(),
-                            shadowCopyTradingService.isSeparateShadowEnabled());
-                }
-                continue;
-            }
+        BigDecimal accumulated = ZERO;
 
-            final BigDecimal scaleFactor = targetTotalPct.divide(topTotalPct, 18, RoundingMode.HALF_UP);
+        for (int i = 0; i < validTop.size(); i++) {
+            final MetricaWalletDto dto = validTop.get(i);
+            final String walletId = normalize(dto.getWallet().getIdWallet());
+            final String allocationKey = allocationKey(dto);
+            if (walletId == null || allocationKey == null) continue;
+            final BigDecimal originalPct = safePct(dto.getCapitalShare());
+            final Integer score = safeScore(dto);
 
-            BigDecimal accumulated = ZERO;
+            final boolean isLast = (i == validTop.size() - 1);
 
-            for (int i = 0; i < validTop.size(); i++) {
-                final MetricaWalletDto dto = validTop.get(i);
-                final String walletId = normalize(dto.getWallet().getIdWallet());
-                final String allocationKey = allocationKey(dto);
-                if (walletId == null || allocationKey == null) continue;
-                final BigDecimal originalPct = safePct(dto.getCapitalShare());
-                final Integer score = safeScore(dto);
+            BigDecimal scaledPct;
+            if (isLast) {
+                scaledPct = targetTotalPct.subtract(accumulated).setScale(6, RoundingMode.HALF_UP);
+            } else {
+                scaledPct = originalPct.multiply(scaleFactor).setScale(6, RoundingMode.HALF_UP);
+                accumulated = accumulated.add(scaledPct);
+            }
 
-                final boolean isLast = (i == validTop.size() - 1);
+            if (scaledPct.signum() <= 0) continue;
 
-                BigDecimal scaledPct;
-                if (isLast) {
-                    scaledPct = targetTotalPct.subtract(accumulated).setScale(6, RoundingMode.HALF_UP);
-                } else {
-                    scaledPct = originalPct.multiply(scaleFactor).setScale(6, RoundingMode.HALF_UP);
-                    accumulated = accumulated.add(scaledPct);
-                }
+            final String strategyCode = strategyCode(dto);
+            final String scopeType = scopeType(dto);
+            final String scopeValue = scopeValue(dto, strategyCode);
+            final CopySymbolResolution symbolResolution = symbolResolutionByAllocationKey.get(allocationKey);
+            CopyExecutionDecision decision = realExecutionByAllocationKey.get(allocationKey);
+            String resolvedExecutionMode = decision == null ? targetExecutionMode(dto) : decision.executionMode();
+            newDist.put(allocationKey, new Dist(walletId, strategyCode, strategySlug(dto), strategyLabel(dto), copyMode(dto), sourceEndpoint(dto), rankWithinStrategy(dto), globalRank(dto), strategyScore(dto), scopeType, scopeValue, strategyKey(walletId, strategyCode, scopeType, scopeValue), dto.getGenerationId(), resolvedExecutionMode, scaledPct, score, symbolResolution));
+        }
 
-                if (scaledPct.signum() <= 0) continue;
+        final List<String> newWalletIdList = newDist.values().stream()
+                .map(Dist::walletId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
 
-                final String strategyCode = strategyCode(dto);
-                final String scopeType = scopeType(dto);
-                final String scopeValue = scopeValue(dto, strategyCode);
-                final CopySymbolResolution symbolResolution = symbolResolutionByAllocationKey.get(allocationKey);
-                CopyExecutionDecision decision = realExecutionByAllocationKey.get(allocationKey);
-                String resolvedExecutionMode = decision == null ? targetExecutionMode(dto) : decision.executionMode();
-                newDist.put(allocationKey, new Dist(walletId, strategyCode, strategySlug(dto), strategyLabel(dto), copyMode(dto), sourceEndpoint(dto), rankWithinStrategy(dto), globalRank(dto), strategyScore(dto), scopeType, scopeValue, strategyKey(walletId, strategyCode, scopeType, scopeValue), dto.getGenerationId(), resolvedExecutionMode, scaledPct, score, symbolResolution));
-            }
+        final List<UserCopyAllocationEntity> existingForNewWallets =
+                repository.findAllByIdUserAndWalletIdIn(idUser, newWalletIdList);
 
-            final List<String> newWalletIdList = newDist.values().stream()
-                    .map(Dist::walletId)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .toList();
+        final Map<String, UserCopyAllocationEntity> existingByAllocationKey = new HashMap<>();
+        for (UserCopyAllocationEntity e : existingForNewWallets) {
+            if (e == null) continue;
+            final String key = allocationKey(e);
+            if (key != null) existingByAllocationKey.put(key, e);
+        }
 
-            final List<UserCopyAllocationEntity> existingForNewWallets =
-                    repository.findAllByIdUserAndWalletIdIn(idUser, newWalletIdList);
+        final List<UserCopyAllocationEntity> toSave =
+                new ArrayList<>(newDist.size() + existingActive.size());
+        final Map<String, UserCopyAllocationEntity> distributionEntities = new LinkedHashMap<>();
 
-            final Map<String, UserCopyAllocationEntity> existingByAllocationKey = new HashMap<>();
-            for (UserCopyAllocationEntity e : existingForNewWallets) {
-                if (e == null) continue;
-                final String key = allocationKey(e);
-                if (key != null) existingByAllocationKey.put(key, e);
-            }
+        for (Map.Entry<String, Dist> entry : newDist.entrySet()) {
+            final String allocationKey = entry.getKey();
+            final Dist d = entry.getValue();
+            final String walletId = d.walletId();
 
-            final List<UserCopyAllocationEntity> toSave =
-                    new ArrayList<>(newDist.size() + existingActive.size());
-            final Map<String, UserCopyAllocationEntity> distributionEntities = new LinkedHashMap<>();
-
-            for (Map.Entry<String, Dist> entry : newDist.entrySet()) {
-                final String allocationKey = entry.getKey();
-                final Dist d = entry.getValue();
-                final String walletId = d.walletId();
-
-                UserCopyAllocationEntity entity = existingByAllocationKey.get(allocationKey);
-                if (entity != null
-                        && (!entity.isActive()
-                        || entity.getEndsAt() != null
-                        || entity.getStatus() == UserCopyAllocationEntity.Status.CLOSED)) {
-                    entity = null;
-                }
-                if (entity == null) {
-                    final String targetMode = executionModeForTarget(d.targetExecutionMode());
-                    entity = UserCopyAllocationEntity.builder()
-                            .idUser(idUser)
-                            .walletId(walletId)
-                            .isActive(true)
-                            .executionMode(shadowCopyTradingService.isSeparateShadowEnabled() && !"MICRO_LIVE".equals(targetMode) ? "LIVE" : targetMode)
-                            .build();
-                }
+            UserCopyAllocationEntity entity = existingByAllocationKey.get(allocationKey);
+            if (entity != null
+                    && (!entity.isActive()
+                    || entity.getEndsAt() != null
+                    || entity.getStatus() == UserCopyAllocationEntity.Status.CLOSED)) {
+                entity = null;
+            }
+            if (entity == null) {
+                final String targetMode = executionModeForTarget(d.targetExecutionMode());
+                entity = UserCopyAllocationEntity.builder()
+                        .idUser(idUser)
+                        .walletId(walletId)
+                        .isActive(true)
+                        .executionMode(shadowCopyTradingService.isSeparateShadowEnabled() && !"MICRO_LIVE".equals(targetMode) ? "LIVE" : targetMode)
+                        .build();
+            }
 
-                if (!entity.isActive()) {
-                    continue;
-                }
-                final boolean reentry = entity.getStatus() != null
-                        && entity.getStatus() != UserCopyAllocationEntity.Status.ACTIVE
-                        && entity.getStatus() != UserCopyAllocationEntity.Status.DISABLED_MANUAL
-                        && entity.getStatus() != UserCopyAllocationEntity.Status.CLOSED;
-                CopyModeResolution copyModeResolution = UserCopyAllocationCopyModeResolver.resolve(d.strategyCode(), d.copyMode());
-                if (!copyModeResolution.valid()) {
-                    log.warn(
-                            "event=user_copy_allocation.copy_mode.rejected userId={} walletId={} strategyCode={} scopeType={} scopeValue={} sourceCopyMode={} resolvedCopyMode={} reasonCode={} executionMode={} decision=SKIP",
-                            idUser,
-                            walletId,
-                            d.strategyCode(),
-                            d.scopeType(),
-                            d.scopeValue(),
-                            safeReason(d.copyMode()),
-                            copyModeResolution.copyMode(),
-                            copyModeResolution.reasonCode(),
-                            d.targetExecutionMode()
-                    );
-                    continue;
-                }
-                log.info(
-                        "event=user_copy_allocation.copy_mode.resolved userId={} walletId={} strategyCode={} scopeType={} scopeValue={} sourceCopyMode={} resolvedCopyMode={} reasonCode={} constraintReasonCode={} executionMode={} decision=ALLOW",
+            if (!entity.isActive()) {
+                continue;
+            }
+            final boolean reentry = entity.getStatus() != null
+                    && entity.getStatus() != UserCopyAllocationEntity.Status.ACTIVE
+                    && entity.getStatus() != UserCopyAllocationEntity.Status.DISABLED_MANUAL
+                    && entity.getStatus() != UserCopyAllocationEntity.Status.CLOSED;
+            CopyModeResolution copyModeResolution = UserCopyAllocationCopyModeResolver.resolve(d.strategyCode(), d.copyMode());
+            if (!copyModeResolution.valid()) {
+                log.warn(
+                        "event=user_copy_allocation.copy_mode.rejected userId={} walletId={} strategyCode={} scopeType={} scopeValue={} sourceCopyMode={} resolvedCopyMode={} reasonCode={} executionMode={} decision=SKIP",
                         idUser,
                         walletId,
                         d.strategyCode(),
@@ -406,129 +561,140 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
                         safeReason(d.copyMode()),
                         copyModeResolution.copyMode(),
                         copyModeResolution.reasonCode(),
-                        copyModeResolution.constraintReasonCode(),
                         d.targetExecutionMode()
                 );
-                final String targetMode = executionModeForTarget(d.targetExecutionMode());
-                if ("MICRO_LIVE".equals(targetMode)) {
-                    applyMicroLivePercentageContract(entity);
-                } else {
-                    entity.setAllocationPct(reentry ? reentryPct(d.pct()) : d.pct());
-                    if ("LIVE".equals(targetMode)) {
-                        entity.setSizingMode("PERCENTAGE");
-                    }
-                }
-                entity.setScore(d.score());
-                entity.setCopyStrategyCode(d.strategyCode());
-                entity.setCopyStrategySlug(d.strategySlug());
-                entity.setCopyStrategyLabel(d.strategyLabel());
-                entity.setCopyMode(copyModeResolution.copyMode());
-                entity.setStrategySourceEndpoint(d.sourceEndpoint());
-                entity.setRankWithinStrategy(d.rankWithinStrategy());
-                entity.setGlobalRank(d.globalRank());
-                entity.setStrategyScore(d.strategyScore());
-                entity.setScopeType(d.scopeType());
-                entity.setScopeValue(d.scopeValue());
-                entity.setStrategyKey(d.strategyKey());
-                if (d.generationId() != null && !d.generationId().isBlank()) {
-                    entity.setMetricGenerationId(d.generationId().trim());
-                }
-                entity.setSourceSymbol(d.sourceSymbol());
-                entity.setTargetSymbol(d.targetSymbol());
-                entity.setCapitalAsset(d.capitalAsset());
-                entity.setResolvedQuoteAsset(d.resolvedQuoteAsset());
-                entity.setSymbolResolutionStatus(d.symbolResolutionStatus());
-                entity.setSymbolResolutionReason(d.symbolResolutionReason());
-                if (d.sourceSymbol() != null || d.targetSymbol() != null) {
-                    log.info(
-                            "user_copy_allocation.created sourceSymbol={} targetSymbol={} executionMode={} userId={} walletId={} strategyCode={} allocationKey={}",
-                            d.sourceSymbol(),
-                            d.targetSymbol(),
-                            d.targetExecutionMode(),
-                            idUser,
-                            walletId,
-                            d.strategyCode(),
-                            allocationKey
-                    );
-                }
-                if ("MICRO_LIVE".equals(targetMode) || "LIVE".equals(targetMode)) {
-                    entity.setExecutionMode(targetMode);
-                } else if (!shadowCopyTradingService.isSeparateShadowEnabled() && "SHADOW".equals(targetMode)) {
-                    entity.setExecutionMode(targetMode);
-                } else if (entity.getExecutionMode() == null || entity.getExecutionMode().isBlank()) {
-                    entity.setExecutionMode(shadowCopyTradingService.isSeparateShadowEnabled() ? "LIVE" : normalizedDefaultExecutionMode());
-                }
-                if (entity.getStatus() == null || entity.getStatus() == UserCopyAllocationEntity.Status.ACTIVE || reentry) {
-                    entity.setStatus(UserCopyAllocationEntity.Status.ACTIVE);
-                    entity.setStatusReason(reentry ? "shadow_reentry_validated" : entity.getStatusReason());
-                    entity.setStatusCooldownUntil(null);
-                    entity.setStatusUpdatedAt(now);
-                    entity.setEndsAt(null);
-                }
-                entity.setUpdatedAt(now);
-                if (reentry) {
-                    log.info("event=shadow_reentry_to_live userId={} walletId={} strategyCode={} allocationId={} allocationPct={} originalPct={} reentryMultiplier={} reasonCode=shadow_reentry_validated copyImpact=live_open_allowed_reduced_capital",
-                            idUser, walletId, d.strategyCode(), entity.getId(), entity.getAllocationPct(), d.pct(), clamp01(shadowReentryCapitalMultiplier));
+                continue;
+            }
+            log.info(
+                    "event=user_copy_allocation.copy_mode.resolved userId={} walletId={} strategyCode={} scopeType={} scopeValue={} sourceCopyMode={} resolvedCopyMode={} reasonCode={} constraintReasonCode={} executionMode={} decision=ALLOW",
+                    idUser,
+                    walletId,
+                    d.strategyCode(),
+                    d.scopeType(),
+                    d.scopeValue(),
+                    safeReason(d.copyMode()),
+                    copyModeResolution.copyMode(),
+                    copyModeResolution.reasonCode(),
+                    copyModeResolution.constraintReasonCode(),
+                    d.targetExecutionMode()
+            );
+            final String targetMode = executionModeForTarget(d.targetExecutionMode());
+            if ("MICRO_LIVE".equals(targetMode)) {
+                applyMicroLivePercentageContract(entity);
+            } else {
+                entity.setAllocationPct(reentry ? reentryPct(d.pct()) : d.pct());
+                if ("LIVE".equals(targetMode)) {
+                    entity.setSizingMode("PERCENTAGE");
                 }
-
-                toSave.add(entity);
-                distributionEntities.put(allocationKey, entity);
+            }
+            entity.setScore(d.score());
+            entity.setCopyStrategyCode(d.strategyCode());
+            entity.setCopyStrategySlug(d.strategySlug());
+            entity.setCopyStrategyLabel(d.strategyLabel());
+            entity.setCopyMode(copyModeResolution.copyMode());
+            entity.setStrategySourceEndpoint(d.sourceEndpoint());
+            entity.setRankWithinStrategy(d.rankWithinStrategy());
+            entity.setGlobalRank(d.globalRank());
+            entity.setStrategyScore(d.strategyScore());
+            entity.setScopeType(d.scopeType());
+            entity.setScopeValue(d.scopeValue());
+            entity.setStrategyKey(d.strategyKey());
+            if (d.generationId() != null && !d.generationId().isBlank()) {
+                entity.setMetricGenerationId(d.generationId().trim());
+            }
+            entity.setSourceSymbol(d.sourceSymbol());
+            entity.setTargetSymbol(d.targetSymbol());
+            entity.setCapitalAsset(d.capitalAsset());
+            entity.setResolvedQuoteAsset(d.resolvedQuoteAsset());
+            entity.setSymbolResolutionStatus(d.symbolResolutionStatus());
+            entity.setSymbolResolutionReason(d.symbolResolutionReason());
+            if (d.sourceSymbol() != null || d.targetSymbol() != null) {
+                log.info(
+                        "user_copy_allocation.created sourceSymbol={} targetSymbol={} executionMode={} userId={} walletId={} strategyCode={} allocationKey={}",
+                        d.sourceSymbol(),
+                        d.targetSymbol(),
+                        d.targetExecutionMode(),
+                        idUser,
+                        walletId,
+                        d.strategyCode(),
+                        allocationKey
+                );
+            }
+            if ("MICRO_LIVE".equals(targetMode) || "LIVE".equals(targetMode)) {
+                entity.setExecutionMode(targetMode);
+            } else if (!shadowCopyTradingService.isSeparateShadowEnabled() && "SHADOW".equals(targetMode)) {
+                entity.setExecutionMode(targetMode);
+            } else if (entity.getExecutionMode() == null || entity.getExecutionMode().isBlank()) {
+                entity.setExecutionMode(shadowCopyTradingService.isSeparateShadowEnabled() ? "LIVE" : normalizedDefaultExecutionMode());
+            }
+            if (entity.getStatus() == null || entity.getStatus() == UserCopyAllocationEntity.Status.ACTIVE || reentry) {
+                entity.setStatus(UserCopyAllocationEntity.Status.ACTIVE);
+                entity.setStatusReason(reentry ? "shadow_reentry_validated" : entity.getStatusReason());
+                entity.setStatusCooldownUntil(null);
+                entity.setStatusUpdatedAt(now);
+                entity.setEndsAt(null);
+            }
+            entity.setUpdatedAt(now);
+            if (reentry) {
+                log.info("event=shadow_reentry_to_live userId={} walletId={} strategyCode={} allocationId={} allocationPct={} originalPct={} reentryMultiplier={} reasonCode=shadow_reentry_validated copyImpact=live_open_allowed_reduced_capital",
+                        idUser, walletId, d.strategyCode(), entity.getId(), entity.getAllocationPct(), d.pct(), clamp01(shadowReentryCapitalMultiplier));
             }
 
-            final Set<String> newAllocationKeys = new HashSet<>(newDist.keySet());
-            int closed = 0;
-            int paused = 0;
-
-            for (UserCopyAllocationEntity e : existingActive) {
-                if (e == null) continue;
-                if (!e.isActive()) continue;
+            toSave.add(entity);
+            distributionEntities.put(allocationKey, entity);
+        }
 
-                final String allocationKey = allocationKey(e);
-                if (allocationKey == null) continue;
-                LivePauseDecision pause = pauseByAllocationKey.get(allocationKey);
-                if (pause != null && activatePromotedMicroLiveWhenShadowOnlyPause(e, pause, now)) {
-                    toSave.add(e);
-                    continue;
-                }
-                if (e.getStatus() != UserCopyAllocationEntity.Status.ACTIVE) continue;
-                if (newAllocationKeys.contains(allocationKey)) continue;
+        final Set<String> newAllocationKeys = new HashSet<>(newDist.keySet());
+        int closed = 0;
+        int paused = 0;
 
-                if (pause != null) {
-                    applyLivePause(e, pause, now);
-                    paused++;
-                } else {
-                    e.setStatus(UserCopyAllocationEntity.Status.CLOSED);
-                    e.setEndsAt(now);
-                    closed++;
-                }
-                e.setUpdatedAt(now);
+        for (UserCopyAllocationEntity e : existingActive) {
+            if (e == null) continue;
+            if (!e.isActive()) continue;
 
+            final String allocationKey = allocationKey(e);
+            if (allocationKey == null) continue;
+            LivePauseDecision pause = pauseByAllocationKey.get(allocationKey);
+            if (pause != null && activatePromotedMicroLiveWhenShadowOnlyPause(e, pause, now)) {
                 toSave.add(e);
+                continue;
             }
+            if (e.getStatus() != UserCopyAllocationEntity.Status.ACTIVE) continue;
+            if (newAllocationKeys.contains(allocationKey)) continue;
 
-            List<LiveAllocationDistributionEntry> distributionEntries = distributionEntries(newDist, distributionEntities);
-            LiveAllocationDistributionPublication publication = stageDistribution(idUser, distributionEntries, now);
-            applyDistributionMetadata(newDist, distributionEntities, distributionEntries, publication, now);
-            int failedUnits = persistDistributionUnits(idUser, toSave, true);
-            finishDistribution(publication, failedUnits);
-
-            final BigDecimal plannedTotalPct = newDist.values().stream()
-                    .map(Dist::pct)
-                    .reduce(ZERO, BigDecimal::add)
-                    .setScale(6, RoundingMode.HALF_UP);
-
-            if (failedUnits > 0) {
-                log.warn("event=user_copy_allocation.sync_partial reasonCode=COPY_DISTRIBUTION_UNIT_FAILED userId={} maxWallet={} candidates={} planned={} closed={} paused={} blocked={} failedUnits={} targetTotalPct={} plannedTotalPct={} result=PARTIAL",
-                        idUser, maxWallet, liveSource.size(), newDist.size(), closed, paused,
-                        blockedAllocationKeys.size(), failedUnits, targetTotalPct, plannedTotalPct);
+            if (pause != null) {
+                applyLivePause(e, pause, now);
+                paused++;
             } else {
-                log.debug("event=user_copy_allocation.sync_ok userId={} maxWallet={} candidates={} persisted={} closed={} paused={} blocked={} failedUnits=0 targetTotalPct={} persistedTotalPct={}",
-                        idUser, maxWallet, liveSource.size(), newDist.size(), closed, paused,
-                        blockedAllocationKeys.size(), targetTotalPct, plannedTotalPct);
+                e.setStatus(UserCopyAllocationEntity.Status.CLOSED);
+                e.setEndsAt(now);
+                closed++;
             }
+            e.setUpdatedAt(now);
+
+            toSave.add(e);
         }
 
-        invalidateRuntimeCaches("sync_distribution");
+        List<LiveAllocationDistributionEntry> distributionEntries = distributionEntries(newDist, distributionEntities);
+        LiveAllocationDistributionPublication publication = stageDistribution(idUser, distributionEntries, now);
+        applyDistributionMetadata(newDist, distributionEntities, distributionEntries, publication, now);
+        int failedUnits = persistDistributionUnits(idUser, toSave, true);
+        finishDistribution(publication, failedUnits);
+
+        final BigDecimal plannedTotalPct = newDist.values().stream()
+                .map(Dist::pct)
+                .reduce(ZERO, BigDecimal::add)
+                .setScale(6, RoundingMode.HALF_UP);
+
+        if (failedUnits > 0) {
+            log.warn("event=user_copy_allocation.sync_partial reasonCode=COPY_DISTRIBUTION_UNIT_FAILED userId={} maxWallet={} candidates={} planned={} closed={} paused={} blocked={} failedUnits={} targetTotalPct={} plannedTotalPct={} result=PARTIAL",
+                    idUser, maxWallet, liveSource.size(), newDist.size(), closed, paused,
+                    blockedAllocationKeys.size(), failedUnits, targetTotalPct, plannedTotalPct);
+        } else {
+            log.debug("event=user_copy_allocation.sync_ok userId={} maxWallet={} candidates={} persisted={} closed={} paused={} blocked={} failedUnits=0 targetTotalPct={} persistedTotalPct={}",
+                    idUser, maxWallet, liveSource.size(), newDist.size(), closed, paused,
+                    blockedAllocationKeys.size(), targetTotalPct, plannedTotalPct);
+        }
     }
 
     private List<LiveAllocationDistributionEntry> distributionEntries(
@@ -750,33 +916,81 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
         return current.byWallet().getOrDefault(normalizedWallet, List.of());
     }
 
+    /**
+     * Refresca el snapshot runtime. En modo incremental solo trae las filas escritas desde el
+     * último watermark (xmin del snapshot de PostgreSQL) y parchea copy-on-write las wallets
+     * afectadas. Cada {@code full-refresh-ms} se recarga todo como reconciliación.
+     *
+     * <p>REPEATABLE READ hace que el watermark y las filas salgan del mismo snapshot.</p>
+     */
     @Scheduled(initialDelayString = "${copy.runtime.allocation-snapshot.initial-delay-ms:0}",
             fixedDelayString = "${copy.runtime.allocation-snapshot.refresh-ms:5000}")
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public void refreshRuntimeAllocationSnapshot() {
         long startedNs = System.nanoTime();
+        RuntimeAllocationSnapshot current = runtimeAllocationSnapshot;
+        Instant now = Instant.now();
+        String mode = isFullRefreshDue(current, now) ? "full" : "delta";
         try {
-            List<UserCopyAllocationEntity> loaded = repository.findAllActiveRuntimeAllocations().stream()
-                    .filter(Objects::nonNull)
-                    .filter(UserCopyAllocationEntity::isActive)
-                    .filter(entity -> entity.getStatus() == UserCopyAllocationEntity.Status.ACTIVE)
-                    .toList();
-            Map<String, List<UserCopyAllocationEntity>> grouped = loaded.stream()
-                    .filter(entity -> normalize(entity.getWalletId()) != null)
-                    .collect(java.util.stream.Collectors.groupingBy(
-                            entity -> normalize(entity.getWalletId()),
-                            LinkedHashMap::new,
-                            java.util.stream.Collectors.collectingAndThen(
-                                    java.util.stream.Collectors.toList(), List::copyOf)));
-            runtimeAllocationSnapshot = new RuntimeAllocationSnapshot(Map.copyOf(grouped), Instant.now());
-            log.info("event=user_copy_allocation.runtime_snapshot.refreshed wallets={} allocations={} elapsedMs={} source=scheduled_out_of_band",
-                    grouped.size(), loaded.size(), elapsedMs(startedNs));
+            String watermark = repository.currentSnapshotXmin();
+            RuntimeAllocationSnapshot next;
+            int fetched;
+            if ("full".equals(mode)) {
+                List<UserCopyAllocationEntity> loaded = repository.findAllActiveRuntimeAllocations();
+                fetched = loaded.size();
+                next = RuntimeAllocationSnapshot.full(loaded.stream()
+                        .filter(this::isRuntimeSnapshotEligible)
+                        .toList(), watermark, Instant.now());
+            } else {
+                List<Long> changedIds = repository.findAllocationIdsChangedSince(current.watermark());
+                List<UserCopyAllocationEntity> changedActive = changedIds.isEmpty()
+                        ? List.of()
+                        : repository.findActiveRuntimeAllocationsChangedSince(current.watermark());
+                fetched = changedIds.size();
+                next = current.patch(changedIds, changedActive.stream()
+                        .filter(this::isRuntimeSnapshotEligible)
+                        .toList(), watermark, Instant.now());
+            }
+            runtimeAllocationSnapshot = next;
+            recordSnapshotRefresh(mode, "ok", startedNs, fetched);
+            log.info("event=user_copy_allocation.runtime_snapshot.refreshed mode={} wallets={} allocations={} rowsFetched={} elapsedMs={} source=scheduled_out_of_band",
+                    mode, next.byWallet().size(), next.walletById().size(), fetched, elapsedMs(startedNs));
         } catch (RuntimeException ex) {
-            log.error("event=user_copy_allocation.runtime_snapshot.refresh_failed reasonCode=ALLOCATION_SNAPSHOT_REFRESH_FAILED decision=KEEP_LAST_KNOWN_GOOD errClass={} errMsg=\"{}\"",
-                    ex.getClass().getSimpleName(), safeLog(ex.getMessage()));
+            recordSnapshotRefresh(mode, "error", startedNs, 0);
+            log.error("event=user_copy_allocation.runtime_snapshot.refresh_failed reasonCode=ALLOCATION_SNAPSHOT_REFRESH_FAILED decision=KEEP_LAST_KNOWN_GOOD mode={} errClass={} errMsg=\"{}\"",
+                    mode, ex.getClass().getSimpleName(), safeLog(ex.getMessage()));
         }
     }
 
+    private boolean isFullRefreshDue(RuntimeAllocationSnapshot current, Instant now) {
+        if (!runtimeAllocationIncremental || current.watermark() == null || current.fullRefreshedAt() == null) {
+            return true;
+        }
+        Duration interval = runtimeAllocationFullRefresh == null || runtimeAllocationFullRefresh.isNegative()
+                || runtimeAllocationFullRefresh.isZero() ? Duration.ofMinutes(5) : runtimeAllocationFullRefresh;
+        return Duration.between(current.fullRefreshedAt(), now).compareTo(interval) >= 0;
+    }
+
+    private boolean isRuntimeSnapshotEligible(UserCopyAllocationEntity entity) {
+        return entity != null
+                && entity.isActive()
+                && entity.getStatus() == UserCopyAllocationEntity.Status.ACTIVE
+                && entity.getId() != null
+                && normalize(entity.getWalletId()) != null;
+    }
+
+    private void recordSnapshotRefresh(String mode, String result, long startedNs, int fetched) {
+        if (meterRegistry == null) return;
+        meterRegistry.timer("copy_allocation_snapshot_refresh_duration", "mode", mode, "result", result)
+                .record(System.nanoTime() - startedNs, java.util.concurrent.TimeUnit.NANOSECONDS);
+        meterRegistry.summary("copy_allocation_snapshot_rows_fetched", "mode", mode).record(fetched);
+    }
+
+    private double runtimeAllocationSnapshotAgeSeconds() {
+        Instant updatedAt = runtimeAllocationSnapshot.updatedAt();
+        return updatedAt == null ? Double.NaN : Duration.between(updatedAt, Instant.now()).toMillis() / 1000.0;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UserCopyAllocationEntity> getActiveAllocationsForUserWallet(UUID idUser, String walletId) {
@@ -995,9 +1209,69 @@ public class UserCopyAllocationServiceImpl implements UserCopyAllocationService
     }
 
     private record RuntimeAllocationSnapshot(Map<String, List<UserCopyAllocationEntity>> byWallet,
-                                             Instant updatedAt) {
+                                             Map<Long, String> walletById,
+                                             Instant updatedAt,
+                                             String watermark,
+                                             Instant fullRefreshedAt) {
         private static RuntimeAllocationSnapshot empty() {
-            return new RuntimeAllocationSnapshot(Map.of(), null);
+            return new RuntimeAllocationSnapshot(Map.of(), Map.of(), null, null, null);
+        }
+
+        private static RuntimeAllocationSnapshot full(List<UserCopyAllocationEntity> allocations,
+                                                      String watermark,
+                                                      Instant now) {
+            Map<String, List<UserCopyAllocationEntity>> grouped = new LinkedHashMap<>();
+            Map<Long, String> walletById = new HashMap<>();
+            for (UserCopyAllocationEntity allocation : allocations) {
+                String wallet = normalize(allocation.getWalletId());
+                grouped.computeIfAbsent(wallet, ignored -> new ArrayList<>()).add(allocation);
+                walletById.put(allocation.getId(), wallet);
+            }
+            grouped.replaceAll((wallet, rows) -> List.copyOf(rows));
+            return new RuntimeAllocationSnapshot(Map.copyOf(grouped), Map.copyOf(walletById), now, watermark, now);
+        }
+
+        /**
+         * Copy-on-write: solo se reconstruyen las listas de las wallets tocadas; el resto de las
+         * listas se comparte con el snapshot anterior, que sigue siendo válido para los lectores.
+         */
+        private RuntimeAllocationSnapshot patch(List<Long> changedIds,
+                                                List<UserCopyAllocationEntity> changedActive,
+                                                String nextWatermark,
+                                                Instant now) {
+            if (changedIds.isEmpty()) {
+                return new RuntimeAllocationSnapshot(byWallet, walletById, now, nextWatermark, fullRefreshedAt);
+            }
+            Set<Long> changed = new HashSet<>(changedIds);
+            Map<Long, String> nextWalletById = new HashMap<>(walletById);
+            Map<String, List<UserCopyAllocationEntity>> upserts = new LinkedHashMap<>();
+            Set<String> touched = new HashSet<>();
+            for (Long id : changed) {
+                String previousWallet = nextWalletById.remove(id);
+                if (previousWallet != null) touched.add(previousWallet);
+            }
+            for (UserCopyAllocationEntity allocation : changedActive) {
+                String wallet = normalize(allocation.getWalletId());
+                changed.add(allocation.getId());
+                nextWalletById.put(allocation.getId(), wallet);
+                upserts.computeIfAbsent(wallet, ignored -> new ArrayList<>()).add(allocation);
+                touched.add(wallet);
+            }
+            Map<String, List<UserCopyAllocationEntity>> nextByWallet = new HashMap<>(byWallet);
+            for (String wallet : touched) {
+                List<UserCopyAllocationEntity> rows = new ArrayList<>();
+                for (UserCopyAllocationEntity existing : byWallet.getOrDefault(wallet, List.of())) {
+                    if (!changed.contains(existing.getId())) rows.add(existing);
+                }
+                rows.addAll(upserts.getOrDefault(wallet, List.of()));
+                if (rows.isEmpty()) {
+                    nextByWallet.remove(wallet);
+                } else {
+                    nextByWallet.put(wallet, List.copyOf(rows));
+                }
+            }
+            return new RuntimeAllocationSnapshot(Map.copyOf(nextByWallet), Map.copyOf(nextWalletById), now,
+                    nextWatermark, fullRefreshedAt);
         }
 
         private boolean isStale(Duration configuredMaxStale, Instant now) {
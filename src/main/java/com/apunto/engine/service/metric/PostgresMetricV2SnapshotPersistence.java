@@ -3,23 +3,33 @@ package com.apunto.engine.service.metric;
 import com.apunto.engine.dto.client.MetricStrategySnapshotDto;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 @Slf4j
@@ -28,17 +38,47 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
     private static final String TABLE = "futuros_operaciones.metric_strategy_snapshot_v2";
     private static final String REPLACE_LOCK_SQL =
             "SELECT pg_advisory_xact_lock(7723326142966129682)";
-    private static final String INSERT_SQL = """
+    private static final String UPSERT_SQL = """
             INSERT INTO futuros_operaciones.metric_strategy_snapshot_v2 (
                 strategy_key, snapshot_type, generation_id, metric_version, source_version,
                 wallet_id, strategy_code, scope_type, scope_value, computed_at, data_as_of,
-                fetched_at, expires_at, decision_final, allow_new_entries, reason_codes, payload
-            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb)
+                fetched_at, expires_at, decision_final, allow_new_entries, reason_codes, payload,
+                payload_fingerprint
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?)
+            ON CONFLICT (snapshot_type, strategy_key) DO UPDATE SET
+                generation_id = EXCLUDED.generation_id,
+                metric_version = EXCLUDED.metric_version,
+                source_version = EXCLUDED.source_version,
+                wallet_id = EXCLUDED.wallet_id,
+                strategy_code = EXCLUDED.strategy_code,
+                scope_type = EXCLUDED.scope_type,
+                scope_value = EXCLUDED.scope_value,
+                computed_at = EXCLUDED.computed_at,
+                data_as_of = EXCLUDED.data_as_of,
+                fetched_at = EXCLUDED.fetched_at,
+                expires_at = EXCLUDED.expires_at,
+                decision_final = EXCLUDED.decision_final,
+                allow_new_entries = EXCLUDED.allow_new_entries,
+                reason_codes = EXCLUDED.reason_codes,
+                payload = EXCLUDED.payload,
+                payload_fingerprint = EXCLUDED.payload_fingerprint
+            """;
+    // Mismo payload con fetched_at nuevo: el JSONB no se reescribe.
+    private static final String TOUCH_SQL = """
+            UPDATE futuros_operaciones.metric_strategy_snapshot_v2
+            SET fetched_at = ?, expires_at = ?
+            WHERE snapshot_type = ? AND strategy_key = ?
+            """;
+    private static final String DELETE_SQL = """
+            DELETE FROM futuros_operaciones.metric_strategy_snapshot_v2
+            WHERE snapshot_type = ? AND strategy_key = ?
             """;
 
     private final JdbcTemplate jdbc;
     private final TransactionTemplate transactions;
     private final ObjectMapper objectMapper;
+    // Huellas del último mapa visto por tipo: un tipo reutilizado tal cual no se vuelve a serializar.
+    private final Map<SnapshotType, Fingerprints> fingerprints = new ConcurrentHashMap<>();
 
     public PostgresMetricV2SnapshotPersistence(
             JdbcTemplate jdbc,
@@ -103,6 +143,12 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
         ));
     }
 
+    /**
+     * Escribe solo la diferencia contra lo persistido: upsert de filas con payload nuevo, update de
+     * {@code fetched_at/expires_at} si solo cambió la frescura, y delete de las keys que ya no
+     * están. La comparación se hace bajo el advisory lock contra las huellas guardadas, así que
+     * sigue siendo correcta con varias réplicas escribiendo.
+     */
     @Override
     public void replace(MetricV2SnapshotStore.Snapshot snapshot, Duration maxStaleness) {
         if (snapshot == null) throw new IllegalArgumentException("snapshot is required");
@@ -110,42 +156,111 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
                 ? Duration.ofMinutes(10)
                 : maxStaleness;
         List<WriteRow> rows = flatten(snapshot);
-        transactions.executeWithoutResult(status -> {
+        Plan plan = transactions.execute(status -> {
             jdbc.execute(REPLACE_LOCK_SQL);
-            jdbc.update("DELETE FROM " + TABLE);
-            if (!rows.isEmpty()) {
-                jdbc.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
-                    @Override
-                    public void setValues(PreparedStatement ps, int index) throws SQLException {
-                        WriteRow row = rows.get(index);
-                        MetricStrategySnapshotDto dto = row.dto();
-                        ps.setString(1, dto.getStrategyKey());
-                        ps.setString(2, row.type().name());
-                        ps.setString(3, dto.getGenerationId());
-                        ps.setInt(4, dto.getMetricVersion());
-                        ps.setString(5, dto.getSourceVersion());
-                        ps.setString(6, dto.getWalletId());
-                        ps.setString(7, dto.getStrategyCode());
-                        ps.setString(8, dto.getScopeType());
-                        ps.setString(9, dto.getScopeValue());
-                        ps.setObject(10, dto.getComputedAt());
-                        ps.setObject(11, dto.getDataAsOf());
-                        ps.setTimestamp(12, Timestamp.from(row.fetchedAt()));
-                        ps.setTimestamp(13, Timestamp.from(row.fetchedAt().plus(ttl)));
-                        ps.setBoolean(14, dto.isDecisionFinal());
-                        ps.setBoolean(15, dto.isAllowNewEntries());
-                        ps.setString(16, json(dto.getReasonCodes()));
-                        ps.setString(17, json(dto));
-                    }
+            Plan next = plan(rows, loadStored(), ttl);
+            delete(next.deletes());
+            upsert(next.upserts(), ttl);
+            touch(next.touches(), ttl);
+            return next;
+        });
+        if (plan == null) return;
+        for (SnapshotType type : SnapshotType.values()) {
+            count(type, "written", plan.upserts().stream().filter(row -> row.type() == type).count());
+            count(type, "touched", plan.touches().stream().filter(row -> row.type() == type).count());
+            count(type, "skipped", plan.skipped().getOrDefault(type, 0));
+            count(type, "deleted", plan.deletes().stream().filter(key -> key.type() == type).count());
+        }
+        log.debug("event=metric_v2.snapshot.persisted rows={} written={} touched={} skipped={} deleted={} diffUpsert=true",
+                rows.size(), plan.upserts().size(), plan.touches().size(),
+                plan.skipped().values().stream().mapToInt(Integer::intValue).sum(), plan.deletes().size());
+    }
 
-                    @Override
-                    public int getBatchSize() {
-                        return rows.size();
-                    }
-                });
+    static Plan plan(List<WriteRow> rows, Map<RowKey, StoredRow> stored, Duration ttl) {
+        Map<RowKey, StoredRow> remaining = new HashMap<>(stored);
+        List<WriteRow> upserts = new ArrayList<>();
+        List<WriteRow> touches = new ArrayList<>();
+        Map<SnapshotType, Integer> skipped = new EnumMap<>(SnapshotType.class);
+        for (WriteRow row : rows) {
+            StoredRow current = remaining.remove(new RowKey(row.type(), row.dto().getStrategyKey()));
+            if (current == null || !row.fingerprint().equals(current.fingerprint())) {
+                upserts.add(row);
+            } else if (!sameInstant(current.fetchedAt(), row.fetchedAt())
+                    || !sameInstant(current.expiresAt(), row.fetchedAt().plus(ttl))) {
+                touches.add(row);
+            } else {
+                skipped.merge(row.type(), 1, Integer::sum);
             }
+        }
+        List<RowKey> deletes = remaining.keySet().stream()
+                .sorted(Comparator.comparing(RowKey::type).thenComparing(RowKey::strategyKey))
+                .toList();
+        return new Plan(List.copyOf(upserts), List.copyOf(touches), deletes, Map.copyOf(skipped));
+    }
+
+    private Map<RowKey, StoredRow> loadStored() {
+        Map<RowKey, StoredRow> stored = new HashMap<>();
+        jdbc.query("SELECT snapshot_type, strategy_key, payload_fingerprint, fetched_at, expires_at FROM " + TABLE, rs -> {
+            stored.put(
+                    new RowKey(SnapshotType.valueOf(rs.getString("snapshot_type")), rs.getString("strategy_key")),
+                    new StoredRow(
+                            rs.getString("payload_fingerprint"),
+                            rs.getTimestamp("fetched_at").toInstant(),
+                            rs.getTimestamp("expires_at").toInstant()));
+        });
+        return stored;
+    }
+
+    private void delete(List<RowKey> keys) {
+        if (keys.isEmpty()) return;
+        jdbc.batchUpdate(DELETE_SQL, keys, keys.size(), (ps, key) -> {
+            ps.setString(1, key.type().name());
+            ps.setString(2, key.strategyKey());
+        });
+    }
+
+    private void upsert(List<WriteRow> rows, Duration ttl) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int index) throws SQLException {
+                WriteRow row = rows.get(index);
+                MetricStrategySnapshotDto dto = row.dto();
+                ps.setString(1, dto.getStrategyKey());
+                ps.setString(2, row.type().name());
+                ps.setString(3, dto.getGenerationId());
+                ps.setInt(4, dto.getMetricVersion());
+                ps.setString(5, dto.getSourceVersion());
+                ps.setString(6, dto.getWalletId());
+                ps.setString(7, dto.getStrategyCode());
+                ps.setString(8, dto.getScopeType());
+                ps.setString(9, dto.getScopeValue());
+                ps.setObject(10, dto.getComputedAt());
+                ps.setObject(11, dto.getDataAsOf());
+                ps.setTimestamp(12, Timestamp.from(row.fetchedAt()));
+                ps.setTimestamp(13, Timestamp.from(row.fetchedAt().plus(ttl)));
+                ps.setBoolean(14, dto.isDecisionFinal());
+                ps.setBoolean(15, dto.isAllowNewEntries());
+                ps.setString(16, json(dto.getReasonCodes()));
+                ps.setString(17, row.payload() == null ? json(dto) : row.payload());
+                ps.setString(18, row.fingerprint());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+
+    private void touch(List<WriteRow> rows, Duration ttl) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(TOUCH_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setTimestamp(1, Timestamp.from(row.fetchedAt()));
+            ps.setTimestamp(2, Timestamp.from(row.fetchedAt().plus(ttl)));
+            ps.setString(3, row.type().name());
+            ps.setString(4, row.dto().getStrategyKey());
         });
-        log.debug("event=metric_v2.snapshot.persisted rows={} atomicReplace=true", rows.size());
     }
 
     private List<WriteRow> flatten(MetricV2SnapshotStore.Snapshot snapshot) {
@@ -156,7 +271,7 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
         return rows;
     }
 
-    private static void append(
+    private void append(
             List<WriteRow> target,
             SnapshotType type,
             Map<String, MetricStrategySnapshotDto> values,
@@ -164,10 +279,45 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
     ) {
         if (values == null || values.isEmpty()) return;
         if (fetchedAt == null) throw new IllegalStateException("METRIC_V2_FETCHED_AT_REQUIRED:" + type);
+        Fingerprints known = fingerprints.get(type);
+        boolean reused = known != null && known.source() == values;
+        Map<String, String> byKey = reused ? known.byKey() : new HashMap<>();
         values.values().stream()
-                .sorted(java.util.Comparator.comparing(MetricStrategySnapshotDto::getStrategyKey))
-                .map(dto -> new WriteRow(type, dto, fetchedAt))
-                .forEach(target::add);
+                .sorted(Comparator.comparing(MetricStrategySnapshotDto::getStrategyKey))
+                .forEach(dto -> {
+                    if (reused) {
+                        target.add(new WriteRow(type, dto, fetchedAt, byKey.get(dto.getStrategyKey()), null));
+                        return;
+                    }
+                    String payload = json(dto);
+                    String fingerprint = fingerprint(payload);
+                    byKey.put(dto.getStrategyKey(), fingerprint);
+                    target.add(new WriteRow(type, dto, fetchedAt, fingerprint, payload));
+                });
+        if (!reused) {
+            fingerprints.put(type, new Fingerprints(values, Map.copyOf(byKey)));
+        }
+    }
+
+    static String fingerprint(String payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 no disponible para metric_strategy_snapshot_v2", ex);
+        }
+    }
+
+    private static void count(SnapshotType type, String result, long rows) {
+        if (rows > 0) {
+            Metrics.counter("signals.metric_v2.persistence.rows.total",
+                    "snapshotType", type.name().toLowerCase(Locale.ROOT), "result", result).increment(rows);
+        }
+    }
+
+    /** timestamptz guarda microsegundos. */
+    private static boolean sameInstant(Instant stored, Instant expected) {
+        return stored.equals(expected.truncatedTo(ChronoUnit.MICROS));
     }
 
     private MetricStrategySnapshotDto readDto(String json) {
@@ -191,7 +341,7 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
         return left.isAfter(right) ? left : right;
     }
 
-    private enum SnapshotType {
+    enum SnapshotType {
         SUMMARY,
         FULL,
         COPY_GUARD
@@ -200,6 +350,30 @@ public class PostgresMetricV2SnapshotPersistence implements MetricV2SnapshotPers
     private record PersistedRow(SnapshotType type, MetricStrategySnapshotDto dto, Instant fetchedAt) {
     }
 
-    private record WriteRow(SnapshotType type, MetricStrategySnapshotDto dto, Instant fetchedAt) {
+    /** {@code payload} es null cuando la huella viene de un mapa ya visto; se serializa si hay que escribirla. */
+    record WriteRow(
+            SnapshotType type,
+            MetricStrategySnapshotDto dto,
+            Instant fetchedAt,
+            String fingerprint,
+            String payload
+    ) {
+    }
+
+    record RowKey(SnapshotType type, String strategyKey) {
+    }
+
+    record StoredRow(String fingerprint, Instant fetchedAt, Instant expiresAt) {
+    }
+
+    record Plan(
+            List<WriteRow> upserts,
+            List<WriteRow> touches,
+            List<RowKey> deletes,
+            Map<SnapshotType, Integer> skipped
+    ) {
+    }
+
+    private record Fingerprints(Map<String, MetricStrategySnapshotDto> source, Map<String, String> byKey) {
     }
 }
@@ -0,0 +1,22 @@
+package com.apunto.engine.service.movement;
+
+import com.apunto.engine.entity.OperationMovementEventEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Escrituras del ledger de movimientos por lote: una sentencia por paso en vez de una por
+ * movimiento. Todo corre dentro de la transacción del llamador.
+ */
+public interface OperationMovementBatchStore {
+
+    /** movementKeys que ya están en el guard de dedupe. */
+    Set<String> recordedMovementKeys(Collection<String> movementKeys);
+
+    /** Advisory lock de transacción por posición, tomados en orden para que dos lotes no se crucen. */
+    void lockPositions(Collection<String> positionKeys);
+
+    void insertAll(List<OperationMovementEventEntity> entities);
+}
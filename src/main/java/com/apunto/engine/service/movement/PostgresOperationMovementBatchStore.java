@@ -0,0 +1,145 @@
+package com.apunto.engine.service.movement;
+
+import com.apunto.engine.entity.OperationMovementEventEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class PostgresOperationMovementBatchStore implements OperationMovementBatchStore {
+
+    static final List<String> COLUMNS = List.of(
+            "id_event", "id_order_origin", "movement_key", "idempotency_key", "position_key",
+            "id_wallet_origin", "parsymbol", "type_operation", "event_type", "delta_type",
+            "source_event_type", "status", "size_qty", "signed_size_qty", "previous_size_qty",
+            "resulting_size_qty", "delta_size_qty", "notional_usd", "margin_used_usd", "entry_price",
+            "mark_price", "exit_price", "realized_pnl_usd", "leverage", "raw_notional_usd",
+            "position_notional_usd", "closed_notional_usd", "closed_margin_used_usd", "effective_close_qty",
+            "effective_entry_price", "effective_exit_price", "effective_realized_pnl_usd",
+            "normalization_status", "normalization_reason", "economic_event_kind", "economic_event_version",
+            "source_event_id", "source_sequence", "source_fee_usd", "funding_pnl_usd",
+            "execution_price_basis", "notional_basis", "lifecycle_quality_flags", "source_estimated",
+            "wallet_version", "snapshot_version", "source_ts", "detected_at", "published_at", "event_time",
+            "trace_id", "source", "reason_code", "copy_eligible_users", "copy_submitted_tasks",
+            "copy_business_skipped", "copy_fallback_jobs", "copy_fallback_used", "raw", "date_creation"
+    );
+
+    static final String INSERT_SQL = "INSERT INTO futuros_operaciones.operation_movement_event ("
+            + String.join(", ", COLUMNS) + ") VALUES ("
+            + COLUMNS.stream().map(column -> "raw".equals(column) ? "?::jsonb" : "?").collect(Collectors.joining(", "))
+            + ")";
+
+    private static final int FLAGS_INDEX = COLUMNS.indexOf("lifecycle_quality_flags");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Set<String> recordedMovementKeys(Collection<String> movementKeys) {
+        if (movementKeys == null || movementKeys.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> recorded = new HashSet<>();
+        jdbcTemplate.query("""
+                        SELECT d.movement_key
+                        FROM futuros_operaciones.operation_movement_event_dedupe d
+                        WHERE d.movement_key = ANY(?)
+                        """,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", movementKeys.toArray(String[]::new))),
+                rs -> {
+                    recorded.add(rs.getString(1));
+                });
+        return recorded;
+    }
+
+    @Override
+    public void lockPositions(Collection<String> positionKeys) {
+        if (positionKeys == null || positionKeys.isEmpty()) {
+            return;
+        }
+        String[] ordered = new TreeSet<>(positionKeys).toArray(String[]::new);
+        jdbcTemplate.query("""
+                        SELECT pg_advisory_xact_lock(hashtextextended(k.position_key, 0))
+                        FROM unnest(?::text[]) AS k(position_key)
+                        """,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", ordered)),
+                rs -> {
+                });
+    }
+
+    @Override
+    public void insertAll(List<OperationMovementEventEntity> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return;
+        }
+        for (OperationMovementEventEntity entity : entities) {
+            if (entity.getIdEvent() == null) {
+                entity.setIdEvent(UUID.randomUUID());
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] values = values(entities.get(i));
+                for (int column = 0; column < values.length; column++) {
+                    if (column == FLAGS_INDEX && values[column] != null) {
+                        ps.setArray(column + 1, ps.getConnection().createArrayOf("text", (String[]) values[column]));
+                    } else {
+                        StatementCreatorUtils.setParameterValue(ps, column + 1, SqlTypeValue.TYPE_UNKNOWN, values[column]);
+                    }
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
+
+    /** Valores en el orden de {@link #COLUMNS}. */
+    Object[] values(OperationMovementEventEntity e) {
+        return new Object[]{
+                e.getIdEvent(), e.getIdOrderOrigin(), e.getMovementKey(), e.getIdempotencyKey(), e.getPositionKey(),
+                e.getIdWalletOrigin(), e.getParsymbol(), e.getTypeOperation(), e.getEventType(), e.getDeltaType(),
+                e.getSourceEventType(), e.getStatus(), e.getSizeQty(), e.getSignedSizeQty(), e.getPreviousSizeQty(),
+                e.getResultingSizeQty(), e.getDeltaSizeQty(), e.getNotionalUsd(), e.getMarginUsedUsd(), e.getEntryPrice(),
+                e.getMarkPrice(), e.getExitPrice(), e.getRealizedPnlUsd(), e.getLeverage(), e.getRawNotionalUsd(),
+                e.getPositionNotionalUsd(), e.getClosedNotionalUsd(), e.getClosedMarginUsedUsd(), e.getEffectiveCloseQty(),
+                e.getEffectiveEntryPrice(), e.getEffectiveExitPrice(), e.getEffectiveRealizedPnlUsd(),
+                e.getNormalizationStatus(), e.getNormalizationReason(), e.getEconomicEventKind(), e.getEconomicEventVersion(),
+                e.getSourceEventId(), e.getSourceSequence(), e.getSourceFeeUsd(), e.getFundingPnlUsd(),
+                e.getExecutionPriceBasis(), e.getNotionalBasis(), e.getLifecycleQualityFlags(), e.getSourceEstimated(),
+                e.getWalletVersion(), e.getSnapshotVersion(), e.getSourceTs(), e.getDetectedAt(), e.getPublishedAt(), e.getEventTime(),
+                e.getTraceId(), e.getSource(), e.getReasonCode(), e.getCopyEligibleUsers(), e.getCopySubmittedTasks(),
+                e.getCopyBusinessSkipped(), e.getCopyFallbackJobs(), e.getCopyFallbackUsed(), json(e), e.getDateCreation()
+        };
+    }
+
+    private String json(OperationMovementEventEntity entity) {
+        if (entity.getRaw() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(entity.getRaw());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Movement raw payload is not serializable", ex);
+        }
+    }
+}
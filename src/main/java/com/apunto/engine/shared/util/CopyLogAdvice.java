@@ -1,15 +1,28 @@
 package com.apunto.engine.shared.util;
 
+import org.slf4j.spi.LoggingEventBuilder;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Catalogo central de diagnosticos humanos para copy trading.
  *
  * <p>Objetivo: que los logs expliquen causa, impacto y accion sin duplicar strings
  * en cada servicio. Para agregar un caso nuevo solo se agrega un case en {@link #advice(String, Context)}.
+ *
+ * <p>El diagnostico solo depende del reasonCode y de cuatro banderas del contexto (sin wallet activa,
+ * cola atrasada, tareas enviadas, cache activa), asi que cada combinacion se arma una vez y queda
+ * interna: {@link #fields(String, Context)} devuelve siempre el mismo String y
+ * {@link #withAdvice(LoggingEventBuilder, String, Context)} no hace nada si el nivel esta apagado.
  */
 public final class CopyLogAdvice {
 
+    private static final int VARIANTS = 16;
+    private static final int MAX_INTERNED_REASON_CODES = 1_024;
+    private static final ConcurrentHashMap<String, Interned[]> INTERNED = new ConcurrentHashMap<>();
+
     private CopyLogAdvice() {
     }
 
@@ -38,6 +51,10 @@ public final class CopyLogAdvice {
             boolean expectedWhenNoActiveWallet,
             boolean shouldAlert
     ) {
+        public String area() {
+            return diagnosticArea(diagnosticCode);
+        }
+
         public String fields() {
             return "diagnosticCode=" + safeToken(diagnosticCode)
                     + " diagnosticArea=" + safeToken(diagnosticArea(diagnosticCode))
@@ -69,10 +86,94 @@ public final class CopyLogAdvice {
     }
 
     public static String fields(String reasonCode, Context context) {
-        return advice(reasonCode, context).fields();
+        return interned(reasonCode, context).fields();
     }
 
     public static Advice advice(String reasonCode, Context context) {
+        return interned(reasonCode, context).advice();
+    }
+
+    /**
+     * Agrega el diagnostico como pares key-value del evento de Logback. Con el nivel apagado SLF4J
+     * entrega un builder NOP y no se busca ni se arma nada.
+     */
+    public static LoggingEventBuilder withAdvice(LoggingEventBuilder event, String reasonCode, Context context) {
+        if (event instanceof NOPLoggingEventBuilder) {
+            return event;
+        }
+        Interned interned = interned(reasonCode, context);
+        Advice advice = interned.advice();
+        return event
+                .addKeyValue("diagnosticCode", interned.code())
+                .addKeyValue("diagnosticArea", interned.area())
+                .addKeyValue("diagnosticSeverity", advice.severity())
+                .addKeyValue("humanMessage", interned.humanMessage())
+                .addKeyValue("cause", interned.cause())
+                .addKeyValue("impact", interned.impact())
+                .addKeyValue("recommendedAction", interned.action())
+                .addKeyValue("expectedWhenNoActiveWallet", advice.expectedWhenNoActiveWallet())
+                .addKeyValue("shouldAlert", advice.shouldAlert());
+    }
+
+    /** Diagnostico armado sin pasar por el catalogo interno; el benchmark lo usa como linea base. */
+    static String render(String reasonCode, Context context) {
+        return build(reasonCode, context).fields();
+    }
+
+    private static Interned interned(String reasonCode, Context context) {
+        Context ctx = context == null ? Context.empty() : context;
+        String key = reasonCode == null ? "" : reasonCode;
+        Interned[] variants = INTERNED.get(key);
+        if (variants == null) {
+            if (INTERNED.size() >= MAX_INTERNED_REASON_CODES) {
+                return Interned.of(build(reasonCode, ctx));
+            }
+            variants = INTERNED.computeIfAbsent(key, ignored -> new Interned[VARIANTS]);
+        }
+        int variant = variant(ctx);
+        Interned interned = variants[variant];
+        if (interned == null) {
+            // Carrera benigna: dos hilos pueden armar el mismo diagnostico; Interned es inmutable.
+            interned = Interned.of(build(reasonCode, ctx));
+            variants[variant] = interned;
+        }
+        return interned;
+    }
+
+    private static int variant(Context ctx) {
+        int bits = 0;
+        if (noActiveWallet(ctx)) bits |= 1;
+        if (number(ctx.queueDepth()) >= 100) bits |= 2;
+        if (number(ctx.submittedTasks()) > 0) bits |= 4;
+        if (Boolean.TRUE.equals(ctx.cacheActive())) bits |= 8;
+        return bits;
+    }
+
+    private record Interned(
+            Advice advice,
+            String fields,
+            String code,
+            String area,
+            String humanMessage,
+            String cause,
+            String impact,
+            String action
+    ) {
+        private static Interned of(Advice advice) {
+            return new Interned(
+                    advice,
+                    advice.fields(),
+                    safeToken(advice.diagnosticCode()),
+                    safeToken(advice.area()),
+                    clean(advice.humanMessage()),
+                    clean(advice.cause()),
+                    clean(advice.impact()),
+                    clean(advice.action())
+            );
+        }
+    }
+
+    private static Advice build(String reasonCode, Context context) {
         String code = normalize(reasonCode);
         Context ctx = context == null ? Context.empty() : context;
         boolean noActiveWallet = noActiveWallet(ctx);
@@ -778,8 +879,12 @@ public final class CopyLogAdvice {
     }
 
     private static String quote(String value) {
+        return "\"" + clean(value) + "\"";
+    }
+
+    private static String clean(String value) {
         if (value == null) {
-            return "\"NA\"";
+            return "NA";
         }
         String clean = value
                 .replace("\\", "/")
@@ -790,6 +895,6 @@ public final class CopyLogAdvice {
         if (clean.length() > 1000) {
             clean = clean.substring(0, 1000);
         }
-        return "\"" + clean + "\"";
+        return clean;
     }
 }
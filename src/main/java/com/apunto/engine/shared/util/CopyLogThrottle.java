@@ -0,0 +1,84 @@
+package com.apunto.engine.shared.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita logs repetidos del mismo reasonCode por clave (por ejemplo la wallet).
+ *
+ * <p>Se escribe la primera linea de cada ventana; las siguientes solo se cuentan y
+ * {@link #drain()} entrega los conteos para el resumen periodico. Con ventana 0 todo pasa.
+ */
+public final class CopyLogThrottle {
+
+    private static final Cache<Key, Window> WINDOWS = Caffeine.newBuilder()
+            .maximumSize(20_000)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    private static volatile long windowMs = 10_000L;
+
+    private CopyLogThrottle() {
+    }
+
+    public static boolean allow(String reasonCode, String key) {
+        return allow(reasonCode, key, System.currentTimeMillis());
+    }
+
+    static boolean allow(String reasonCode, String key, long nowMs) {
+        long window = windowMs;
+        if (window <= 0L) {
+            return true;
+        }
+        return WINDOWS.get(new Key(reasonCode, key), ignored -> new Window()).tryOpen(nowMs, window);
+    }
+
+    /** Devuelve y resetea los conteos suprimidos desde el ultimo drain, de mayor a menor. */
+    public static List<Suppressed> drain() {
+        List<Suppressed> drained = new ArrayList<>();
+        WINDOWS.asMap().forEach((key, window) -> {
+            long count = window.suppressed.getAndSet(0L);
+            if (count > 0L) {
+                drained.add(new Suppressed(key.reasonCode(), key.key(), count));
+            }
+        });
+        drained.sort(Comparator.comparingLong(Suppressed::count).reversed());
+        return drained;
+    }
+
+    static void configure(long windowMs) {
+        CopyLogThrottle.windowMs = Math.max(0L, windowMs);
+    }
+
+    static void reset() {
+        WINDOWS.invalidateAll();
+    }
+
+    public record Suppressed(String reasonCode, String key, long count) {
+    }
+
+    private record Key(String reasonCode, String key) {
+    }
+
+    private static final class Window {
+        private static final long NEVER = Long.MIN_VALUE;
+
+        private final AtomicLong openedAtMs = new AtomicLong(NEVER);
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private boolean tryOpen(long nowMs, long windowMs) {
+            long opened = openedAtMs.get();
+            if ((opened == NEVER || nowMs - opened >= windowMs) && openedAtMs.compareAndSet(opened, nowMs)) {
+                return true;
+            }
+            suppressed.incrementAndGet();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.apunto.engine.shared.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resumen periodico de las lineas que {@link CopyLogThrottle} dejo de escribir. Los conteos son
+ * por instancia, por eso no usa SchedulerLock.
+ */
+@Slf4j
+@Component
+public class CopyLogThrottleReporter {
+
+    private final int maxKeys;
+
+    public CopyLogThrottleReporter(
+            @Value("${copy.log.throttle.window-ms:10000}") long windowMs,
+            @Value("${copy.log.throttle.summary-max-keys:20}") int maxKeys
+    ) {
+        CopyLogThrottle.configure(windowMs);
+        this.maxKeys = Math.max(1, maxKeys);
+        log.info("event=copy.log.throttle.config windowMs={} summaryMaxKeys={}", Math.max(0L, windowMs), this.maxKeys);
+    }
+
+    @Scheduled(fixedDelayString = "${copy.log.throttle.summary-ms:60000}")
+    public void report() {
+        List<CopyLogThrottle.Suppressed> suppressed = CopyLogThrottle.drain();
+        if (suppressed.isEmpty()) {
+            return;
+        }
+        long total = 0L;
+        for (CopyLogThrottle.Suppressed entry : suppressed) {
+            total += entry.count();
+        }
+        for (CopyLogThrottle.Suppressed entry : suppressed.subList(0, Math.min(maxKeys, suppressed.size()))) {
+            log.info("event=copy.log.throttle.suppressed reasonCode={} key={} suppressed={}",
+                    entry.reasonCode(), entry.key(), entry.count());
+        }
+        log.info("event=copy.log.throttle.summary keys={} suppressed={} keysOmitted={}",
+                suppressed.size(), total, Math.max(0, suppressed.size() - maxKeys));
+    }
+}
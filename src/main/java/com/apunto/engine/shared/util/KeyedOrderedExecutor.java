@@ -0,0 +1,206 @@
+package com.apunto.engine.shared.util;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor con un número fijo de carriles de un solo consumidor. Cada clave se asigna siempre
+ * al mismo carril por hash, así las tareas de una misma clave corren en orden FIFO sin locks y
+ * las de claves distintas corren en paralelo.
+ *
+ * <p>Cada carril tiene cola acotada y rechaza con {@link RejectedExecutionException}, igual que
+ * un {@code ThreadPoolTaskExecutor} con {@code AbortPolicy}. Las tareas urgentes (cierres) pasan
+ * delante de las normales ya encoladas en su carril; entre tareas de la misma prioridad se
+ * mantiene el FIFO.</p>
+ */
+public final class KeyedOrderedExecutor {
+
+    private static final int MAX_PER_LANE_GAUGES = 64;
+
+    private final String name;
+    private final ThreadPoolExecutor[] lanes;
+    private final int queueCapacityPerLane;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public KeyedOrderedExecutor(String name, int laneCount, int queueCapacityPerLane) {
+        this(name, laneCount, queueCapacityPerLane, false);
+    }
+
+    public KeyedOrderedExecutor(String name, int laneCount, int queueCapacityPerLane, boolean virtualThreads) {
+        if (laneCount <= 0) {
+            throw new IllegalArgumentException("laneCount debe ser > 0");
+        }
+        if (queueCapacityPerLane <= 0) {
+            throw new IllegalArgumentException("queueCapacityPerLane debe ser > 0");
+        }
+        this.name = name;
+        this.queueCapacityPerLane = queueCapacityPerLane;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = name + "-lane-" + i;
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name(threadName).factory()
+                    : runnable -> new Thread(runnable, threadName);
+            ThreadPoolExecutor lane = new ThreadPoolExecutor(
+                    1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LaneQueue(queueCapacityPerLane),
+                    threadFactory,
+                    new ThreadPoolExecutor.AbortPolicy());
+            lane.prestartCoreThread();
+            lanes[i] = lane;
+        }
+    }
+
+    public void execute(String key, Runnable task) {
+        execute(key, false, task);
+    }
+
+    public void execute(String key, boolean urgent, Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        lanes[laneOf(key)].execute(new LaneTask(urgent, sequence.getAndIncrement(), () -> {
+            if (context != null) MDC.setContextMap(context);
+            try {
+                task.run();
+            } finally {
+                MDC.clear();
+            }
+        }));
+    }
+
+    public int laneOf(String key) {
+        int h = key == null ? 0 : key.hashCode();
+        // Mezcla los bits altos: hashCode de UUIDs en texto no reparte bien con módulos chicos.
+        h ^= (h >>> 16);
+        return Math.floorMod(h, lanes.length);
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    public int queueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /** Espacio libre sumado de todas las colas; es la señal de backpressure para el claim. */
+    public int remainingCapacity() {
+        int remaining = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            remaining += lane.getQueue().remainingCapacity();
+        }
+        return remaining;
+    }
+
+    public int queuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    public int activeLanes() {
+        int active = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            active += lane.getActiveCount();
+        }
+        return active;
+    }
+
+    public int queueCapacityPerLane() {
+        return queueCapacityPerLane;
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        // Con cientos de carriles (modo virtual) el gauge por carril dispara la cardinalidad;
+        // basta con los agregados.
+        for (int i = 0; i < lanes.length && lanes.length <= MAX_PER_LANE_GAUGES; i++) {
+            int lane = i;
+            Gauge.builder("signals.copy.lane.queue.depth", this, e -> e.queueDepth(lane))
+                    .description("Tareas en cola por carril del executor ordenado")
+                    .tag("executor", name)
+                    .tag("lane", Integer.toString(lane))
+                    .register(registry);
+        }
+        Gauge.builder("signals.copy.lane.queue.remaining", this, KeyedOrderedExecutor::remainingCapacity)
+                .description("Capacidad libre total de los carriles")
+                .tag("executor", name)
+                .register(registry);
+        Gauge.builder("signals.copy.lane.queue.queued", this, KeyedOrderedExecutor::queuedTasks)
+                .description("Tareas en cola sumadas de todos los carriles")
+                .tag("executor", name)
+                .register(registry);
+        Gauge.builder("signals.copy.lane.active", this, KeyedOrderedExecutor::activeLanes)
+                .description("Carriles ejecutando una tarea")
+                .tag("executor", name)
+                .register(registry);
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            try {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException ex) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record LaneTask(boolean urgent, long seq, Runnable delegate) implements Runnable, Comparable<LaneTask> {
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            if (urgent != other.urgent) {
+                return urgent ? -1 : 1;
+            }
+            return Long.compare(seq, other.seq);
+        }
+    }
+
+    /*
+     * PriorityBlockingQueue no tiene tope: el offer rechaza al llegar a la capacidad para que el
+     * ThreadPoolExecutor del carril aplique AbortPolicy igual que con una cola acotada.
+     */
+    private static final class LaneQueue extends PriorityBlockingQueue<Runnable> {
+
+        private final int capacity;
+
+        private LaneQueue(int capacity) {
+            super(Math.min(capacity, 64));
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized boolean offer(Runnable task) {
+            if (size() >= capacity) {
+                return false;
+            }
+            return super.offer(task);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+}
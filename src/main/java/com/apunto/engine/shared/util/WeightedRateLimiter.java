@@ -0,0 +1,70 @@
+package com.apunto.engine.shared.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket por peso: cada llamada descuenta su peso (el request weight que cobra el exchange)
+ * de un presupuesto que se repone de forma continua hasta {@code weightPerWindow} por ventana. Una
+ * llamada más pesada que el presupuesto completo se cobra como el presupuesto completo.
+ *
+ * <p>{@link #acquire(int, long)} espera la reposición con un tope; si el tope no alcanza devuelve
+ * {@code false} sin descontar nada, y el caller decide si difiere el trabajo.</p>
+ */
+public final class WeightedRateLimiter {
+
+    private final double capacity;
+    private final double nanosPerWeight;
+    private final LongSupplier nanoTime;
+    private double available;
+    private long refilledAtNs;
+
+    public WeightedRateLimiter(int weightPerWindow, long windowNanos) {
+        this(weightPerWindow, windowNanos, System::nanoTime);
+    }
+
+    WeightedRateLimiter(int weightPerWindow, long windowNanos, LongSupplier nanoTime) {
+        if (weightPerWindow <= 0) {
+            throw new IllegalArgumentException("weightPerWindow debe ser > 0");
+        }
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("windowNanos debe ser > 0");
+        }
+        this.capacity = weightPerWindow;
+        this.nanosPerWeight = (double) windowNanos / weightPerWindow;
+        this.nanoTime = nanoTime;
+        this.available = weightPerWindow;
+        this.refilledAtNs = nanoTime.getAsLong();
+    }
+
+    /** Descuenta {@code weight} si ya está disponible; si no, devuelve los nanos que faltan. */
+    synchronized long tryAcquire(int weight) {
+        double cost = Math.min(capacity, Math.max(1, weight));
+        long now = nanoTime.getAsLong();
+        available = Math.min(capacity, available + (now - refilledAtNs) / nanosPerWeight);
+        refilledAtNs = now;
+        if (available >= cost) {
+            available -= cost;
+            return 0L;
+        }
+        return Math.max(1L, (long) Math.ceil((cost - available) * nanosPerWeight));
+    }
+
+    public boolean acquire(int weight, long maxWaitNanos) throws InterruptedException {
+        long deadlineNs = nanoTime.getAsLong() + Math.max(0L, maxWaitNanos);
+        while (true) {
+            long waitNs = tryAcquire(weight);
+            if (waitNs == 0L) {
+                return true;
+            }
+            if (nanoTime.getAsLong() + waitNs - deadlineNs > 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNs);
+        }
+    }
+
+    public synchronized double available() {
+        return Math.min(capacity, available + (nanoTime.getAsLong() - refilledAtNs) / nanosPerWeight);
+    }
+}
@@ -0,0 +1,41 @@
+-- A popular wallet fans one origin event out to thousands of copy_execution_job rows.
+-- The serialized OperacionEvent is stored once here, keyed by its SHA-256, and jobs
+-- reference it by payload_hash. Legacy rows keep their inline payload until refreshed.
+CREATE TABLE IF NOT EXISTS futuros_operaciones.copy_execution_job_payload (
+    payload_hash varchar(64) PRIMARY KEY,
+    payload text NOT NULL,
+    created_at timestamptz NOT NULL DEFAULT now(),
+    CONSTRAINT chk_copy_execution_job_payload_hash CHECK (payload_hash ~ '^[0-9a-f]{64}$')
+);
+
+ALTER TABLE futuros_operaciones.copy_execution_job
+    ADD COLUMN IF NOT EXISTS payload_hash varchar(64);
+
+ALTER TABLE futuros_operaciones.copy_execution_job
+    ALTER COLUMN payload DROP NOT NULL;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conname = 'chk_copy_execution_job_payload_source'
+          AND connamespace = 'futuros_operaciones'::regnamespace
+    ) THEN
+        ALTER TABLE futuros_operaciones.copy_execution_job
+            ADD CONSTRAINT chk_copy_execution_job_payload_source
+            CHECK (payload IS NOT NULL OR payload_hash IS NOT NULL) NOT VALID;
+    END IF;
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conname = 'fk_copy_execution_job_payload_hash'
+          AND connamespace = 'futuros_operaciones'::regnamespace
+    ) THEN
+        ALTER TABLE futuros_operaciones.copy_execution_job
+            ADD CONSTRAINT fk_copy_execution_job_payload_hash
+            FOREIGN KEY (payload_hash)
+            REFERENCES futuros_operaciones.copy_execution_job_payload (payload_hash) NOT VALID;
+    END IF;
+END $$;
+
+COMMENT ON COLUMN futuros_operaciones.copy_execution_job.payload_hash IS
+    'SHA-256 of the shared OperacionEvent payload; payload-change detection compares this hash.';
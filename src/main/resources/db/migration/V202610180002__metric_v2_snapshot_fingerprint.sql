@@ -0,0 +1,5 @@
+-- MetricV2 snapshots are persisted as a diff: each row keeps the SHA-256 of its JSON payload
+-- so a refresh only rewrites rows whose payload changed. Rows from before this migration have
+-- no fingerprint and are rewritten once on the next refresh.
+ALTER TABLE futuros_operaciones.metric_strategy_snapshot_v2
+    ADD COLUMN IF NOT EXISTS payload_fingerprint varchar(64);
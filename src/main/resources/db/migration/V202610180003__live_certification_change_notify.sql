@@ -0,0 +1,24 @@
+-- Live entry authorization caches candidate certifications in memory and drops them when
+-- either table changes. Statement-level, so a batch of transitions sends a single notice,
+-- and pg_notify is only delivered once the writing transaction commits.
+CREATE OR REPLACE FUNCTION live_certification_changed_notify()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    PERFORM pg_notify('live_certification_changed', TG_TABLE_NAME);
+    RETURN NULL;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_strategy_live_certification_changed ON strategy_live_certification;
+CREATE TRIGGER trg_strategy_live_certification_changed
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON strategy_live_certification
+FOR EACH STATEMENT
+EXECUTE FUNCTION live_certification_changed_notify();
+
+DROP TRIGGER IF EXISTS trg_user_live_certification_adoption_changed ON user_live_certification_adoption;
+CREATE TRIGGER trg_user_live_certification_adoption_changed
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON user_live_certification_adoption
+FOR EACH STATEMENT
+EXECUTE FUNCTION live_certification_changed_notify();
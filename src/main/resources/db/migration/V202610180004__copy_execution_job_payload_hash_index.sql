@@ -0,0 +1,10 @@
+SET lock_timeout = '60s';
+
+-- Orphaned shared payloads are purged by copy_execution_job.payload_hash; without this index
+-- both the anti-join and the foreign key check on each deleted payload scan the job table.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_copy_execution_job_payload_hash
+    ON futuros_operaciones.copy_execution_job (payload_hash)
+    WHERE payload_hash IS NOT NULL;
+
+COMMENT ON INDEX futuros_operaciones.ix_copy_execution_job_payload_hash IS
+    'Referencing jobs per shared payload, used by the orphan payload purge';
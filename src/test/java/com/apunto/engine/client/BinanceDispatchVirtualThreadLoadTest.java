@@ -0,0 +1,186 @@
+package com.apunto.engine.client;
+
+import com.apunto.engine.config.CopyJobExecutorConfig;
+import com.apunto.engine.config.RestClientConfig;
+import com.apunto.engine.dto.client.NewOperationClientRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class BinanceDispatchVirtualThreadLoadTest {
+
+    private static final String ORDER_RESPONSE = """
+            {"status":"OK","statusCode":200,"data":{"symbol":"BTCUSDT","orderId":1,"status":"FILLED"}}
+            """;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<String> traceIds = ConcurrentHashMap.newKeySet();
+    private volatile long engineDelayMs = 20L;
+    private HttpServer server;
+
+    @BeforeEach
+    void startStubEngine() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16_384);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/binance/futures/order", this::respond);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStubEngine() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void virtualModeKeepsMdcAndBulkheadCapsDownstreamConcurrency() throws InterruptedException {
+        DownstreamBulkheadInterceptor bulkhead = new DownstreamBulkheadInterceptor("binance", 4, Duration.ofSeconds(5));
+        BinanceClient client = client(bulkhead);
+        ThreadPoolTaskExecutor executor = new CopyJobExecutorConfig().copyJobExecutor(16, 1_000, true, 10_000);
+        int orders = 64;
+        CountDownLatch done = new CountDownLatch(orders);
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            for (int i = 0; i < orders; i++) {
+                MDC.put("traceId", "trc_" + i);
+                executor.execute(() -> {
+                    try {
+                        send(client);
+                    } catch (RuntimeException ex) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+                MDC.clear();
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, failures.get());
+        assertEquals(orders, requests.get());
+        assertEquals(orders, traceIds.size(), "each task must see the MDC of the thread that submitted it");
+        assertTrue(maxInFlight.get() <= 4, "bulkhead must cap in-flight calls, max=" + maxInFlight.get());
+        assertEquals(0, bulkhead.inFlight());
+    }
+
+    @Test
+    void saturatedBulkheadRejectsBeforeSendingTheOrder() throws InterruptedException {
+        engineDelayMs = 500L;
+        DownstreamBulkheadInterceptor bulkhead = new DownstreamBulkheadInterceptor("binance", 1, Duration.ofMillis(20))
+                .bindMetrics(new SimpleMeterRegistry());
+        BinanceClient client = client(bulkhead);
+        Thread holder = Thread.ofVirtual().start(() -> send(client));
+        while (bulkhead.inFlight() == 0) Thread.sleep(2);
+
+        RestClientException rejected = assertThrows(RestClientException.class, () -> send(client));
+        holder.join();
+
+        assertTrue(rejected.getMessage().contains("downstream_bulkhead_saturated"), rejected.getMessage());
+        assertEquals(1, requests.get(), "the rejected order never reaches the engine");
+    }
+
+    @Test
+    void tenThousandConcurrentOrdersPlatformVersusVirtual() throws InterruptedException {
+        assumeTrue(Boolean.getBoolean("copy.binance.dispatch.benchmark.enabled"),
+                "set -Dcopy.binance.dispatch.benchmark.enabled=true to run the 10k in-flight dispatch load test");
+
+        int orders = 10_000;
+        engineDelayMs = Long.getLong("copy.binance.dispatch.benchmark.delay-ms", 20L);
+        for (boolean virtual : new boolean[]{false, true}) {
+            requests.set(0);
+            maxInFlight.set(0);
+            DownstreamBulkheadInterceptor bulkhead = new DownstreamBulkheadInterceptor("binance", 512, Duration.ofSeconds(60));
+            BinanceClient client = client(bulkhead);
+            ThreadPoolTaskExecutor executor = new CopyJobExecutorConfig().copyJobExecutor(16, orders, virtual, orders);
+            CountDownLatch done = new CountDownLatch(orders);
+            AtomicInteger failures = new AtomicInteger();
+            long started = System.nanoTime();
+            try {
+                for (int i = 0; i < orders; i++) {
+                    executor.execute(() -> {
+                        try {
+                            send(client);
+                        } catch (RuntimeException ex) {
+                            if (failures.incrementAndGet() == 1) System.out.println("PERF_FIRST_FAILURE " + ex);
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertTrue(done.await(5, TimeUnit.MINUTES));
+            } finally {
+                executor.shutdown();
+            }
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            System.out.printf(Locale.ROOT,
+                    "PERF_BINANCE_DISPATCH mode=%s orders=%d engineDelayMs=%d failures=%d maxInFlight=%d seconds=%.2f ordersPerSec=%.0f%n",
+                    virtual ? "virtual" : "platform16", orders, engineDelayMs, failures.get(), maxInFlight.get(),
+                    seconds, orders / seconds);
+        }
+    }
+
+    private BinanceClient client(DownstreamBulkheadInterceptor bulkhead) {
+        RestClientConfig config = new RestClientConfig();
+        RestClient restClient = config.binanceRestClient(
+                RestClient.builder(),
+                config.binanceClientHttpRequestFactory(5_000, 30_000),
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                bulkhead);
+        return config.binanceInfoClient(restClient);
+    }
+
+    private static void send(BinanceClient client) {
+        client.openPosition("key", "secret", "origin-1", "user-1", "0xwallet", MDC.get("traceId"),
+                NewOperationClientRequest.builder().symbol("BTCUSDT").quantity("0.001").build());
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            String traceId = exchange.getRequestHeaders().getFirst("X-COPY-TRACE-ID");
+            if (traceId != null) traceIds.add(traceId);
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(engineDelayMs);
+            byte[] body = ORDER_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.apunto.engine.hyperliquid.controller;
+
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaAcceptedResponse;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaBatchResponse;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaRequest;
+import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
+import com.apunto.engine.hyperliquid.mapper.HyperliquidDeltaOperacionMapper;
+import com.apunto.engine.hyperliquid.service.HyperliquidDirectDeltaIngestService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HyperliquidDirectDeltaControllerTest {
+
+    @Test
+    void malformedItemIsRejectedAtItsIndexAndTheRestOfTheBatchIsIngested() {
+        CapturingIngest ingest = new CapturingIngest();
+        HyperliquidDirectDeltaController controller =
+                new HyperliquidDirectDeltaController(new HyperliquidDeltaOperacionMapper(), ingest);
+
+        HyperliquidDeltaBatchResponse response = controller.receiveDeltaBatch("replica", List.of(
+                request("open-hype", "OPEN", "HYPE"),
+                request("no-change-btc", "NO_CHANGE", "BTC"),
+                request("resize-btc", "RESIZE", "BTC"),
+                request("open-eth", "OPEN", "ETH")
+        )).getBody();
+
+        assertEquals(List.of("open-hype", "open-eth"),
+                ingest.received.stream().map(HyperliquidMappedDelta::idempotencyKey).toList(),
+                "only the mappable items reach the ingest service");
+        assertEquals(List.of("ACCEPTED", "REJECTED", "REJECTED", "ACCEPTED"),
+                response.items().stream().map(HyperliquidDeltaBatchResponse.Item::status).toList());
+        assertEquals(List.of(0, 1, 2, 3),
+                response.items().stream().map(HyperliquidDeltaBatchResponse.Item::index).toList());
+        assertEquals("NO_CHANGE delta is not copyable", response.items().get(1).reasonCode());
+        assertEquals("prior_delta_rejected", response.items().get(2).reasonCode(),
+                "a later delta of the rejected position must not overtake it");
+        assertEquals("hyperliquid-position:0xabc:BTCUSD:LONG", response.items().get(2).positionKey());
+        assertEquals("open-eth", response.items().get(3).idempotencyKey());
+        assertEquals(2, response.accepted());
+        assertEquals(2, response.rejected());
+        assertEquals(7, response.queueDepth());
+    }
+
+    private HyperliquidDeltaRequest request(String idempotencyKey, String deltaType, String symbol) {
+        return new HyperliquidDeltaRequest(
+                null,
+                idempotencyKey,
+                null,
+                deltaType,
+                "hyperliquid",
+                "0xabc",
+                null,
+                symbol,
+                "LONG",
+                "OPEN",
+                BigDecimal.ONE,
+                null,
+                new BigDecimal("42.106"),
+                BigDecimal.TEN,
+                new BigDecimal("42.106"),
+                new BigDecimal("42.106"),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                1778905103699L,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                false
+        );
+    }
+
+    private static final class CapturingIngest implements HyperliquidDirectDeltaIngestService {
+        private final List<HyperliquidMappedDelta> received = new ArrayList<>();
+
+        @Override
+        public HyperliquidDeltaAcceptedResponse accept(HyperliquidMappedDelta mappedDelta) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public HyperliquidDeltaBatchResponse acceptAll(List<HyperliquidMappedDelta> mappedDeltas) {
+            received.addAll(mappedDeltas);
+            List<HyperliquidDeltaBatchResponse.Item> items = new ArrayList<>();
+            for (int i = 0; i < mappedDeltas.size(); i++) {
+                items.add(HyperliquidDeltaBatchResponse.Item.of(
+                        i, HyperliquidDeltaBatchResponse.ACCEPTED, null, mappedDeltas.get(i)));
+            }
+            return HyperliquidDeltaBatchResponse.of(items, 7);
+        }
+    }
+}
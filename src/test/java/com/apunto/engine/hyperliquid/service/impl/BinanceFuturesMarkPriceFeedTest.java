@@ -0,0 +1,234 @@
+package com.apunto.engine.hyperliquid.service.impl;
+
+import com.apunto.engine.dto.client.BinanceFuturesMarketPriceClientDto;
+import com.apunto.engine.service.ProcesBinanceService;
+import com.apunto.engine.service.binance.BinanceFuturesSymbolCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinanceFuturesMarkPriceFeedTest {
+
+    private static final String PREMIUM_INDEX = """
+            [
+              {"symbol":"BTCUSDT","markPrice":"65000.10000000","indexPrice":"64990","time":1783944000000},
+              {"symbol":"1000PEPEUSDT","markPrice":"0.01234000","indexPrice":"0.0123","time":1783944000500},
+              {"symbol":"DEADUSDT","markPrice":"0","time":1783944000000}
+            ]
+            """;
+
+    private final ManualClock clock = new ManualClock(Instant.parse("2026-07-13T12:00:00Z"));
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void lookupReadsTheLastPublishedTableUntilItGoesStale() throws Exception {
+        BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, null, clock);
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.STALE, feed.lookup("BTCUSDT").status(), "nothing published yet");
+
+        assertEquals(2, feed.apply(PREMIUM_INDEX));
+        BinanceFuturesMarkPriceFeed.Lookup btc = feed.lookup("BTCUSDT");
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.FRESH, btc.status());
+        assertEquals(new BigDecimal("65000.10000000"), btc.markPrice());
+        assertEquals(1783944000000L, btc.eventTimeMs());
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.MISSING, feed.lookup("DEADUSDT").status());
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.MISSING, feed.lookup("ETHUSDT").status());
+
+        clock.advance(Duration.ofMillis(5_001));
+        BinanceFuturesMarkPriceFeed.Lookup stale = feed.lookup("BTCUSDT");
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.STALE, stale.status());
+        assertEquals(5_001L, stale.tableAgeMs());
+    }
+
+    @Test
+    void invalidBodyKeepsThePreviousTable() throws Exception {
+        BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, null, clock);
+        feed.apply(PREMIUM_INDEX);
+
+        assertThrows(IllegalStateException.class, () -> feed.apply("[]"));
+        assertThrows(IllegalStateException.class, () -> feed.apply("{\"code\":-1003}"));
+        assertEquals(BinanceFuturesMarkPriceFeed.Status.FRESH, feed.lookup("BTCUSDT").status());
+    }
+
+    @Test
+    void tableFindsEverySymbolOfALargeListing() {
+        List<String> symbols = new ArrayList<>();
+        List<BigDecimal> prices = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            symbols.add(String.format(Locale.ROOT, "SYM%dUSDT", i));
+            prices.add(BigDecimal.valueOf(i + 1L));
+            times.add((long) i);
+        }
+        BinanceFuturesMarkPriceFeed.PriceTable table =
+                new BinanceFuturesMarkPriceFeed.PriceTable(symbols, prices, times, 1L);
+
+        assertEquals(1_000, table.size());
+        for (String symbol : symbols) {
+            assertTrue(table.slot(symbol) >= 0, symbol);
+        }
+        assertEquals(-1, table.slot("SYM1000USDT"));
+    }
+
+    @Test
+    void refreshFetchesAllSymbolsInOneRequest() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/fapi/v1/premiumIndex", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = PREMIUM_INDEX.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        });
+        server.start();
+        try {
+            RestClient restClient = RestClient.builder()
+                    .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                    .build();
+            BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, restClient, clock);
+
+            feed.refresh();
+
+            assertEquals(1, requests.get());
+            assertEquals(BinanceFuturesMarkPriceFeed.Status.FRESH, feed.lookup("1000PEPEUSDT").status());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void normalizerReadsTheFeedAndKeepsTheContractMultiplier() throws Exception {
+        BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, null, clock);
+        feed.apply(PREMIUM_INDEX);
+        BinanceFuturesPriceNormalizerService normalizer = normalizer(feed);
+
+        BinanceFuturesPriceNormalizerService.BinancePriceReference pepe = normalizer.resolve("PEPEUSD").orElseThrow();
+        assertEquals(0, new BigDecimal("0.00001234").compareTo(pepe.price()));
+        assertEquals(0, new BigDecimal("1000").compareTo(pepe.contractMultiplier()));
+        assertEquals("binance_futures_mark_price_feed", pepe.source());
+
+        clock.advance(Duration.ofSeconds(10));
+        BinanceFuturesPriceNormalizerService.BinancePriceReference stale = normalizer.resolve("PEPEUSD").orElseThrow();
+        assertEquals("last_good_cache", stale.source(), "engine and ticker are unavailable, so the last good price is served");
+        assertEquals(0, pepe.price().compareTo(stale.price()));
+    }
+
+    @Test
+    void staleFeedFallsBackToTheEnginePrice() throws Exception {
+        BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, null, clock);
+        feed.apply(PREMIUM_INDEX);
+        AtomicInteger engineCalls = new AtomicInteger();
+        BinanceFuturesMarketPriceClientDto enginePrice = new BinanceFuturesMarketPriceClientDto();
+        enginePrice.setAvailable(true);
+        enginePrice.setPrice(new BigDecimal("66000"));
+        enginePrice.setSource("last");
+        ProcesBinanceService engine = (ProcesBinanceService) Proxy.newProxyInstance(
+                ProcesBinanceService.class.getClassLoader(),
+                new Class<?>[]{ProcesBinanceService.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getMarketPrice")) {
+                        engineCalls.incrementAndGet();
+                        return Optional.of(enginePrice);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        BinanceFuturesPriceNormalizerService normalizer = normalizer(feed, engine);
+
+        assertEquals("binance_futures_mark_price_feed", normalizer.resolve("BTCUSDT").orElseThrow().source());
+        assertEquals(0, engineCalls.get(), "a fresh feed never calls the engine");
+
+        clock.advance(Duration.ofSeconds(10));
+        BinanceFuturesPriceNormalizerService.BinancePriceReference stale = normalizer.resolve("BTCUSDT").orElseThrow();
+        assertEquals("binance_engine_last", stale.source());
+        assertEquals(0, new BigDecimal("66000").compareTo(stale.price()));
+        assertEquals("binance_cache", normalizer.resolve("BTCUSDT").orElseThrow().source(),
+                "the per-symbol cache keeps a stale feed from calling the engine on every resolve");
+        assertEquals(1, engineCalls.get());
+    }
+
+    @Test
+    void symbolsMissingFromAFreshFeedGoToTheMissCache() throws Exception {
+        BinanceFuturesMarkPriceFeed feed = new BinanceFuturesMarkPriceFeed(objectMapper, true, 5_000L, null, clock);
+        feed.apply(PREMIUM_INDEX);
+        BinanceFuturesPriceNormalizerService normalizer = normalizer(feed);
+
+        assertTrue(normalizer.resolve("ETHUSDT").isEmpty());
+        feed.apply(PREMIUM_INDEX.replace("BTCUSDT", "ETHUSDT"));
+        assertTrue(normalizer.resolve("ETHUSDT").isEmpty(), "the miss is remembered for the miss-cache ttl");
+    }
+
+    private BinanceFuturesPriceNormalizerService normalizer(BinanceFuturesMarkPriceFeed feed) {
+        return normalizer(feed, null);
+    }
+
+    private BinanceFuturesPriceNormalizerService normalizer(BinanceFuturesMarkPriceFeed feed, ProcesBinanceService engine) {
+        BinanceFuturesSymbolCatalog catalog = new BinanceFuturesSymbolCatalog() {
+            @Override
+            public Optional<SymbolResolution> resolve(String rawSymbol) {
+                String canonical = rawSymbol.equals("PEPEUSD") ? "1000PEPEUSDT" : rawSymbol;
+                return Optional.of(new SymbolResolution(rawSymbol, canonical, null, false));
+            }
+
+            @Override
+            public boolean isSupported(String rawSymbol) {
+                return true;
+            }
+
+            @Override
+            public int cachedSymbols() {
+                return 2;
+            }
+        };
+        return new BinanceFuturesPriceNormalizerService(objectMapper, catalog, engine, feed,
+                true, engine != null, true, "http://127.0.0.1:9", 100, 750L, 2048L, 300_000L, 4096L, 60_000L, 4096L);
+    }
+
+    private static final class ManualClock extends Clock {
+        private Instant now;
+
+        private ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
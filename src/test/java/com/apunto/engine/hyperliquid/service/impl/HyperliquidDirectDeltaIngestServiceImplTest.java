@@ -4,6 +4,7 @@ import com.apunto.engine.dto.client.MetricaWalletDto;
 import com.apunto.engine.entity.UserCopyAllocationEntity;
 import com.apunto.engine.events.OperacionEvent;
 import com.apunto.engine.hyperliquid.config.HyperliquidDirectIngestProperties;
+import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaBatchResponse;
 import com.apunto.engine.hyperliquid.dto.HyperliquidDeltaRequest;
 import com.apunto.engine.hyperliquid.dto.HyperliquidDirectCopyDispatchResult;
 import com.apunto.engine.hyperliquid.dto.HyperliquidMappedDelta;
@@ -27,7 +28,10 @@ import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -107,6 +111,156 @@ class HyperliquidDirectDeltaIngestServiceImplTest {
         }
     }
 
+    @Test
+    void batchReportsEachItemAndRejectsLaterDeltasOfARejectedPosition() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HyperliquidDirectIngestProperties properties = new HyperliquidDirectIngestProperties();
+        properties.setEnabled(true);
+        properties.setWorkerThreads(1);
+        properties.setQueueCapacity(1);
+        properties.setDedupeEnabled(true);
+        properties.setDistributedDedupeEnabled(false);
+        HyperliquidOriginPositionStoreService originStore = originStore(registry);
+        HyperliquidDirectDeltaIngestServiceImpl service = new HyperliquidDirectDeltaIngestServiceImpl(
+                properties,
+                new CapturingDispatch(),
+                new HyperliquidDirectIngestIdempotencyGuard(properties, new JdbcTemplate(), registry),
+                originStore,
+                new CapturingMovementLedger(),
+                new CapturingShadow(),
+                registry,
+                false,
+                16,
+                1,
+                0L,
+                100L
+        );
+        try {
+            HyperliquidDeltaBatchResponse response = service.acceptAll(List.of(
+                    mappedAdjustment("open-a", "OPEN", "1", "42.106", 1778905103699L),
+                    mappedAdjustment("open-b", "OPEN", "2", "84.212", 1778905103700L),
+                    mappedAdjustment("open-c", "OPEN", "3", "126.318", 1778905103701L),
+                    mappedAdjustment("open-a", "OPEN", "1", "42.106", 1778905103699L)
+            ));
+
+            assertEquals(List.of("ACCEPTED", "REJECTED", "REJECTED", "DUPLICATE"),
+                    response.items().stream().map(HyperliquidDeltaBatchResponse.Item::status).toList());
+            assertEquals("queue_full", response.items().get(1).reasonCode());
+            assertEquals("prior_delta_rejected", response.items().get(2).reasonCode(),
+                    "a later delta of the same position must not overtake the rejected one");
+            assertEquals(1, response.accepted());
+            assertEquals(1, response.duplicates());
+            assertEquals(2, response.rejected());
+            assertEquals(1, response.queueDepth());
+        } finally {
+            originStore.stop();
+        }
+    }
+
+    @Test
+    void batchOfInMemoryDuplicatesSkipsTheDistributedClaim() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HyperliquidDirectIngestProperties properties = new HyperliquidDirectIngestProperties();
+        properties.setEnabled(true);
+        properties.setWorkerThreads(1);
+        properties.setQueueCapacity(16);
+        properties.setDedupeEnabled(true);
+        properties.setDistributedDedupeEnabled(false);
+        AtomicInteger claimCalls = new AtomicInteger();
+        HyperliquidOriginPositionStoreService originStore = originStore(registry);
+        HyperliquidDirectDeltaIngestServiceImpl service = new HyperliquidDirectDeltaIngestServiceImpl(
+                properties,
+                new CapturingDispatch(),
+                new HyperliquidDirectIngestIdempotencyGuard(properties, new JdbcTemplate(), registry) {
+                    @Override
+                    public List<Claim> tryAcquireAll(List<HyperliquidMappedDelta> mappedDeltas, List<String> dedupeKeys) {
+                        claimCalls.incrementAndGet();
+                        return super.tryAcquireAll(mappedDeltas, dedupeKeys);
+                    }
+                },
+                originStore,
+                new CapturingMovementLedger(),
+                new CapturingShadow(),
+                registry,
+                false,
+                16,
+                1,
+                0L,
+                100L
+        );
+        try {
+            HyperliquidMappedDelta open = mappedAdjustment("dup-a", "OPEN", "1", "42.106", 1778905103699L);
+            service.acceptAll(List.of(open));
+
+            HyperliquidDeltaBatchResponse response = service.acceptAll(List.of(open, open));
+
+            assertEquals(List.of("DUPLICATE", "DUPLICATE"),
+                    response.items().stream().map(HyperliquidDeltaBatchResponse.Item::status).toList());
+            assertEquals(1, claimCalls.get(), "a batch with nothing pending must not round-trip to the guard");
+        } finally {
+            originStore.stop();
+        }
+    }
+
+    @Test
+    void failingEventRollsBackItsShadowBatchAndTheOthersAreAppliedOnce() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HyperliquidDirectIngestProperties properties = new HyperliquidDirectIngestProperties();
+        properties.setEnabled(true);
+        properties.setWorkerThreads(1);
+        properties.setQueueCapacity(16);
+        TransactionalShadow shadow = new TransactionalShadow();
+        HyperliquidOriginPositionStoreService originStore = originStore(registry);
+        HyperliquidDirectDeltaIngestServiceImpl service = new HyperliquidDirectDeltaIngestServiceImpl(
+                properties,
+                new CapturingDispatch(),
+                new HyperliquidDirectIngestIdempotencyGuard(properties, new JdbcTemplate(), registry),
+                originStore,
+                new CapturingMovementLedger(),
+                shadow,
+                registry,
+                true,
+                16,
+                1,
+                0L,
+                100L
+        );
+        try {
+            HyperliquidMappedDelta first = mappedAdjustment("shadow-a", "OPEN", "1", "42.106", 1778905103699L);
+            HyperliquidMappedDelta poison = mappedAdjustment("shadow-b", "OPEN", "2", "84.212", 1778905103700L);
+            HyperliquidMappedDelta third = mappedAdjustment("shadow-c", "OPEN", "3", "126.318", 1778905103701L);
+            shadow.keys.put(first.event(), "shadow-a");
+            shadow.keys.put(poison.event(), "shadow-b");
+            shadow.keys.put(third.event(), "shadow-c");
+            shadow.poison = poison.event();
+            long acceptedNs = System.nanoTime();
+
+            service.processShadowBatch(List.of(
+                    new HyperliquidDirectDeltaIngestServiceImpl.ShadowTask(first, 0L, acceptedNs, "trace-a"),
+                    new HyperliquidDirectDeltaIngestServiceImpl.ShadowTask(poison, 0L, acceptedNs, "trace-b"),
+                    new HyperliquidDirectDeltaIngestServiceImpl.ShadowTask(third, 0L, acceptedNs, "trace-c")
+            ), 0);
+
+            assertEquals(List.of("shadow-a", "shadow-c"), shadow.applied,
+                    "the rolled-back batch is replayed per event and each healthy event lands once");
+            assertEquals(1.0, registry.get("signals.copy.shadow.tx_batch.total")
+                    .tag("result", "replay_per_event").counter().count());
+            assertEquals(3L, registry.get("shadow_queue_delay").timer().count(),
+                    "queue delay is recorded once per event on the batch path, replay included");
+
+            service.processShadowBatch(List.of(
+                    new HyperliquidDirectDeltaIngestServiceImpl.ShadowTask(first, 0L, acceptedNs, "trace-a"),
+                    new HyperliquidDirectDeltaIngestServiceImpl.ShadowTask(third, 0L, acceptedNs, "trace-c")
+            ), 0);
+            assertEquals(5L, registry.get("shadow_queue_delay").timer().count());
+            assertEquals(1.0, registry.get("signals.copy.shadow.tx_batch.total")
+                    .tag("result", "committed").counter().count());
+        } finally {
+            service.stop();
+            originStore.stop();
+        }
+    }
+
     @Test
     void adjustmentDedupeKeyIgnoresNoisyIdempotencyKeyWhenSourceStateIsTheSame() {
         HyperliquidMappedDelta first = mappedAdjustment("idempotency-a", "RESIZE", "100.0000", "4210.600", 1778905103699L);
@@ -292,6 +446,59 @@ class HyperliquidDirectDeltaIngestServiceImplTest {
         }
     }
 
+    /** Aplica cada lote en una "transacción": si un evento falla no queda nada del lote. */
+    private static final class TransactionalShadow implements ShadowCopyTradingService {
+        private final Map<OperacionEvent, String> keys = new IdentityHashMap<>();
+        private final List<String> applied = new ArrayList<>();
+        private OperacionEvent poison;
+
+        @Override
+        public int[] recordShadowEvents(List<ShadowEventInput> events) {
+            List<String> pending = new ArrayList<>();
+            for (ShadowEventInput input : events) {
+                pending.add(apply(input.event()));
+            }
+            applied.addAll(pending);
+            return pending.stream().mapToInt(key -> 1).toArray();
+        }
+
+        @Override
+        public int recordShadowEvent(OperacionEvent event) {
+            applied.add(apply(event));
+            return 1;
+        }
+
+        private String apply(OperacionEvent event) {
+            if (event == poison) {
+                throw new IllegalStateException("poison shadow event");
+            }
+            return keys.get(event);
+        }
+
+        @Override
+        public void syncShadowAllocations(
+                UUID idUser,
+                List<MetricaWalletDto> candidates,
+                int userMaxWallet,
+                OffsetDateTime now
+        ) {
+        }
+
+        @Override
+        public void linkLiveAllocations(UUID idUser, List<UserCopyAllocationEntity> liveAllocations) {
+        }
+
+        @Override
+        public boolean isSeparateShadowEnabled() {
+            return true;
+        }
+
+        @Override
+        public boolean isLivePromotable(UUID idUser, MetricaWalletDto candidate) {
+            return false;
+        }
+    }
+
     private static final class CapturingShadow implements ShadowCopyTradingService {
         private final AtomicInteger calls = new AtomicInteger();
 
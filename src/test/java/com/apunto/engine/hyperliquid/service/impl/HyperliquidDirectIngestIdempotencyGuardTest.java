@@ -7,10 +7,14 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -159,6 +163,41 @@ class HyperliquidDirectIngestIdempotencyGuardTest {
                 .tryAcquire(delta("key-a", "BTCUSDT"), "dedupe-a"));
     }
 
+    @Test
+    void batchClaimsEveryLeaseInOneStatementAndResolvesOnlyTheLosers() {
+        FakeJdbcTemplate jdbc = new FakeJdbcTemplate();
+        jdbc.batchTaken.add("key-b");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        HyperliquidDirectIngestIdempotencyGuard guard = guard(jdbc, registry, false);
+
+        List<HyperliquidDirectIngestIdempotencyGuard.Claim> claims = guard.tryAcquireAll(
+                List.of(delta("key-a", "BTCUSDT"), delta("key-b", "BTCUSDT"), delta("key-c", "ETHUSDT")),
+                List.of("dedupe-a", "dedupe-b", "dedupe-c"));
+
+        assertEquals(List.of(true, false, true),
+                claims.stream().map(HyperliquidDirectIngestIdempotencyGuard.Claim::acquired).toList());
+        assertEquals(1, jdbc.batchStatements);
+        assertEquals(List.of("key-a", "key-b", "key-c"), jdbc.batchKeys);
+        assertEquals(0, jdbc.acquireIndex, "no single-row claim for a batch without repeated keys");
+        assertEquals(2.0d, registry.find("signals.hyperliquid.direct_ingest.distributed_dedupe.total")
+                .tag("result", "acquired").counter().count());
+    }
+
+    @Test
+    void repeatedKeyInsideABatchIsResolvedAgainstItsFirstClaim() {
+        FakeJdbcTemplate jdbc = new FakeJdbcTemplate(0L);
+        HyperliquidDirectIngestIdempotencyGuard guard = guard(jdbc, new SimpleMeterRegistry(), false);
+
+        List<HyperliquidDirectIngestIdempotencyGuard.Claim> claims = guard.tryAcquireAll(
+                List.of(delta("key-a", "BTCUSDT"), delta("key-a", "ETHUSDT")),
+                List.of("dedupe-a", "dedupe-a"));
+
+        assertEquals(List.of("key-a"), jdbc.batchKeys, "the statement cannot touch the same row twice");
+        assertTrue(claims.get(0).acquired());
+        assertFalse(claims.get(1).acquired());
+        assertNotNull(claims.get(1).rejection(), "same key with another payload is a conflict for that item only");
+    }
+
     private static HyperliquidDirectIngestIdempotencyGuard guard(
             JdbcTemplate jdbc,
             SimpleMeterRegistry registry,
@@ -258,6 +297,9 @@ class HyperliquidDirectIngestIdempotencyGuardTest {
         private Long storedSourceTs;
         private String acquireSql;
         private RuntimeException failure;
+        private final List<String> batchTaken = new ArrayList<>();
+        private final List<String> batchKeys = new ArrayList<>();
+        private int batchStatements;
 
         private FakeJdbcTemplate(Long... results) {
             if (results != null) acquireResults.addAll(List.of(results));
@@ -294,6 +336,39 @@ class HyperliquidDirectIngestIdempotencyGuardTest {
             }
         }
 
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            if (failure != null) throw failure;
+            batchStatements++;
+            String[] keys = (String[]) args[0];
+            for (int row = 0; row < keys.length; row++) {
+                batchKeys.add(keys[row]);
+                if (batchTaken.contains(keys[row])) {
+                    continue;
+                }
+                if (storedFingerprint == null) {
+                    storedFingerprint = ((String[]) args[8])[row];
+                    storedWallet = ((String[]) args[3])[row];
+                    storedSymbol = ((String[]) args[4])[row];
+                    storedSourceTs = ((Long[]) args[7])[row];
+                }
+                String key = keys[row];
+                ResultSet rs = (ResultSet) Proxy.newProxyInstance(
+                        ResultSet.class.getClassLoader(),
+                        new Class<?>[]{ResultSet.class},
+                        (proxy, method, methodArgs) -> switch (method.getName()) {
+                            case "getString" -> key;
+                            case "getLong" -> 1L;
+                            default -> throw new AssertionError("Unexpected ResultSet call: " + method.getName());
+                        });
+                try {
+                    rch.processRow(rs);
+                } catch (SQLException ex) {
+                    throw new AssertionError(ex);
+                }
+            }
+        }
+
         @Override
         public int update(String sql, Object... args) {
             return 1;
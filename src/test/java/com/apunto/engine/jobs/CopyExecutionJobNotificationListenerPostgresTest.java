@@ -0,0 +1,182 @@
+package com.apunto.engine.jobs;
+
+import com.apunto.engine.dto.UserDetailDto;
+import com.apunto.engine.entity.CopyExecutionJobEntity;
+import com.apunto.engine.events.OperacionEvent;
+import com.apunto.engine.jobs.model.CopyJobAction;
+import com.apunto.engine.metric.TradingMetrics;
+import com.apunto.engine.repository.CopyExecutionJobRepository;
+import com.apunto.engine.service.CopyExecutionJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CopyExecutionJobNotificationListenerPostgresTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    static void start() {
+        if (System.getProperty("copy.postgres.test.jdbc-url") == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("copy_trading_test")
+                    .withUsername("copy_test")
+                    .withPassword("copy_test");
+            try {
+                postgres.start();
+            } catch (RuntimeException unavailable) {
+                Assumptions.assumeTrue(false,
+                        "Docker unavailable and no copy.postgres.test.jdbc-url was provided");
+            }
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (postgres != null && postgres.isRunning()) postgres.stop();
+    }
+
+    @Test
+    void committedNotifyWakesWorkerWithoutWaitingForPoll() throws Exception {
+        LinkedBlockingQueue<Long> claims = new LinkedBlockingQueue<>();
+        ThreadPoolTaskExecutor executor = executor();
+        CopyExecutionJobWorker worker = new CopyExecutionJobWorker(new ClaimRecorder(claims), null, null, null, null,
+                new ObjectMapper(), executor, executor, null,
+                new TradingMetrics(new SimpleMeterRegistry(), repository(), executor, executor));
+        setMaxBatch(worker, 50);
+        CopyExecutionJobNotificationListener listener = new CopyExecutionJobNotificationListener(worker, dataSourceProperties());
+        try {
+            listener.start();
+            assertNotNull(claims.poll(5, TimeUnit.SECONDS), "connecting the listener drains the backlog once");
+
+            try (Connection connection = connection()) {
+                connection.setAutoCommit(false);
+                notifyReady(connection);
+                assertNull(claims.poll(300, TimeUnit.MILLISECONDS), "NOTIFY is only delivered on commit");
+
+                long committedAt = System.nanoTime();
+                connection.commit();
+                Long claimedAt = claims.poll(2, TimeUnit.SECONDS);
+                assertNotNull(claimedAt, "commit must wake the worker");
+                System.out.printf(Locale.ROOT, "PERF_COPY_JOB_NOTIFY commitToClaimMs=%.2f%n",
+                        (claimedAt - committedAt) / 1_000_000.0);
+            }
+        } finally {
+            listener.stop();
+            executor.shutdown();
+        }
+    }
+
+    private static void setMaxBatch(CopyExecutionJobWorker worker, int maxBatch) {
+        try {
+            java.lang.reflect.Field field = CopyExecutionJobWorker.class.getDeclaredField("maxBatch");
+            field.setAccessible(true);
+            field.set(worker, maxBatch);
+        } catch (ReflectiveOperationException ex) {
+            throw new AssertionError("Unable to set maxBatch", ex);
+        }
+    }
+
+    private static void notifyReady(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT pg_notify('" + CopyExecutionJobService.READY_CHANNEL + "', ?)")) {
+            ps.setString(1, CopyJobAction.OPEN.name());
+            ps.execute();
+        }
+    }
+
+    private static DataSourceProperties dataSourceProperties() {
+        DataSourceProperties properties = new DataSourceProperties();
+        String url = System.getProperty("copy.postgres.test.jdbc-url");
+        if (url != null) {
+            properties.setUrl(url);
+            properties.setUsername(System.getProperty("copy.postgres.test.username", "copy_test"));
+            properties.setPassword(System.getProperty("copy.postgres.test.password", "copy_test"));
+        } else {
+            properties.setUrl(postgres.getJdbcUrl());
+            properties.setUsername(postgres.getUsername());
+            properties.setPassword(postgres.getPassword());
+        }
+        return properties;
+    }
+
+    private static Connection connection() throws SQLException {
+        DataSourceProperties properties = dataSourceProperties();
+        return DriverManager.getConnection(properties.getUrl(), properties.getUsername(), properties.getPassword());
+    }
+
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        return executor;
+    }
+
+    private static CopyExecutionJobRepository repository() {
+        return (CopyExecutionJobRepository) Proxy.newProxyInstance(
+                CopyExecutionJobRepository.class.getClassLoader(),
+                new Class<?>[]{CopyExecutionJobRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private record ClaimRecorder(LinkedBlockingQueue<Long> claims) implements CopyExecutionJobService {
+
+        @Override
+        public int enqueueForUsers(OperacionEvent event, List<UserDetailDto> users, CopyJobAction action) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CopyExecutionJobEntity> claimBatch(String workerId, int limit) {
+            claims.add(System.nanoTime());
+            return List.of();
+        }
+
+        @Override
+        public void markDone(CopyExecutionJobEntity job) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void markDead(CopyExecutionJobEntity job, String category, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reschedule(CopyExecutionJobEntity job, OffsetDateTime nextRunAt, String category, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int requeueStaleProcessing(OffsetDateTime threshold) {
+            return 0;
+        }
+
+        @Override
+        public int purgeOrphanPayloads(OffsetDateTime createdBefore, int limit) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.apunto.engine.jobs;
+
+import com.apunto.engine.dto.UserDetailDto;
+import com.apunto.engine.entity.CopyExecutionJobEntity;
+import com.apunto.engine.events.OperacionEvent;
+import com.apunto.engine.jobs.model.CopyJobAction;
+import com.apunto.engine.metric.TradingMetrics;
+import com.apunto.engine.repository.CopyExecutionJobRepository;
+import com.apunto.engine.service.CopyExecutionJobService;
+import com.apunto.engine.shared.util.KeyedOrderedExecutor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CopyExecutionJobWorkerTest {
+
+    private final ThreadPoolTaskExecutor executor = executor();
+    private final ThreadPoolTaskExecutor priorityExecutor = executor();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+        priorityExecutor.shutdown();
+    }
+
+    @Test
+    void fallbackPollIsSkippedWhileNotifyListenerIsConnected() {
+        FakeJobService jobs = new FakeJobService();
+        CopyExecutionJobWorker worker = worker(jobs);
+
+        worker.onNotifyListenerState(true);
+        worker.onJobsReady();
+        worker.tick();
+        worker.tick();
+
+        assertEquals(1, jobs.claims.get(), "only the notify wake-up claims while the listener is healthy");
+
+        worker.onNotifyListenerState(false);
+        worker.tick();
+
+        assertEquals(2, jobs.claims.get(), "the short poll resumes as soon as the listener drops");
+    }
+
+    @Test
+    void staleRequeueRunsOnItsOwnScheduleInsteadOfEveryTick() {
+        FakeJobService jobs = new FakeJobService();
+        CopyExecutionJobWorker worker = worker(jobs);
+
+        worker.tick();
+        worker.tick();
+        assertEquals(0, jobs.staleRequeues.get());
+
+        jobs.staleToRequeue = 3;
+        worker.requeueStale();
+
+        assertEquals(1, jobs.staleRequeues.get());
+        assertEquals(3, jobs.claims.get(), "requeued jobs wake the claim loop without waiting for a tick");
+    }
+
+    @Test
+    void laneBackpressureShrinksTheClaimBatch() throws InterruptedException {
+        FakeJobService jobs = new FakeJobService();
+        KeyedOrderedExecutor lanes = new KeyedOrderedExecutor("test", 2, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CopyExecutionJobWorker worker = worker(jobs, lanes);
+            for (int lane = 0; lane < 2; lane++) {
+                lanes.execute(keyForLane(lanes, lane), () -> await(release));
+            }
+            waitUntil(() -> lanes.activeLanes() == 2);
+            lanes.execute(keyForLane(lanes, 0), () -> { });
+            lanes.execute(keyForLane(lanes, 0), () -> { });
+
+            worker.tick();
+            assertEquals(4, jobs.lastLimit, "only the free lane capacity is claimed");
+
+            lanes.execute(keyForLane(lanes, 0), () -> { });
+            for (int i = 0; i < 3; i++) lanes.execute(keyForLane(lanes, 1), () -> { });
+            worker.tick();
+            assertEquals(1, jobs.claims.get(), "full lanes skip the claim query entirely");
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+        }
+    }
+
+    @Test
+    void claimLatencyIsTaggedByWakeupSource() {
+        CopyExecutionJobEntity job = new CopyExecutionJobEntity();
+        job.setAction(CopyJobAction.OPEN);
+        job.setNextRunAt(OffsetDateTime.now().minusNanos(20_000_000));
+
+        new TradingMetrics(registry, repository(), executor, priorityExecutor)
+                .jobClaimLatency(job, "notify", OffsetDateTime.now());
+
+        assertEquals(1L, registry.get("signals.copy.job.claim.latency").tag("wakeup", "notify").timer().count());
+    }
+
+    private CopyExecutionJobWorker worker(FakeJobService jobs) {
+        return worker(jobs, null);
+    }
+
+    private CopyExecutionJobWorker worker(FakeJobService jobs, KeyedOrderedExecutor lanes) {
+        CopyExecutionJobWorker worker = new CopyExecutionJobWorker(jobs, null, null, null, null, new ObjectMapper(),
+                executor, priorityExecutor, lanes, new TradingMetrics(registry, repository(), executor, priorityExecutor));
+        setField(worker, "maxBatch", 50);
+        setField(worker, "notifyFallbackPollMs", 60_000L);
+        setField(worker, "lanesEnabled", lanes != null);
+        return worker;
+    }
+
+    private static String keyForLane(KeyedOrderedExecutor lanes, int lane) {
+        for (int i = 0; ; i++) {
+            if (lanes.laneOf("user-" + i) == lane) return "user-" + i;
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static ThreadPoolTaskExecutor executor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+        return executor;
+    }
+
+    private static CopyExecutionJobRepository repository() {
+        return (CopyExecutionJobRepository) Proxy.newProxyInstance(
+                CopyExecutionJobRepository.class.getClassLoader(),
+                new Class<?>[]{CopyExecutionJobRepository.class},
+                (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void setField(Object target, String name, Object value) {
+        try {
+            java.lang.reflect.Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new AssertionError("Unable to set test field " + name, ex);
+        }
+    }
+
+    private static final class FakeJobService implements CopyExecutionJobService {
+        private final AtomicInteger claims = new AtomicInteger();
+        private final AtomicInteger staleRequeues = new AtomicInteger();
+        private int staleToRequeue;
+        private int lastLimit;
+
+        @Override
+        public int enqueueForUsers(OperacionEvent event, List<UserDetailDto> users, CopyJobAction action) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<CopyExecutionJobEntity> claimBatch(String workerId, int limit) {
+            claims.incrementAndGet();
+            lastLimit = limit;
+            return List.of();
+        }
+
+        @Override
+        public void markDone(CopyExecutionJobEntity job) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void markDead(CopyExecutionJobEntity job, String category, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reschedule(CopyExecutionJobEntity job, OffsetDateTime nextRunAt, String category, String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int requeueStaleProcessing(OffsetDateTime threshold) {
+            staleRequeues.incrementAndGet();
+            return staleToRequeue;
+        }
+
+        @Override
+        public int purgeOrphanPayloads(OffsetDateTime createdBefore, int limit) {
+            return 0;
+        }
+    }
+}
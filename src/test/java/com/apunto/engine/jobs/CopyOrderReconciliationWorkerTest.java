@@ -8,6 +8,7 @@ import com.apunto.engine.dto.client.BinanceFuturesSymbolInfoClientDto;
 import com.apunto.engine.entity.CopyDispatchIntentEntity;
 import com.apunto.engine.entity.UserApiKeyEntity;
 import com.apunto.engine.entity.UserEntity;
+import com.apunto.engine.repository.CopyDispatchIntentRepository;
 import com.apunto.engine.service.ProcesBinanceService;
 import com.apunto.engine.service.UserDetailCachedService;
 import com.apunto.engine.service.copy.dispatch.BinanceOrderExecutionNormalizer;
@@ -20,15 +21,21 @@ import com.apunto.engine.service.copy.dispatch.NormalizedBinanceExecution;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CopyOrderReconciliationWorkerTest {
 
@@ -116,7 +123,133 @@ class CopyOrderReconciliationWorkerTest {
         assertEquals(0, gateway.sendCalls.get());
     }
 
-    private CopyOrderReconciliationWorker worker(FakeReconciliation claims, FakeStore store,
+    @Test
+    void recentOrdersQueryResolvesASymbolGroupWithOneCall() {
+        List<CopyDispatchIntentEntity> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batch.add(intent("group-" + i));
+        }
+        FakeGateway gateway = new FakeGateway();
+        gateway.recentOrdersOffered = true;
+        FakePersistence persistence = new FakePersistence();
+
+        assertEquals(8, worker(new FakeReconciliation(batch), new FakeStore(), gateway, persistence).runOnce());
+
+        assertEquals(1, gateway.recentOrdersCalls.get());
+        assertEquals(0, gateway.lookupCalls.get());
+        assertEquals(8, persistence.persisted.get());
+    }
+
+    @Test
+    void exhaustedWeightBudgetReleasesDeferredIntentsWithoutSpendingAnAttempt() {
+        List<CopyDispatchIntentEntity> intents = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CopyDispatchIntentEntity intent = intent("budget-" + i, "user-1", "SYM" + i + "USDC");
+            intent.setReconciliationAttempts(3);
+            intents.add(intent);
+        }
+        CopyOrderReconciliationService claims = new CopyOrderReconciliationService(repository(intents));
+        FakeGateway gateway = new FakeGateway();
+        FakePersistence persistence = new FakePersistence();
+        CopyOrderReconciliationWorker worker = worker(claims, new FakeStore(), gateway, persistence);
+        setField(worker, "weightPerMinute", 2);
+        setField(worker, "dispatchStaleAfter", Duration.ofMillis(100));
+
+        assertEquals(2, worker.runOnce());
+
+        assertEquals(2, gateway.lookupCalls.get());
+        assertEquals(2, persistence.persisted.get());
+        List<CopyDispatchIntentEntity> deferred = intents.stream()
+                .filter(intent -> intent.getReconciliationAttempts() == 3).toList();
+        assertEquals(3, deferred.size(), "deferred intents get their claim attempt back");
+        assertEquals(2, intents.stream().filter(intent -> intent.getReconciliationAttempts() == 4).count());
+        assertEquals(deferred.stream().map(CopyDispatchIntentEntity::getId).toList(),
+                claims.claimBatch(50, Duration.ofSeconds(30), "next-run").stream().map(CopyDispatchIntentEntity::getId).toList(),
+                "deferred intents are due on the next run instead of after the claim lease");
+    }
+
+    @Test
+    void gatewayWithoutRecentOrdersIsNotChargedForTheQuery() {
+        List<CopyDispatchIntentEntity> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batch.add(intent("plain-" + i));
+        }
+        FakeGateway gateway = new FakeGateway();
+        FakePersistence persistence = new FakePersistence();
+        CopyOrderReconciliationWorker worker = worker(new FakeReconciliation(batch), new FakeStore(), gateway, persistence);
+        setField(worker, "weightPerMinute", 8);
+        setField(worker, "dispatchStaleAfter", Duration.ofMillis(100));
+
+        assertEquals(8, worker.runOnce(), "the whole budget goes to the per-order lookups");
+
+        assertEquals(0, gateway.recentOrdersCalls.get());
+        assertEquals(8, gateway.lookupCalls.get());
+    }
+
+    @Test
+    void lanesReuseOnePoolAcrossRunsUntilStopped() {
+        List<CopyDispatchIntentEntity> batch = new ArrayList<>();
+        for (int account = 0; account < 4; account++) {
+            batch.add(intent("pool-" + account, "user-" + account, "BTCUSDC"));
+        }
+        FakeGateway gateway = new FakeGateway();
+        gateway.latency = Duration.ofMillis(5);
+        CopyOrderReconciliationWorker worker = worker(new FakeReconciliation(batch), new FakeStore(), gateway, new FakePersistence());
+        setField(worker, "concurrency", 2);
+        try {
+            assertEquals(4, worker.runOnce());
+            assertEquals(4, worker.runOnce());
+        } finally {
+            worker.stop();
+        }
+
+        assertTrue(gateway.threads.size() <= 2, "threads=" + gateway.threads.size());
+        assertTrue(gateway.threads.stream().allMatch(thread -> thread.getName().startsWith("copy-reconcile-lane-")));
+    }
+
+    @Test
+    void concurrentLanesRaiseThroughputAgainstASlowGatewayWithinAccountLimits() {
+        List<CopyDispatchIntentEntity> batch = new ArrayList<>();
+        for (int account = 0; account < 6; account++) {
+            for (int i = 0; i < 8; i++) {
+                batch.add(intent("tp-" + account + "-" + i, "user-" + account, "SYM" + i + "USDC"));
+            }
+        }
+        FakeGateway sequentialGateway = new FakeGateway();
+        sequentialGateway.latency = Duration.ofMillis(20);
+        CopyOrderReconciliationWorker sequential = worker(new FakeReconciliation(batch), new FakeStore(),
+                sequentialGateway, new FakePersistence());
+        setField(sequential, "concurrency", 1);
+        setField(sequential, "weightPerMinute", 10_000);
+
+        FakeGateway concurrentGateway = new FakeGateway();
+        concurrentGateway.latency = Duration.ofMillis(20);
+        CopyOrderReconciliationWorker concurrent = worker(new FakeReconciliation(batch), new FakeStore(),
+                concurrentGateway, new FakePersistence());
+        setField(concurrent, "concurrency", 8);
+        setField(concurrent, "perAccountConcurrency", 2);
+        setField(concurrent, "weightPerMinute", 10_000);
+
+        long sequentialNs = timed(() -> assertEquals(48, sequential.runOnce()));
+        long concurrentNs = timed(() -> assertEquals(48, concurrent.runOnce()));
+
+        System.out.printf("reconciliation throughput sequential=%.1f/s concurrent=%.1f/s%n",
+                48 / (sequentialNs / 1e9), 48 / (concurrentNs / 1e9));
+        assertEquals(1, sequentialGateway.maxInFlight.get());
+        assertTrue(concurrentGateway.maxInFlight.get() > 1);
+        assertTrue(concurrentGateway.maxInFlight.get() <= 8);
+        assertTrue(concurrentGateway.maxInFlightPerAccount.get() <= 2);
+        assertTrue(concurrentNs * 2 < sequentialNs,
+                "concurrent=" + concurrentNs / 1_000_000 + "ms sequential=" + sequentialNs / 1_000_000 + "ms");
+    }
+
+    private static long timed(Runnable run) {
+        long startedNs = System.nanoTime();
+        run.run();
+        return System.nanoTime() - startedNs;
+    }
+
+    private CopyOrderReconciliationWorker worker(CopyOrderReconciliationService claims, FakeStore store,
                                                   FakeGateway gateway, FakePersistence persistence) {
         CopyOrderReconciliationWorker worker = new CopyOrderReconciliationWorker(claims, store, gateway, users(),
                 new BinanceOrderExecutionNormalizer(), persistence, new SimpleMeterRegistry());
@@ -136,6 +269,27 @@ class CopyOrderReconciliationWorkerTest {
         }
     }
 
+    /** Repositorio en memoria: lo justo para claimBatch y las escrituras del servicio real. */
+    private static CopyDispatchIntentRepository repository(List<CopyDispatchIntentEntity> intents) {
+        return (CopyDispatchIntentRepository) Proxy.newProxyInstance(
+                CopyDispatchIntentRepository.class.getClassLoader(),
+                new Class<?>[]{CopyDispatchIntentRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findReconciliationIdsForUpdateSkipLocked" -> intents.stream()
+                            .filter(intent -> intent.getNextReconciliationAt() == null
+                                    || !intent.getNextReconciliationAt().isAfter((OffsetDateTime) args[0]))
+                            .map(CopyDispatchIntentEntity::getId)
+                            .limit((int) args[2])
+                            .toList();
+                    case "findAllById" -> intents.stream()
+                            .filter(intent -> ((List<?>) args[0]).contains(intent.getId())).toList();
+                    case "findById" -> intents.stream()
+                            .filter(intent -> intent.getId().equals(args[0])).findFirst();
+                    case "saveAndFlush", "saveAllAndFlush" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
     private UserDetailCachedService users() {
         UserEntity user = new UserEntity(); user.setId(UUID.nameUUIDFromBytes("user-1".getBytes()));
         UserApiKeyEntity key = new UserApiKeyEntity(); key.setApiKey("test-key"); key.setApiSecret("test-secret");
@@ -148,10 +302,14 @@ class CopyOrderReconciliationWorkerTest {
     }
 
     private CopyDispatchIntentEntity intent(String clientOrderId) {
-        return CopyDispatchIntentEntity.builder().id(UUID.randomUUID()).idUser("user-1")
+        return intent(clientOrderId, "user-1", "BTCUSDC");
+    }
+
+    private CopyDispatchIntentEntity intent(String clientOrderId, String idUser, String symbol) {
+        return CopyDispatchIntentEntity.builder().id(UUID.randomUUID()).idUser(idUser)
                 .userCopyAllocationId(505L).executionMode("MICRO_LIVE").walletId("0xabc")
                 .strategyCode("MOVEMENT_ALL").sourceEventId("evt-" + clientOrderId)
-                .idOrderOrigin("origin-1").copyIntent("OPEN").symbol("BTCUSDC")
+                .idOrderOrigin("origin-1").copyIntent("OPEN").symbol(symbol)
                 .side("BUY").positionSide("LONG").requestedQty(BigDecimal.ONE)
                 .requestedMarginUsd(new BigDecimal("20")).requestedNotionalUsd(new BigDecimal("100"))
                 .referencePrice(new BigDecimal("100")).requestedLeverage(5).clientOrderId(clientOrderId)
@@ -172,12 +330,22 @@ class CopyOrderReconciliationWorkerTest {
         @Override public void markUnresolvedTerminal(UUID id, String reasonCode) { terminal.incrementAndGet(); }
         @Override public void markPriceResolutionExhausted(UUID id) { priceExhausted.incrementAndGet(); }
         @Override public void markFailure(UUID id, int max, String code, String detail) { failures.incrementAndGet(); }
+        @Override public void releaseDeferred(UUID id, String workerId) { }
     }
 
     private static final class FakeGateway implements ProcesBinanceService {
         private final AtomicInteger sendCalls = new AtomicInteger();
         private final AtomicInteger lookupCalls = new AtomicInteger();
         private final AtomicInteger orderIdLookupCalls = new AtomicInteger();
+        private final AtomicInteger recentOrdersCalls = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final Map<String, AtomicInteger> inFlightByAccount = new ConcurrentHashMap<>();
+        private final AtomicInteger maxInFlightPerAccount = new AtomicInteger();
+        private volatile Duration latency = Duration.ZERO;
+        private volatile boolean recentOrdersOffered;
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        @Override public boolean supportsRecentOrders() { return recentOrdersOffered; }
         @Override public BinanceFuturesOrderClientResponse operationPosition(OperationDto dto) { sendCalls.incrementAndGet(); throw new AssertionError("reconciler must not send"); }
         @Override public Optional<BinanceFuturesOrderClientResponse> findOrderByOrderId(OperationDto dto, Long orderId) {
             orderIdLookupCalls.incrementAndGet();
@@ -186,8 +354,36 @@ class CopyOrderReconciliationWorkerTest {
         @Override public Optional<BinanceFuturesOrderClientResponse> findOrderByClientOrderId(OperationDto dto) {
             lookupCalls.incrementAndGet();
             if ("bad".equals(dto.getClientOrderId())) throw new IllegalStateException("lookup failed");
+            roundTrip(dto.getUserId());
             return Optional.of(response(dto, null));
         }
+        @Override public Optional<List<BinanceFuturesOrderClientResponse>> findRecentOrders(OperationDto account, String symbol) {
+            if (!recentOrdersOffered) return Optional.empty();
+            recentOrdersCalls.incrementAndGet();
+            roundTrip(account.getUserId());
+            List<BinanceFuturesOrderClientResponse> orders = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                OperationDto order = OperationDto.builder().symbol(symbol).clientOrderId("group-" + i).build();
+                BinanceFuturesOrderClientResponse response = response(order, null);
+                response.setOrderId(1_000L + i);
+                orders.add(response);
+            }
+            return Optional.of(orders);
+        }
+        private void roundTrip(String account) {
+            threads.add(Thread.currentThread());
+            AtomicInteger accountInFlight = inFlightByAccount.computeIfAbsent(account, k -> new AtomicInteger());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            maxInFlightPerAccount.accumulateAndGet(accountInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                accountInFlight.decrementAndGet();
+                inFlight.decrementAndGet();
+            }
+        }
         @Override public List<com.apunto.engine.dto.client.BinanceFuturesPositionClientDto> getPositions(
                 String apiKey, String secret, String traceId) { return List.of(); }
         private BinanceFuturesOrderClientResponse response(OperationDto dto, String forcedStatus) {
@@ -0,0 +1,248 @@
+package com.apunto.engine.outbox.jobs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class MetricMovementOutboxPublisherPostgresTest {
+
+    private static final String OUTBOX = "futuros_operaciones.metric_event_outbox";
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void configurePostgres() {
+        String url = System.getProperty("copy.postgres.test.jdbc-url");
+        assumeTrue(url != null && !url.isBlank(), "copy.postgres.test.jdbc-url is required");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getProperty("copy.postgres.test.username", "postgres"));
+        dataSource.setPassword(System.getProperty("copy.postgres.test.password", ""));
+        dataSource.setMaximumPoolSize(4);
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS futuros_operaciones");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V20260606__metric_event_outbox.sql"))
+                .execute(dataSource);
+    }
+
+    @AfterAll
+    static void closeDataSource() {
+        if (dataSource != null) dataSource.close();
+    }
+
+    @BeforeEach
+    void truncate() {
+        jdbc.execute("TRUNCATE " + OUTBOX);
+    }
+
+    @Test
+    void publishesRawPayloadsInClaimOrderAndMarksTheBatchOnce() {
+        insert(6, 2);
+        DelayedAckProducer producer = new DelayedAckProducer(1, record -> false, record -> false);
+        try {
+            publisher(producer, 100).publishPending();
+        } finally {
+            producer.stop();
+        }
+
+        List<ProducerRecord<String, byte[]>> sent = producer.history();
+        assertEquals(6, sent.size());
+        List<String> payloads = jdbc.queryForList("SELECT payload::text FROM " + OUTBOX + " ORDER BY id", String.class);
+        for (int i = 0; i < sent.size(); i++) {
+            assertEquals(payloads.get(i), new String(sent.get(i).value(), StandardCharsets.UTF_8),
+                    "the stored JSON goes out byte for byte, in claim order");
+        }
+        assertEquals(0, pending());
+        assertEquals(0, jdbc.queryForObject("SELECT count(*) FROM " + OUTBOX + " WHERE locked_by IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void failedAcksAreUnlockedWithTheirErrorAndRetriedOnTheNextPoll() {
+        insert(4, 4);
+        DelayedAckProducer producer = new DelayedAckProducer(1, record -> key(record).equals("wallet-1|BTCUSDT"),
+                record -> false);
+        MetricMovementOutboxPublisher publisher = publisher(producer, 100);
+        try {
+            publisher.publishPending();
+            assertEquals(1, pending());
+            String error = jdbc.queryForObject(
+                    "SELECT last_error FROM " + OUTBOX + " WHERE published_at IS NULL AND locked_at IS NULL", String.class);
+            assertTrue(error.startsWith("KafkaException:"), error);
+
+            producer.failAck = record -> false;
+            publisher.publishPending();
+            assertEquals(0, pending());
+        } finally {
+            producer.stop();
+        }
+    }
+
+    @Test
+    void sendRejectionHoldsBackLaterRecordsOfTheSameKey() {
+        insert(6, 2);
+        DelayedAckProducer producer = new DelayedAckProducer(1, record -> false,
+                record -> new String(record.value(), StandardCharsets.UTF_8).contains("\"movement-1\""));
+        try {
+            publisher(producer, 100).publishPending();
+        } finally {
+            producer.stop();
+        }
+
+        assertEquals(3, producer.history().size(), "only the other key goes out");
+        assertTrue(producer.history().stream().allMatch(record -> key(record).equals("wallet-0|BTCUSDT")));
+        assertEquals(3, pending());
+    }
+
+    @Test
+    void batchSizeThroughputAgainstDelayedAckBroker() {
+        assumeTrue(Boolean.getBoolean("metric.outbox.publisher.benchmark.enabled"),
+                "set -Dmetric.outbox.publisher.benchmark.enabled=true to run the outbox publisher benchmark");
+
+        int rows = 2_000;
+        for (int batch : new int[]{100, 500, 1000}) {
+            truncate();
+            insert(rows, 64);
+            DelayedAckProducer producer = new DelayedAckProducer(2, record -> false, record -> false);
+            MetricMovementOutboxPublisher publisher = publisher(producer, batch);
+            long started = System.nanoTime();
+            try {
+                while (pending() > 0) {
+                    publisher.publishPending();
+                }
+            } finally {
+                producer.stop();
+            }
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            System.out.printf(Locale.ROOT,
+                    "PERF_METRIC_OUTBOX batch=%d rows=%d ackMs=2 seconds=%.2f recordsPerSec=%.0f%n",
+                    batch, rows, seconds, rows / seconds);
+        }
+    }
+
+    private static MetricMovementOutboxPublisher publisher(DelayedAckProducer producer, int batchSize) {
+        MetricMovementOutboxPublisher publisher = new MetricMovementOutboxPublisher(jdbc,
+                new KafkaTemplate<>(new MockProducerFactory<>(() -> producer)));
+        setField(publisher, "enabled", true);
+        setField(publisher, "movementTopic", "operation-movement-persisted-v1");
+        setField(publisher, "copyOperationEventTopic", "copy-operation-event-persisted-v1");
+        setField(publisher, "batchSize", batchSize);
+        setField(publisher, "lockTimeoutMs", 60_000L);
+        setField(publisher, "publishTimeoutMs", 5_000L);
+        setField(publisher, "instanceId", "outbox-test");
+        return publisher;
+    }
+
+    private static void insert(int rows, int keys) {
+        jdbc.update("""
+                INSERT INTO futuros_operaciones.metric_event_outbox(event_type, aggregate_key, kafka_key, payload)
+                SELECT 'operation-movement-persisted-v1', 'agg-' || g, 'wallet-' || (g % ?) || '|BTCUSDT',
+                       jsonb_build_object('movementKey', 'movement-' || g, 'qty', g * 0.001, 'symbol', 'BTCUSDT')
+                FROM generate_series(1, ?) g
+                """, keys, rows);
+    }
+
+    private static int pending() {
+        return jdbc.queryForObject("SELECT count(*) FROM " + OUTBOX + " WHERE published_at IS NULL", Integer.class);
+    }
+
+    private static String key(ProducerRecord<String, byte[]> record) {
+        return record.key();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new AssertionError("Unable to set test field " + name, ex);
+        }
+    }
+
+    /** Broker de prueba: cada envío recibe su ack ackMs después, en orden de envío. */
+    private static final class DelayedAckProducer extends MockProducer<String, byte[]> {
+        private final ConcurrentLinkedQueue<PendingAck> acks = new ConcurrentLinkedQueue<>();
+        private final long ackNanos;
+        private final Predicate<ProducerRecord<String, byte[]>> rejectOnSend;
+        private volatile Predicate<ProducerRecord<String, byte[]>> failAck;
+        private volatile boolean running = true;
+
+        DelayedAckProducer(long ackMs, Predicate<ProducerRecord<String, byte[]>> failAck,
+                           Predicate<ProducerRecord<String, byte[]>> rejectOnSend) {
+            super(false, new StringSerializer(), new ByteArraySerializer());
+            this.ackNanos = Duration.ofMillis(ackMs).toNanos();
+            this.failAck = failAck;
+            this.rejectOnSend = rejectOnSend;
+            Thread.ofPlatform().daemon().name("outbox-test-broker").start(this::ackLoop);
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<String, byte[]> record, Callback callback) {
+            if (rejectOnSend.test(record)) {
+                throw new KafkaException("buffer exhausted");
+            }
+            Future<RecordMetadata> future = super.send(record, callback);
+            acks.add(new PendingAck(record, System.nanoTime() + ackNanos));
+            return future;
+        }
+
+        @Override
+        public void close(Duration timeout) {
+            // El template cierra el producer tras cada send; el broker de prueba vive todo el test.
+        }
+
+        private void ackLoop() {
+            while (running) {
+                PendingAck next = acks.peek();
+                if (next == null || next.dueNanos() > System.nanoTime()) {
+                    LockSupport.parkNanos(200_000);
+                    continue;
+                }
+                acks.poll();
+                synchronized (this) {
+                    if (failAck.test(next.record())) {
+                        errorNext(new KafkaException("not leader for partition"));
+                    } else {
+                        completeNext();
+                    }
+                }
+            }
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        private record PendingAck(ProducerRecord<String, byte[]> record, long dueNanos) {
+        }
+    }
+}
@@ -37,6 +37,15 @@ class UserCopyAllocationRepositoryContractTest {
         assertTrue(sql.contains("or coalesce(uca.allocation_pct, 0) > 0"));
     }
 
+    @Test
+    void runtimeDeltaUsesTheSameFilterAsTheFullSnapshot() throws Exception {
+        String full = query("findAllActiveRuntimeAllocations");
+        String delta = query("findActiveRuntimeAllocationsChangedSince", String.class);
+
+        assertTrue(delta.startsWith(full + " and "));
+        assertTrue(delta.toLowerCase().contains("age(uca.xmin)"));
+    }
+
     private static String query(String methodName, Class<?>... parameterTypes) throws Exception {
         Method method = UserCopyAllocationRepository.class.getMethod(methodName, parameterTypes);
         Query query = method.getAnnotation(Query.class);
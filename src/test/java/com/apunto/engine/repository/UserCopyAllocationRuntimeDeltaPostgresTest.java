@@ -0,0 +1,104 @@
+package com.apunto.engine.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UserCopyAllocationRuntimeDeltaPostgresTest {
+
+    private static final String TABLE = "runtime_delta_test.user_copy_allocation";
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void configurePostgres() {
+        String url = System.getProperty("copy.postgres.test.jdbc-url");
+        assumeTrue(url != null && !url.isBlank(), "copy.postgres.test.jdbc-url is required");
+        dataSource = new DriverManagerDataSource(
+                url,
+                System.getProperty("copy.postgres.test.username", "postgres"),
+                System.getProperty("copy.postgres.test.password", "")
+        );
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS runtime_delta_test");
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS runtime_delta_test.user_copy_allocation (
+                  id bigint PRIMARY KEY,
+                  wallet_id text,
+                  ends_at timestamptz,
+                  is_active boolean NOT NULL,
+                  status text NOT NULL,
+                  execution_mode text,
+                  allocation_pct numeric
+                )
+                """);
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbc.execute("TRUNCATE " + TABLE);
+        jdbc.update("INSERT INTO " + TABLE + " VALUES (1, '0xa', null, true, 'active', 'LIVE', 10), "
+                + "(2, '0xa', null, true, 'active', 'LIVE', 10), (3, '0xb', null, true, 'active', 'MICRO_LIVE', null)");
+    }
+
+    @Test
+    void deltaReturnsOnlyRowsWrittenAfterTheWatermark() {
+        String watermark = watermark();
+        assertEquals(List.of(), changedIds(watermark));
+
+        jdbc.update("UPDATE " + TABLE + " SET status = 'closed', is_active = false WHERE id = 1");
+        jdbc.update("UPDATE " + TABLE + " SET allocation_pct = 20 WHERE id = 3");
+
+        assertEquals(List.of(1L, 3L), changedIds(watermark));
+        assertEquals(List.of(3L), changedActiveIds(watermark), "the closed row is reported only as changed");
+        assertEquals(List.of(), changedIds(watermark()));
+    }
+
+    @Test
+    void transactionOpenDuringTheRefreshIsPickedUpAfterItCommits() throws Exception {
+        try (Connection slowWriter = dataSource.getConnection(); Statement statement = slowWriter.createStatement()) {
+            slowWriter.setAutoCommit(false);
+            statement.executeUpdate("UPDATE " + TABLE + " SET allocation_pct = 30 WHERE id = 2");
+
+            String watermark = watermark();
+            assertEquals(List.of(), changedIds(watermark), "uncommitted write is not visible yet");
+
+            slowWriter.commit();
+            assertEquals(List.of(2L), changedIds(watermark),
+                    "the write committed after the watermark was taken is still inside the next delta");
+        }
+    }
+
+    private static String watermark() {
+        return jdbc.queryForObject(sql("currentSnapshotXmin"), String.class);
+    }
+
+    private static List<Long> changedIds(String watermark) {
+        return jdbc.queryForList(sql("findAllocationIdsChangedSince", String.class) + " ORDER BY uca.id", Long.class, watermark);
+    }
+
+    private static List<Long> changedActiveIds(String watermark) {
+        return jdbc.queryForList("SELECT id FROM (" + sql("findActiveRuntimeAllocationsChangedSince", String.class)
+                + ") delta ORDER BY id", Long.class, watermark);
+    }
+
+    private static String sql(String methodName, Class<?>... parameterTypes) {
+        try {
+            String value = UserCopyAllocationRepository.class.getMethod(methodName, parameterTypes)
+                    .getAnnotation(org.springframework.data.jpa.repository.Query.class).value();
+            return value.replace("futuros_operaciones.user_copy_allocation", TABLE).replace(":sinceXmin", "?");
+        } catch (NoSuchMethodException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.apunto.engine.dto.client.MetricaWalletDto;
 import com.apunto.engine.entity.UserCopyAllocationEntity;
 import com.apunto.engine.hyperliquid.model.HyperliquidDeltaType;
 import com.apunto.engine.jobs.model.CopyJobAction;
+import com.apunto.engine.shared.enums.PositionSide;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -54,6 +55,43 @@ class CopyStrategyRuntimeRouterTest {
         assertFalse(router.allocationAppliesToEvent(shortOnly, CopyJobAction.CLOSE, HyperliquidDeltaType.CLOSE, "LONG", "BTCUSDT"));
     }
 
+    @Test
+    void compiledRoutesKeepDeltaSideAndScopeRules() {
+        CopyStrategyRuntimeRouter.RoutedEvent flipBtcLong = router.routeEvent(CopyJobAction.OPEN, HyperliquidDeltaType.FLIP, "long", "BTC-USDT");
+        CopyStrategyRuntimeRouter.RoutedEvent resizeBtcShort = router.routeEvent(CopyJobAction.OPEN, HyperliquidDeltaType.RESIZE, "SHORT", "BTCUSDT");
+        CopyStrategyRuntimeRouter.RoutedEvent updateBtcLong = router.routeEvent(CopyJobAction.OPEN, HyperliquidDeltaType.UPDATE, "LONG", "BTCUSDT");
+        CopyStrategyRuntimeRouter.RoutedEvent unknownDelta = router.routeEvent(CopyJobAction.OPEN, null, "LONG", "BTCUSDT");
+
+        assertTrue(flipBtcLong.admits("flip-only", null));
+        assertFalse(resizeBtcShort.admits("FLIP_ONLY", null));
+        assertFalse(resizeBtcShort.admits("PURE_OPEN_CLOSE", null));
+        assertTrue(flipBtcLong.admits("long_only", null));
+        assertFalse(flipBtcLong.admits("SHORT_ONLY", null));
+        assertTrue(flipBtcLong.admits(null, null), "a missing code routes as MOVEMENT_ALL");
+        assertFalse(updateBtcLong.admits("MOVEMENT_ALL", null));
+        assertFalse(unknownDelta.admits("MOVEMENT_ALL", null));
+        assertFalse(flipBtcLong.admits("NOT_A_PROFILE", null));
+        assertFalse(flipBtcLong.admits("ROBUST_EX_TOP_5", null));
+
+        assertTrue(flipBtcLong.admits("SYMBOL_SPECIALIST", "BTC"));
+        assertTrue(flipBtcLong.admits("SYMBOL_SPECIALIST", "all"));
+        assertFalse(flipBtcLong.admits("SYMBOL_SPECIALIST", "ETHUSDT"));
+        assertTrue(flipBtcLong.admits(allocation("SYMBOL_SPECIALIST", "btcusdt")));
+        assertTrue(router.routeEvent(CopyJobAction.OPEN, HyperliquidDeltaType.OPEN, "LONG", null)
+                .admits("HIGH_QUALITY_SYMBOLS_ONLY", null), "without configured allow-list a missing symbol is not blocked");
+    }
+
+    @Test
+    void targetLegsFollowTheCompiledSideAndOriginRules() {
+        assertTrue(router.metricAllowsTargetLeg(metric("PURE_OPEN_CLOSE"), PositionSide.LONG, HyperliquidDeltaType.OPEN, " origin-1", "origin-1", "BTCUSDT"));
+        assertFalse(router.metricAllowsTargetLeg(metric("PURE_OPEN_CLOSE"), PositionSide.LONG, HyperliquidDeltaType.OPEN, "origin-0", "origin-1", "BTCUSDT"));
+        assertFalse(router.metricAllowsTargetLeg(metric("FLIP_ONLY"), PositionSide.LONG, HyperliquidDeltaType.OPEN, "origin-1", "origin-1", "BTCUSDT"));
+        assertTrue(router.metricAllowsTargetLeg(metric("SHORT_ONLY"), PositionSide.SHORT, HyperliquidDeltaType.OPEN, "origin-0", "origin-1", "BTCUSDT"));
+        assertFalse(router.metricAllowsTargetLeg(metric("SHORT_ONLY"), PositionSide.LONG, HyperliquidDeltaType.OPEN, "origin-0", "origin-1", "BTCUSDT"));
+        assertFalse(router.metricAllowsTargetLeg(metric("MAJORS_ONLY"), PositionSide.LONG, HyperliquidDeltaType.OPEN, "origin-0", "origin-1", "FARTCOINUSDT"));
+        assertTrue(router.metricAllowsTargetLeg(metric("RECENT_7D"), PositionSide.LONG, HyperliquidDeltaType.RESIZE, "origin-0", "origin-1", null));
+    }
+
     @Test
     void allocationKeyIncludesScopeSoSameStrategyCanHaveIndependentProfiles() {
         String btc = router.allocationKey("0xABC", "SYMBOL_SPECIALIST", "SYMBOL", "BTCUSDT");
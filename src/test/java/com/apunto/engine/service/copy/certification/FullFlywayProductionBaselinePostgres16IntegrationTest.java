@@ -24,8 +24,8 @@ class FullFlywayProductionBaselinePostgres16IntegrationTest {
                 .withPassword("copy_test")) {
             postgres.start();
             MigrateResult result = ProductionBaselinePostgres.restoreAndMigrate(postgres);
-            assertEquals(8, result.migrationsExecuted,
-                    "the production baseline must receive exactly the lifecycle migrations");
+            assertEquals(12, result.migrationsExecuted,
+                    "the production baseline must receive exactly the lifecycle, copy job payload, metric v2 fingerprint, live certification notify and payload hash index migrations");
             MigrationInfo[] pending = ProductionBaselinePostgres.flyway(postgres).info().pending();
             assertEquals(0, pending.length,
                     "all real Flyway migrations must be applied, pending=" + Arrays.toString(pending));
@@ -52,6 +52,29 @@ class FullFlywayProductionBaselinePostgres16IntegrationTest {
                     where table_schema = 'futuros_operaciones'
                       and table_name = 'copy_execution_job'
                     """), "the enabled execution worker requires its durable queue table");
+            assertEquals(1L, scalar(statement, """
+                    select count(*) from information_schema.columns
+                    where table_schema = 'futuros_operaciones'
+                      and table_name = 'copy_execution_job'
+                      and column_name = 'payload_hash'
+                    """), "copy jobs reference the shared payload table by hash");
+            assertEquals(1L, scalar(statement, """
+                    select count(*) from pg_indexes
+                    where schemaname = 'futuros_operaciones'
+                      and indexname = 'ix_copy_execution_job_payload_hash'
+                    """), "the orphan payload purge looks up referencing jobs by hash");
+            assertEquals(1L, scalar(statement, """
+                    select count(*) from information_schema.columns
+                    where table_schema = 'futuros_operaciones'
+                      and table_name = 'metric_strategy_snapshot_v2'
+                      and column_name = 'payload_fingerprint'
+                    """), "metric v2 snapshot refresh diffs rows by payload fingerprint");
+            assertEquals(2L, scalar(statement, """
+                    select count(*) from pg_trigger
+                    where not tgisinternal
+                      and tgname in ('trg_strategy_live_certification_changed',
+                                     'trg_user_live_certification_adoption_changed')
+                    """), "the live certification cache listens to both certification tables");
             assertEquals(2L, scalar(statement, """
                     select count(*) from information_schema.columns
                     where table_schema = 'futuros_operaciones'
@@ -0,0 +1,125 @@
+package com.apunto.engine.service.copy.certification;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiveCertificationCandidateCacheTest {
+
+    private static final LiveEntryAuthorizationRequest REQUEST = TestCertificationFixtures.request(
+            UUID.fromString("22222222-2222-2222-2222-222222222222"), 505L, new BigDecimal("250"), new BigDecimal("5"));
+
+    private final ManualClock clock = new ManualClock(Instant.parse("2026-10-18T12:00:00Z"));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<LiveCertificationAuthorizationRecord> candidates = List.of();
+    private final LiveCertificationReadStore store = request -> {
+        loads.incrementAndGet();
+        return candidates;
+    };
+
+    @Test
+    void withoutListenerEveryOrderReadsTheStore() {
+        LiveCertificationCandidateCache cache = new LiveCertificationCandidateCache(true, 30_000L, 100L, clock);
+
+        cache.findCandidates(REQUEST, store);
+        cache.findCandidates(REQUEST, store);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void changeNoticeDropsTheSnapshot() {
+        LiveCertificationCandidateCache cache = new LiveCertificationCandidateCache(true, 30_000L, 100L, clock);
+        cache.onListenerState(true);
+
+        assertSame(candidates, cache.findCandidates(REQUEST, store));
+        cache.findCandidates(REQUEST, store);
+        assertEquals(1, loads.get());
+
+        cache.invalidateAll("strategy_live_certification");
+        cache.findCandidates(REQUEST, store);
+        assertEquals(2, loads.get());
+
+        cache.onListenerState(false);
+        cache.findCandidates(REQUEST, store);
+        cache.findCandidates(REQUEST, store);
+        assertEquals(4, loads.get(), "a disconnected listener cannot vouch for the snapshot");
+    }
+
+    @Test
+    void snapshotPastMaxAgeIsReloadedAndAFailedReloadIsNotServedStale() {
+        LiveCertificationCandidateCache cache = new LiveCertificationCandidateCache(true, 30_000L, 100L, clock);
+        cache.onListenerState(true);
+        AtomicBoolean down = new AtomicBoolean();
+        LiveCertificationReadStore flaky = request -> {
+            if (down.get()) {
+                throw new QueryTimeoutException("certification read timed out");
+            }
+            return store.findCandidates(request);
+        };
+
+        cache.findCandidates(REQUEST, flaky);
+        clock.advance(Duration.ofSeconds(31));
+        down.set(true);
+
+        assertThrows(QueryTimeoutException.class, () -> cache.findCandidates(REQUEST, flaky));
+        assertThrows(QueryTimeoutException.class, () -> cache.findCandidates(REQUEST, flaky),
+                "the expired snapshot stays unusable until a read succeeds");
+    }
+
+    @Test
+    void readRacingAChangeNoticeIsNotKept() {
+        LiveCertificationCandidateCache cache = new LiveCertificationCandidateCache(true, 30_000L, 100L, clock);
+        cache.onListenerState(true);
+        LiveCertificationReadStore racing = request -> {
+            cache.invalidateAll("user_live_certification_adoption");
+            return store.findCandidates(request);
+        };
+
+        cache.findCandidates(REQUEST, racing);
+        cache.findCandidates(REQUEST, store);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static final class ManualClock extends Clock {
+        private Instant now;
+
+        private ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
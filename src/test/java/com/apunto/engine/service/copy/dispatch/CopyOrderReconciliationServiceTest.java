@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import com.apunto.engine.entity.CopyDispatchIntentEntity;
@@ -53,6 +54,22 @@ class CopyOrderReconciliationServiceTest {
         assertEquals("CONFIRMED", intent.getReservationStatus());
     }
 
+    @Test
+    void releasingADeferredClaimRefundsItsAttemptOnlyForTheClaimingWorker() {
+        CopyDispatchIntentEntity intent = intent(4);
+        intent.setClaimedBy("worker-a");
+        CopyOrderReconciliationService service = new CopyOrderReconciliationService(repository(intent));
+
+        service.releaseDeferred(intent.getId(), "worker-b");
+        assertEquals(4, intent.getReconciliationAttempts(), "a claim taken over by another worker is not touched");
+        assertNull(intent.getNextReconciliationAt());
+
+        service.releaseDeferred(intent.getId(), "worker-a");
+        assertEquals(3, intent.getReconciliationAttempts());
+        assertEquals("RECONCILING", intent.getStatus());
+        assertNotNull(intent.getNextReconciliationAt());
+    }
+
     private CopyDispatchIntentEntity intent(int attempts) {
         return CopyDispatchIntentEntity.builder().id(UUID.randomUUID()).status("RECONCILING")
                 .reservationStatus("PENDING").reconciliationAttempts(attempts).build();
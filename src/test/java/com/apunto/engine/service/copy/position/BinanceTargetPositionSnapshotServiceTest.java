@@ -13,12 +13,19 @@ import com.apunto.engine.entity.UserEntity;
 import com.apunto.engine.service.ProcesBinanceService;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BinanceTargetPositionSnapshotServiceTest {
 
@@ -82,6 +89,103 @@ class BinanceTargetPositionSnapshotServiceTest {
         assertEquals(BinanceTargetPositionSnapshotService.STALE, stale.reasonCode());
     }
 
+    @Test
+    void concurrentLoadsForOneUserShareASingleFetch() throws Exception {
+        FakeGateway gateway = new FakeGateway(List.of(position("BTCUSDT", "0.10", "LONG")));
+        gateway.entered = new CountDownLatch(1);
+        gateway.release = new CountDownLatch(1);
+        BinanceTargetPositionSnapshotService service = new BinanceTargetPositionSnapshotService(gateway);
+        service.setCachePolicyForTest(10_000L, 10_000L);
+        UserDetailDto user = user();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<BinanceTargetPositionSnapshot>> loads = new ArrayList<>();
+            loads.add(pool.submit(() -> service.load(user, "trace-leader")));
+            assertTrue(gateway.entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 5; i++) {
+                loads.add(pool.submit(() -> service.load(user, "trace-follower")));
+            }
+            Thread.sleep(100L);
+            gateway.release.countDown();
+            for (Future<BinanceTargetPositionSnapshot> load : loads) {
+                assertEquals(TargetPositionSnapshotStatus.AUTHORITATIVE, load.get(5, TimeUnit.SECONDS).status());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, gateway.calls.get());
+    }
+
+    @Test
+    void snapshotWithinMaxAgeIsServedWhileItRefreshesInBackground() throws Exception {
+        FakeGateway gateway = new FakeGateway(List.of(position("BTCUSDT", "0.10", "LONG")));
+        List<Runnable> refreshes = new ArrayList<>();
+        BinanceTargetPositionSnapshotService service =
+                new BinanceTargetPositionSnapshotService(gateway, 60_000L, 100L, refreshes::add);
+        service.setCachePolicyForTest(0L, 10_000L);
+        UserDetailDto user = user();
+        service.load(user, "trace-1");
+        Thread.sleep(2L);
+
+        BinanceTargetPositionSnapshot served = service.load(user, "trace-2");
+        service.load(user, "trace-3");
+
+        assertEquals(TargetPositionSnapshotStatus.AUTHORITATIVE, served.status());
+        assertEquals(1, gateway.calls.get(), "the caller does not wait for the refresh");
+        assertEquals(1, refreshes.size(), "one refresh in flight per user");
+        refreshes.getFirst().run();
+        assertEquals(2, gateway.calls.get());
+    }
+
+    @Test
+    void prefetchLoadsInBackgroundAndInvalidationDiscardsAnOlderRead() {
+        FakeGateway gateway = new FakeGateway(List.of());
+        List<Runnable> refreshes = new ArrayList<>();
+        BinanceTargetPositionSnapshotService service =
+                new BinanceTargetPositionSnapshotService(gateway, 60_000L, 100L, refreshes::add);
+        service.setCachePolicyForTest(10_000L, 10_000L);
+        UserDetailDto first = user();
+        UserDetailDto second = user();
+
+        assertEquals(2, service.prefetch(List.of(first, second, new UserDetailDto()), "trace-origin"));
+        refreshes.forEach(Runnable::run);
+        refreshes.clear();
+        service.load(first, "trace-job");
+        assertEquals(2, gateway.calls.get(), "the job finds the prefetched snapshot");
+        assertEquals(0, service.prefetch(List.of(first), "trace-origin"));
+
+        service.invalidate(second.getUser().getId().toString(), "EXPIRE_FOR_TEST");
+        service.setCachePolicyForTest(0L, 0L);
+        service.prefetch(List.of(second), "trace-origin");
+        service.invalidate(second.getUser().getId().toString(), "REAL_DISPATCH_ATTEMPTED");
+        refreshes.forEach(Runnable::run);
+        service.setCachePolicyForTest(10_000L, 10_000L);
+        service.load(second, "trace-after-dispatch");
+        assertEquals(4, gateway.calls.get(), "a read started before the invalidation is not reused");
+    }
+
+    @Test
+    void prefetchStopsAtItsOwnInFlightLimitAndReleasesPermitsWhenReadsFinish() {
+        FakeGateway gateway = new FakeGateway(List.of());
+        List<Runnable> refreshes = new ArrayList<>();
+        BinanceTargetPositionSnapshotService service =
+                new BinanceTargetPositionSnapshotService(gateway, 60_000L, 100L, refreshes::add, 2);
+        service.setCachePolicyForTest(10_000L, 10_000L);
+        UserDetailDto first = user();
+        UserDetailDto second = user();
+        UserDetailDto third = user();
+
+        assertEquals(2, service.prefetch(List.of(first, second, third), "trace-origin"));
+        assertEquals(2, refreshes.size(), "the third user waits for its job instead of taking another permit");
+        assertEquals(1, service.prefetch(first, "trace-origin"), "a read in flight is shared without a new permit");
+
+        refreshes.forEach(Runnable::run);
+        refreshes.clear();
+        assertEquals(1, service.prefetch(third, "trace-origin"));
+        assertEquals(1, refreshes.size());
+        assertEquals(2, gateway.calls.get());
+    }
+
     private static BinanceFuturesPositionClientDto position(String symbol, String quantity, String side) {
         BinanceFuturesPositionClientDto value = new BinanceFuturesPositionClientDto();
         value.setSymbol(symbol);
@@ -105,6 +209,8 @@ class BinanceTargetPositionSnapshotServiceTest {
         private final AtomicInteger calls = new AtomicInteger();
         private final List<BinanceFuturesPositionClientDto> positions;
         private RuntimeException failure;
+        private CountDownLatch entered;
+        private CountDownLatch release;
 
         private FakeGateway(List<BinanceFuturesPositionClientDto> positions) {
             this.positions = positions;
@@ -118,6 +224,14 @@ class BinanceTargetPositionSnapshotServiceTest {
         @Override
         public List<BinanceFuturesPositionClientDto> getPositions(String apiKey, String secret, String traceId) {
             calls.incrementAndGet();
+            if (entered != null) entered.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
             if (failure != null) throw failure;
             return positions;
         }
@@ -0,0 +1,183 @@
+package com.apunto.engine.service.copy.simulation;
+
+import com.apunto.copytarget.OrderBookLevel;
+import com.apunto.copytarget.OrderBookSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedCopyOrderBookProviderTest {
+
+    private final ManualClock clock = new ManualClock(Instant.parse("2026-07-13T12:00:00.000Z"));
+    private final List<String> fetches = new ArrayList<>();
+
+    @Test
+    void sameBucketServesTheCachedBookAndANewBucketReloads() {
+        CachedCopyOrderBookProvider provider = provider(Duration.ofSeconds(2), 16);
+
+        OrderBookSnapshot first = provider.snapshot("btcusdt", 100).orElseThrow();
+        clock.advance(Duration.ofMillis(1_500));
+        assertSame(first, provider.snapshot("BTCUSDT", 100).orElseThrow());
+        assertEquals(List.of("BTCUSDT|100"), fetches);
+
+        clock.advance(Duration.ofMillis(600));
+        provider.snapshot("BTCUSDT", 100);
+        assertEquals(List.of("BTCUSDT|100", "BTCUSDT|100"), fetches);
+    }
+
+    @Test
+    void deeperBookServesSmallerLimitsTrimmed() {
+        CachedCopyOrderBookProvider provider = provider(Duration.ofSeconds(2), 16);
+
+        provider.snapshot("BTCUSDT", 100);
+        OrderBookSnapshot trimmed = provider.snapshot("BTCUSDT", 5).orElseThrow();
+        assertEquals(5, trimmed.bids().size());
+        assertEquals(5, trimmed.asks().size());
+        assertEquals(0, new BigDecimal("100000").compareTo(trimmed.asks().getFirst().price()));
+
+        provider.snapshot("BTCUSDT", 500);
+        provider.snapshot("BTCUSDT", 100);
+        assertEquals(List.of("BTCUSDT|100", "BTCUSDT|500"), fetches, "the deeper book replaces the shallower one");
+    }
+
+    @Test
+    void emptyResultsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        CachedCopyOrderBookProvider provider = new CachedCopyOrderBookProvider(
+                (symbol, limit) -> {
+                    calls.incrementAndGet();
+                    return Optional.empty();
+                },
+                Duration.ofSeconds(2), 16, clock);
+
+        assertTrue(provider.snapshot("BTCUSDT", 100).isEmpty());
+        assertTrue(provider.snapshot("BTCUSDT", 100).isEmpty());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void concurrentRequestsForTheSameSymbolAndLimitShareOneLoad() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CachedCopyOrderBookProvider provider = new CachedCopyOrderBookProvider(
+                (symbol, limit) -> {
+                    calls.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return Optional.of(book(symbol, limit));
+                },
+                Duration.ofSeconds(2), 16, clock);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<OrderBookSnapshot>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> provider.snapshot("BTCUSDT", 100)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> provider.snapshot("BTCUSDT", 100)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            OrderBookSnapshot leader = results.getFirst().get(5, TimeUnit.SECONDS).orElseThrow();
+            for (Future<Optional<OrderBookSnapshot>> result : results) {
+                assertSame(leader, result.get(5, TimeUnit.SECONDS).orElseThrow());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void sizeBoundEvictsSymbols() {
+        CachedCopyOrderBookProvider provider = provider(Duration.ofSeconds(2), 1);
+
+        for (int i = 0; i < 50; i++) {
+            provider.snapshot("SYM" + i + "USDT", 100);
+        }
+        for (int i = 0; i < 50; i++) {
+            provider.snapshot("SYM" + i + "USDT", 100);
+        }
+        assertTrue(fetches.size() > 50, "a one-symbol cache cannot keep fifty books");
+    }
+
+    @Test
+    void zeroFreshnessDisablesTheCache() {
+        CachedCopyOrderBookProvider provider = provider(Duration.ZERO, 16);
+
+        provider.snapshot("BTCUSDT", 100);
+        provider.snapshot("BTCUSDT", 100);
+        assertEquals(2, fetches.size());
+    }
+
+    private CachedCopyOrderBookProvider provider(Duration freshness, int maximumSymbols) {
+        return new CachedCopyOrderBookProvider((symbol, limit) -> {
+            fetches.add(symbol + "|" + limit);
+            return Optional.of(book(symbol, limit));
+        }, freshness, maximumSymbols, clock);
+    }
+
+    private static OrderBookSnapshot book(String symbol, int limit) {
+        List<OrderBookLevel> bids = new ArrayList<>();
+        List<OrderBookLevel> asks = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            bids.add(new OrderBookLevel(new BigDecimal(99_990 - i), BigDecimal.ONE));
+            asks.add(new OrderBookLevel(new BigDecimal(100_000 + i), BigDecimal.ONE));
+        }
+        return new OrderBookSnapshot(symbol, Instant.parse("2026-07-13T12:00:00Z"), "BINANCE_FAPI_DEPTH",
+                1001L, bids, asks);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ManualClock extends Clock {
+        private Instant now;
+
+        private ManualClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
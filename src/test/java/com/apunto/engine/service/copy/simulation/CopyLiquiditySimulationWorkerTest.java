@@ -2,6 +2,8 @@ package com.apunto.engine.service.copy.simulation;
 
 import com.apunto.copytarget.LiquidityEvidenceLevel;
 import com.apunto.copytarget.LiquiditySimulationAssumptions;
+import com.apunto.copytarget.LiquiditySimulationEngine;
+import com.apunto.copytarget.LiquiditySimulationRequest;
 import com.apunto.copytarget.OrderBookLevel;
 import com.apunto.copytarget.OrderBookSnapshot;
 import com.apunto.copytarget.SourceSide;
@@ -49,6 +51,35 @@ class CopyLiquiditySimulationWorkerTest {
         assertFalse(store.retryAt.isBefore(OffsetDateTime.now()));
     }
 
+    @Test
+    void batchSharesOneBookPerSymbolAndSideAcrossCapitalBands() {
+        RecordingStore store = new RecordingStore();
+        store.batch.addAll(List.of(
+                candidate(1L, "BTCUSDT", SourceSide.LONG, "100"),
+                candidate(2L, "BTCUSDT", SourceSide.LONG, "250000"),
+                candidate(3L, "ETHUSDT", SourceSide.LONG, "500"),
+                candidate(4L, "BTCUSDT", SourceSide.LONG, "5000")));
+        List<String> fetched = new ArrayList<>();
+        CopyOrderBookProvider provider = (symbol, limit) -> {
+            fetched.add(symbol);
+            return Optional.of(book());
+        };
+        CopyLiquiditySimulationWorker worker = new CopyLiquiditySimulationWorker(store, provider, assumptions());
+
+        worker.tick();
+
+        assertEquals(List.of("BTCUSDT", "ETHUSDT"), fetched);
+        assertEquals(List.of(1L, 2L, 4L, 3L), store.completedScenarioIds);
+        LiquiditySimulationEngine engine = new LiquiditySimulationEngine();
+        assertEquals(engine.simulateAll(new LiquiditySimulationRequest(
+                        book(), SourceSide.LONG, new BigDecimal("250000"), assumptions(), "liquidity-v3")),
+                store.results.subList(4, 8));
+    }
+
+    private static CopyLiquidityCandidate candidate(long scenarioId, String symbol, SourceSide side, String notional) {
+        return new CopyLiquidityCandidate(UUID.randomUUID(), scenarioId, symbol, side, new BigDecimal(notional), 0);
+    }
+
     private static CopyLiquidityCandidate candidate() {
         return new CopyLiquidityCandidate(
                 UUID.fromString("bbbbbbbb-bbbb-bbbb-bbbb-bbbbbbbbbbbb"),
@@ -81,9 +112,11 @@ class CopyLiquiditySimulationWorkerTest {
     private static final class RecordingStore implements CopyLiquiditySimulationStore {
         private final List<com.apunto.copytarget.LiquiditySimulationResult> results = new ArrayList<>();
         private final List<String> terminalEvents = new ArrayList<>();
+        private final List<CopyLiquidityCandidate> batch = new ArrayList<>();
+        private final List<Long> completedScenarioIds = new ArrayList<>();
         private OffsetDateTime retryAt;
 
-        @Override public List<CopyLiquidityCandidate> claimBatch(String workerId, int limit) { return List.of(); }
+        @Override public List<CopyLiquidityCandidate> claimBatch(String workerId, int limit) { return List.copyOf(batch); }
         @Override public int requeueStale(OffsetDateTime threshold) { return 0; }
 
         @Override
@@ -92,6 +125,7 @@ class CopyLiquiditySimulationWorkerTest {
                                 LiquiditySimulationAssumptions assumptions,
                                 List<com.apunto.copytarget.LiquiditySimulationResult> values) {
             results.addAll(values);
+            completedScenarioIds.add(candidate.capitalScenarioId());
             terminalEvents.add("completed");
         }
 
@@ -1,5 +1,6 @@
 package com.apunto.engine.service.copy.simulation;
 
+import com.apunto.copytarget.CalculationArithmetic;
 import org.junit.jupiter.api.Test;
 
 import java.time.OffsetDateTime;
@@ -24,6 +25,22 @@ class CopySimulationWorkerTest {
         assertEquals(List.of("completed"), store.terminalEvents);
     }
 
+    @Test
+    void pooledScenarioSizingPersistsTheSameScenariosInOrder() {
+        RecordingStore sequential = new RecordingStore(false);
+        RecordingStore pooled = new RecordingStore(false);
+        CopySimulationWorker pooledWorker = new CopySimulationWorker(pooled, 0L, CalculationArithmetic.FIXED_POINT, 2);
+        try {
+            new CopySimulationWorker(sequential, 0L).process(job(0));
+            pooledWorker.process(job(0));
+        } finally {
+            pooledWorker.stop();
+        }
+
+        assertEquals(sequential.scenarios, pooled.scenarios);
+        assertEquals(List.of("completed"), pooled.terminalEvents);
+    }
+
     @Test
     void resumeCursorSkipsAlreadyCommittedScenarios() {
         RecordingStore store = new RecordingStore(false);
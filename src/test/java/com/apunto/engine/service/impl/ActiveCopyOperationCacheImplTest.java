@@ -0,0 +1,169 @@
+package com.apunto.engine.service.impl;
+
+import com.apunto.engine.dto.CopyOperationDto;
+import com.apunto.engine.entity.CopyOperationEntity;
+import com.apunto.engine.mapper.CopyOperationMapperImpl;
+import com.apunto.engine.repository.CopyOperationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ActiveCopyOperationCacheImplTest {
+
+    private final AtomicReference<List<CopyOperationEntity>> dbActive = new AtomicReference<>(List.of());
+    private final ActiveCopyOperationCacheImpl cache = new ActiveCopyOperationCacheImpl(repository(dbActive), new CopyOperationMapperImpl());
+
+    @Test
+    void secondaryLookupsFollowMarkOpenAndMarkClosed() {
+        CopyOperationDto btc = operation("origin-1", "user-1", "0xWallet", "BTCUSDT", "LONG", 10L);
+        CopyOperationDto eth = operation("origin-2", "user-1", "0xWallet", "ETHUSDT", "SHORT", 10L);
+        CopyOperationDto other = operation("origin-1", "user-2", "0xOther", "BTCUSDC", "LONG", 11L);
+
+        cache.markOpen(btc);
+        cache.markOpen(eth);
+        cache.markOpen(other);
+
+        assertEquals(3, cache.activeSize());
+        assertTrue(cache.isActive("ORIGIN-1", " user-1 "));
+        assertEquals(btc, cache.activeOperation("origin-1", "user-1"));
+        assertEquals(Set.of("user-1", "user-2"), cache.activeUserIds("origin-1"));
+        assertEquals(Set.of("user-1"), cache.activeUserIdsByWallet("0xwallet"));
+        assertEquals(Set.of("user-1"), cache.activeUserIdsByWalletAndSymbol("0xWallet", "btcusdt"));
+        assertEquals(Set.of("user-2"), cache.activeUserIdsByWalletAndBaseSymbol("0xOther", "BTC-USD"));
+        assertEquals(2, cache.activeOperationsByUser("user-1").size());
+        assertEquals(List.of(other), cache.activeOperationsByUserAndWallet("user-2", "0xother"));
+
+        cache.markClosed(btc);
+
+        assertFalse(cache.isActive("origin-1", "user-1"));
+        assertEquals(Set.of("user-2"), cache.activeUserIds("origin-1"));
+        assertTrue(cache.activeUserIdsByWalletAndBaseSymbol("0xWallet", "BTCUSDT").isEmpty());
+        assertEquals(List.of(eth), cache.activeOperationsByUser("user-1"));
+        assertEquals(2, cache.activeSize());
+    }
+
+    @Test
+    void pendingAndUncertainStatesStayOutOfActiveIndexes() {
+        cache.markPendingOpen("origin-9", "user-9", "0xWallet", "SOLUSDT", "LONG", 90L, "MOVEMENT_ALL", "trace-9");
+
+        assertFalse(cache.isActive("origin-9", "user-9"));
+        assertTrue(cache.activeUserIdsByWallet("0xWallet").isEmpty());
+        assertEquals("trace-9", cache.traceId("origin-9", "user-9", "0xWallet", "SOL"));
+        assertEquals(0, cache.activeSize());
+
+        CopyOperationDto opened = operation("origin-9", "user-9", "0xWallet", "SOLUSDT", "LONG", 90L);
+        opened.setCopyStrategyCode("MOVEMENT_ALL");
+        cache.markOpen(opened);
+        assertEquals(Set.of("user-9"), cache.activeUserIdsByWalletAndBaseSymbol("0xWallet", "SOLUSDC"));
+        assertEquals(1, cache.activeSize());
+
+        cache.markUncertain(opened, "trace-9", "persist_failed_after_order");
+        assertFalse(cache.isActive("origin-9", "user-9"));
+        assertEquals(0, cache.activeSize());
+
+        cache.forgetPending("origin-9", "user-9", "trace-9", "order_not_sent_or_failed_before_response");
+        assertFalse(cache.isKnown("origin-9", "user-9"));
+        assertNull(cache.activeOperation("origin-9", "user-9"));
+    }
+
+    @Test
+    void refreshFromDatabaseRebuildsIndexesAndDropsClosedCopies() {
+        cache.markOpen(operation("origin-1", "user-1", "0xWallet", "BTCUSDT", "LONG", 10L));
+        dbActive.set(List.of(entity("origin-2", "user-3", "0xWallet", "ETHUSDT", "SHORT", 12L)));
+
+        cache.scheduledRefresh();
+
+        assertFalse(cache.isActive("origin-1", "user-1"));
+        assertTrue(cache.activeOperationsByUser("user-1").isEmpty());
+        assertEquals(Set.of("user-3"), cache.activeUserIdsByWallet("0xWallet"));
+        assertEquals(Set.of("user-3"), cache.activeUserIds("origin-2"));
+        assertEquals(1, cache.activeSize());
+
+        cache.markClosed("origin-2", "user-3");
+
+        assertTrue(cache.activeUserIdsByWallet("0xWallet").isEmpty());
+        assertEquals(0, cache.activeSize());
+    }
+
+    @Test
+    void lookupLatencyStaysFlatAsActiveCopiesGrow() {
+        assumeTrue(Boolean.getBoolean("copy.active-cache.benchmark.enabled"),
+                "set -Dcopy.active-cache.benchmark.enabled=true to run the local lookup benchmark");
+
+        for (int size : new int[]{1_000, 10_000, 100_000, 500_000}) {
+            List<CopyOperationEntity> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rows.add(entity("origin-" + (i % 5_000), "user-" + i, "0xwallet-" + (i % 200), "SYM" + (i % 50) + "USDT", "LONG", (long) i));
+            }
+            dbActive.set(rows);
+            cache.scheduledRefresh();
+
+            int lookups = 200_000;
+            for (int i = 0; i < lookups; i++) lookup(i, size);
+            long started = System.nanoTime();
+            int hits = 0;
+            for (int i = 0; i < lookups; i++) hits += lookup(i, size);
+            double nanosPerLookup = (System.nanoTime() - started) / (double) lookups;
+
+            assertEquals(size, cache.activeSize());
+            assertTrue(hits > 0);
+            System.out.printf(Locale.ROOT,
+                    "PERF_ACTIVE_COPY_CACHE activeCopies=%d lookups=%d nsPerLookup=%.1f%n",
+                    size, lookups, nanosPerLookup);
+        }
+    }
+
+    private int lookup(int i, int size) {
+        int user = (i * 7919) % size;
+        int hit = cache.isActive("origin-" + (user % 5_000), "user-" + user) ? 1 : 0;
+        return hit + cache.activeOperationsByUserAndWallet("user-" + user, "0xwallet-" + (user % 200)).size();
+    }
+
+    private static CopyOperationDto operation(String origin, String user, String wallet, String symbol, String side, Long allocationId) {
+        return CopyOperationDto.builder()
+                .idOrderOrigin(origin)
+                .idUser(user)
+                .idWalletOrigin(wallet)
+                .parsymbol(symbol)
+                .typeOperation(side)
+                .userCopyAllocationId(allocationId)
+                .active(true)
+                .build();
+    }
+
+    private static CopyOperationEntity entity(String origin, String user, String wallet, String symbol, String side, Long allocationId) {
+        return CopyOperationEntity.builder()
+                .idOrderOrigin(origin)
+                .idUser(user)
+                .idWalletOrigin(wallet)
+                .parsymbol(symbol)
+                .typeOperation(side)
+                .userCopyAllocationId(allocationId)
+                .active(true)
+                .build();
+    }
+
+    private static CopyOperationRepository repository(AtomicReference<List<CopyOperationEntity>> active) {
+        return (CopyOperationRepository) Proxy.newProxyInstance(
+                CopyOperationRepository.class.getClassLoader(),
+                new Class<?>[]{CopyOperationRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAllByActiveTrue".equals(method.getName())) {
+                        return active.get();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+}
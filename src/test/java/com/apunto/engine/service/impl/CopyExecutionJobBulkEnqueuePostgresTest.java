@@ -0,0 +1,272 @@
+package com.apunto.engine.service.impl;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CopyExecutionJobBulkEnqueuePostgresTest {
+
+    private static PostgreSQLContainer<?> postgres;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        if (System.getProperty("copy.postgres.test.jdbc-url") == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+                    .withDatabaseName("copy_trading_test")
+                    .withUsername("copy_test")
+                    .withPassword("copy_test");
+            try {
+                postgres.start();
+            } catch (RuntimeException unavailable) {
+                Assumptions.assumeTrue(false,
+                        "Docker unavailable and no copy.postgres.test.jdbc-url was provided");
+            }
+        }
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    create table if not exists copy_execution_job_payload (
+                        payload_hash varchar(64) primary key,
+                        payload text not null,
+                        created_at timestamptz not null default now()
+                    )
+                    """);
+            statement.execute("""
+                    create table if not exists copy_execution_job (
+                        id uuid primary key,
+                        origin_id varchar(80) not null,
+                        user_id varchar(80) not null,
+                        action varchar(16) not null,
+                        status varchar(16) not null,
+                        attempt integer not null,
+                        next_run_at timestamptz not null,
+                        locked_at timestamptz,
+                        locked_by varchar(128),
+                        payload text,
+                        payload_hash varchar(64) references copy_execution_job_payload (payload_hash),
+                        last_error_category varchar(32) not null,
+                        last_error_message text,
+                        last_error_at timestamptz,
+                        created_at timestamptz not null,
+                        updated_at timestamptz not null,
+                        constraint uq_copy_execution_job_origin_user_action unique (origin_id, user_id, action)
+                    )
+                    """);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (postgres != null && postgres.isRunning()) postgres.stop();
+    }
+
+    @BeforeEach
+    void clean() throws SQLException {
+        try (Connection connection = connection(); Statement statement = connection.createStatement()) {
+            statement.execute("truncate copy_execution_job, copy_execution_job_payload");
+        }
+    }
+
+    @Test
+    void bulkUpsertKeepsIdempotentRefreshSemantics() throws SQLException {
+        try (Connection connection = connection()) {
+            assertEquals(3, upsert(connection, "origin-1", "payload-v1", "user-1", "user-2", "user-3"));
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("""
+                        update copy_execution_job set status = 'DONE', attempt = 4, last_error_message = 'old',
+                               payload = 'legacy-inline', payload_hash = null
+                        where user_id = 'user-1'
+                        """);
+                statement.executeUpdate("""
+                        update copy_execution_job set status = 'PROCESSING', attempt = 2, locked_by = 'worker-a',
+                               locked_at = now()
+                        where user_id = 'user-2'
+                        """);
+            }
+
+            assertEquals(3, upsert(connection, "origin-1", "payload-v2", "user-1", "user-2", "user-3"));
+
+            String v2 = CopyExecutionJobServiceImpl.payloadHash("payload-v2");
+            assertEquals("PENDING|0|null|null|" + v2, row(connection, "user-1"));
+            assertEquals("PROCESSING|2|worker-a|null|" + v2, row(connection, "user-2"));
+            assertEquals("PENDING|0|null|null|" + v2, row(connection, "user-3"));
+            assertEquals(3L, count(connection, "copy_execution_job"));
+            assertEquals(2L, count(connection, "copy_execution_job_payload"), "one shared row per distinct payload");
+        }
+    }
+
+    @Test
+    void sharedPayloadsResolveOncePerDistinctHash() throws SQLException {
+        try (Connection connection = connection()) {
+            upsert(connection, "origin-1", "payload-a", "user-1", "user-2");
+            upsert(connection, "origin-2", "payload-b", "user-1");
+            String[] hashes = {
+                    CopyExecutionJobServiceImpl.payloadHash("payload-a"),
+                    CopyExecutionJobServiceImpl.payloadHash("payload-b")
+            };
+            try (PreparedStatement ps = connection.prepareStatement(CopyExecutionJobServiceImpl.SELECT_SHARED_PAYLOADS_SQL)) {
+                ps.setArray(1, connection.createArrayOf("varchar", hashes));
+                try (ResultSet rs = ps.executeQuery()) {
+                    int rows = 0;
+                    while (rs.next()) {
+                        rows++;
+                        assertEquals(CopyExecutionJobServiceImpl.payloadHash(rs.getString("payload")), rs.getString("payload_hash"));
+                    }
+                    assertEquals(2, rows);
+                }
+            }
+        }
+    }
+
+    @Test
+    void purgeDropsOnlyOldPayloadsThatNoJobReferences() throws SQLException {
+        try (Connection connection = connection()) {
+            upsert(connection, "origin-1", "payload-v1", "user-1");
+            upsert(connection, "origin-1", "payload-v2", "user-1");
+            upsert(connection, "origin-2", "payload-fresh-orphan", "user-2");
+            upsert(connection, "origin-2", "payload-kept", "user-2");
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("""
+                        update copy_execution_job_payload set created_at = now() - interval '2 days'
+                        where payload <> 'payload-fresh-orphan'
+                        """);
+            }
+
+            assertEquals(1, purge(connection, OffsetDateTime.now().minusDays(1)));
+
+            assertEquals(3L, count(connection, "copy_execution_job_payload"));
+            assertEquals(0L, payloadRows(connection, "payload-v1"), "the replaced payload is gone");
+            assertEquals(1L, payloadRows(connection, "payload-fresh-orphan"), "orphans inside the retention stay");
+            assertEquals(0, purge(connection, OffsetDateTime.now().minusDays(1)));
+        }
+    }
+
+    @Test
+    void reusingAnOldPayloadKeepsItOutOfThePurge() throws SQLException {
+        try (Connection connection = connection()) {
+            upsert(connection, "origin-1", "payload-shared", "user-1");
+            upsert(connection, "origin-1", "payload-next", "user-1");
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("update copy_execution_job_payload set created_at = now() - interval '2 days'");
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(CopyExecutionJobServiceImpl.INSERT_SHARED_PAYLOAD_SQL)) {
+                ps.setString(1, CopyExecutionJobServiceImpl.payloadHash("payload-shared"));
+                ps.setString(2, "payload-shared");
+                ps.executeUpdate();
+            }
+
+            assertEquals(0, purge(connection, OffsetDateTime.now().minusDays(1)),
+                    "payload-next is referenced and the enqueue that reused payload-shared renewed it");
+        }
+    }
+
+    @Test
+    void bulkFanOutIsFasterThanPerUserLoop() throws SQLException {
+        assumeTrue(Boolean.getBoolean("copy.job.enqueue.benchmark.enabled"),
+                "set -Dcopy.job.enqueue.benchmark.enabled=true to run the enqueue fan-out benchmark");
+
+        try (Connection connection = connection()) {
+            connection.setAutoCommit(false);
+            for (int users : new int[]{10, 100, 1_000, 5_000}) {
+                String[] userIds = new String[users];
+                for (int i = 0; i < users; i++) userIds[i] = "user-" + i;
+
+                long loopStarted = System.nanoTime();
+                int loopCount = 0;
+                for (String userId : userIds) loopCount += upsert(connection, "loop-" + users, "payload", userId);
+                connection.commit();
+                double loopMs = (System.nanoTime() - loopStarted) / 1_000_000.0;
+
+                long bulkStarted = System.nanoTime();
+                int bulkCount = upsert(connection, "bulk-" + users, "payload", userIds);
+                connection.commit();
+                double bulkMs = (System.nanoTime() - bulkStarted) / 1_000_000.0;
+
+                assertEquals(users, loopCount);
+                assertEquals(users, bulkCount);
+                System.out.printf(Locale.ROOT,
+                        "PERF_COPY_JOB_ENQUEUE users=%d loopMs=%.2f bulkMs=%.2f speedup=%.1fx%n",
+                        users, loopMs, bulkMs, loopMs / Math.max(bulkMs, 0.001));
+            }
+        }
+    }
+
+    private static int upsert(Connection connection, String originId, String payload, String... userIds) throws SQLException {
+        String payloadHash = CopyExecutionJobServiceImpl.payloadHash(payload);
+        try (PreparedStatement ps = connection.prepareStatement(CopyExecutionJobServiceImpl.INSERT_SHARED_PAYLOAD_SQL)) {
+            ps.setString(1, payloadHash);
+            ps.setString(2, payload);
+            ps.executeUpdate();
+        }
+        UUID[] ids = new UUID[userIds.length];
+        for (int i = 0; i < ids.length; i++) ids[i] = UUID.randomUUID();
+        try (PreparedStatement ps = connection.prepareStatement(CopyExecutionJobServiceImpl.BULK_UPSERT_PENDING_SQL)) {
+            CopyExecutionJobServiceImpl.bindBulkUpsert(ps, originId, "OPEN", OffsetDateTime.now(), payloadHash, "NONE", ids, userIds);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static int purge(Connection connection, OffsetDateTime createdBefore) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(CopyExecutionJobServiceImpl.PURGE_ORPHAN_PAYLOADS_SQL)) {
+            ps.setObject(1, createdBefore);
+            ps.setInt(2, 100);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static long payloadRows(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "select count(*) from copy_execution_job_payload where payload = ?")) {
+            ps.setString(1, payload);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static String row(Connection connection, String userId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "select status, attempt, locked_by, payload, payload_hash from copy_execution_job where user_id = ?")) {
+            ps.setString(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1) + "|" + rs.getInt(2) + "|" + rs.getString(3) + "|" + rs.getString(4) + "|" + rs.getString(5);
+            }
+        }
+    }
+
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Connection connection() throws SQLException {
+        String url = System.getProperty("copy.postgres.test.jdbc-url");
+        if (url != null) {
+            return DriverManager.getConnection(url,
+                    System.getProperty("copy.postgres.test.username", "copy_test"),
+                    System.getProperty("copy.postgres.test.password", "copy_test"));
+        }
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
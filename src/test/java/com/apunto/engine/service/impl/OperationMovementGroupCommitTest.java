@@ -0,0 +1,225 @@
+package com.apunto.engine.service.impl;
+
+import com.apunto.engine.dto.OperationMovementEventRecordCommand;
+import com.apunto.engine.entity.OperationMovementEventEntity;
+import com.apunto.engine.outbox.service.MetricMovementOutboxService;
+import com.apunto.engine.repository.OperationMovementEventRepository;
+import com.apunto.engine.service.movement.OperationMovementBatchStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OperationMovementGroupCommitTest {
+
+    private static final String POSITION = "hyperliquid-position:0xabc:BTCUSDT:LONG";
+    private static final String OTHER_POSITION = "hyperliquid-position:0xabc:ETHUSDT:LONG";
+    private static final OffsetDateTime T0 = OffsetDateTime.of(2026, 10, 18, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FakeBatchStore store = new FakeBatchStore();
+    private final List<OperationMovementEventEntity> saved = new CopyOnWriteArrayList<>();
+    private final List<OperationMovementEventEntity> outbox = new CopyOnWriteArrayList<>();
+
+    @Test
+    void batchChainsSizesInMemoryAndWritesOnceWhileUnorderedPositionsGoPerMovement() throws Exception {
+        store.recorded = Set.of("movement-recorded");
+        OperationMovementEventServiceImpl service = service();
+
+        submit(service, command("movement-1", POSITION, T0.plusSeconds(1), 1L, "3"));
+        submit(service, command("movement-2", POSITION, T0.plusSeconds(2), 2L, "1"));
+        submit(service, command("movement-1", POSITION, T0.plusSeconds(1), 1L, "3"));
+        submit(service, command("movement-recorded", POSITION, T0.plusSeconds(3), 3L, "1"));
+        submit(service, command("movement-3", OTHER_POSITION, T0.plusSeconds(1), null, "5"));
+        service.start();
+        try {
+            await(() -> saved.size() == 1 && store.inserted.size() == 2);
+        } finally {
+            service.stop();
+        }
+
+        assertEquals(List.of(Set.of(POSITION, OTHER_POSITION)), store.locks);
+        OperationMovementEventEntity first = store.inserted.get(0);
+        OperationMovementEventEntity second = store.inserted.get(1);
+        assertEquals("movement-1", first.getMovementKey());
+        assertEquals(0, new BigDecimal("2").compareTo(first.getPreviousSizeQty()), "first movement chains on the stored latest");
+        assertEquals(0, new BigDecimal("3").compareTo(first.getResultingSizeQty()));
+        assertEquals("movement-2", second.getMovementKey());
+        assertEquals(0, new BigDecimal("3").compareTo(second.getPreviousSizeQty()), "second movement chains on the first");
+        assertEquals("REDUCE", second.getEventType());
+        assertEquals(store.inserted, outbox);
+        assertEquals("movement-3", saved.getFirst().getMovementKey(), "a movement without source sequence goes per movement");
+        assertEquals(1.0, registry.get("signals.operation_movement_event.batch.fallback.total")
+                .tag("reason", "economic_order_missing").counter().count());
+        assertEquals(5.0, registry.get("signals.operation_movement_event.batch.size").summary().totalAmount());
+        assertEquals(1L, registry.get("signals.operation_movement_event.batch.commit.duration")
+                .tag("result", "committed").timer().count());
+    }
+
+    @Test
+    void failedBatchRollsBackAndReplaysEachMovement() throws Exception {
+        store.failInsert = true;
+        OperationMovementEventServiceImpl service = service();
+
+        submit(service, command("movement-1", POSITION, T0.plusSeconds(1), 1L, "3"));
+        submit(service, command("movement-2", POSITION, T0.plusSeconds(2), 2L, "1"));
+        service.start();
+        try {
+            await(() -> saved.size() == 2);
+        } finally {
+            service.stop();
+        }
+
+        assertEquals(List.of("movement-1", "movement-2"),
+                saved.stream().map(OperationMovementEventEntity::getMovementKey).toList());
+        assertEquals(1L, registry.get("signals.operation_movement_event.batch.commit.duration")
+                .tag("result", "rolled_back").timer().count());
+    }
+
+    private OperationMovementEventServiceImpl service() {
+        OperationMovementEventEntity latest = OperationMovementEventEntity.builder()
+                .movementKey("movement-0")
+                .positionKey(POSITION)
+                .typeOperation("LONG")
+                .resultingSizeQty(new BigDecimal("2"))
+                .entryPrice(new BigDecimal("100"))
+                .eventTime(T0)
+                .sourceSequence(0L)
+                .build();
+        OperationMovementEventRepository repository = (OperationMovementEventRepository) Proxy.newProxyInstance(
+                OperationMovementEventRepository.class.getClassLoader(),
+                new Class<?>[]{OperationMovementEventRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findLatestByEconomicOrder" -> List.of(latest);
+                    case "saveAndFlush" -> {
+                        saved.add((OperationMovementEventEntity) args[0]);
+                        yield args[0];
+                    }
+                    case "existsByMovementKeyInGuard" -> false;
+                    default -> method.getReturnType() == Optional.class ? Optional.empty() : null;
+                }
+        );
+        MetricMovementOutboxService outboxService = new MetricMovementOutboxService() {
+            @Override
+            public void enqueue(OperationMovementEventEntity entity) {
+            }
+
+            @Override
+            public void enqueueAll(List<OperationMovementEventEntity> entities) {
+                outbox.addAll(entities);
+            }
+        };
+        return new OperationMovementEventServiceImpl(
+                repository,
+                new ObjectMapper().findAndRegisterModules(),
+                outboxService,
+                new NoopTransactionManager(),
+                registry,
+                store,
+                true,
+                1,
+                16,
+                16
+        );
+    }
+
+    private static void submit(OperationMovementEventServiceImpl service, OperationMovementEventRecordCommand command) throws Exception {
+        Method submit = OperationMovementEventServiceImpl.class.getDeclaredMethod("submit", OperationMovementEventRecordCommand.class);
+        submit.setAccessible(true);
+        submit.invoke(service, command);
+    }
+
+    private static OperationMovementEventRecordCommand command(String movementKey,
+                                                               String positionKey,
+                                                               OffsetDateTime eventTime,
+                                                               Long sourceSequence,
+                                                               String sizeQty) {
+        return OperationMovementEventRecordCommand.builder()
+                .idOrderOrigin(UUID.nameUUIDFromBytes(movementKey.getBytes()))
+                .movementKey(movementKey)
+                .positionKey(positionKey)
+                .idWalletOrigin("0xabc")
+                .parsymbol(positionKey.contains("BTC") ? "BTCUSDT" : "ETHUSDT")
+                .typeOperation("LONG")
+                .eventType("UNKNOWN")
+                .deltaType("ADJUSTMENT")
+                .sizeQty(new BigDecimal(sizeQty))
+                .markPrice(new BigDecimal("110"))
+                .eventTime(eventTime)
+                .sourceSequence(sourceSequence)
+                .economicEventKind("USER_FILL")
+                .sourceEstimated(false)
+                .source("hyperliquid_direct_ingest")
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean(), "ledger worker did not finish in time");
+    }
+
+    private static final class FakeBatchStore implements OperationMovementBatchStore {
+        private final List<OperationMovementEventEntity> inserted = new CopyOnWriteArrayList<>();
+        private final List<Set<String>> locks = new CopyOnWriteArrayList<>();
+        private Set<String> recorded = Set.of();
+        private boolean failInsert;
+
+        @Override
+        public Set<String> recordedMovementKeys(Collection<String> movementKeys) {
+            return recorded;
+        }
+
+        @Override
+        public void lockPositions(Collection<String> positionKeys) {
+            locks.add(Set.copyOf(positionKeys));
+        }
+
+        @Override
+        public void insertAll(List<OperationMovementEventEntity> entities) {
+            if (failInsert) {
+                throw new QueryTimeoutException("batch insert timed out");
+            }
+            inserted.addAll(new ArrayList<>(entities));
+        }
+    }
+
+    private static final class NoopTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
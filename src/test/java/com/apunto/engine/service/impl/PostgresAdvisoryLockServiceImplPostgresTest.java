@@ -0,0 +1,198 @@
+package com.apunto.engine.service.impl;
+
+import com.apunto.engine.shared.exception.SkipExecutionException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PostgresAdvisoryLockServiceImplPostgresTest {
+
+    private static HikariDataSource dataSource;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void configurePostgres() {
+        String url = System.getProperty("copy.postgres.test.jdbc-url");
+        assumeTrue(url != null && !url.isBlank(), "copy.postgres.test.jdbc-url is required");
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(System.getProperty("copy.postgres.test.username", "postgres"));
+        dataSource.setPassword(System.getProperty("copy.postgres.test.password", ""));
+        dataSource.setMaximumPoolSize(6);
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @AfterAll
+    static void closeDataSource() {
+        if (dataSource != null) dataSource.close();
+    }
+
+    @Test
+    void localWaitersAreHandedTheLockWithoutTakingConnections() throws Exception {
+        CountingDataSource counting = new CountingDataSource(dataSource);
+        PostgresAdvisoryLockServiceImpl service = new PostgresAdvisoryLockServiceImpl(counting, 4, 16);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        CountDownLatch firstInside = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                boolean first = i == 0;
+                runs.add(pool.submit(() -> service.withLock("copy-user-symbol-lock::u1::BTC", Duration.ofSeconds(10), () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    if (first) {
+                        firstInside.countDown();
+                        await(releaseFirst);
+                    }
+                    inside.decrementAndGet();
+                })));
+                if (first) assertTrue(firstInside.await(5, TimeUnit.SECONDS));
+            }
+            Thread.sleep(100);
+            releaseFirst.countDown();
+            for (Future<?> run : runs) run.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, maxInside.get());
+        assertEquals(1, counting.connections.get(), "queued local waiters reuse the session that already owns the lock");
+        assertEquals(0, advisoryLocksHeld());
+    }
+
+    @Test
+    void otherReplicaWaitsInPostgresAndGetsTheLockOnRelease() throws Exception {
+        PostgresAdvisoryLockServiceImpl replicaA = new PostgresAdvisoryLockServiceImpl(dataSource, 4, 16);
+        PostgresAdvisoryLockServiceImpl replicaB = new PostgresAdvisoryLockServiceImpl(dataSource, 4, 16);
+        String key = "copy-user-symbol-lock::u2::ETH";
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> owner = pool.submit(() -> replicaA.withLock(key, Duration.ofSeconds(5), () -> {
+                held.countDown();
+                await(release);
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+
+            SkipExecutionException timeout = assertThrows(SkipExecutionException.class,
+                    () -> replicaB.withLock(key, Duration.ofMillis(150), () -> { }));
+            assertTrue(timeout.getMessage().contains("lock_timeout"), timeout.getMessage());
+
+            AtomicLong releasedAt = new AtomicLong();
+            Thread.ofPlatform().start(() -> {
+                sleep(200);
+                releasedAt.set(System.nanoTime());
+                release.countDown();
+            });
+            long handOverNs = replicaB.withLock(key, Duration.ofSeconds(5), () -> System.nanoTime() - releasedAt.get());
+            owner.get(5, TimeUnit.SECONDS);
+            assertTrue(handOverNs < TimeUnit.MILLISECONDS.toNanos(50),
+                    "the waiting replica is woken by PostgreSQL, not by a retry sleep: " + handOverNs + "ns");
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, advisoryLocksHeld());
+    }
+
+    @Test
+    void localWaiterTimeoutDoesNotLeaveTheSessionLockBehind() throws Exception {
+        PostgresAdvisoryLockServiceImpl service = new PostgresAdvisoryLockServiceImpl(dataSource, 4, 16);
+        PostgresAdvisoryLockServiceImpl otherReplica = new PostgresAdvisoryLockServiceImpl(dataSource, 4, 16);
+        String key = "copy-user-symbol-lock::u3::SOL";
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> owner = pool.submit(() -> service.withLock(key, Duration.ofSeconds(5), () -> {
+                held.countDown();
+                await(release);
+            }));
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+            assertThrows(SkipExecutionException.class, () -> service.withLock(key, Duration.ofMillis(50), () -> { }));
+            release.countDown();
+            owner.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(0, advisoryLocksHeld());
+        AtomicInteger ran = new AtomicInteger();
+        otherReplica.withLock(key, Duration.ZERO, ran::incrementAndGet);
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    void pooledConnectionsDoNotKeepTheLockTimeout() {
+        PostgresAdvisoryLockServiceImpl service = new PostgresAdvisoryLockServiceImpl(dataSource, 1, 16);
+        for (int i = 0; i < 6; i++) {
+            service.withLock("copy-user-symbol-lock::u4::BTC-" + i, Duration.ofSeconds(5), () -> { });
+        }
+        for (int i = 0; i < 6; i++) {
+            assertEquals("0", jdbc.queryForObject("SHOW lock_timeout", String.class));
+        }
+    }
+
+    @Test
+    void namespaceIsTheKeyPrefix() {
+        assertEquals("copy-user-symbol-lock", PostgresAdvisoryLockServiceImpl.namespace("copy-user-symbol-lock::u::BTC"));
+        assertEquals("other", PostgresAdvisoryLockServiceImpl.namespace("legacy-key"));
+    }
+
+    private static int advisoryLocksHeld() {
+        return jdbc.queryForObject("SELECT count(*) FROM pg_locks WHERE locktype = 'advisory'", Integer.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+        private final AtomicInteger connections = new AtomicInteger();
+
+        private CountingDataSource(HikariDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+}
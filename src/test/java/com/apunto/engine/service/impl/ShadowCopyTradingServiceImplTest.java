@@ -16,6 +16,7 @@ import com.apunto.engine.repository.ShadowDecisionSummaryProjection;
 import com.apunto.engine.repository.ShadowPositionStateRepository;
 import com.apunto.engine.repository.ShadowWalletProfileValidationRepository;
 import com.apunto.engine.events.OperacionEvent;
+import com.apunto.engine.service.ShadowCopyTradingService;
 import com.apunto.engine.service.copy.accounting.CopyPositionAccountingService;
 import com.apunto.engine.service.copy.CopyStrategyRuntimeRouter;
 import org.junit.jupiter.api.Test;
@@ -37,6 +38,7 @@ import java.util.UUID;
 
 import com.apunto.engine.shared.enums.PositionSide;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -187,6 +189,92 @@ class ShadowCopyTradingServiceImplTest {
         assertFalse(acquiredProfileLocks.stream().anyMatch(key -> key.contains("|SHORT_ONLY|")));
     }
 
+    @Test
+    void recordShadowEventsTakesEachProfileLockOncePerBatch() throws Exception {
+        UUID user = UUID.randomUUID();
+        List<ShadowCopyAllocationEntity> activeProfiles = List.of(
+                shadowAllocation(10L, user, "MOVEMENT_ALL", "MOVEMENT_ALL"),
+                shadowAllocation(20L, user, "LONG_ONLY", "LONG")
+        );
+        List<ShadowCopyOperationEventEntity> recordedEvents = new ArrayList<>();
+        List<String> acquiredProfileLocks = new ArrayList<>();
+        ShadowCopyTradingServiceImpl service = serviceForRuntime(
+                activeProfiles,
+                recordedEvents,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                acquiredProfileLocks
+        );
+
+        List<ShadowCopyTradingService.ShadowEventInput> batch = new ArrayList<>();
+        for (String symbol : List.of("BTCUSDT", "ETHUSDT", "SOLUSDT")) {
+            OperacionEvent event = new OperacionEvent(
+                    OperacionEvent.Tipo.ABIERTA,
+                    OperacionDto.builder()
+                            .idOperacion(UUID.randomUUID())
+                            .idCuenta("0xabc")
+                            .parSymbol(symbol)
+                            .tipoOperacion(PositionSide.LONG)
+                            .sizeQty(new BigDecimal("0.1"))
+                            .notionalUsd(new BigDecimal("1000"))
+                            .precioEntrada(new BigDecimal("100"))
+                            .fechaCreacion(Instant.parse("2026-06-22T10:00:00Z"))
+                            .build()
+            );
+            event.setDeltaType("OPEN");
+            batch.add(new ShadowCopyTradingService.ShadowEventInput(event, 0L));
+        }
+
+        assertArrayEquals(new int[]{2, 2, 2}, service.recordShadowEvents(batch));
+        assertEquals(6, recordedEvents.size());
+        assertEquals(2, acquiredProfileLocks.size(), "the batch holds each profile lock until it commits");
+
+        service.recordShadowEvent(batch.getFirst().event());
+        assertEquals(4, acquiredProfileLocks.size(), "a single event outside a batch locks again");
+    }
+
+    @Test
+    void recordShadowEventsLocksEveryProfileOfTheBatchInOneGlobalOrder() throws Exception {
+        UUID user = UUID.randomUUID();
+        List<ShadowCopyAllocationEntity> activeProfiles = List.of(
+                shadowAllocation(10L, user, "MOVEMENT_ALL", "MOVEMENT_ALL"),
+                shadowAllocation(20L, user, "LONG_ONLY", "LONG"),
+                shadowAllocation(30L, user, "SHORT_ONLY", "SHORT")
+        );
+        List<String> acquiredProfileLocks = new ArrayList<>();
+        ShadowCopyTradingServiceImpl service = serviceForRuntime(
+                activeProfiles,
+                new ArrayList<>(),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                acquiredProfileLocks
+        );
+
+        List<ShadowCopyTradingService.ShadowEventInput> batch = new ArrayList<>();
+        for (PositionSide side : List.of(PositionSide.SHORT, PositionSide.LONG)) {
+            OperacionEvent event = new OperacionEvent(
+                    OperacionEvent.Tipo.ABIERTA,
+                    OperacionDto.builder()
+                            .idOperacion(UUID.randomUUID())
+                            .idCuenta("0xabc")
+                            .parSymbol("BTCUSDT")
+                            .tipoOperacion(side)
+                            .sizeQty(new BigDecimal("0.1"))
+                            .notionalUsd(new BigDecimal("1000"))
+                            .precioEntrada(new BigDecimal("100"))
+                            .fechaCreacion(Instant.parse("2026-06-22T10:00:00Z"))
+                            .build()
+            );
+            event.setDeltaType("OPEN");
+            batch.add(new ShadowCopyTradingService.ShadowEventInput(event, 0L));
+        }
+
+        assertArrayEquals(new int[]{2, 2}, service.recordShadowEvents(batch));
+        assertEquals(3, acquiredProfileLocks.size());
+        assertEquals(acquiredProfileLocks.stream().sorted().toList(), acquiredProfileLocks,
+                "the LONG_ONLY lock of the second event is taken before the SHORT_ONLY lock of the first");
+    }
+
     @Test
     void runtimeLockRebuildsCanonicalKeyWhenPersistedStrategyKeyWasSanitized() throws Exception {
         ShadowCopyAllocationEntity allocation = shadowAllocation(
@@ -14,11 +14,13 @@ import com.apunto.engine.service.copy.allocation.LiveAllocationDistributionPubli
 import com.apunto.engine.service.copy.allocation.LiveAllocationDistributionPublisher;
 import com.apunto.engine.service.copy.symbol.CopySymbolResolution;
 import com.apunto.engine.service.copy.symbol.CopySymbolResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +29,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -504,6 +507,135 @@ class UserCopyAllocationServiceImplTest {
                 .noneMatch(e -> "SYMBOL_SPECIALIST".equals(e.getCopyStrategyCode())));
     }
 
+    @Test
+    void runtimeSnapshotPatchesChangedWalletsAndReconcilesOnSchedule() throws Exception {
+        UserCopyAllocationEntity a1 = runtimeAllocation(1L, "0xAAA");
+        UserCopyAllocationEntity a2 = runtimeAllocation(2L, "0xaaa");
+        UserCopyAllocationEntity b1 = runtimeAllocation(3L, "0xbbb");
+        List<String> calls = new ArrayList<>();
+        AtomicReference<List<UserCopyAllocationEntity>> all = new AtomicReference<>(List.of(a1, a2, b1));
+        AtomicReference<List<Long>> changedIds = new AtomicReference<>(List.of());
+        AtomicReference<List<UserCopyAllocationEntity>> changedActive = new AtomicReference<>(List.of());
+        AtomicInteger xmin = new AtomicInteger(100);
+        UserCopyAllocationRepository repository = proxy(UserCopyAllocationRepository.class, (method, args) -> {
+            calls.add(method.getName() + (args == null || args.length == 0 ? "" : List.of(args)));
+            return switch (method.getName()) {
+                case "currentSnapshotXmin" -> Integer.toString(xmin.getAndIncrement());
+                case "findAllActiveRuntimeAllocations" -> all.get();
+                case "findAllocationIdsChangedSince" -> changedIds.get();
+                case "findActiveRuntimeAllocationsChangedSince" -> changedActive.get();
+                default -> unexpected(method);
+            };
+        });
+        UserCopyAllocationServiceImpl service = new UserCopyAllocationServiceImpl(
+                repository, List::of, new CopyStrategyRuntimeRouter(), shadowService(new AtomicInteger(), new AtomicReference<>()),
+                defaultSymbolResolver());
+        setField(service, "runtimeAllocationIncremental", true);
+        setField(service, "runtimeAllocationFullRefresh", java.time.Duration.ofMinutes(5));
+        setField(service, "runtimeAllocationMaxStale", java.time.Duration.ofSeconds(30));
+
+        service.refreshRuntimeAllocationSnapshot();
+        assertEquals(List.of("currentSnapshotXmin", "findAllActiveRuntimeAllocations"), calls);
+        assertEquals(2, service.getActiveAllocationsByWalletCachedOnly("0xaaa").size());
+        List<UserCopyAllocationEntity> untouchedWallet = service.getActiveAllocationsByWalletCachedOnly("0xbbb");
+
+        calls.clear();
+        service.refreshRuntimeAllocationSnapshot();
+        assertEquals(List.of("currentSnapshotXmin", "findAllocationIdsChangedSince[100]"), calls,
+                "nothing changed: no row is fetched and the watermark still advances");
+
+        UserCopyAllocationEntity a2Moved = runtimeAllocation(2L, "0xccc");
+        UserCopyAllocationEntity a1Paused = runtimeAllocation(1L, "0xaaa");
+        a1Paused.setStatus(UserCopyAllocationEntity.Status.PAUSED_BY_RISK);
+        changedIds.set(List.of(1L, 2L));
+        changedActive.set(List.of(a1Paused, a2Moved));
+        calls.clear();
+        service.refreshRuntimeAllocationSnapshot();
+
+        assertEquals(List.of("currentSnapshotXmin", "findAllocationIdsChangedSince[101]",
+                "findActiveRuntimeAllocationsChangedSince[101]"), calls);
+        assertTrue(service.getActiveAllocationsByWalletCachedOnly("0xaaa").isEmpty());
+        assertEquals(List.of(a2Moved), service.getActiveAllocationsByWalletCachedOnly("0xccc"));
+        assertSame(untouchedWallet, service.getActiveAllocationsByWalletCachedOnly("0xbbb"),
+                "wallets outside the delta keep the same list instance");
+
+        setField(service, "runtimeAllocationFullRefresh", java.time.Duration.ofNanos(1));
+        all.set(List.of(b1));
+        calls.clear();
+        service.refreshRuntimeAllocationSnapshot();
+        assertEquals(List.of("currentSnapshotXmin", "findAllActiveRuntimeAllocations"), calls);
+        assertTrue(service.getActiveAllocationsByWalletCachedOnly("0xccc").isEmpty());
+    }
+
+    @Test
+    void syncDistributionIsolatesAFailingUserAndSyncsTheRest() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID failing = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        List<UUID> synced = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        UserCopyAllocationServiceImpl service = new UserCopyAllocationServiceImpl(
+                repository(),
+                () -> List.of(activeUser(first, 1), activeUser(failing, 1), activeUser(last, 1)),
+                new CopyStrategyRuntimeRouter(),
+                recordingShadowService(synced, failing, Duration.ZERO),
+                defaultSymbolResolver()
+        );
+        setField(service, "syncParallelism", 2);
+        setField(service, "meterRegistry", registry);
+
+        service.syncDistribution(List.of(), List.of(metric("0xabc", "SHORT_ONLY")));
+
+        assertEquals(Set.of(first, last), Set.copyOf(synced));
+        assertEquals(2.0, registry.get("copy_allocation_sync_users_total").tag("result", "ok").counter().count());
+        assertEquals(1.0, registry.get("copy_allocation_sync_users_total").tag("result", "failed").counter().count());
+        assertEquals(1L, registry.get("copy_allocation_sync_user_duration").tag("result", "failed").timer().count());
+        assertEquals(1L, registry.get("copy_allocation_sync_makespan").tag("result", "complete").timer().count());
+    }
+
+    @Test
+    void syncDistributionDefersUsersPastTheDeadlineAndRunsThemFirstNextCycle() throws Exception {
+        UUID slow = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        List<UUID> synced = new CopyOnWriteArrayList<>();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        UserCopyAllocationServiceImpl service = new UserCopyAllocationServiceImpl(
+                repository(),
+                () -> List.of(activeUser(slow, 1), activeUser(second, 1), activeUser(third, 1)),
+                new CopyStrategyRuntimeRouter(),
+                recordingShadowService(synced, null, Duration.ofMillis(300)),
+                defaultSymbolResolver()
+        );
+        setField(service, "syncParallelism", 1);
+        setField(service, "syncDeadline", Duration.ofMillis(150));
+        setField(service, "meterRegistry", registry);
+
+        service.syncDistribution(List.of(), List.of(metric("0xabc", "SHORT_ONLY")));
+
+        assertEquals(List.of(slow), synced, "the user in flight finishes, the rest wait for the next cycle");
+        assertEquals(2.0, registry.get("copy_allocation_sync_users_total").tag("result", "deferred").counter().count());
+        assertEquals(1L, registry.get("copy_allocation_sync_makespan").tag("result", "deadline").timer().count());
+
+        synced.clear();
+        setField(service, "syncDeadline", Duration.ofSeconds(30));
+        service.syncDistribution(List.of(), List.of(metric("0xabc", "SHORT_ONLY")));
+
+        assertEquals(List.of(second, third, slow), synced);
+    }
+
+    private static UserCopyAllocationEntity runtimeAllocation(Long id, String walletId) {
+        return UserCopyAllocationEntity.builder()
+                .id(id)
+                .idUser(UUID.randomUUID())
+                .walletId(walletId)
+                .isActive(true)
+                .status(UserCopyAllocationEntity.Status.ACTIVE)
+                .build();
+    }
+
     private static UserCopyAllocationRepository repository() {
         return repository(new AtomicReference<>());
     }
@@ -599,6 +731,26 @@ class UserCopyAllocationServiceImplTest {
         };
     }
 
+    private static ShadowCopyTradingService recordingShadowService(List<UUID> synced, UUID failingUser, Duration pause) {
+        return proxy(ShadowCopyTradingService.class, (method, args) -> switch (method.getName()) {
+            case "syncShadowAllocations" -> {
+                if (args[0].equals(failingUser)) {
+                    throw new IllegalStateException("shadow sync failed");
+                }
+                try {
+                    Thread.sleep(pause.toMillis());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                synced.add((UUID) args[0]);
+                yield null;
+            }
+            case "isSeparateShadowEnabled" -> true;
+            case "isLivePromotable", "isMicroLivePromotable" -> false;
+            default -> unexpected(method);
+        });
+    }
+
     private static UserDetailDto activeUser(UUID userId, int maxWallet) {
         return activeUser(userId, maxWallet, "USDT");
     }
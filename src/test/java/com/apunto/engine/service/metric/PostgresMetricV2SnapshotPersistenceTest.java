@@ -0,0 +1,97 @@
+package com.apunto.engine.service.metric;
+
+import com.apunto.engine.dto.client.MetricStrategySnapshotDto;
+import com.apunto.engine.service.metric.PostgresMetricV2SnapshotPersistence.Plan;
+import com.apunto.engine.service.metric.PostgresMetricV2SnapshotPersistence.RowKey;
+import com.apunto.engine.service.metric.PostgresMetricV2SnapshotPersistence.SnapshotType;
+import com.apunto.engine.service.metric.PostgresMetricV2SnapshotPersistence.StoredRow;
+import com.apunto.engine.service.metric.PostgresMetricV2SnapshotPersistence.WriteRow;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresMetricV2SnapshotPersistenceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Instant FETCHED_AT = Instant.parse("2026-10-18T12:00:00.123456789Z");
+
+    @Test
+    void unchangedRowsIssueNoWrites() {
+        WriteRow row = row(SnapshotType.FULL, "k1", "aaa", FETCHED_AT);
+
+        Plan plan = PostgresMetricV2SnapshotPersistence.plan(List.of(row), Map.of(key(row), stored("aaa", FETCHED_AT)), TTL);
+
+        assertTrue(plan.upserts().isEmpty());
+        assertTrue(plan.touches().isEmpty());
+        assertTrue(plan.deletes().isEmpty());
+        assertEquals(Map.of(SnapshotType.FULL, 1), plan.skipped());
+    }
+
+    @Test
+    void changedPayloadIsUpsertedAndNewFetchTimeIsOnlyTouched() {
+        WriteRow changed = row(SnapshotType.SUMMARY, "k1", "bbb", FETCHED_AT);
+        WriteRow refreshed = row(SnapshotType.SUMMARY, "k2", "ccc", FETCHED_AT.plusSeconds(30));
+        WriteRow added = row(SnapshotType.COPY_GUARD, "k3", "ddd", FETCHED_AT);
+
+        Plan plan = PostgresMetricV2SnapshotPersistence.plan(
+                List.of(changed, refreshed, added),
+                Map.of(
+                        key(changed), stored("aaa", FETCHED_AT),
+                        key(refreshed), stored("ccc", FETCHED_AT)),
+                TTL);
+
+        assertEquals(List.of(changed, added), plan.upserts());
+        assertEquals(List.of(refreshed), plan.touches());
+        assertTrue(plan.skipped().isEmpty());
+    }
+
+    @Test
+    void rowsWithoutFingerprintAreRewrittenAndMissingKeysDeleted() {
+        WriteRow legacy = row(SnapshotType.FULL, "k1", "aaa", FETCHED_AT);
+        RowKey gone = new RowKey(SnapshotType.FULL, "k0");
+        RowKey otherType = new RowKey(SnapshotType.COPY_GUARD, "k1");
+
+        Plan plan = PostgresMetricV2SnapshotPersistence.plan(
+                List.of(legacy),
+                Map.of(
+                        key(legacy), stored(null, FETCHED_AT),
+                        gone, stored("zzz", FETCHED_AT),
+                        otherType, stored("aaa", FETCHED_AT)),
+                TTL);
+
+        assertEquals(List.of(legacy), plan.upserts());
+        assertEquals(List.of(gone, otherType), plan.deletes());
+    }
+
+    @Test
+    void fingerprintIsStableSha256Hex() {
+        String first = PostgresMetricV2SnapshotPersistence.fingerprint("{\"strategyKey\":\"k1\"}");
+
+        assertEquals(64, first.length());
+        assertEquals(first, PostgresMetricV2SnapshotPersistence.fingerprint("{\"strategyKey\":\"k1\"}"));
+        assertNotEquals(first, PostgresMetricV2SnapshotPersistence.fingerprint("{\"strategyKey\":\"k2\"}"));
+    }
+
+    private static WriteRow row(SnapshotType type, String strategyKey, String fingerprint, Instant fetchedAt) {
+        MetricStrategySnapshotDto dto = MetricStrategySnapshotDto.builder().strategyKey(strategyKey).build();
+        return new WriteRow(type, dto, fetchedAt, fingerprint, null);
+    }
+
+    private static RowKey key(WriteRow row) {
+        return new RowKey(row.type(), row.dto().getStrategyKey());
+    }
+
+    /** Como vuelve de timestamptz: truncado a microsegundos. */
+    private static StoredRow stored(String fingerprint, Instant fetchedAt) {
+        Instant fetched = fetchedAt.truncatedTo(ChronoUnit.MICROS);
+        return new StoredRow(fingerprint, fetched, fetched.plus(TTL));
+    }
+}
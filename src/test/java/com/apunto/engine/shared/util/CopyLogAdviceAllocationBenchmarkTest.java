@@ -0,0 +1,76 @@
+package com.apunto.engine.shared.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@EnabledIfSystemProperty(named = "copy.benchmark.enabled", matches = "true")
+class CopyLogAdviceAllocationBenchmarkTest {
+
+    private static final int ORDERS = 200_000;
+    private static final String[] REASON_CODES = {
+            "allocation_empty",
+            "close_without_open_copy",
+            "strategy_scope_not_matched",
+            "micro_live_min_notional_not_reached"
+    };
+    private static final Logger DISABLED = LoggerFactory.getLogger("copy.log.benchmark.disabled");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long sink;
+
+    @Test
+    void allocationPerDispatchedOrder() {
+        for (int i = 0; i < 20_000; i++) {
+            renderEveryTime(i);
+            interned(i);
+            keyValuesAtDisabledLevel(i);
+        }
+
+        double before = bytesPerOrder(this::renderEveryTime);
+        double interned = bytesPerOrder(this::interned);
+        double disabled = bytesPerOrder(this::keyValuesAtDisabledLevel);
+
+        System.out.println("benchmark=copy_log_advice_allocation columns=variant,orders,bytes_per_order");
+        System.out.printf(Locale.ROOT, "copy_log_advice_allocation variant=render_every_time orders=%d bytes_per_order=%.1f%n", ORDERS, before);
+        System.out.printf(Locale.ROOT, "copy_log_advice_allocation variant=interned_fields orders=%d bytes_per_order=%.1f%n", ORDERS, interned);
+        System.out.printf(Locale.ROOT, "copy_log_advice_allocation variant=key_values_level_disabled orders=%d bytes_per_order=%.1f%n", ORDERS, disabled);
+        assertTrue(interned < before / 10, "interned advice should not rebuild the fields string");
+        assertTrue(sink != 0);
+    }
+
+    private double bytesPerOrder(OrderLogger logger) {
+        long thread = Thread.currentThread().threadId();
+        long started = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ORDERS; i++) {
+            logger.log(i);
+        }
+        return (threads.getThreadAllocatedBytes(thread) - started) / (double) ORDERS;
+    }
+
+    private void renderEveryTime(int order) {
+        sink += CopyLogAdvice.render(REASON_CODES[order & 3], CopyLogAdvice.context(order & 1, 0, 0, 1, null, false, 0, "benchmark")).length();
+    }
+
+    private void interned(int order) {
+        sink += CopyLogAdvice.fields(REASON_CODES[order & 3], CopyLogAdvice.context(order & 1, 0, 0, 1, null, false, 0, "benchmark")).length();
+    }
+
+    private void keyValuesAtDisabledLevel(int order) {
+        CopyLogAdvice.withAdvice(DISABLED.atTrace(), REASON_CODES[order & 3], CopyLogAdvice.context(order & 1, 0, 0, 1, null, false, 0, "benchmark"))
+                .log("event=copy.log.benchmark order={}", order);
+        sink++;
+    }
+
+    @FunctionalInterface
+    private interface OrderLogger {
+        void log(int order);
+    }
+}
@@ -0,0 +1,46 @@
+package com.apunto.engine.shared.util;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.NOPLoggingEventBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CopyLogAdviceInterningTest {
+
+    @Test
+    void sameReasonCodeAndContextFlagsReuseTheRenderedFields() {
+        CopyLogAdvice.Context first = CopyLogAdvice.context(0, 0, 0, 1, null, false, 3, "direct_dispatch");
+        CopyLogAdvice.Context second = CopyLogAdvice.context(null, null, null, 7, 5, null, 9, "copy_job_worker");
+
+        String fields = CopyLogAdvice.fields("close_without_open_copy", first);
+
+        assertSame(fields, CopyLogAdvice.fields("close_without_open_copy", second));
+        assertSame(CopyLogAdvice.advice("close_without_open_copy", first), CopyLogAdvice.advice("close_without_open_copy", second));
+        assertEquals(CopyLogAdvice.render("close_without_open_copy", first), fields);
+    }
+
+    @Test
+    void contextFlagsThatChangeTheDiagnosisGetTheirOwnVariant() {
+        CopyLogAdvice.Context idle = CopyLogAdvice.context(0, 0, 0, 1, null, false, 0, "direct_dispatch");
+        CopyLogAdvice.Context submitted = CopyLogAdvice.context(2, 2, 1, 1, null, false, 0, "direct_dispatch");
+        CopyLogAdvice.Context backlog = CopyLogAdvice.context(2, 2, 0, 0, 250, false, 0, "direct_ingest");
+
+        assertEquals("INFO", CopyLogAdvice.advice("close_without_open_copy", idle).severity());
+        assertEquals("REVIEW", CopyLogAdvice.advice("close_without_open_copy", submitted).severity());
+        assertNotEquals(
+                CopyLogAdvice.fields("late_adjustment_without_active_origin", submitted),
+                CopyLogAdvice.fields("late_adjustment_without_active_origin", backlog));
+        assertEquals(CopyLogAdvice.render("late_adjustment_without_active_origin", backlog),
+                CopyLogAdvice.fields("late_adjustment_without_active_origin", backlog));
+    }
+
+    @Test
+    void disabledLevelSkipsTheAdvice() {
+        var event = LoggerFactory.getLogger("copy.log.disabled.test").atTrace();
+
+        assertSame(NOPLoggingEventBuilder.singleton(), CopyLogAdvice.withAdvice(event, "allocation_empty", null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.apunto.engine.shared.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CopyLogThrottleTest {
+
+    @BeforeEach
+    void setUp() {
+        CopyLogThrottle.reset();
+        CopyLogThrottle.configure(10_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CopyLogThrottle.reset();
+        CopyLogThrottle.configure(10_000L);
+    }
+
+    @Test
+    void firstLinePerWindowAndKeyIsWrittenAndTheRestAreCounted() {
+        assertTrue(CopyLogThrottle.allow("allocation_empty", "0xabc", 1_000L));
+        assertFalse(CopyLogThrottle.allow("allocation_empty", "0xabc", 2_000L));
+        assertFalse(CopyLogThrottle.allow("allocation_empty", "0xabc", 10_999L));
+        assertTrue(CopyLogThrottle.allow("allocation_empty", "0xdef", 2_000L), "keys are independent");
+        assertTrue(CopyLogThrottle.allow("close_without_open_copy", "0xabc", 2_000L), "reason codes are independent");
+        assertTrue(CopyLogThrottle.allow("allocation_empty", "0xabc", 11_000L), "a new window writes again");
+
+        assertEquals(List.of(new CopyLogThrottle.Suppressed("allocation_empty", "0xabc", 2L)), CopyLogThrottle.drain());
+        assertTrue(CopyLogThrottle.drain().isEmpty(), "drain resets the counts");
+    }
+
+    @Test
+    void zeroWindowDisablesTheThrottle() {
+        CopyLogThrottle.configure(0L);
+
+        assertTrue(CopyLogThrottle.allow("allocation_empty", "0xabc", 1_000L));
+        assertTrue(CopyLogThrottle.allow("allocation_empty", "0xabc", 1_000L));
+        assertTrue(CopyLogThrottle.drain().isEmpty());
+    }
+}
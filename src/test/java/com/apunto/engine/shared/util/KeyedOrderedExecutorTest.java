@@ -0,0 +1,166 @@
+package com.apunto.engine.shared.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedOrderedExecutorTest {
+
+    @Test
+    void tasksForTheSameKeyRunInSubmissionOrder() throws InterruptedException {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor("test", 8, 10_000);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3 * 1_000);
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                for (String user : List.of("user-a", "user-b", "user-c")) {
+                    int seq = i;
+                    executor.execute(user, () -> {
+                        seen.add(user + ":" + seq);
+                        done.countDown();
+                    });
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        for (String user : List.of("user-a", "user-b", "user-c")) {
+            List<String> perUser = seen.stream().filter(s -> s.startsWith(user + ":")).toList();
+            for (int i = 0; i < perUser.size(); i++) {
+                assertEquals(user + ":" + i, perUser.get(i));
+            }
+        }
+    }
+
+    @Test
+    void fullLaneRejectsAndExposesRemainingCapacity() throws InterruptedException {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor("test", 1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute("k", () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute("k", () -> { });
+            executor.execute("k", () -> { });
+
+            assertEquals(0, executor.remainingCapacity());
+            assertEquals(2, executor.queueDepth(0));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute("k", () -> { }));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void urgentTaskOvertakesQueuedTasksOnTheSameLane() throws InterruptedException {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor("test", 1, 10);
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(4);
+        try {
+            executor.execute("user-a", () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute("user-b", () -> { seen.add("open-b"); done.countDown(); });
+            executor.execute("user-c", () -> { seen.add("open-c"); done.countDown(); });
+            executor.execute("user-d", true, () -> { seen.add("close-d"); done.countDown(); });
+            executor.execute("user-e", true, () -> { seen.add("close-e"); done.countDown(); });
+            release.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        assertEquals(List.of("close-d", "close-e", "open-b", "open-c"), seen);
+    }
+
+    @Test
+    void propagatesMdcAndRegistersLaneGauges() throws InterruptedException {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor("test", 4, 16);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        executor.bindMetrics(registry);
+        List<String> traces = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            MDC.put("traceId", "trc_1");
+            executor.execute("user-1", () -> {
+                traces.add(MDC.get("traceId"));
+                done.countDown();
+            });
+            MDC.clear();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(List.of("trc_1"), traces);
+        assertEquals(4, registry.find("signals.copy.lane.queue.depth").gauges().size());
+        assertEquals(64.0, registry.get("signals.copy.lane.queue.remaining").gauge().value());
+    }
+
+    @Test
+    void virtualLanesKeepBlockingTasksOfDistinctKeysInFlightTogether() throws InterruptedException {
+        KeyedOrderedExecutor executor = new KeyedOrderedExecutor("test", 512, 4, true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        executor.bindMetrics(registry);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Set<Integer> usedLanes = new HashSet<>();
+            for (int i = 0; usedLanes.size() < 200; i++) {
+                String key = "user-" + i;
+                if (usedLanes.add(executor.laneOf(key))) {
+                    executor.execute(key, () -> {
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    });
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executor.activeLanes() < 200 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(200, executor.activeLanes());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        assertTrue(registry.find("signals.copy.lane.queue.depth").gauges().isEmpty());
+        assertEquals(0.0, registry.get("signals.copy.lane.queue.queued").gauge().value());
+    }
+}
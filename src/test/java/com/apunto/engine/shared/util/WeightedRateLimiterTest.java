@@ -0,0 +1,45 @@
+package com.apunto.engine.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class WeightedRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000L);
+
+    @Test
+    void weightIsChargedAndRefilledContinuously() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(10, TimeUnit.SECONDS.toNanos(10), nanos::get);
+
+        assertEquals(0L, limiter.tryAcquire(5));
+        assertEquals(0L, limiter.tryAcquire(5));
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.tryAcquire(1));
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0L, limiter.tryAcquire(5));
+        assertEquals(0L, limiter.available(), 1e-9);
+    }
+
+    @Test
+    void callHeavierThanTheBudgetCostsTheWholeBudget() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(4, TimeUnit.SECONDS.toNanos(4), nanos::get);
+
+        assertEquals(0L, limiter.tryAcquire(20));
+        assertEquals(TimeUnit.SECONDS.toNanos(4), limiter.tryAcquire(20));
+    }
+
+    @Test
+    void acquireGivesUpWithoutChargingWhenTheWaitPassesTheLimit() throws Exception {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(2, TimeUnit.MINUTES.toNanos(1), nanos::get);
+        limiter.tryAcquire(2);
+
+        assertFalse(limiter.acquire(1, TimeUnit.MILLISECONDS.toNanos(10)));
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertEquals(1.0, limiter.available(), 1e-9);
+    }
+}